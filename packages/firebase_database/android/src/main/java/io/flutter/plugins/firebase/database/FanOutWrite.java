@@ -0,0 +1,109 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.database;
+
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import io.flutter.plugin.common.MethodChannel;
+import io.flutter.plugin.common.MethodChannel.Result;
+import io.flutter.plugin.common.StandardMessageCodec;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a list of (path, value) pairs relative to a reference with {@code updateChildren}.
+ *
+ * <p>The pairs arrive as two parallel lists so that Dart doesn't have to build a map of the whole
+ * fan-out. Values flagged in {@code encoded} were encoded with the {@link StandardMessageCodec} on
+ * the Dart side, which lets a value shared by many paths be encoded once.
+ *
+ * <p>When {@code chunkSize} is set and there are more entries than that, the entries are written
+ * in consecutive {@code updateChildren} calls of at most {@code chunkSize} paths each. Every chunk
+ * is atomic on its own, but the fan-out as a whole no longer is. A progress event is sent to Dart
+ * after every chunk, and the first failing chunk stops the write.
+ */
+class FanOutWrite implements DatabaseReference.CompletionListener {
+  private final MethodChannel channel;
+  private final DatabaseReference reference;
+  private final int fanOutKey;
+  private final List<String> paths;
+  private final List<Object> values;
+  private final byte[] encoded;
+  private final int chunkSize;
+  private final Result result;
+
+  private int written = 0;
+  private int pending = 0;
+
+  @SuppressWarnings("unchecked")
+  FanOutWrite(
+      MethodChannel channel,
+      DatabaseReference reference,
+      Map<String, Object> arguments,
+      Result result) {
+    this.channel = channel;
+    this.reference = reference;
+    this.fanOutKey = (Integer) arguments.get("fanOutKey");
+    this.paths = (List<String>) arguments.get("paths");
+    this.values = (List<Object>) arguments.get("values");
+    this.encoded = (byte[]) arguments.get("encoded");
+    Integer chunkSize = (Integer) arguments.get("chunkSize");
+    this.chunkSize =
+        chunkSize == null || chunkSize <= 0 ? paths.size() : Math.min(chunkSize, paths.size());
+    this.result = result;
+  }
+
+  void start() {
+    if (paths.size() != values.size()) {
+      result.error("invalid_arguments", "paths and values must have the same length", null);
+      return;
+    }
+    if (paths.isEmpty()) {
+      result.success(null);
+      return;
+    }
+    writeNextChunk();
+  }
+
+  private void writeNextChunk() {
+    int end = Math.min(written + chunkSize, paths.size());
+    // Sized so that the map never has to rehash while it is being filled.
+    Map<String, Object> update = new HashMap<>((int) ((end - written) / 0.75f) + 1);
+    for (int i = written; i < end; i++) {
+      update.put(paths.get(i), valueAt(i));
+    }
+    pending = end - written;
+    reference.updateChildren(update, this);
+  }
+
+  private Object valueAt(int index) {
+    Object value = values.get(index);
+    if (encoded != null && encoded[index] != 0) {
+      return StandardMessageCodec.INSTANCE.decodeMessage(ByteBuffer.wrap((byte[]) value));
+    }
+    return value;
+  }
+
+  @Override
+  public void onComplete(DatabaseError error, DatabaseReference ref) {
+    if (error != null) {
+      result.error(String.valueOf(error.getCode()), error.getMessage(), error.getDetails());
+      return;
+    }
+    written += pending;
+    if (written == paths.size()) {
+      result.success(null);
+      return;
+    }
+    Map<String, Object> arguments = new HashMap<>();
+    arguments.put("fanOutKey", fanOutKey);
+    arguments.put("written", written);
+    arguments.put("total", paths.size());
+    channel.invokeMethod("FanOutProgress", arguments);
+    writeNextChunk();
+  }
+}
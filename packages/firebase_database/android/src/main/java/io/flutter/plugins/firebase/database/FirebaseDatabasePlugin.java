@@ -5,6 +5,8 @@
 package io.flutter.plugins.firebase.database;
 
 import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.util.SparseArray;
 import com.google.android.gms.tasks.Task;
@@ -21,12 +23,17 @@ import com.google.firebase.database.MutableData;
 import com.google.firebase.database.Query;
 import com.google.firebase.database.Transaction;
 import com.google.firebase.database.ValueEventListener;
+import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
 import io.flutter.plugin.common.MethodChannel.Result;
 import io.flutter.plugin.common.PluginRegistry;
+import io.flutter.plugin.common.StandardMethodCodec;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -36,7 +43,9 @@ import java.util.concurrent.TimeoutException;
 public class FirebaseDatabasePlugin implements MethodCallHandler {
 
   private static final String TAG = "FirebaseDatabasePlugin";
+  private static final String CHANNEL_NAME = "plugins.flutter.io/firebase_database";
 
+  private final BinaryMessenger messenger;
   private final MethodChannel channel;
   private final Activity activity;
   private static final String EVENT_TYPE_CHILD_ADDED = "_EventType.childAdded";
@@ -49,13 +58,45 @@ public class FirebaseDatabasePlugin implements MethodCallHandler {
   private int nextHandle = 0;
   private final SparseArray<EventObserver> observers = new SparseArray<>();
 
+  // Periodically reports the traffic counters of the observers of a database, for each database
+  // that has an interval set.
+  private final Handler statsHandler = new Handler(Looper.getMainLooper());
+  private final Map<FirebaseDatabase, StatsReporter> statsReporters = new HashMap<>();
+
+  private class StatsReporter implements Runnable {
+    private final FirebaseDatabase database;
+    private final String appName;
+    private final String databaseURL;
+    private final long intervalMillis;
+
+    StatsReporter(
+        FirebaseDatabase database, String appName, String databaseURL, long intervalMillis) {
+      this.database = database;
+      this.appName = appName;
+      this.databaseURL = databaseURL;
+      this.intervalMillis = intervalMillis;
+    }
+
+    @Override
+    public void run() {
+      Map<String, Object> arguments = new HashMap<>();
+      arguments.put("app", appName);
+      arguments.put("databaseURL", databaseURL);
+      arguments.put("stats", getObserverStats(database));
+      channel.invokeMethod("ObserverStats", arguments);
+      statsHandler.postDelayed(this, intervalMillis);
+    }
+  }
+
   public static void registerWith(PluginRegistry.Registrar registrar) {
-    final MethodChannel channel =
-        new MethodChannel(registrar.messenger(), "plugins.flutter.io/firebase_database");
-    channel.setMethodCallHandler(new FirebaseDatabasePlugin(channel, registrar.activity()));
+    final MethodChannel channel = new MethodChannel(registrar.messenger(), CHANNEL_NAME);
+    channel.setMethodCallHandler(
+        new FirebaseDatabasePlugin(registrar.messenger(), channel, registrar.activity()));
   }
 
-  private FirebaseDatabasePlugin(MethodChannel channel, Activity activity) {
+  private FirebaseDatabasePlugin(
+      BinaryMessenger messenger, MethodChannel channel, Activity activity) {
+    this.messenger = messenger;
     this.channel = channel;
     this.activity = activity;
   }
@@ -174,23 +215,58 @@ public class FirebaseDatabasePlugin implements MethodCallHandler {
   private class EventObserver implements ChildEventListener, ValueEventListener {
     private String requestedEventType;
     private int handle;
+    private FirebaseDatabase database;
+    private String path;
+
+    // Traffic counters, only touched on the main thread where the SDK delivers events.
+    private long eventsReceived = 0;
+    private long eventsFiltered = 0;
+    private long eventsDelivered = 0;
+    private long encodedBytes = 0;
+    private long serializationNanos = 0;
 
-    EventObserver(String requestedEventType, int handle) {
+    EventObserver(String requestedEventType, int handle, FirebaseDatabase database, String path) {
       this.requestedEventType = requestedEventType;
       this.handle = handle;
+      this.database = database;
+      this.path = path;
     }
 
     private void sendEvent(String eventType, DataSnapshot snapshot, String previousChildName) {
-      if (eventType.equals(requestedEventType)) {
-        Map<String, Object> arguments = new HashMap<>();
-        Map<String, Object> snapshotMap = new HashMap<>();
-        snapshotMap.put("key", snapshot.getKey());
-        snapshotMap.put("value", snapshot.getValue());
-        arguments.put("handle", handle);
-        arguments.put("snapshot", snapshotMap);
-        arguments.put("previousSiblingKey", previousChildName);
-        channel.invokeMethod("Event", arguments);
+      eventsReceived++;
+      if (!eventType.equals(requestedEventType)) {
+        eventsFiltered++;
+        return;
       }
+      long start = System.nanoTime();
+      Map<String, Object> arguments = new HashMap<>();
+      Map<String, Object> snapshotMap = new HashMap<>();
+      snapshotMap.put("key", snapshot.getKey());
+      snapshotMap.put("value", snapshot.getValue());
+      arguments.put("handle", handle);
+      arguments.put("snapshot", snapshotMap);
+      arguments.put("previousSiblingKey", previousChildName);
+      // Encode the call here instead of in channel.invokeMethod so its size can be counted.
+      // The codec leaves the buffer positioned at the end of the encoded message.
+      ByteBuffer message =
+          StandardMethodCodec.INSTANCE.encodeMethodCall(new MethodCall("Event", arguments));
+      serializationNanos += System.nanoTime() - start;
+      encodedBytes += message.position();
+      messenger.send(CHANNEL_NAME, message);
+      eventsDelivered++;
+    }
+
+    Map<String, Object> getStats() {
+      Map<String, Object> stats = new HashMap<>();
+      stats.put("handle", handle);
+      stats.put("path", path);
+      stats.put("eventType", requestedEventType);
+      stats.put("eventsReceived", eventsReceived);
+      stats.put("eventsFiltered", eventsFiltered);
+      stats.put("eventsDelivered", eventsDelivered);
+      stats.put("encodedBytes", encodedBytes);
+      stats.put("serializationMicros", serializationNanos / 1000);
+      return stats;
     }
 
     @Override
@@ -312,6 +388,13 @@ public class FirebaseDatabasePlugin implements MethodCallHandler {
           break;
         }
 
+      case "DatabaseReference#fanOut":
+        {
+          DatabaseReference reference = getReference(database, arguments);
+          new FanOutWrite(channel, reference, arguments, result).start();
+          break;
+        }
+
       case "DatabaseReference#setPriority":
         {
           Object priority = arguments.get("priority");
@@ -482,7 +565,8 @@ public class FirebaseDatabasePlugin implements MethodCallHandler {
         {
           String eventType = (String) arguments.get("eventType");
           int handle = nextHandle++;
-          EventObserver observer = new EventObserver(eventType, handle);
+          EventObserver observer =
+              new EventObserver(eventType, handle, database, (String) arguments.get("path"));
           observers.put(handle, observer);
           if (eventType.equals(EVENT_TYPE_VALUE)) {
             getQuery(database, arguments).addValueEventListener(observer);
@@ -513,6 +597,28 @@ public class FirebaseDatabasePlugin implements MethodCallHandler {
           }
         }
 
+      case "FirebaseDatabase#getObserverStats":
+        {
+          result.success(getObserverStats(database));
+          break;
+        }
+
+      case "FirebaseDatabase#setObserverStatsInterval":
+        {
+          long intervalMillis = ((Number) arguments.get("intervalMillis")).longValue();
+          StatsReporter reporter = statsReporters.remove(database);
+          if (reporter != null) {
+            statsHandler.removeCallbacks(reporter);
+          }
+          if (intervalMillis > 0) {
+            reporter = new StatsReporter(database, appName, databaseURL, intervalMillis);
+            statsReporters.put(database, reporter);
+            statsHandler.postDelayed(reporter, intervalMillis);
+          }
+          result.success(null);
+          break;
+        }
+
       default:
         {
           result.notImplemented();
@@ -521,6 +627,17 @@ public class FirebaseDatabasePlugin implements MethodCallHandler {
     }
   }
 
+  private List<Map<String, Object>> getObserverStats(FirebaseDatabase database) {
+    List<Map<String, Object>> stats = new ArrayList<>();
+    for (int i = 0; i < observers.size(); i++) {
+      EventObserver observer = observers.valueAt(i);
+      if (observer.database == database) {
+        stats.add(observer.getStats());
+      }
+    }
+    return stats;
+  }
+
   private static Map<String, Object> asMap(DatabaseError error) {
     Map<String, Object> map = new HashMap<>();
     map.put("code", error.getCode());
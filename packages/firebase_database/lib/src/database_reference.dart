@@ -95,6 +95,63 @@ class DatabaseReference extends Query {
     );
   }
 
+  /// Writes every entry of [entries] to its path relative to this location.
+  ///
+  /// This behaves like [update] with a map from each entry's path to its
+  /// value, but the map is assembled on the platform side, so large fan-out
+  /// writes don't have to be built and serialized as a single Dart map. Use
+  /// [FanOutEntry.encoded] for values that are written to many paths so they
+  /// are only encoded once.
+  ///
+  /// By default all entries are written in one atomic update. If [chunkSize]
+  /// is set and there are more entries than that, they are written in
+  /// consecutive updates of at most [chunkSize] paths each. Each chunk is
+  /// atomic, but the write as a whole is not, and it stops at the first chunk
+  /// that fails. [onProgress] is called with the number of entries written
+  /// after every chunk.
+  ///
+  /// Currently only supported on Android.
+  Future<void> fanOut(
+    List<FanOutEntry> entries, {
+    int chunkSize,
+    FanOutProgressHandler onProgress,
+  }) async {
+    assert(chunkSize == null || chunkSize > 0,
+        'Fan-out chunk size must be more than 0.');
+
+    final int fanOutKey = FirebaseDatabase._nextFanOutKey++;
+    if (onProgress != null) {
+      FirebaseDatabase._fanOutProgressHandlers[fanOutKey] = onProgress;
+    }
+
+    final List<String> paths = List<String>(entries.length);
+    final List<dynamic> values = List<dynamic>(entries.length);
+    final Uint8List encoded = Uint8List(entries.length);
+    for (int i = 0; i < entries.length; i++) {
+      paths[i] = entries[i].path;
+      values[i] = entries[i]._value;
+      encoded[i] = entries[i]._isEncoded ? 1 : 0;
+    }
+
+    try {
+      await _database._channel.invokeMethod<void>(
+        'DatabaseReference#fanOut',
+        <String, dynamic>{
+          'app': _database.app?.name,
+          'databaseURL': _database.databaseURL,
+          'path': path,
+          'fanOutKey': fanOutKey,
+          'paths': paths,
+          'values': values,
+          'encoded': encoded,
+          'chunkSize': chunkSize,
+        },
+      );
+    } finally {
+      FirebaseDatabase._fanOutProgressHandlers.remove(fanOutKey);
+    }
+  }
+
   /// Sets a priority for the data at this Firebase Database location.
   ///
   /// Priorities can be used to provide a custom ordering for the children at a
@@ -197,6 +254,40 @@ class ServerValue {
 
 typedef Future<MutableData> TransactionHandler(MutableData mutableData);
 
+/// A single (path, value) pair of a [DatabaseReference.fanOut] write.
+class FanOutEntry {
+  /// Writes [value] to [path], relative to the reference the fan-out is
+  /// started from.
+  FanOutEntry(this.path, dynamic value)
+      : _value = value,
+        _isEncoded = false;
+
+  /// Writes a value that was already encoded with [FanOutEntry.encode] to
+  /// [path].
+  ///
+  /// Encoding a value once and reusing it for many entries avoids encoding the
+  /// same value again for every path.
+  FanOutEntry.encoded(this.path, Uint8List encodedValue)
+      : _value = encodedValue,
+        _isEncoded = true;
+
+  /// Encodes [value] for use with [FanOutEntry.encoded].
+  static Uint8List encode(dynamic value) {
+    final ByteData data = const StandardMessageCodec().encodeMessage(value);
+    return data.buffer.asUint8List(data.offsetInBytes, data.lengthInBytes);
+  }
+
+  /// The path to write to, relative to the reference the fan-out is started
+  /// from.
+  final String path;
+
+  final dynamic _value;
+  final bool _isEncoded;
+}
+
+/// Called by [DatabaseReference.fanOut] after each chunk has been written.
+typedef void FanOutProgressHandler(int written, int total);
+
 class TransactionResult {
   const TransactionResult._(this.error, this.committed, this.dataSnapshot);
   final DatabaseError error;
@@ -30,6 +30,16 @@ class FirebaseDatabase {
               await _transactions[call.arguments['transactionKey']](
                   mutableData);
           return <String, dynamic>{'value': updated.value};
+        case 'FanOutProgress':
+          final FanOutProgressHandler handler =
+              _fanOutProgressHandlers[call.arguments['fanOutKey']];
+          if (handler != null) {
+            handler(call.arguments['written'], call.arguments['total']);
+          }
+          return null;
+        case 'ObserverStats':
+          _observerStatsController.add(call.arguments);
+          return null;
         default:
           throw MissingPluginException(
             '${call.method} method not implemented on the Dart side.',
@@ -45,6 +55,15 @@ class FirebaseDatabase {
   static final Map<int, TransactionHandler> _transactions =
       <int, TransactionHandler>{};
 
+  static final Map<int, FanOutProgressHandler> _fanOutProgressHandlers =
+      <int, FanOutProgressHandler>{};
+
+  static int _nextFanOutKey = 0;
+
+  // Reports of all database instances, see [onObserverStats].
+  static final StreamController<dynamic> _observerStatsController =
+      StreamController<dynamic>.broadcast();
+
   static bool _initialized = false;
 
   static FirebaseDatabase _instance = FirebaseDatabase();
@@ -171,4 +190,97 @@ class FirebaseDatabase {
       },
     );
   }
+
+  /// Returns the traffic counters of every active query observer of this
+  /// database.
+  ///
+  /// Each listened-to `Query` event stream has its own observer on the
+  /// platform side. The counters can be used to find the listeners that move
+  /// the most data. Currently only supported on Android.
+  Future<List<QueryObserverStats>> getObserverStats() async {
+    final List<dynamic> stats = await _channel.invokeMethod<List<dynamic>>(
+      'FirebaseDatabase#getObserverStats',
+      <String, dynamic>{
+        'app': app?.name,
+        'databaseURL': databaseURL,
+      },
+    );
+    return _toObserverStats(stats);
+  }
+
+  /// Makes the platform side report the counters of every active query
+  /// observer of this database on [onObserverStats] once per [interval].
+  ///
+  /// Pass [Duration.zero] to stop the reports. Currently only supported on
+  /// Android.
+  Future<void> setObserverStatsInterval(Duration interval) {
+    return _channel.invokeMethod<void>(
+      'FirebaseDatabase#setObserverStatsInterval',
+      <String, dynamic>{
+        'app': app?.name,
+        'databaseURL': databaseURL,
+        'intervalMillis': interval.inMilliseconds,
+      },
+    );
+  }
+
+  /// Periodic observer stats of this database, see
+  /// [setObserverStatsInterval].
+  Stream<List<QueryObserverStats>> get onObserverStats {
+    return _observerStatsController.stream
+        .where((dynamic report) =>
+            report['app'] == app?.name &&
+            report['databaseURL'] == databaseURL)
+        .map<List<QueryObserverStats>>(
+            (dynamic report) => _toObserverStats(report['stats']));
+  }
+
+  static List<QueryObserverStats> _toObserverStats(List<dynamic> stats) {
+    return stats
+        .map<QueryObserverStats>(
+            (dynamic data) => QueryObserverStats._(data))
+        .toList();
+  }
+}
+
+/// Traffic counters of a single query observer, see
+/// [FirebaseDatabase.getObserverStats].
+class QueryObserverStats {
+  QueryObserverStats._(Map<dynamic, dynamic> data)
+      : path = data['path'],
+        eventType = data['eventType'],
+        eventsReceived = data['eventsReceived'],
+        eventsFiltered = data['eventsFiltered'],
+        eventsDelivered = data['eventsDelivered'],
+        encodedBytes = data['encodedBytes'],
+        serializationTime = Duration(microseconds: data['serializationMicros']);
+
+  /// The path of the observed query.
+  final String path;
+
+  /// The type of event the observer delivers, e.g. `_EventType.value`.
+  final String eventType;
+
+  /// The number of events the observer received from the Firebase SDK.
+  final int eventsReceived;
+
+  /// The number of received events that were dropped because they were not
+  /// of [eventType].
+  final int eventsFiltered;
+
+  /// The number of events sent to Dart.
+  final int eventsDelivered;
+
+  /// The total size of the encoded events sent to Dart.
+  final int encodedBytes;
+
+  /// The total time spent converting and encoding events on the platform
+  /// thread.
+  final Duration serializationTime;
+
+  @override
+  String toString() => '$runtimeType($path, $eventType, '
+      'received: $eventsReceived, filtered: $eventsFiltered, '
+      'delivered: $eventsDelivered, bytes: $encodedBytes, '
+      'serialization: $serializationTime)';
 }
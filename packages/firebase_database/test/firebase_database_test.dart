@@ -3,6 +3,7 @@
 // found in the LICENSE file.
 
 import 'dart:async';
+import 'dart:typed_data';
 
 import 'package:firebase_core/firebase_core.dart';
 import 'package:firebase_database/firebase_database.dart';
@@ -34,6 +35,19 @@ void main() {
             return true;
           case 'FirebaseDatabase#setPersistenceCacheSizeBytes':
             return true;
+          case 'FirebaseDatabase#getObserverStats':
+            return <dynamic>[
+              <dynamic, dynamic>{
+                'handle': 0,
+                'path': 'foo',
+                'eventType': '_EventType.value',
+                'eventsReceived': 3,
+                'eventsFiltered': 1,
+                'eventsDelivered': 2,
+                'encodedBytes': 128,
+                'serializationMicros': 250,
+              },
+            ];
           case 'DatabaseReference#runTransaction':
             Map<String, dynamic> updatedValue;
             Future<void> simulateEvent(
@@ -176,6 +190,92 @@ void main() {
       );
     });
 
+    test('getObserverStats', () async {
+      final List<QueryObserverStats> stats = await database.getObserverStats();
+      expect(
+        log,
+        <Matcher>[
+          isMethodCall(
+            'FirebaseDatabase#getObserverStats',
+            arguments: <String, dynamic>{
+              'app': app.name,
+              'databaseURL': databaseURL,
+            },
+          ),
+        ],
+      );
+      expect(stats, hasLength(1));
+      expect(stats[0].path, 'foo');
+      expect(stats[0].eventType, '_EventType.value');
+      expect(stats[0].eventsReceived, 3);
+      expect(stats[0].eventsFiltered, 1);
+      expect(stats[0].eventsDelivered, 2);
+      expect(stats[0].encodedBytes, 128);
+      expect(stats[0].serializationTime, const Duration(microseconds: 250));
+    });
+
+    test('setObserverStatsInterval', () async {
+      await database.setObserverStatsInterval(const Duration(seconds: 10));
+      expect(
+        log,
+        <Matcher>[
+          isMethodCall(
+            'FirebaseDatabase#setObserverStatsInterval',
+            arguments: <String, dynamic>{
+              'app': app.name,
+              'databaseURL': databaseURL,
+              'intervalMillis': 10000,
+            },
+          ),
+        ],
+      );
+    });
+
+    test('onObserverStats', () async {
+      Future<void> simulateReport(String reportDatabaseURL, String path) async {
+        // TODO(hterkelsen): Remove this when defaultBinaryMessages is in stable.
+        // https://github.com/flutter/flutter/issues/33446
+        // ignore: deprecated_member_use
+        await BinaryMessages.handlePlatformMessage(
+          channel.name,
+          channel.codec.encodeMethodCall(
+            MethodCall('ObserverStats', <String, dynamic>{
+              'app': app.name,
+              'databaseURL': reportDatabaseURL,
+              'stats': <dynamic>[
+                <dynamic, dynamic>{
+                  'handle': 0,
+                  'path': path,
+                  'eventType': '_EventType.value',
+                  'eventsReceived': 1,
+                  'eventsFiltered': 0,
+                  'eventsDelivered': 1,
+                  'encodedBytes': 64,
+                  'serializationMicros': 10,
+                },
+              ],
+            }),
+          ),
+          (_) {},
+        );
+      }
+
+      final List<List<QueryObserverStats>> reports =
+          <List<QueryObserverStats>>[];
+      final StreamSubscription<List<QueryObserverStats>> subscription =
+          database.onObserverStats.listen(reports.add);
+
+      await simulateReport('https://other-database-url.firebaseio.com', 'bar');
+      await simulateReport(databaseURL, 'foo');
+      await Future<void>.delayed(const Duration(seconds: 0));
+      await subscription.cancel();
+
+      expect(reports, hasLength(1));
+      expect(reports[0], hasLength(1));
+      expect(reports[0][0].path, 'foo');
+      expect(reports[0][0].encodedBytes, 64);
+    });
+
     group('$DatabaseReference', () {
       test('set', () async {
         final dynamic value = <String, dynamic>{'hello': 'world'};
@@ -227,6 +327,41 @@ void main() {
         );
       });
 
+      test('fanOut', () async {
+        final Uint8List encodedValue = FanOutEntry.encode(true);
+        await database.reference().child('foo').fanOut(
+          <FanOutEntry>[
+            FanOutEntry('bar/1', 'hello'),
+            FanOutEntry.encoded('baz/1', encodedValue),
+          ],
+          chunkSize: 100,
+        );
+        expect(
+          log,
+          <Matcher>[
+            isMethodCall(
+              'DatabaseReference#fanOut',
+              arguments: <String, dynamic>{
+                'app': app.name,
+                'databaseURL': databaseURL,
+                'path': 'foo',
+                'fanOutKey': 0,
+                'paths': <String>['bar/1', 'baz/1'],
+                'values': <dynamic>['hello', encodedValue],
+                'encoded': Uint8List.fromList(<int>[0, 1]),
+                'chunkSize': 100,
+              },
+            ),
+          ],
+        );
+        expect(
+          const StandardMessageCodec()
+              .decodeMessage(ByteData.view(encodedValue.buffer,
+                  encodedValue.offsetInBytes, encodedValue.lengthInBytes)),
+          isTrue,
+        );
+      });
+
       test('setPriority', () async {
         final int priority = 42;
         await database.reference().child('foo').setPriority(priority);
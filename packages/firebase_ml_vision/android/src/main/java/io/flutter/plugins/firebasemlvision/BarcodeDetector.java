@@ -1,7 +1,5 @@
 package io.flutter.plugins.firebasemlvision;
 
-import android.graphics.Point;
-import android.graphics.Rect;
 import androidx.annotation.NonNull;
 import com.google.android.gms.tasks.OnFailureListener;
 import com.google.android.gms.tasks.OnSuccessListener;
@@ -17,19 +15,30 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 class BarcodeDetector implements Detector {
   private final FirebaseVisionBarcodeDetector detector;
+  private final boolean basicResults;
+  // Set on the main thread, while detections start on the executor.
+  private boolean closed = false;
 
   BarcodeDetector(FirebaseVision vision, Map<String, Object> options) {
     detector = vision.getVisionBarcodeDetector(parseOptions(options));
+    basicResults = "basic".equals(options.get("resultDetail"));
   }
 
   @Override
-  public void handleDetection(final FirebaseVisionImage image, final MethodChannel.Result result) {
+  public synchronized void handleDetection(
+      final FirebaseVisionImage image, final Executor executor, final MethodChannel.Result result) {
+    if (closed) {
+      result.error("barcodeDetectorError", "The detector is closed", null);
+      return;
+    }
     detector
         .detectInImage(image)
         .addOnSuccessListener(
+            executor,
             new OnSuccessListener<List<FirebaseVisionBarcode>>() {
               @Override
               public void onSuccess(List<FirebaseVisionBarcode> firebaseVisionBarcodes) {
@@ -38,27 +47,19 @@ class BarcodeDetector implements Detector {
                 for (FirebaseVisionBarcode barcode : firebaseVisionBarcodes) {
                   Map<String, Object> barcodeMap = new HashMap<>();
 
-                  Rect bounds = barcode.getBoundingBox();
-                  if (bounds != null) {
-                    barcodeMap.put("left", (double) bounds.left);
-                    barcodeMap.put("top", (double) bounds.top);
-                    barcodeMap.put("width", (double) bounds.width());
-                    barcodeMap.put("height", (double) bounds.height());
-                  }
-
-                  List<double[]> points = new ArrayList<>();
-                  if (barcode.getCornerPoints() != null) {
-                    for (Point point : barcode.getCornerPoints()) {
-                      points.add(new double[] {(double) point.x, (double) point.y});
-                    }
-                  }
-                  barcodeMap.put("points", points);
+                  PackedGeometry.putBoundingBox(barcodeMap, barcode.getBoundingBox());
+                  barcodeMap.put("points", PackedGeometry.points(barcode.getCornerPoints()));
 
                   barcodeMap.put("rawValue", barcode.getRawValue());
                   barcodeMap.put("displayValue", barcode.getDisplayValue());
                   barcodeMap.put("format", barcode.getFormat());
                   barcodeMap.put("valueType", barcode.getValueType());
 
+                  if (basicResults) {
+                    barcodes.add(barcodeMap);
+                    continue;
+                  }
+
                   Map<String, Object> typeValue = new HashMap<>();
                   switch (barcode.getValueType()) {
                     case FirebaseVisionBarcode.TYPE_EMAIL:
@@ -217,6 +218,7 @@ class BarcodeDetector implements Detector {
               }
             })
         .addOnFailureListener(
+            executor,
             new OnFailureListener() {
               @Override
               public void onFailure(@NonNull Exception exception) {
@@ -233,7 +235,8 @@ class BarcodeDetector implements Detector {
   }
 
   @Override
-  public void close() throws IOException {
+  public synchronized void close() throws IOException {
+    closed = true;
     detector.close();
   }
 }
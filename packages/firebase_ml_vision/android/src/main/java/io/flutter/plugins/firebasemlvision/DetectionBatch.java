@@ -0,0 +1,102 @@
+package io.flutter.plugins.firebasemlvision;
+
+import io.flutter.plugin.common.MethodChannel;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs a detector on a list of images, at most {@code maxConcurrency} at a time.
+ *
+ * <p>The result of each image is sent to Dart with {@code FirebaseVision#onBatchResult} as soon as
+ * it is ready, and the batch call completes once all images have been processed. Images are decoded
+ * and results serialized on the executor, everything else runs on the main thread.
+ */
+class DetectionBatch {
+  private final int batchId;
+  private final List<Map<String, Object>> images;
+  private final int maxConcurrency;
+  private final Detector detector;
+  private final ImageDecoder decoder;
+  private final Executor executor;
+  private final MethodChannel channel;
+  private final MethodChannel.Result result;
+  private int nextIndex = 0;
+  private int completed = 0;
+
+  DetectionBatch(
+      int batchId,
+      List<Map<String, Object>> images,
+      int maxConcurrency,
+      Detector detector,
+      ImageDecoder decoder,
+      Executor executor,
+      MethodChannel channel,
+      MethodChannel.Result result) {
+    this.batchId = batchId;
+    this.images = images;
+    this.maxConcurrency = Math.max(1, maxConcurrency);
+    this.detector = detector;
+    this.decoder = decoder;
+    this.executor = executor;
+    this.channel = channel;
+    this.result = result;
+  }
+
+  void start() {
+    if (images.isEmpty()) {
+      result.success(null);
+      return;
+    }
+    while (nextIndex < images.size() && nextIndex < maxConcurrency) {
+      processNext();
+    }
+  }
+
+  private void processNext() {
+    final int index = nextIndex++;
+    final Map<String, Object> imageData = images.get(index);
+    final MethodChannel.Result imageResult =
+        new MainThreadResult(
+            new MethodChannel.Result() {
+              @Override
+              public void success(Object value) {
+                final Map<String, Object> arguments = arguments(index);
+                arguments.put("result", value);
+                onImageProcessed(arguments);
+              }
+
+              @Override
+              public void error(String errorCode, String errorMessage, Object errorDetails) {
+                final Map<String, Object> arguments = arguments(index);
+                arguments.put("errorCode", errorCode);
+                arguments.put("errorMessage", errorMessage);
+                onImageProcessed(arguments);
+              }
+
+              @Override
+              public void notImplemented() {
+                error("notImplemented", null, null);
+              }
+            });
+    executor.execute(new DetectionTask(imageData, decoder, detector, executor, imageResult));
+  }
+
+  private Map<String, Object> arguments(int index) {
+    final Map<String, Object> arguments = new HashMap<>();
+    arguments.put("batchId", batchId);
+    arguments.put("index", index);
+    return arguments;
+  }
+
+  private void onImageProcessed(Map<String, Object> arguments) {
+    channel.invokeMethod("FirebaseVision#onBatchResult", arguments);
+    completed++;
+    if (nextIndex < images.size()) {
+      processNext();
+    } else if (completed == images.size()) {
+      result.success(null);
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package io.flutter.plugins.firebasemlvision;
+
+import io.flutter.plugin.common.MethodChannel;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Decodes an image and runs a detector on it, replying to {@code result} with an error if either
+ * throws.
+ *
+ * <p>Meant to run on {@code executor}, so {@code result} must accept calls from any thread.
+ */
+class DetectionTask implements Runnable {
+  private final Map<String, Object> imageData;
+  private final ImageDecoder decoder;
+  private final Detector detector;
+  private final Executor executor;
+  private final MethodChannel.Result result;
+
+  DetectionTask(
+      Map<String, Object> imageData,
+      ImageDecoder decoder,
+      Detector detector,
+      Executor executor,
+      MethodChannel.Result result) {
+    this.imageData = imageData;
+    this.decoder = decoder;
+    this.detector = detector;
+    this.executor = executor;
+    this.result = result;
+  }
+
+  @Override
+  public void run() {
+    try {
+      detector.handleDetection(decoder.decode(imageData), executor, result);
+    } catch (IOException exception) {
+      result.error("MLVisionDetectorIOError", exception.getLocalizedMessage(), null);
+    } catch (RuntimeException exception) {
+      result.error("MLVisionDetectorError", exception.getLocalizedMessage(), null);
+    }
+  }
+}
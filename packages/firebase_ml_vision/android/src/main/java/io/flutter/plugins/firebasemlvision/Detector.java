@@ -3,9 +3,17 @@ package io.flutter.plugins.firebasemlvision;
 import com.google.firebase.ml.vision.common.FirebaseVisionImage;
 import io.flutter.plugin.common.MethodChannel;
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 public interface Detector {
-  void handleDetection(final FirebaseVisionImage image, final MethodChannel.Result result);
+  /**
+   * Runs the detector on {@code image}.
+   *
+   * <p>The detected objects are serialized on {@code executor}, so {@code result} must accept calls
+   * from any thread. Once the detector is closed, {@code result} gets an error right away.
+   */
+  void handleDetection(
+      final FirebaseVisionImage image, final Executor executor, final MethodChannel.Result result);
 
   void close() throws IOException;
 }
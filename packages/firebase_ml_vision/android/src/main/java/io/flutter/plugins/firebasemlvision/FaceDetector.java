@@ -5,7 +5,6 @@ import com.google.android.gms.tasks.OnFailureListener;
 import com.google.android.gms.tasks.OnSuccessListener;
 import com.google.firebase.ml.vision.FirebaseVision;
 import com.google.firebase.ml.vision.common.FirebaseVisionImage;
-import com.google.firebase.ml.vision.common.FirebaseVisionPoint;
 import com.google.firebase.ml.vision.face.FirebaseVisionFace;
 import com.google.firebase.ml.vision.face.FirebaseVisionFaceContour;
 import com.google.firebase.ml.vision.face.FirebaseVisionFaceDetector;
@@ -17,19 +16,30 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 class FaceDetector implements Detector {
   private final FirebaseVisionFaceDetector detector;
+  private final boolean basicResults;
+  // Set on the main thread, while detections start on the executor.
+  private boolean closed = false;
 
   FaceDetector(FirebaseVision vision, Map<String, Object> options) {
     detector = vision.getVisionFaceDetector(parseOptions(options));
+    basicResults = "basic".equals(options.get("resultDetail"));
   }
 
   @Override
-  public void handleDetection(final FirebaseVisionImage image, final MethodChannel.Result result) {
+  public synchronized void handleDetection(
+      final FirebaseVisionImage image, final Executor executor, final MethodChannel.Result result) {
+    if (closed) {
+      result.error("faceDetectorError", "The detector is closed", null);
+      return;
+    }
     detector
         .detectInImage(image)
         .addOnSuccessListener(
+            executor,
             new OnSuccessListener<List<FirebaseVisionFace>>() {
               @Override
               public void onSuccess(List<FirebaseVisionFace> firebaseVisionFaces) {
@@ -37,10 +47,7 @@ class FaceDetector implements Detector {
                 for (FirebaseVisionFace face : firebaseVisionFaces) {
                   Map<String, Object> faceData = new HashMap<>();
 
-                  faceData.put("left", (double) face.getBoundingBox().left);
-                  faceData.put("top", (double) face.getBoundingBox().top);
-                  faceData.put("width", (double) face.getBoundingBox().width());
-                  faceData.put("height", (double) face.getBoundingBox().height());
+                  PackedGeometry.putBoundingBox(faceData, face.getBoundingBox());
 
                   faceData.put("headEulerAngleY", face.getHeadEulerAngleY());
                   faceData.put("headEulerAngleZ", face.getHeadEulerAngleZ());
@@ -63,9 +70,11 @@ class FaceDetector implements Detector {
                     faceData.put("trackingId", face.getTrackingId());
                   }
 
-                  faceData.put("landmarks", getLandmarkData(face));
+                  if (!basicResults) {
+                    faceData.put("landmarks", getLandmarkData(face));
 
-                  faceData.put("contours", getContourData(face));
+                    faceData.put("contours", getContourData(face));
+                  }
 
                   faces.add(faceData);
                 }
@@ -74,6 +83,7 @@ class FaceDetector implements Detector {
               }
             })
         .addOnFailureListener(
+            executor,
             new OnFailureListener() {
               @Override
               public void onFailure(@NonNull Exception exception) {
@@ -99,8 +109,8 @@ class FaceDetector implements Detector {
     return landmarks;
   }
 
-  private Map<String, List<double[]>> getContourData(FirebaseVisionFace face) {
-    Map<String, List<double[]>> contours = new HashMap<>();
+  private Map<String, double[]> getContourData(FirebaseVisionFace face) {
+    Map<String, double[]> contours = new HashMap<>();
 
     contours.put("allPoints", contourPosition(face, FirebaseVisionFaceContour.ALL_POINTS));
     contours.put("face", contourPosition(face, FirebaseVisionFaceContour.FACE));
@@ -136,17 +146,10 @@ class FaceDetector implements Detector {
     return null;
   }
 
-  private List<double[]> contourPosition(FirebaseVisionFace face, int contourInt) {
+  private double[] contourPosition(FirebaseVisionFace face, int contourInt) {
     FirebaseVisionFaceContour contour = face.getContour(contourInt);
     if (contour != null) {
-      List<FirebaseVisionPoint> contourPoints = contour.getPoints();
-      List<double[]> result = new ArrayList<double[]>();
-
-      for (int i = 0; i < contourPoints.size(); i++) {
-        result.add(new double[] {contourPoints.get(i).getX(), contourPoints.get(i).getY()});
-      }
-
-      return result;
+      return PackedGeometry.points(contour.getPoints());
     }
 
     return null;
@@ -196,7 +199,8 @@ class FaceDetector implements Detector {
   }
 
   @Override
-  public void close() throws IOException {
+  public synchronized void close() throws IOException {
+    closed = true;
     detector.close();
   }
 }
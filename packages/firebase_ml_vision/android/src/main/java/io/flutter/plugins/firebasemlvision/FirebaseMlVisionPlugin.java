@@ -16,23 +16,41 @@ import io.flutter.plugin.common.MethodChannel.Result;
 import io.flutter.plugin.common.PluginRegistry.Registrar;
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /** FirebaseMlVisionPlugin */
 public class FirebaseMlVisionPlugin implements MethodCallHandler {
+  // Image decoding and result serialization are CPU bound.
+  private static final int PROCESSING_THREADS =
+      Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
   private final SparseArray<Detector> detectors = new SparseArray<>();
+  private final SparseArray<LiveDetection> liveDetections = new SparseArray<>();
+  private final ExecutorService executor = Executors.newFixedThreadPool(PROCESSING_THREADS);
 
   private Registrar registrar;
+  private final MethodChannel channel;
+  private final ImageDecoder imageDecoder =
+      new ImageDecoder() {
+        @Override
+        public FirebaseVisionImage decode(Map<String, Object> imageData) throws IOException {
+          return dataToVisionImage(imageData);
+        }
+      };
 
-  private FirebaseMlVisionPlugin(Registrar registrar) {
+  private FirebaseMlVisionPlugin(Registrar registrar, MethodChannel channel) {
     this.registrar = registrar;
+    this.channel = channel;
   }
 
   /** Plugin registration. */
   public static void registerWith(Registrar registrar) {
     final MethodChannel channel =
         new MethodChannel(registrar.messenger(), "plugins.flutter.io/firebase_ml_vision");
-    channel.setMethodCallHandler(new FirebaseMlVisionPlugin(registrar));
+    channel.setMethodCallHandler(new FirebaseMlVisionPlugin(registrar, channel));
   }
 
   @Override
@@ -44,6 +62,25 @@ public class FirebaseMlVisionPlugin implements MethodCallHandler {
       case "TextRecognizer#processImage":
         handleDetection(call, result);
         break;
+      case "BarcodeDetector#detectInImages":
+      case "FaceDetector#processImages":
+      case "ImageLabeler#processImages":
+      case "TextRecognizer#processImages":
+        handleBatchDetection(call, result);
+        break;
+      case "BarcodeDetector#processLiveFrame":
+      case "FaceDetector#processLiveFrame":
+      case "ImageLabeler#processLiveFrame":
+      case "TextRecognizer#processLiveFrame":
+        handleLiveFrame(call, result);
+        break;
+      case "BarcodeDetector#stopLiveDetection":
+      case "FaceDetector#stopLiveDetection":
+      case "ImageLabeler#stopLiveDetection":
+      case "TextRecognizer#stopLiveDetection":
+        stopLiveDetection(call);
+        result.success(null);
+        break;
       case "BarcodeDetector#close":
       case "FaceDetector#close":
       case "ImageLabeler#close":
@@ -55,17 +92,50 @@ public class FirebaseMlVisionPlugin implements MethodCallHandler {
     }
   }
 
+  /** Decodes the image and runs the detector off the main thread. */
   private void handleDetection(MethodCall call, Result result) {
-    Map<String, Object> options = call.argument("options");
+    final Detector detector = getOrCreateDetector(call);
+    final Map<String, Object> imageData = call.arguments();
+    executor.execute(
+        new DetectionTask(
+            imageData, imageDecoder, detector, executor, new MainThreadResult(result)));
+  }
 
-    FirebaseVisionImage image;
-    Map<String, Object> imageData = call.arguments();
-    try {
-      image = dataToVisionImage(imageData);
-    } catch (IOException exception) {
-      result.error("MLVisionDetectorIOError", exception.getLocalizedMessage(), null);
-      return;
+  private void handleBatchDetection(MethodCall call, Result result) {
+    final Detector detector = getOrCreateDetector(call);
+    final Integer batchId = call.argument("batchId");
+    final Integer maxConcurrency = call.argument("maxConcurrency");
+    final List<Map<String, Object>> images = call.argument("images");
+    new DetectionBatch(
+            batchId, images, maxConcurrency, detector, imageDecoder, executor, channel, result)
+        .start();
+  }
+
+  /** Replies right away, the result of the frame is sent with the live detection results. */
+  private void handleLiveFrame(MethodCall call, Result result) {
+    final Detector detector = getOrCreateDetector(call);
+    final Integer handle = call.argument("handle");
+    LiveDetection liveDetection = liveDetections.get(handle);
+    if (liveDetection == null) {
+      liveDetection = new LiveDetection(handle, detector, imageDecoder, executor, channel);
+      liveDetections.put(handle, liveDetection);
     }
+    final Map<String, Object> frame = call.arguments();
+    liveDetection.addFrame(frame);
+    result.success(null);
+  }
+
+  private void stopLiveDetection(MethodCall call) {
+    final Integer handle = call.argument("handle");
+    final LiveDetection liveDetection = liveDetections.get(handle);
+    if (liveDetection != null) {
+      liveDetection.stop();
+      liveDetections.remove(handle);
+    }
+  }
+
+  private Detector getOrCreateDetector(MethodCall call) {
+    Map<String, Object> options = call.argument("options");
 
     Detector detector = getDetector(call);
     if (detector == null) {
@@ -88,10 +158,11 @@ public class FirebaseMlVisionPlugin implements MethodCallHandler {
       addDetector(handle, detector);
     }
 
-    detector.handleDetection(image, result);
+    return detector;
   }
 
   private void closeDetector(final MethodCall call, final Result result) {
+    stopLiveDetection(call);
     final Detector detector = getDetector(call);
 
     if (detector == null) {
@@ -135,26 +206,44 @@ public class FirebaseMlVisionPlugin implements MethodCallHandler {
 
         return FirebaseVisionImage.fromBitmap(rotatedBitmap);
       case "bytes":
-        @SuppressWarnings("unchecked")
-        Map<String, Object> metadataData = (Map<String, Object>) imageData.get("metadata");
+        {
+          @SuppressWarnings("unchecked")
+          Map<String, Object> metadataData = (Map<String, Object>) imageData.get("metadata");
 
-        FirebaseVisionImageMetadata metadata =
-            new FirebaseVisionImageMetadata.Builder()
-                .setWidth((int) (double) metadataData.get("width"))
-                .setHeight((int) (double) metadataData.get("height"))
-                .setFormat(FirebaseVisionImageMetadata.IMAGE_FORMAT_NV21)
-                .setRotation(getRotation((int) metadataData.get("rotation")))
-                .build();
+          byte[] bytes = (byte[]) imageData.get("bytes");
+          assert bytes != null;
 
-        byte[] bytes = (byte[]) imageData.get("bytes");
-        assert bytes != null;
+          return FirebaseVisionImage.fromByteArray(bytes, nv21Metadata(metadataData));
+        }
+      case "planes":
+        {
+          @SuppressWarnings("unchecked")
+          Map<String, Object> metadataData = (Map<String, Object>) imageData.get("metadata");
+          @SuppressWarnings("unchecked")
+          List<byte[]> planes = (List<byte[]>) imageData.get("planes");
+          @SuppressWarnings("unchecked")
+          List<Map<String, Object>> planeData =
+              (List<Map<String, Object>>) metadataData.get("planeData");
 
-        return FirebaseVisionImage.fromByteArray(bytes, metadata);
+          final FirebaseVisionImageMetadata metadata = nv21Metadata(metadataData);
+          final byte[] bytes =
+              YuvConverter.toNv21(metadata.getWidth(), metadata.getHeight(), planes, planeData);
+          return FirebaseVisionImage.fromByteArray(bytes, metadata);
+        }
       default:
         throw new IllegalArgumentException(String.format("No image type for: %s", imageType));
     }
   }
 
+  private FirebaseVisionImageMetadata nv21Metadata(Map<String, Object> metadataData) {
+    return new FirebaseVisionImageMetadata.Builder()
+        .setWidth((int) (double) metadataData.get("width"))
+        .setHeight((int) (double) metadataData.get("height"))
+        .setFormat(FirebaseVisionImageMetadata.IMAGE_FORMAT_NV21)
+        .setRotation(getRotation((int) metadataData.get("rotation")))
+        .build();
+  }
+
   private int getImageExifOrientation(String imageFilePath) throws IOException {
     ExifInterface exif = new ExifInterface(imageFilePath);
     int orientation =
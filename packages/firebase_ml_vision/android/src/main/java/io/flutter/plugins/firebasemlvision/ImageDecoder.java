@@ -0,0 +1,10 @@
+package io.flutter.plugins.firebasemlvision;
+
+import com.google.firebase.ml.vision.common.FirebaseVisionImage;
+import java.io.IOException;
+import java.util.Map;
+
+/** Decodes the image data sent by Dart, off the main thread. */
+interface ImageDecoder {
+  FirebaseVisionImage decode(Map<String, Object> imageData) throws IOException;
+}
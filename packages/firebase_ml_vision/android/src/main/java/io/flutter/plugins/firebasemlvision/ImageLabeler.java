@@ -15,9 +15,12 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 class ImageLabeler implements Detector {
   private final FirebaseVisionImageLabeler labeler;
+  // Set on the main thread, while detections start on the executor.
+  private boolean closed = false;
 
   ImageLabeler(FirebaseVision vision, Map<String, Object> options) {
     final String modelType = (String) options.get("modelType");
@@ -32,10 +35,16 @@ class ImageLabeler implements Detector {
   }
 
   @Override
-  public void handleDetection(final FirebaseVisionImage image, final MethodChannel.Result result) {
+  public synchronized void handleDetection(
+      final FirebaseVisionImage image, final Executor executor, final MethodChannel.Result result) {
+    if (closed) {
+      result.error("imageLabelerError", "The detector is closed", null);
+      return;
+    }
     labeler
         .processImage(image)
         .addOnSuccessListener(
+            executor,
             new OnSuccessListener<List<FirebaseVisionImageLabel>>() {
               @Override
               public void onSuccess(List<FirebaseVisionImageLabel> firebaseVisionLabels) {
@@ -53,6 +62,7 @@ class ImageLabeler implements Detector {
               }
             })
         .addOnFailureListener(
+            executor,
             new OnFailureListener() {
               @Override
               public void onFailure(@NonNull Exception e) {
@@ -77,7 +87,8 @@ class ImageLabeler implements Detector {
   }
 
   @Override
-  public void close() throws IOException {
+  public synchronized void close() throws IOException {
+    closed = true;
     labeler.close();
   }
 }
@@ -0,0 +1,106 @@
+package io.flutter.plugins.firebasemlvision;
+
+import io.flutter.plugin.common.MethodChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs a detector on the frames of a live camera stream, with at most one detection in flight.
+ *
+ * <p>A frame that arrives while a detection is running waits for it to finish, replacing the frame
+ * that was already waiting, which is dropped. The result of each frame is sent to Dart with {@code
+ * FirebaseVision#onLiveResult}, along with the time from the arrival of the frame to its result and
+ * the number of frames dropped so far.
+ *
+ * <p>All methods must be called on the main thread.
+ */
+class LiveDetection {
+  private final int handle;
+  private final Detector detector;
+  private final ImageDecoder decoder;
+  private final Executor executor;
+  private final MethodChannel channel;
+  private boolean detecting = false;
+  private boolean stopped = false;
+  private Map<String, Object> pendingFrame;
+  private long pendingFrameReceivedNanos;
+  private int droppedFrames = 0;
+
+  LiveDetection(
+      int handle,
+      Detector detector,
+      ImageDecoder decoder,
+      Executor executor,
+      MethodChannel channel) {
+    this.handle = handle;
+    this.detector = detector;
+    this.decoder = decoder;
+    this.executor = executor;
+    this.channel = channel;
+  }
+
+  void addFrame(Map<String, Object> frame) {
+    final long receivedNanos = System.nanoTime();
+    if (!detecting) {
+      detect(frame, receivedNanos);
+      return;
+    }
+    if (pendingFrame != null) {
+      droppedFrames++;
+    }
+    pendingFrame = frame;
+    pendingFrameReceivedNanos = receivedNanos;
+  }
+
+  /** Drops the waiting frame and stops sending results. */
+  void stop() {
+    stopped = true;
+    pendingFrame = null;
+  }
+
+  private void detect(final Map<String, Object> frame, final long receivedNanos) {
+    detecting = true;
+    final MethodChannel.Result frameResult =
+        new MainThreadResult(
+            new MethodChannel.Result() {
+              @Override
+              public void success(Object value) {
+                final Map<String, Object> arguments = new HashMap<>();
+                arguments.put("result", value);
+                onDetected(arguments, receivedNanos);
+              }
+
+              @Override
+              public void error(String errorCode, String errorMessage, Object errorDetails) {
+                final Map<String, Object> arguments = new HashMap<>();
+                arguments.put("errorCode", errorCode);
+                arguments.put("errorMessage", errorMessage);
+                onDetected(arguments, receivedNanos);
+              }
+
+              @Override
+              public void notImplemented() {
+                error("notImplemented", null, null);
+              }
+            });
+    executor.execute(new DetectionTask(frame, decoder, detector, executor, frameResult));
+  }
+
+  private void onDetected(Map<String, Object> arguments, long receivedNanos) {
+    detecting = false;
+    if (stopped) {
+      return;
+    }
+    arguments.put("handle", handle);
+    arguments.put("latencyMicros", (System.nanoTime() - receivedNanos) / 1000);
+    arguments.put("droppedFrames", droppedFrames);
+    channel.invokeMethod("FirebaseVision#onLiveResult", arguments);
+
+    if (pendingFrame != null) {
+      final Map<String, Object> frame = pendingFrame;
+      pendingFrame = null;
+      detect(frame, pendingFrameReceivedNanos);
+    }
+  }
+}
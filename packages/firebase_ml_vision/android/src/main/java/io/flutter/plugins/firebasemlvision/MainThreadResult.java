@@ -0,0 +1,48 @@
+package io.flutter.plugins.firebasemlvision;
+
+import android.os.Handler;
+import android.os.Looper;
+import io.flutter.plugin.common.MethodChannel;
+
+/** Forwards the calls made from any thread to a {@link MethodChannel.Result} on the main thread. */
+class MainThreadResult implements MethodChannel.Result {
+  private final MethodChannel.Result result;
+  private final Handler handler = new Handler(Looper.getMainLooper());
+
+  MainThreadResult(MethodChannel.Result result) {
+    this.result = result;
+  }
+
+  @Override
+  public void success(final Object value) {
+    handler.post(
+        new Runnable() {
+          @Override
+          public void run() {
+            result.success(value);
+          }
+        });
+  }
+
+  @Override
+  public void error(final String errorCode, final String errorMessage, final Object errorDetails) {
+    handler.post(
+        new Runnable() {
+          @Override
+          public void run() {
+            result.error(errorCode, errorMessage, errorDetails);
+          }
+        });
+  }
+
+  @Override
+  public void notImplemented() {
+    handler.post(
+        new Runnable() {
+          @Override
+          public void run() {
+            result.notImplemented();
+          }
+        });
+  }
+}
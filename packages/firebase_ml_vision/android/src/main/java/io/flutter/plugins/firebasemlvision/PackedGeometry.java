@@ -0,0 +1,45 @@
+package io.flutter.plugins.firebasemlvision;
+
+import android.graphics.Point;
+import android.graphics.Rect;
+import com.google.firebase.ml.vision.common.FirebaseVisionPoint;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes geometry as flat {@code double[]}, which are sent to Dart as a single {@code Float64List}
+ * instead of a list or map per value.
+ */
+class PackedGeometry {
+  private PackedGeometry() {}
+
+  /** Adds {@code rect} to {@code data} as {@code box}: {@code [left, top, width, height]}. */
+  static void putBoundingBox(Map<String, Object> data, Rect rect) {
+    if (rect != null) {
+      data.put("box", new double[] {rect.left, rect.top, rect.width(), rect.height()});
+    }
+  }
+
+  /** Returns {@code [x0, y0, x1, y1, ...]}. */
+  static double[] points(Point[] points) {
+    if (points == null) {
+      return new double[0];
+    }
+    final double[] packed = new double[points.length * 2];
+    for (int i = 0; i < points.length; i++) {
+      packed[2 * i] = points[i].x;
+      packed[2 * i + 1] = points[i].y;
+    }
+    return packed;
+  }
+
+  /** Returns {@code [x0, y0, x1, y1, ...]}. */
+  static double[] points(List<FirebaseVisionPoint> points) {
+    final double[] packed = new double[points.size() * 2];
+    for (int i = 0; i < points.size(); i++) {
+      packed[2 * i] = points.get(i).getX();
+      packed[2 * i + 1] = points.get(i).getY();
+    }
+    return packed;
+  }
+}
@@ -16,11 +16,16 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 public class TextRecognizer implements Detector {
   private final FirebaseVisionTextRecognizer recognizer;
+  private final boolean basicResults;
+  // Set on the main thread, while detections start on the executor.
+  private boolean closed = false;
 
   TextRecognizer(FirebaseVision vision, Map<String, Object> options) {
+    basicResults = "basic".equals(options.get("resultDetail"));
     final String modelType = (String) options.get("modelType");
     if (modelType.equals("onDevice")) {
       recognizer = vision.getOnDeviceTextRecognizer();
@@ -33,10 +38,16 @@ public class TextRecognizer implements Detector {
   }
 
   @Override
-  public void handleDetection(final FirebaseVisionImage image, final MethodChannel.Result result) {
+  public synchronized void handleDetection(
+      final FirebaseVisionImage image, final Executor executor, final MethodChannel.Result result) {
+    if (closed) {
+      result.error("textRecognizerError", "The detector is closed", null);
+      return;
+    }
     recognizer
         .processImage(image)
         .addOnSuccessListener(
+            executor,
             new OnSuccessListener<FirebaseVisionText>() {
               @Override
               public void onSuccess(FirebaseVisionText firebaseVisionText) {
@@ -54,6 +65,11 @@ public class TextRecognizer implements Detector {
                       block.getRecognizedLanguages(),
                       block.getText());
 
+                  if (basicResults) {
+                    allBlockData.add(blockData);
+                    continue;
+                  }
+
                   List<Map<String, Object>> allLineData = new ArrayList<>();
                   for (FirebaseVisionText.Line line : block.getLines()) {
                     Map<String, Object> lineData = new HashMap<>();
@@ -90,6 +106,7 @@ public class TextRecognizer implements Detector {
               }
             })
         .addOnFailureListener(
+            executor,
             new OnFailureListener() {
               @Override
               public void onFailure(@NonNull Exception exception) {
@@ -106,22 +123,15 @@ public class TextRecognizer implements Detector {
       List<RecognizedLanguage> languages,
       String text) {
 
-    if (boundingBox != null) {
-      addTo.put("left", (double) boundingBox.left);
-      addTo.put("top", (double) boundingBox.top);
-      addTo.put("width", (double) boundingBox.width());
-      addTo.put("height", (double) boundingBox.height());
-    }
-
+    PackedGeometry.putBoundingBox(addTo, boundingBox);
     addTo.put("confidence", confidence == null ? null : (double) confidence);
+    addTo.put("text", text);
 
-    List<double[]> points = new ArrayList<>();
-    if (cornerPoints != null) {
-      for (Point point : cornerPoints) {
-        points.add(new double[] {(double) point.x, (double) point.y});
-      }
+    if (basicResults) {
+      return;
     }
-    addTo.put("points", points);
+
+    addTo.put("points", PackedGeometry.points(cornerPoints));
 
     List<Map<String, Object>> allLanguageData = new ArrayList<>();
     for (RecognizedLanguage language : languages) {
@@ -130,12 +140,11 @@ public class TextRecognizer implements Detector {
       allLanguageData.add(languageData);
     }
     addTo.put("recognizedLanguages", allLanguageData);
-
-    addTo.put("text", text);
   }
 
   @Override
-  public void close() throws IOException {
+  public synchronized void close() throws IOException {
+    closed = true;
     recognizer.close();
   }
 }
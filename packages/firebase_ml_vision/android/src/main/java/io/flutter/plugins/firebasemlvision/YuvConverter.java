@@ -0,0 +1,65 @@
+package io.flutter.plugins.firebasemlvision;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts the planes of a {@code YUV_420_888} camera image to {@code NV21}.
+ *
+ * <p>The planes are laid out as in {@code android.media.Image}: a luma plane followed by the U and
+ * V planes, each with its own row stride and pixel stride.
+ */
+class YuvConverter {
+  private YuvConverter() {}
+
+  static byte[] toNv21(
+      int width, int height, List<byte[]> planes, List<Map<String, Object>> planeData) {
+    if (planes.size() != 3 || planeData.size() != 3) {
+      throw new IllegalArgumentException(
+          String.format("Expected 3 YUV planes, got: %d", planes.size()));
+    }
+    final int chromaWidth = (width + 1) / 2;
+    final int chromaHeight = (height + 1) / 2;
+    final byte[] nv21 = new byte[width * height + 2 * chromaWidth * chromaHeight];
+
+    final byte[] y = planes.get(0);
+    final int yRowStride = rowStride(planeData.get(0), width);
+    final int yPixelStride = pixelStride(planeData.get(0));
+    int position = 0;
+    for (int row = 0; row < height; row++) {
+      if (yPixelStride == 1) {
+        System.arraycopy(y, row * yRowStride, nv21, position, width);
+        position += width;
+      } else {
+        for (int column = 0; column < width; column++) {
+          nv21[position++] = y[row * yRowStride + column * yPixelStride];
+        }
+      }
+    }
+
+    // NV21 interleaves the chroma samples, V first.
+    final byte[] u = planes.get(1);
+    final byte[] v = planes.get(2);
+    final int uRowStride = rowStride(planeData.get(1), chromaWidth);
+    final int uPixelStride = pixelStride(planeData.get(1));
+    final int vRowStride = rowStride(planeData.get(2), chromaWidth);
+    final int vPixelStride = pixelStride(planeData.get(2));
+    for (int row = 0; row < chromaHeight; row++) {
+      for (int column = 0; column < chromaWidth; column++) {
+        nv21[position++] = v[row * vRowStride + column * vPixelStride];
+        nv21[position++] = u[row * uRowStride + column * uPixelStride];
+      }
+    }
+    return nv21;
+  }
+
+  private static int rowStride(Map<String, Object> planeData, int defaultValue) {
+    final Object bytesPerRow = planeData.get("bytesPerRow");
+    return bytesPerRow == null ? defaultValue : (Integer) bytesPerRow;
+  }
+
+  private static int pixelStride(Map<String, Object> planeData) {
+    final Object bytesPerPixel = planeData.get("bytesPerPixel");
+    return bytesPerPixel == null ? 1 : (Integer) bytesPerPixel;
+  }
+}
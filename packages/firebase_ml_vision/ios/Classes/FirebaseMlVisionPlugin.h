@@ -24,3 +24,13 @@
 
 @interface TextRecognizer : NSObject <Detector>
 @end
+
+// Runs a detector on the frames of a live camera stream, with at most one detection in flight.
+@interface LiveDetection : NSObject
+- (instancetype)initWithHandle:(NSNumber *)handle
+                      detector:(id<Detector>)detector
+                       decoder:(FIRVisionImage * (^)(NSDictionary *frame))decoder
+                       channel:(FlutterMethodChannel *)channel;
+- (void)addFrame:(NSDictionary *)frame;
+- (void)stop;
+@end
@@ -7,8 +7,13 @@ static FlutterError *getFlutterError(NSError *error) {
                              details:error.localizedDescription];
 }
 
+@interface FLTFirebaseMlVisionPlugin ()
+@property(readonly, nonatomic) FlutterMethodChannel *channel;
+@end
+
 @implementation FLTFirebaseMlVisionPlugin
 static NSMutableDictionary<NSNumber *, id<Detector>> *detectors;
+static NSMutableDictionary<NSNumber *, LiveDetection *> *liveDetections;
 
 + (void)handleError:(NSError *)error result:(FlutterResult)result {
   result(getFlutterError(error));
@@ -16,10 +21,12 @@ static NSMutableDictionary<NSNumber *, id<Detector>> *detectors;
 
 + (void)registerWithRegistrar:(NSObject<FlutterPluginRegistrar> *)registrar {
   detectors = [NSMutableDictionary new];
+  liveDetections = [NSMutableDictionary new];
   FlutterMethodChannel *channel =
       [FlutterMethodChannel methodChannelWithName:@"plugins.flutter.io/firebase_ml_vision"
                                   binaryMessenger:[registrar messenger]];
-  FLTFirebaseMlVisionPlugin *instance = [[FLTFirebaseMlVisionPlugin alloc] init];
+  FLTFirebaseMlVisionPlugin *instance =
+      [[FLTFirebaseMlVisionPlugin alloc] initWithChannel:channel];
   [registrar addMethodCallDelegate:instance channel:channel];
 
   SEL sel = NSSelectorFromString(@"registerLibrary:withVersion:");
@@ -28,9 +35,10 @@ static NSMutableDictionary<NSNumber *, id<Detector>> *detectors;
   }
 }
 
-- (instancetype)init {
+- (instancetype)initWithChannel:(FlutterMethodChannel *)channel {
   self = [super init];
   if (self) {
+    _channel = channel;
     if (![FIRApp appNamed:@"__FIRAPP_DEFAULT"]) {
       NSLog(@"Configuring the default Firebase app...");
       [FIRApp configure];
@@ -46,11 +54,29 @@ static NSMutableDictionary<NSNumber *, id<Detector>> *detectors;
       [@"ImageLabeler#processImage" isEqualToString:call.method] ||
       [@"TextRecognizer#processImage" isEqualToString:call.method]) {
     [self handleDetection:call result:result];
+  } else if ([@"BarcodeDetector#detectInImages" isEqualToString:call.method] ||
+             [@"FaceDetector#processImages" isEqualToString:call.method] ||
+             [@"ImageLabeler#processImages" isEqualToString:call.method] ||
+             [@"TextRecognizer#processImages" isEqualToString:call.method]) {
+    [self handleBatchDetection:call result:result];
+  } else if ([@"BarcodeDetector#processLiveFrame" isEqualToString:call.method] ||
+             [@"FaceDetector#processLiveFrame" isEqualToString:call.method] ||
+             [@"ImageLabeler#processLiveFrame" isEqualToString:call.method] ||
+             [@"TextRecognizer#processLiveFrame" isEqualToString:call.method]) {
+    [self handleLiveFrame:call];
+    result(nil);
+  } else if ([@"BarcodeDetector#stopLiveDetection" isEqualToString:call.method] ||
+             [@"FaceDetector#stopLiveDetection" isEqualToString:call.method] ||
+             [@"ImageLabeler#stopLiveDetection" isEqualToString:call.method] ||
+             [@"TextRecognizer#stopLiveDetection" isEqualToString:call.method]) {
+    [self stopLiveDetection:call.arguments[@"handle"]];
+    result(nil);
   } else if ([@"BarcodeDetector#close" isEqualToString:call.method] ||
              [@"FaceDetector#close" isEqualToString:call.method] ||
              [@"ImageLabeler#close" isEqualToString:call.method] ||
              [@"TextRecognizer#close" isEqualToString:call.method]) {
     NSNumber *handle = call.arguments[@"handle"];
+    [self stopLiveDetection:handle];
     [detectors removeObjectForKey:handle];
     result(nil);
   } else {
@@ -60,6 +86,90 @@ static NSMutableDictionary<NSNumber *, id<Detector>> *detectors;
 
 - (void)handleDetection:(FlutterMethodCall *)call result:(FlutterResult)result {
   FIRVisionImage *image = [self dataToVisionImage:call.arguments];
+  [[self detectorForCall:call] handleDetection:image result:result];
+}
+
+// Runs the detector on up to `maxConcurrency` images at a time and sends the result of each image
+// with `FirebaseVision#onBatchResult`. Detection callbacks are called on the main queue.
+- (void)handleBatchDetection:(FlutterMethodCall *)call result:(FlutterResult)result {
+  id<Detector> detector = [self detectorForCall:call];
+  NSNumber *batchId = call.arguments[@"batchId"];
+  NSArray<NSDictionary *> *images = call.arguments[@"images"];
+  NSUInteger maxConcurrency = MAX(1, [call.arguments[@"maxConcurrency"] unsignedIntegerValue]);
+  if (images.count == 0) {
+    result(nil);
+    return;
+  }
+
+  FlutterMethodChannel *channel = _channel;
+  __block NSUInteger nextIndex = 0;
+  __block NSUInteger completed = 0;
+  // Cleared once the batch completes, to break the retain cycle of the block with itself.
+  __block void (^processNext)(void) = ^{
+    NSUInteger index = nextIndex++;
+    __block BOOL replied = NO;
+    FlutterResult imageResult = ^(id value) {
+      if (replied) return;
+      replied = YES;
+
+      NSMutableDictionary *arguments = [@{@"batchId" : batchId, @"index" : @(index)} mutableCopy];
+      if ([value isKindOfClass:[FlutterError class]]) {
+        FlutterError *error = value;
+        arguments[@"errorCode"] = error.code;
+        arguments[@"errorMessage"] = error.message ? error.message : [NSNull null];
+      } else {
+        arguments[@"result"] = value ? value : [NSNull null];
+      }
+      [channel invokeMethod:@"FirebaseVision#onBatchResult" arguments:arguments];
+
+      completed++;
+      if (nextIndex < images.count) {
+        processNext();
+      } else if (completed == images.count) {
+        processNext = nil;
+        result(nil);
+      }
+    };
+
+    FIRVisionImage *image;
+    @try {
+      image = [self dataToVisionImage:images[index]];
+    } @catch (NSException *exception) {
+      imageResult([FlutterError errorWithCode:@"MLVisionDetectorError"
+                                      message:exception.reason
+                                      details:nil]);
+      return;
+    }
+    [detector handleDetection:image result:imageResult];
+  };
+
+  while (processNext && nextIndex < MIN(maxConcurrency, images.count)) {
+    processNext();
+  }
+}
+
+- (void)handleLiveFrame:(FlutterMethodCall *)call {
+  NSNumber *handle = call.arguments[@"handle"];
+  LiveDetection *liveDetection = liveDetections[handle];
+  if (!liveDetection) {
+    __weak FLTFirebaseMlVisionPlugin *weakSelf = self;
+    liveDetection = [[LiveDetection alloc] initWithHandle:handle
+                                                 detector:[self detectorForCall:call]
+                                                  decoder:^FIRVisionImage *(NSDictionary *frame) {
+                                                    return [weakSelf dataToVisionImage:frame];
+                                                  }
+                                                  channel:_channel];
+    liveDetections[handle] = liveDetection;
+  }
+  [liveDetection addFrame:call.arguments];
+}
+
+- (void)stopLiveDetection:(NSNumber *)handle {
+  [liveDetections[handle] stop];
+  [liveDetections removeObjectForKey:handle];
+}
+
+- (id<Detector>)detectorForCall:(FlutterMethodCall *)call {
   NSDictionary *options = call.arguments[@"options"];
 
   NSNumber *handle = call.arguments[@"handle"];
@@ -78,7 +188,7 @@ static NSMutableDictionary<NSNumber *, id<Detector>> *detectors;
     [FLTFirebaseMlVisionPlugin addDetector:handle detector:detector];
   }
 
-  [detectors[handle] handleDetection:image result:result];
+  return detector;
 }
 
 - (FIRVisionImage *)dataToVisionImage:(NSDictionary *)imageData {
@@ -88,6 +198,8 @@ static NSMutableDictionary<NSNumber *, id<Detector>> *detectors;
     return [self filePathToVisionImage:imageData[@"path"]];
   } else if ([@"bytes" isEqualToString:imageType]) {
     return [self bytesToVisionImage:imageData];
+  } else if ([@"planes" isEqualToString:imageType]) {
+    return [self planesToVisionImage:imageData];
   } else {
     NSString *errorReason = [NSString stringWithFormat:@"No image type for: %@", imageType];
     @throw [NSException exceptionWithName:NSInvalidArgumentException
@@ -113,6 +225,17 @@ static NSMutableDictionary<NSNumber *, id<Detector>> *detectors;
   return [[FIRVisionImage alloc] initWithImage:image];
 }
 
+// The planes are concatenated, as expected by `bytesToVisionImage:`.
+- (FIRVisionImage *)planesToVisionImage:(NSDictionary *)imageData {
+  NSMutableData *bytes = [NSMutableData data];
+  for (FlutterStandardTypedData *plane in imageData[@"planes"]) {
+    [bytes appendData:plane.data];
+  }
+  NSMutableDictionary *bytesData = [imageData mutableCopy];
+  bytesData[@"bytes"] = [FlutterStandardTypedData typedDataWithBytes:bytes];
+  return [self bytesToVisionImage:bytesData];
+}
+
 - (FIRVisionImage *)bytesToVisionImage:(NSDictionary *)imageData {
   FlutterStandardTypedData *byteData = imageData[@"bytes"];
   NSData *imageBytes = byteData.data;
@@ -0,0 +1,97 @@
+#import "FirebaseMlVisionPlugin.h"
+
+#import <QuartzCore/QuartzCore.h>
+
+@interface LiveDetection ()
+@property(readonly, nonatomic) NSNumber *handle;
+@property(readonly, nonatomic) id<Detector> detector;
+@property(readonly, nonatomic) FIRVisionImage * (^decoder)(NSDictionary *frame);
+@property(readonly, nonatomic) FlutterMethodChannel *channel;
+@property(nonatomic) BOOL detecting;
+@property(nonatomic) BOOL stopped;
+@property(nonatomic) NSDictionary *pendingFrame;
+@property(nonatomic) CFTimeInterval pendingFrameReceivedTime;
+@property(nonatomic) NSInteger droppedFrames;
+@end
+
+// A frame that arrives while a detection is running waits for it to finish, replacing the frame
+// that was already waiting, which is dropped. Detection callbacks are called on the main queue.
+@implementation LiveDetection
+- (instancetype)initWithHandle:(NSNumber *)handle
+                      detector:(id<Detector>)detector
+                       decoder:(FIRVisionImage * (^)(NSDictionary *frame))decoder
+                       channel:(FlutterMethodChannel *)channel {
+  self = [super init];
+  if (self) {
+    _handle = handle;
+    _detector = detector;
+    _decoder = decoder;
+    _channel = channel;
+  }
+  return self;
+}
+
+- (void)addFrame:(NSDictionary *)frame {
+  CFTimeInterval receivedTime = CACurrentMediaTime();
+  if (!_detecting) {
+    [self detect:frame receivedTime:receivedTime];
+    return;
+  }
+  if (_pendingFrame) {
+    _droppedFrames++;
+  }
+  _pendingFrame = frame;
+  _pendingFrameReceivedTime = receivedTime;
+}
+
+- (void)stop {
+  _stopped = YES;
+  _pendingFrame = nil;
+}
+
+- (void)detect:(NSDictionary *)frame receivedTime:(CFTimeInterval)receivedTime {
+  _detecting = YES;
+  __block BOOL replied = NO;
+  FlutterResult frameResult = ^(id value) {
+    if (replied) return;
+    replied = YES;
+
+    NSMutableDictionary *arguments = [NSMutableDictionary dictionary];
+    if ([value isKindOfClass:[FlutterError class]]) {
+      FlutterError *error = value;
+      arguments[@"errorCode"] = error.code;
+      arguments[@"errorMessage"] = error.message ? error.message : [NSNull null];
+    } else {
+      arguments[@"result"] = value ? value : [NSNull null];
+    }
+    [self onDetected:arguments receivedTime:receivedTime];
+  };
+
+  FIRVisionImage *image;
+  @try {
+    image = _decoder(frame);
+  } @catch (NSException *exception) {
+    frameResult([FlutterError errorWithCode:@"MLVisionDetectorError"
+                                    message:exception.reason
+                                    details:nil]);
+    return;
+  }
+  [_detector handleDetection:image result:frameResult];
+}
+
+- (void)onDetected:(NSMutableDictionary *)arguments receivedTime:(CFTimeInterval)receivedTime {
+  _detecting = NO;
+  if (_stopped) return;
+
+  arguments[@"handle"] = _handle;
+  arguments[@"latencyMicros"] = @((int64_t)((CACurrentMediaTime() - receivedTime) * 1000000));
+  arguments[@"droppedFrames"] = @(_droppedFrames);
+  [_channel invokeMethod:@"FirebaseVision#onLiveResult" arguments:arguments];
+
+  if (_pendingFrame) {
+    NSDictionary *frame = _pendingFrame;
+    _pendingFrame = nil;
+    [self detect:frame receivedTime:_pendingFrameReceivedTime];
+  }
+}
+@end
@@ -16,4 +16,5 @@ part 'src/barcode_detector.dart';
 part 'src/face_detector.dart';
 part 'src/firebase_vision.dart';
 part 'src/image_labeler.dart';
+part 'src/live_detection.dart';
 part 'src/text_recognizer.dart';
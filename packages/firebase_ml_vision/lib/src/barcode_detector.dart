@@ -199,12 +199,7 @@ class BarcodeDetector {
     final List<dynamic> reply =
         await FirebaseVision.channel.invokeListMethod<dynamic>(
       'BarcodeDetector#detectInImage',
-      <String, dynamic>{
-        'handle': _handle,
-        'options': <String, dynamic>{
-          'barcodeFormats': options.barcodeFormats.value,
-        },
-      }..addAll(visionImage._serialize()),
+      _arguments..addAll(visionImage._serialize()),
     );
 
     final List<Barcode> barcodes = <Barcode>[];
@@ -215,6 +210,51 @@ class BarcodeDetector {
     return barcodes;
   }
 
+  /// Detects barcodes in each of [images], processing up to [maxConcurrency]
+  /// images at a time.
+  ///
+  /// The result of each image is added to the returned stream as soon as it
+  /// is ready, and the stream closes once every image has been processed. The
+  /// images are only sent to the platform when the stream is listened to.
+  Stream<VisionBatchResult<List<Barcode>>> detectInImages(
+    List<FirebaseVisionImage> images, {
+    int maxConcurrency = 2,
+  }) {
+    assert(!_isClosed);
+
+    _hasBeenOpened = true;
+    return FirebaseVision._processBatch<List<Barcode>>(
+      'BarcodeDetector#detectInImages',
+      _arguments,
+      images,
+      maxConcurrency,
+      _barcodesFromReply,
+    );
+  }
+
+  /// Starts detecting barcodes in the frames of a live camera stream.
+  ///
+  /// See [LiveDetection].
+  LiveDetection<List<Barcode>> startLiveDetection() {
+    assert(!_isClosed);
+
+    _hasBeenOpened = true;
+    return LiveDetection<List<Barcode>>._(
+        'BarcodeDetector', _arguments, _barcodesFromReply);
+  }
+
+  static List<Barcode> _barcodesFromReply(dynamic reply) => reply
+      .map<Barcode>((dynamic barcode) => Barcode._(barcode))
+      .toList();
+
+  Map<String, dynamic> get _arguments => <String, dynamic>{
+        'handle': _handle,
+        'options': <String, dynamic>{
+          'barcodeFormats': options.barcodeFormats.value,
+          'resultDetail': _enumToString(options.resultDetail),
+        },
+      };
+
   /// Release resources used by this detector.
   Future<void> close() {
     if (!_hasBeenOpened) _isClosed = true;
@@ -239,34 +279,26 @@ class BarcodeDetector {
 ///     BarcodeDetectorOptions(barcodeFormats: BarcodeFormat.aztec | BarcodeFormat.ean8);
 /// ```
 class BarcodeDetectorOptions {
-  const BarcodeDetectorOptions({this.barcodeFormats = BarcodeFormat.all});
+  const BarcodeDetectorOptions({
+    this.barcodeFormats = BarcodeFormat.all,
+    this.resultDetail = ResultDetail.full,
+  });
 
   final BarcodeFormat barcodeFormats;
+
+  /// How much of each barcode is returned.
+  final ResultDetail resultDetail;
 }
 
 // TODO(bparrishMines): Normalize default string values. Some values return null on iOS while Android returns empty string.
 /// Represents a single recognized barcode and its value.
 class Barcode {
   Barcode._(Map<dynamic, dynamic> _data)
-      : boundingBox = _data['left'] != null
-            ? Rect.fromLTWH(
-                _data['left'],
-                _data['top'],
-                _data['width'],
-                _data['height'],
-              )
-            : null,
+      : boundingBox = _boundingBoxFromData(_data),
         rawValue = _data['rawValue'],
         displayValue = _data['displayValue'],
         format = BarcodeFormat._(_data['format']),
-        _cornerPoints = _data['points'] == null
-            ? null
-            : _data['points']
-                .map<Offset>((dynamic item) => Offset(
-                      item[0],
-                      item[1],
-                    ))
-                .toList(),
+        _cornerPoints = _pointsFromData(_data['points']),
         valueType = BarcodeValueType.values[_data['valueType']],
         email = _data['email'] == null ? null : BarcodeEmail._(_data['email']),
         phone = _data['phone'] == null ? null : BarcodePhone._(_data['phone']),
@@ -72,17 +72,7 @@ class FaceDetector {
     final List<dynamic> reply =
         await FirebaseVision.channel.invokeListMethod<dynamic>(
       'FaceDetector#processImage',
-      <String, dynamic>{
-        'handle': _handle,
-        'options': <String, dynamic>{
-          'enableClassification': options.enableClassification,
-          'enableLandmarks': options.enableLandmarks,
-          'enableContours': options.enableContours,
-          'enableTracking': options.enableTracking,
-          'minFaceSize': options.minFaceSize,
-          'mode': _enumToString(options.mode),
-        },
-      }..addAll(visionImage._serialize()),
+      _arguments..addAll(visionImage._serialize()),
     );
 
     final List<Face> faces = <Face>[];
@@ -93,6 +83,55 @@ class FaceDetector {
     return faces;
   }
 
+  /// Detects faces in each of [images], processing up to [maxConcurrency]
+  /// images at a time.
+  ///
+  /// The result of each image is added to the returned stream as soon as it
+  /// is ready, and the stream closes once every image has been processed. The
+  /// images are only sent to the platform when the stream is listened to.
+  Stream<VisionBatchResult<List<Face>>> processImages(
+    List<FirebaseVisionImage> images, {
+    int maxConcurrency = 2,
+  }) {
+    assert(!_isClosed);
+
+    _hasBeenOpened = true;
+    return FirebaseVision._processBatch<List<Face>>(
+      'FaceDetector#processImages',
+      _arguments,
+      images,
+      maxConcurrency,
+      _facesFromReply,
+    );
+  }
+
+  /// Starts detecting faces in the frames of a live camera stream.
+  ///
+  /// See [LiveDetection].
+  LiveDetection<List<Face>> startLiveDetection() {
+    assert(!_isClosed);
+
+    _hasBeenOpened = true;
+    return LiveDetection<List<Face>>._(
+        'FaceDetector', _arguments, _facesFromReply);
+  }
+
+  static List<Face> _facesFromReply(dynamic reply) =>
+      reply.map<Face>((dynamic data) => Face._(data)).toList();
+
+  Map<String, dynamic> get _arguments => <String, dynamic>{
+        'handle': _handle,
+        'options': <String, dynamic>{
+          'enableClassification': options.enableClassification,
+          'enableLandmarks': options.enableLandmarks,
+          'enableContours': options.enableContours,
+          'enableTracking': options.enableTracking,
+          'minFaceSize': options.minFaceSize,
+          'mode': _enumToString(options.mode),
+          'resultDetail': _enumToString(options.resultDetail),
+        },
+      };
+
   /// Release resources used by this detector.
   Future<void> close() {
     if (!_hasBeenOpened) _isClosed = true;
@@ -121,6 +160,7 @@ class FaceDetectorOptions {
     this.enableTracking = false,
     this.minFaceSize = 0.1,
     this.mode = FaceDetectorMode.fast,
+    this.resultDetail = ResultDetail.full,
   })  : assert(minFaceSize >= 0.0),
         assert(minFaceSize <= 1.0);
 
@@ -150,17 +190,18 @@ class FaceDetectorOptions {
 
   /// Option for controlling additional accuracy / speed trade-offs.
   final FaceDetectorMode mode;
+
+  /// How much of each face is returned.
+  ///
+  /// With [ResultDetail.basic], landmarks and contours are not returned even
+  /// if [enableLandmarks] or [enableContours] is true.
+  final ResultDetail resultDetail;
 }
 
 /// Represents a face detected by [FaceDetector].
 class Face {
   Face._(dynamic data)
-      : boundingBox = Rect.fromLTWH(
-          data['left'],
-          data['top'],
-          data['width'],
-          data['height'],
-        ),
+      : boundingBox = _boundingBoxFromData(data),
         headEulerAngleY = data['headEulerAngleY'],
         headEulerAngleZ = data['headEulerAngleZ'],
         leftEyeOpenProbability = data['leftEyeOpenProbability'],
@@ -170,7 +211,8 @@ class Face {
         _landmarks = Map<FaceLandmarkType, FaceLandmark>.fromIterables(
             FaceLandmarkType.values,
             FaceLandmarkType.values.map((FaceLandmarkType type) {
-          final List<dynamic> pos = data['landmarks'][_enumToString(type)];
+          final List<dynamic> pos =
+              (data['landmarks'] ?? <String, dynamic>{})[_enumToString(type)];
           return (pos == null)
               ? null
               : FaceLandmark._(
@@ -182,16 +224,9 @@ class Face {
             FaceContourType.values,
             FaceContourType.values.map((FaceContourType type) {
           /// added empty map to pass the tests
-          final List<dynamic> arr =
-              (data['contours'] ?? <String, dynamic>{})[_enumToString(type)];
-          return (arr == null)
-              ? null
-              : FaceContour._(
-                  type,
-                  arr
-                      .map<Offset>((dynamic pos) => Offset(pos[0], pos[1]))
-                      .toList(),
-                );
+          final List<Offset> points = _pointsFromData(
+              (data['contours'] ?? <String, dynamic>{})[_enumToString(type)]);
+          return (points == null) ? null : FaceContour._(type, points);
         }));
 
   final Map<FaceLandmarkType, FaceLandmark> _landmarks;
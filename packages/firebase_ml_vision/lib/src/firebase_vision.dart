@@ -4,7 +4,7 @@
 
 part of firebase_ml_vision;
 
-enum _ImageType { file, bytes }
+enum _ImageType { file, bytes, planes }
 
 /// Indicates the image rotation.
 ///
@@ -14,6 +14,21 @@ enum ImageRotation { rotation0, rotation90, rotation180, rotation270 }
 /// Indicates whether a model is ran on device or in the cloud.
 enum ModelType { onDevice, cloud }
 
+/// How much of each detected object is returned by a detector.
+///
+/// Currently only applies on Android, iOS always returns everything.
+enum ResultDetail {
+  /// Only the values and bounding boxes of the detected objects.
+  ///
+  /// Barcodes have no typed values such as [Barcode.email], faces have no
+  /// landmarks nor contours, and text is only broken down into blocks, without
+  /// lines, corner points and languages.
+  basic,
+
+  /// Everything that was detected.
+  full,
+}
+
 /// The Firebase machine learning vision API.
 ///
 /// You can get an instance by calling [FirebaseVision.instance] and then get
@@ -32,6 +47,80 @@ class FirebaseVision {
   @visibleForTesting
   static int nextHandle = 0;
 
+  static int _nextBatchId = 0;
+  static bool _isMethodCallHandlerSet = false;
+
+  static final StreamController<MethodCall> _methodCallController =
+      StreamController<MethodCall>.broadcast(); // ignore: close_sinks
+
+  /// The method calls from the platform, for batch and live results.
+  static Stream<MethodCall> get _methodCalls {
+    if (!_isMethodCallHandlerSet) {
+      channel.setMethodCallHandler((MethodCall call) async {
+        _methodCallController.add(call);
+      });
+      _isMethodCallHandlerSet = true;
+    }
+    return _methodCallController.stream;
+  }
+
+  /// Runs [method] on a batch of [images] and streams the result of each image
+  /// as soon as it is ready, in completion order.
+  static Stream<VisionBatchResult<T>> _processBatch<T>(
+    String method,
+    Map<String, dynamic> arguments,
+    List<FirebaseVisionImage> images,
+    int maxConcurrency,
+    T decode(dynamic reply),
+  ) {
+    assert(images != null);
+    assert(maxConcurrency != null && maxConcurrency > 0);
+
+    final int batchId = _nextBatchId++;
+    StreamSubscription<MethodCall> subscription;
+    final StreamController<VisionBatchResult<T>> controller =
+        StreamController<VisionBatchResult<T>>();
+    controller.onListen = () {
+      subscription = _methodCalls
+          .where((MethodCall call) =>
+              call.method == 'FirebaseVision#onBatchResult' &&
+              call.arguments['batchId'] == batchId)
+          .listen((MethodCall call) {
+        final int index = call.arguments['index'];
+        if (call.arguments['errorCode'] != null) {
+          controller.add(VisionBatchResult<T>._(
+            index,
+            null,
+            PlatformException(
+              code: call.arguments['errorCode'],
+              message: call.arguments['errorMessage'],
+            ),
+          ));
+        } else {
+          controller.add(VisionBatchResult<T>._(
+            index,
+            decode(call.arguments['result']),
+            null,
+          ));
+        }
+      });
+      channel.invokeMethod<void>(
+        method,
+        <String, dynamic>{
+          'batchId': batchId,
+          'maxConcurrency': maxConcurrency,
+          'images': images
+              .map((FirebaseVisionImage image) => image._serialize())
+              .toList(),
+        }..addAll(arguments),
+      ).catchError(controller.addError).whenComplete(() {
+        subscription.cancel();
+        controller.close();
+      });
+    };
+    return controller.stream;
+  }
+
   /// Singleton of [FirebaseVision].
   ///
   /// Use this get an instance of a detector:
@@ -67,9 +156,12 @@ class FirebaseVision {
   }
 
   /// Creates an instance of [TextRecognizer].
-  TextRecognizer textRecognizer() {
+  TextRecognizer textRecognizer({
+    ResultDetail resultDetail = ResultDetail.full,
+  }) {
     return TextRecognizer._(
       modelType: ModelType.onDevice,
+      resultDetail: resultDetail,
       handle: nextHandle++,
     );
   }
@@ -84,14 +176,34 @@ class FirebaseVision {
   }
 
   /// Creates a cloud instance of [TextRecognizer].
-  TextRecognizer cloudTextRecognizer() {
+  TextRecognizer cloudTextRecognizer({
+    ResultDetail resultDetail = ResultDetail.full,
+  }) {
     return TextRecognizer._(
       modelType: ModelType.cloud,
+      resultDetail: resultDetail,
       handle: nextHandle++,
     );
   }
 }
 
+/// The result of detecting in one image of a batch.
+///
+/// See [BarcodeDetector.detectInImages], [FaceDetector.processImages],
+/// [ImageLabeler.processImages] and [TextRecognizer.processImages].
+class VisionBatchResult<T> {
+  VisionBatchResult._(this.index, this.result, this.error);
+
+  /// Index of the image in the batch.
+  final int index;
+
+  /// What was detected in the image, or null if the detection failed.
+  final T result;
+
+  /// Why the detection failed, or null if it succeeded.
+  final PlatformException error;
+}
+
 /// Represents an image object used for both on-device and cloud API detectors.
 ///
 /// Create an instance by calling one of the factory constructors.
@@ -101,9 +213,11 @@ class FirebaseVisionImage {
     FirebaseVisionImageMetadata metadata,
     File imageFile,
     Uint8List bytes,
+    List<Uint8List> planes,
   })  : _imageFile = imageFile,
         _metadata = metadata,
         _bytes = bytes,
+        _planes = planes,
         _type = type;
 
   /// Construct a [FirebaseVisionImage] from a file.
@@ -145,17 +259,45 @@ class FirebaseVisionImage {
     );
   }
 
+  /// Construct a [FirebaseVisionImage] from the planes of a camera image.
+  ///
+  /// On Android, expects the three planes of a `YUV_420_888` image, as produced
+  /// by the camera plugin, with the row and pixel stride of each plane in
+  /// [metadata]. They are converted to NV21 on the platform side.
+  ///
+  /// On iOS, the planes are concatenated and handled as with [fromBytes].
+  factory FirebaseVisionImage.fromPlanes(
+    List<Uint8List> planes,
+    FirebaseVisionImageMetadata metadata,
+  ) {
+    assert(planes != null);
+    assert(metadata != null);
+    assert(planes.length == metadata.planeData.length);
+    return FirebaseVisionImage._(
+      type: _ImageType.planes,
+      planes: planes,
+      metadata: metadata,
+    );
+  }
+
   final Uint8List _bytes;
+  final List<Uint8List> _planes;
   final File _imageFile;
   final FirebaseVisionImageMetadata _metadata;
   final _ImageType _type;
 
-  Map<String, dynamic> _serialize() => <String, dynamic>{
-        'type': _enumToString(_type),
-        'bytes': _bytes,
-        'path': _imageFile?.path,
-        'metadata': _type == _ImageType.bytes ? _metadata._serialize() : null,
-      };
+  Map<String, dynamic> _serialize() {
+    final Map<String, dynamic> data = <String, dynamic>{
+      'type': _enumToString(_type),
+      'bytes': _bytes,
+      'path': _imageFile?.path,
+      'metadata': _type == _ImageType.file ? null : _metadata._serialize(),
+    };
+    if (_type == _ImageType.planes) {
+      data['planes'] = _planes;
+    }
+    return data;
+  }
 }
 
 /// Plane attributes to create the image buffer on iOS.
@@ -167,6 +309,7 @@ class FirebaseVisionImagePlaneMetadata {
     @required this.bytesPerRow,
     @required this.height,
     @required this.width,
+    this.bytesPerPixel,
   })  : assert(defaultTargetPlatform == TargetPlatform.iOS
             ? bytesPerRow != null
             : true),
@@ -185,11 +328,22 @@ class FirebaseVisionImagePlaneMetadata {
   /// Width of the pixel buffer on iOS.
   final int width;
 
-  Map<String, dynamic> _serialize() => <String, dynamic>{
-        'bytesPerRow': bytesPerRow,
-        'height': height,
-        'width': width,
-      };
+  /// The distance between adjacent pixel samples on Android, in bytes.
+  ///
+  /// Only used by [FirebaseVisionImage.fromPlanes]. Defaults to 1.
+  final int bytesPerPixel;
+
+  Map<String, dynamic> _serialize() {
+    final Map<String, dynamic> data = <String, dynamic>{
+      'bytesPerRow': bytesPerRow,
+      'height': height,
+      'width': width,
+    };
+    if (bytesPerPixel != null) {
+      data['bytesPerPixel'] = bytesPerPixel;
+    }
+    return data;
+  }
 }
 
 /// Image metadata used by [FirebaseVision] detectors.
@@ -265,6 +419,41 @@ class FirebaseVisionImageMetadata {
       };
 }
 
+// Bounding boxes are sent either packed as `[left, top, width, height]` in
+// `box`, or as separate `left`, `top`, `width` and `height` values.
+Rect _boundingBoxFromData(dynamic data) {
+  final List<dynamic> box = data['box'];
+  if (box != null) {
+    return Rect.fromLTWH(box[0], box[1], box[2], box[3]);
+  }
+  if (data['left'] == null) {
+    return null;
+  }
+  return Rect.fromLTWH(
+    data['left'],
+    data['top'],
+    data['width'],
+    data['height'],
+  );
+}
+
+// Points are sent either packed as `[x0, y0, x1, y1, ...]`, or as a list of
+// `[x, y]` pairs.
+List<Offset> _pointsFromData(dynamic points) {
+  if (points == null) {
+    return null;
+  }
+  if (points is Float64List) {
+    return List<Offset>.generate(
+      points.length ~/ 2,
+      (int i) => Offset(points[2 * i], points[2 * i + 1]),
+    );
+  }
+  return points
+      .map<Offset>((dynamic point) => Offset(point[0], point[1]))
+      .toList();
+}
+
 String _enumToString(dynamic enumValue) {
   final String enumString = enumValue.toString();
   return enumString.substring(enumString.indexOf('.') + 1);
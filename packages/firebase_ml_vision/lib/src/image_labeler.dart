@@ -52,13 +52,7 @@ class ImageLabeler {
     final List<dynamic> reply =
         await FirebaseVision.channel.invokeListMethod<dynamic>(
       'ImageLabeler#processImage',
-      <String, dynamic>{
-        'handle': _handle,
-        'options': <String, dynamic>{
-          'modelType': _enumToString(modelType),
-          'confidenceThreshold': _options.confidenceThreshold,
-        },
-      }..addAll(visionImage._serialize()),
+      _arguments..addAll(visionImage._serialize()),
     );
 
     final List<ImageLabel> labels = <ImageLabel>[];
@@ -69,6 +63,51 @@ class ImageLabeler {
     return labels;
   }
 
+  /// Detects entities in each of [images], processing up to [maxConcurrency]
+  /// images at a time.
+  ///
+  /// The result of each image is added to the returned stream as soon as it
+  /// is ready, and the stream closes once every image has been processed. The
+  /// images are only sent to the platform when the stream is listened to.
+  Stream<VisionBatchResult<List<ImageLabel>>> processImages(
+    List<FirebaseVisionImage> images, {
+    int maxConcurrency = 2,
+  }) {
+    assert(!_isClosed);
+
+    _hasBeenOpened = true;
+    return FirebaseVision._processBatch<List<ImageLabel>>(
+      'ImageLabeler#processImages',
+      _arguments,
+      images,
+      maxConcurrency,
+      _labelsFromReply,
+    );
+  }
+
+  /// Starts detecting entities in the frames of a live camera stream.
+  ///
+  /// See [LiveDetection].
+  LiveDetection<List<ImageLabel>> startLiveDetection() {
+    assert(!_isClosed);
+
+    _hasBeenOpened = true;
+    return LiveDetection<List<ImageLabel>>._(
+        'ImageLabeler', _arguments, _labelsFromReply);
+  }
+
+  static List<ImageLabel> _labelsFromReply(dynamic reply) => reply
+      .map<ImageLabel>((dynamic data) => ImageLabel._(data))
+      .toList();
+
+  Map<String, dynamic> get _arguments => <String, dynamic>{
+        'handle': _handle,
+        'options': <String, dynamic>{
+          'modelType': _enumToString(modelType),
+          'confidenceThreshold': _options.confidenceThreshold,
+        },
+      };
+
   /// Release resources used by this labeler.
   Future<void> close() {
     if (!_hasBeenOpened) _isClosed = true;
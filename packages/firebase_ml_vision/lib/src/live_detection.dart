@@ -0,0 +1,122 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+part of firebase_ml_vision;
+
+/// The result of detecting in one frame of a [LiveDetection].
+class LiveDetectionResult<T> {
+  LiveDetectionResult._(
+    this.result,
+    this.error,
+    this.latency,
+    this.droppedFrames,
+  );
+
+  /// What was detected in the frame, or null if the detection failed.
+  final T result;
+
+  /// Why the detection failed, or null if it succeeded.
+  final PlatformException error;
+
+  /// Time from the arrival of the frame on the platform side to its result,
+  /// including the time it waited for the previous detection.
+  final Duration latency;
+
+  /// Number of frames dropped since the live detection started.
+  final int droppedFrames;
+}
+
+/// Runs a detector on the frames of a live camera stream.
+///
+/// At most one frame is processed at a time. A frame that arrives while a
+/// detection is running waits for it to finish, and replaces the frame that
+/// was already waiting, which is dropped. Frames can therefore be sent as fast
+/// as the camera produces them, without throttling them in Dart.
+///
+/// ```dart
+/// final LiveDetection<List<Barcode>> liveDetection =
+///     barcodeDetector.startLiveDetection();
+/// liveDetection.results.listen((LiveDetectionResult<List<Barcode>> result) {
+///   print('${result.result?.length} barcodes in ${result.latency}');
+/// });
+/// cameraController.startImageStream((CameraImage image) {
+///   liveDetection.processFrame(FirebaseVisionImage.fromPlanes(...));
+/// });
+/// ```
+class LiveDetection<T> {
+  LiveDetection._(this._detector, this._arguments, this._decode) {
+    _subscription = FirebaseVision._methodCalls
+        .where((MethodCall call) =>
+            call.method == 'FirebaseVision#onLiveResult' &&
+            call.arguments['handle'] == _arguments['handle'])
+        .listen(_onResult);
+  }
+
+  final String _detector;
+  final Map<String, dynamic> _arguments;
+  final T Function(dynamic reply) _decode;
+  final StreamController<LiveDetectionResult<T>> _results =
+      StreamController<LiveDetectionResult<T>>.broadcast();
+  StreamSubscription<MethodCall> _subscription;
+  int _droppedFrames = 0;
+  bool _isStopped = false;
+
+  /// The result of each processed frame.
+  Stream<LiveDetectionResult<T>> get results => _results.stream;
+
+  /// Number of frames dropped so far, as of the latest result.
+  int get droppedFrames => _droppedFrames;
+
+  /// Sends [frame] to be processed once the current detection, if any, is
+  /// done.
+  ///
+  /// The returned future completes when the frame has been received on the
+  /// platform side, its result is added to [results].
+  Future<void> processFrame(FirebaseVisionImage frame) {
+    assert(!_isStopped);
+    return FirebaseVision.channel.invokeMethod<void>(
+      '$_detector#processLiveFrame',
+      Map<String, dynamic>.from(_arguments)..addAll(frame._serialize()),
+    );
+  }
+
+  /// Stops the live detection, dropping the frame that is waiting if any.
+  ///
+  /// The detector can still be used afterwards, and must be closed separately.
+  Future<void> stop() async {
+    if (_isStopped) return;
+
+    _isStopped = true;
+    await _subscription.cancel();
+    await _results.close();
+    return FirebaseVision.channel.invokeMethod<void>(
+      '$_detector#stopLiveDetection',
+      <String, dynamic>{'handle': _arguments['handle']},
+    );
+  }
+
+  void _onResult(MethodCall call) {
+    _droppedFrames = call.arguments['droppedFrames'];
+    final Duration latency =
+        Duration(microseconds: call.arguments['latencyMicros']);
+    if (call.arguments['errorCode'] != null) {
+      _results.add(LiveDetectionResult<T>._(
+        null,
+        PlatformException(
+          code: call.arguments['errorCode'],
+          message: call.arguments['errorMessage'],
+        ),
+        latency,
+        _droppedFrames,
+      ));
+    } else {
+      _results.add(LiveDetectionResult<T>._(
+        _decode(call.arguments['result']),
+        null,
+        latency,
+        _droppedFrames,
+      ));
+    }
+  }
+}
@@ -22,11 +22,16 @@ class TextRecognizer {
   TextRecognizer._({
     @required this.modelType,
     @required int handle,
+    this.resultDetail = ResultDetail.full,
   })  : _handle = handle,
-        assert(modelType != null);
+        assert(modelType != null),
+        assert(resultDetail != null);
 
   final ModelType modelType;
 
+  /// How much of the recognized text is returned.
+  final ResultDetail resultDetail;
+
   final int _handle;
   bool _hasBeenOpened = false;
   bool _isClosed = false;
@@ -39,17 +44,56 @@ class TextRecognizer {
     final Map<String, dynamic> reply =
         await FirebaseVision.channel.invokeMapMethod<String, dynamic>(
       'TextRecognizer#processImage',
-      <String, dynamic>{
-        'handle': _handle,
-        'options': <String, dynamic>{
-          'modelType': _enumToString(modelType),
-        },
-      }..addAll(visionImage._serialize()),
+      _arguments..addAll(visionImage._serialize()),
     );
 
     return VisionText._(reply);
   }
 
+  /// Detects text in each of [images], processing up to [maxConcurrency]
+  /// images at a time.
+  ///
+  /// The result of each image is added to the returned stream as soon as it
+  /// is ready, and the stream closes once every image has been processed. The
+  /// images are only sent to the platform when the stream is listened to.
+  Stream<VisionBatchResult<VisionText>> processImages(
+    List<FirebaseVisionImage> images, {
+    int maxConcurrency = 2,
+  }) {
+    assert(!_isClosed);
+
+    _hasBeenOpened = true;
+    return FirebaseVision._processBatch<VisionText>(
+      'TextRecognizer#processImages',
+      _arguments,
+      images,
+      maxConcurrency,
+      _textFromReply,
+    );
+  }
+
+  /// Starts detecting text in the frames of a live camera stream.
+  ///
+  /// See [LiveDetection].
+  LiveDetection<VisionText> startLiveDetection() {
+    assert(!_isClosed);
+
+    _hasBeenOpened = true;
+    return LiveDetection<VisionText>._(
+        'TextRecognizer', _arguments, _textFromReply);
+  }
+
+  static VisionText _textFromReply(dynamic reply) =>
+      VisionText._(Map<String, dynamic>.from(reply));
+
+  Map<String, dynamic> get _arguments => <String, dynamic>{
+        'handle': _handle,
+        'options': <String, dynamic>{
+          'modelType': _enumToString(modelType),
+          'resultDetail': _enumToString(resultDetail),
+        },
+      };
+
   /// Release resources used by this recognizer.
   Future<void> close() {
     if (!_hasBeenOpened) _isClosed = true;
@@ -89,23 +133,14 @@ class RecognizedLanguage {
 /// Abstract class representing dimensions of recognized text in an image.
 abstract class TextContainer {
   TextContainer._(Map<dynamic, dynamic> data)
-      : boundingBox = data['left'] != null
-            ? Rect.fromLTWH(
-                data['left'],
-                data['top'],
-                data['width'],
-                data['height'],
-              )
-            : null,
+      : boundingBox = _boundingBoxFromData(data),
         confidence = data['confidence'],
         cornerPoints = List<Offset>.unmodifiable(
-            data['points'].map<Offset>((dynamic point) => Offset(
-                  point[0],
-                  point[1],
-                ))),
+            _pointsFromData(data['points']) ?? const <Offset>[]),
         recognizedLanguages = List<RecognizedLanguage>.unmodifiable(
-            data['recognizedLanguages'].map<RecognizedLanguage>(
-                (dynamic language) => RecognizedLanguage._(language))),
+            (data['recognizedLanguages'] ?? const <dynamic>[])
+                .map<RecognizedLanguage>(
+                    (dynamic language) => RecognizedLanguage._(language))),
         text = data['text'];
 
   /// Axis-aligned bounding rectangle of the detected text.
@@ -147,7 +182,8 @@ abstract class TextContainer {
 class TextBlock extends TextContainer {
   TextBlock._(Map<dynamic, dynamic> block)
       : lines = List<TextLine>.unmodifiable(
-            block['lines'].map<TextLine>((dynamic line) => TextLine._(line))),
+            (block['lines'] ?? const <dynamic>[])
+                .map<TextLine>((dynamic line) => TextLine._(line))),
         super._(block);
 
   /// The contents of the text block, broken down into individual lines.
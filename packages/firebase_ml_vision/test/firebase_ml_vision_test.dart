@@ -9,10 +9,24 @@ import 'package:firebase_ml_vision/firebase_ml_vision.dart';
 import 'package:flutter/services.dart';
 import 'package:flutter_test/flutter_test.dart';
 
+Future<void> sendPlatformCall(String method, dynamic arguments) {
+  // TODO(hterkelsen): Remove this when defaultBinaryMessages is in stable.
+  // https://github.com/flutter/flutter/issues/33446
+  // ignore: deprecated_member_use
+  return BinaryMessages.handlePlatformMessage(
+    FirebaseVision.channel.name,
+    FirebaseVision.channel.codec
+        .encodeMethodCall(MethodCall(method, arguments)),
+    (_) {},
+  );
+}
+
 void main() {
   group('$FirebaseVision', () {
     final List<MethodCall> log = <MethodCall>[];
     dynamic returnValue;
+    List<Map<String, dynamic>> batchResults;
+    List<Map<String, dynamic>> liveResults;
 
     setUp(() {
       FirebaseVision.channel
@@ -26,11 +40,37 @@ void main() {
             return returnValue;
           case 'TextRecognizer#processImage':
             return returnValue;
+          case 'BarcodeDetector#detectInImages':
+            for (Map<String, dynamic> batchResult in batchResults) {
+              await sendPlatformCall(
+                'FirebaseVision#onBatchResult',
+                <String, dynamic>{
+                  'batchId': methodCall.arguments['batchId'],
+                }..addAll(batchResult),
+              );
+            }
+            if (returnValue is PlatformException) {
+              throw returnValue;
+            }
+            return returnValue;
+          case 'BarcodeDetector#processLiveFrame':
+            for (Map<String, dynamic> liveResult in liveResults) {
+              await sendPlatformCall(
+                'FirebaseVision#onLiveResult',
+                <String, dynamic>{
+                  'handle': methodCall.arguments['handle'],
+                }..addAll(liveResult),
+              );
+            }
+            return null;
           default:
             return null;
         }
       });
       log.clear();
+      returnValue = null;
+      batchResults = <Map<String, dynamic>>[];
+      liveResults = <Map<String, dynamic>>[];
       FirebaseVision.nextHandle = 0;
     });
 
@@ -85,6 +125,7 @@ void main() {
               },
               'options': <String, dynamic>{
                 'modelType': 'onDevice',
+                'resultDetail': 'full',
               },
             },
           ),
@@ -134,6 +175,7 @@ void main() {
               'metadata': null,
               'options': <String, dynamic>{
                 'barcodeFormats': 0xFFFF,
+                'resultDetail': 'full',
               },
             },
           ),
@@ -409,6 +451,28 @@ void main() {
         expect(blocks, isEmpty);
       });
 
+      test('detectInImage packed geometry', () async {
+        returnValue = <dynamic>[
+          <dynamic, dynamic>{
+            'rawValue': 'potato:raw',
+            'displayValue': 'potato:display',
+            'valueType': 0,
+            'format': 0,
+            'box': Float64List.fromList(<double>[1.0, 2.0, 3.0, 4.0]),
+            'points': Float64List.fromList(<double>[17.0, 18.0, 19.0, 20.0]),
+          },
+        ];
+
+        final List<Barcode> barcodes = await detector.detectInImage(image);
+
+        final Barcode barcode = barcodes[0];
+        expect(barcode.boundingBox, const Rect.fromLTWH(1.0, 2.0, 3.0, 4.0));
+        expect(barcode.cornerPoints, <Offset>[
+          const Offset(17.0, 18.0),
+          const Offset(19.0, 20.0),
+        ]);
+      });
+
       test('detectInImage no bounding box', () async {
         returnValue = <dynamic>[
           <dynamic, dynamic>{
@@ -495,6 +559,16 @@ void main() {
             0x0001 | 0x0010 | 0x0040,
           );
         });
+
+        test('resultDetail', () async {
+          final BarcodeDetector detector =
+              FirebaseVision.instance.barcodeDetector(
+            const BarcodeDetectorOptions(resultDetail: ResultDetail.basic),
+          );
+          await detector.detectInImage(image);
+
+          expect(log[0].arguments['options']['resultDetail'], 'basic');
+        });
       });
     });
 
@@ -624,6 +698,7 @@ void main() {
                 'enableTracking': false,
                 'minFaceSize': 0.5,
                 'mode': 'accurate',
+                'resultDetail': 'full',
               },
             },
           ),
@@ -751,6 +826,48 @@ void main() {
         expect(faces[0].getLandmark(FaceLandmarkType.bottomMouth), isNull);
       });
 
+      test('processImage basic packed result', () async {
+        returnValue = <dynamic>[
+          <dynamic, dynamic>{
+            'box': Float64List.fromList(<double>[0.0, 1.0, 2.0, 3.0]),
+            'headEulerAngleY': 4.0,
+            'headEulerAngleZ': 5.0,
+          },
+        ];
+
+        final FaceDetector detector = FirebaseVision.instance.faceDetector(
+          const FaceDetectorOptions(resultDetail: ResultDetail.basic),
+        );
+        final FirebaseVisionImage image = FirebaseVisionImage.fromFilePath(
+          'empty',
+        );
+
+        final List<Face> faces = await detector.processImage(image);
+
+        expect(log[0].arguments['options']['resultDetail'], 'basic');
+        expect(faces[0].boundingBox, const Rect.fromLTWH(0.0, 1.0, 2.0, 3.0));
+        expect(faces[0].getLandmark(FaceLandmarkType.leftEye), isNull);
+        expect(faces[0].getContour(FaceContourType.face), isNull);
+      });
+
+      test('processImage packed contours', () async {
+        testFaces[0]['contours']['face'] =
+            Float64List.fromList(<double>[1.1, 2.2, 3.3, 4.4]);
+        returnValue = testFaces;
+
+        final FaceDetector detector = FirebaseVision.instance.faceDetector(
+          const FaceDetectorOptions(),
+        );
+        final FirebaseVisionImage image = FirebaseVisionImage.fromFilePath(
+          'empty',
+        );
+
+        final List<Face> faces = await detector.processImage(image);
+
+        expect(faces[0].getContour(FaceContourType.face).positionsList,
+            <Offset>[const Offset(1.1, 2.2), const Offset(3.3, 4.4)]);
+      });
+
       test('processImage no faces', () async {
         returnValue = <dynamic>[];
 
@@ -1003,6 +1120,7 @@ void main() {
               'metadata': null,
               'options': <String, dynamic>{
                 'modelType': 'onDevice',
+                'resultDetail': 'full',
               },
             },
           ),
@@ -1026,6 +1144,32 @@ void main() {
         final TextBlock block = text.blocks[0];
         expect(block.boundingBox, null);
       });
+
+      test('processImage basic result', () async {
+        returnValue = <dynamic, dynamic>{
+          'text': 'hello',
+          'blocks': <dynamic>[
+            <dynamic, dynamic>{
+              'text': 'hello',
+              'box': Float64List.fromList(<double>[1.0, 2.0, 3.0, 4.0]),
+              'confidence': 0.5,
+            },
+          ],
+        };
+
+        final TextRecognizer basicRecognizer = FirebaseVision.instance
+            .textRecognizer(resultDetail: ResultDetail.basic);
+        final VisionText text = await basicRecognizer.processImage(image);
+
+        expect(log[0].arguments['options']['resultDetail'], 'basic');
+
+        final TextBlock block = text.blocks[0];
+        expect(block.text, 'hello');
+        expect(block.boundingBox, const Rect.fromLTWH(1.0, 2.0, 3.0, 4.0));
+        expect(block.cornerPoints, isEmpty);
+        expect(block.recognizedLanguages, isEmpty);
+        expect(block.lines, isEmpty);
+      });
     });
 
     group('Cloud $TextRecognizer', () {
@@ -1266,6 +1410,7 @@ void main() {
               'metadata': null,
               'options': <String, dynamic>{
                 'modelType': 'cloud',
+                'resultDetail': 'full',
               },
             },
           ),
@@ -1290,5 +1435,193 @@ void main() {
         expect(block.boundingBox, null);
       });
     });
+
+    group('$VisionBatchResult', () {
+      BarcodeDetector detector;
+      FirebaseVisionImage image;
+
+      setUp(() {
+        detector = FirebaseVision.instance.barcodeDetector();
+        image = FirebaseVisionImage.fromFilePath('empty');
+      });
+
+      test('detectInImages streams the result of each image', () async {
+        batchResults = <Map<String, dynamic>>[
+          <String, dynamic>{
+            'index': 1,
+            'result': <dynamic>[
+              <dynamic, dynamic>{
+                'rawValue': 'hello:raw',
+                'displayValue': 'hello:display',
+                'format': 0,
+                'valueType': 0,
+              },
+            ],
+          },
+          <String, dynamic>{
+            'index': 0,
+            'errorCode': 'MLVisionDetectorIOError',
+            'errorMessage': 'not found',
+          },
+        ];
+
+        final List<VisionBatchResult<List<Barcode>>> results = await detector
+            .detectInImages(<FirebaseVisionImage>[image, image],
+                maxConcurrency: 3)
+            .toList();
+
+        expect(log, hasLength(1));
+        expect(log[0].method, 'BarcodeDetector#detectInImages');
+        expect(log[0].arguments['handle'], 0);
+        expect(log[0].arguments['maxConcurrency'], 3);
+        expect(log[0].arguments['options'], <String, dynamic>{
+          'barcodeFormats': 0xFFFF,
+          'resultDetail': 'full',
+        });
+        expect(log[0].arguments['images'], <dynamic>[
+          <String, dynamic>{
+            'type': 'file',
+            'bytes': null,
+            'path': 'empty',
+            'metadata': null,
+          },
+          <String, dynamic>{
+            'type': 'file',
+            'bytes': null,
+            'path': 'empty',
+            'metadata': null,
+          },
+        ]);
+
+        expect(results, hasLength(2));
+        expect(results[0].index, 1);
+        expect(results[0].error, isNull);
+        expect(results[0].result.single.rawValue, 'hello:raw');
+        expect(results[1].index, 0);
+        expect(results[1].result, isNull);
+        expect(results[1].error.code, 'MLVisionDetectorIOError');
+        expect(results[1].error.message, 'not found');
+      });
+
+      test('detectInImages adds the batch error to the stream', () async {
+        returnValue = PlatformException(code: 'MLVisionDetectorError');
+
+        final Stream<VisionBatchResult<List<Barcode>>> results =
+            detector.detectInImages(<FirebaseVisionImage>[image]);
+
+        await expectLater(
+            results, emitsError(isInstanceOf<PlatformException>()));
+      });
+
+      test('detectInImages is only sent when listened to', () async {
+        detector.detectInImages(<FirebaseVisionImage>[image]);
+        await Future<void>.delayed(Duration.zero);
+
+        expect(log, isEmpty);
+      });
+    });
+
+    group('$LiveDetection', () {
+      BarcodeDetector detector;
+      FirebaseVisionImage frame;
+
+      setUp(() {
+        detector = FirebaseVision.instance.barcodeDetector();
+        frame = FirebaseVisionImage.fromPlanes(
+          <Uint8List>[Uint8List(4), Uint8List(1), Uint8List(1)],
+          FirebaseVisionImageMetadata(
+            rawFormat: 35,
+            size: const Size(2.0, 2.0),
+            planeData: <FirebaseVisionImagePlaneMetadata>[
+              FirebaseVisionImagePlaneMetadata(
+                bytesPerRow: 2,
+                height: 2,
+                width: 2,
+                bytesPerPixel: 1,
+              ),
+              FirebaseVisionImagePlaneMetadata(
+                bytesPerRow: 1,
+                height: 1,
+                width: 1,
+                bytesPerPixel: 1,
+              ),
+              FirebaseVisionImagePlaneMetadata(
+                bytesPerRow: 1,
+                height: 1,
+                width: 1,
+                bytesPerPixel: 1,
+              ),
+            ],
+          ),
+        );
+      });
+
+      test('processFrame sends the planes of the frame', () async {
+        final LiveDetection<List<Barcode>> liveDetection =
+            detector.startLiveDetection();
+        await liveDetection.processFrame(frame);
+
+        expect(log, hasLength(1));
+        expect(log[0].method, 'BarcodeDetector#processLiveFrame');
+        expect(log[0].arguments['handle'], 0);
+        expect(log[0].arguments['type'], 'planes');
+        expect(log[0].arguments['planes'], hasLength(3));
+        expect(log[0].arguments['metadata']['planeData'][0], <String, dynamic>{
+          'bytesPerRow': 2,
+          'height': 2,
+          'width': 2,
+          'bytesPerPixel': 1,
+        });
+        await liveDetection.stop();
+      });
+
+      test('results stream the latency and dropped frames', () async {
+        liveResults = <Map<String, dynamic>>[
+          <String, dynamic>{
+            'result': <dynamic>[],
+            'latencyMicros': 1500,
+            'droppedFrames': 2,
+          },
+          <String, dynamic>{
+            'errorCode': 'barcodeDetectorError',
+            'errorMessage': 'failed',
+            'latencyMicros': 800,
+            'droppedFrames': 3,
+          },
+        ];
+        final LiveDetection<List<Barcode>> liveDetection =
+            detector.startLiveDetection();
+        final List<LiveDetectionResult<List<Barcode>>> results =
+            <LiveDetectionResult<List<Barcode>>>[];
+        liveDetection.results.listen(results.add);
+
+        await liveDetection.processFrame(frame);
+        await Future<void>.delayed(Duration.zero);
+
+        expect(results, hasLength(2));
+        expect(results[0].result, isEmpty);
+        expect(results[0].error, isNull);
+        expect(results[0].latency, const Duration(microseconds: 1500));
+        expect(results[0].droppedFrames, 2);
+        expect(results[1].result, isNull);
+        expect(results[1].error.code, 'barcodeDetectorError');
+        expect(results[1].droppedFrames, 3);
+        expect(liveDetection.droppedFrames, 3);
+        await liveDetection.stop();
+      });
+
+      test('stop', () async {
+        final LiveDetection<List<Barcode>> liveDetection =
+            detector.startLiveDetection();
+        await liveDetection.stop();
+
+        expect(log, <Matcher>[
+          isMethodCall(
+            'BarcodeDetector#stopLiveDetection',
+            arguments: <String, dynamic>{'handle': 0},
+          ),
+        ]);
+      });
+    });
   });
 }
@@ -0,0 +1,304 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.storage;
+
+import android.util.Log;
+import com.google.firebase.storage.StorageMetadata;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Size-capped on-disk LRU cache of downloaded objects.
+ *
+ * <p>Entries are keyed by a hash of the bucket and path, and remember the generation of the object
+ * they hold, so a cheap metadata request is enough to tell whether an entry is still current. Each
+ * entry is a single file named {@code <key>.<generation>.<validatedAtMillis>}, and the last
+ * modification time of that file is its last access time. This keeps the whole index in the
+ * directory listing. Entries are written to a temporary file first, and only renamed to their entry
+ * name once complete.
+ *
+ * <p>Not thread safe, all methods must be called from the same thread.
+ */
+class DownloadCache {
+  private static final String TAG = "DownloadCache";
+
+  static class Entry {
+    final String key;
+    final File file;
+    final String generation;
+    final long validatedAtMillis;
+
+    Entry(String key, File file, String generation, long validatedAtMillis) {
+      this.key = key;
+      this.file = file;
+      this.generation = generation;
+      this.validatedAtMillis = validatedAtMillis;
+    }
+  }
+
+  private final File directory;
+  private long maxSizeBytes;
+  private Map<String, Entry> entries;
+  private long sizeBytes = 0;
+
+  DownloadCache(File directory, long maxSizeBytes) {
+    this.directory = directory;
+    this.maxSizeBytes = maxSizeBytes;
+  }
+
+  void setMaxSizeBytes(long maxSizeBytes) {
+    this.maxSizeBytes = maxSizeBytes;
+    trim();
+  }
+
+  /** Returns the entry for the object at {@code path}, or null if it isn't cached. */
+  Entry get(String bucket, String path) {
+    Entry entry = index().get(keyFor(bucket, path));
+    if (entry != null) {
+      entry.file.setLastModified(System.currentTimeMillis());
+    }
+    return entry;
+  }
+
+  /** Marks {@code entry} as checked against the server now. */
+  Entry revalidate(Entry entry) {
+    long now = System.currentTimeMillis();
+    File file = fileFor(entry.key, entry.generation, now);
+    if (!entry.file.renameTo(file)) {
+      return entry;
+    }
+    Entry revalidated = new Entry(entry.key, file, entry.generation, now);
+    entries.put(entry.key, revalidated);
+    return revalidated;
+  }
+
+  void put(String bucket, String path, String generation, byte[] data) throws IOException {
+    String key = startPut(bucket, path);
+    File temp = tempFileFor(key);
+    boolean written = false;
+    try {
+      FileOutputStream out = new FileOutputStream(temp);
+      try {
+        out.write(data);
+      } finally {
+        out.close();
+      }
+      written = true;
+    } finally {
+      if (!written) {
+        temp.delete();
+      }
+    }
+    finishPut(temp, key, generation);
+  }
+
+  void put(String bucket, String path, String generation, File source) throws IOException {
+    String key = startPut(bucket, path);
+    File temp = tempFileFor(key);
+    boolean written = false;
+    try {
+      copy(source, temp);
+      written = true;
+    } finally {
+      if (!written) {
+        temp.delete();
+      }
+    }
+    finishPut(temp, key, generation);
+  }
+
+  /**
+   * Reads a whole entry, failing like {@code StorageReference.getBytes} if it is larger than {@code
+   * maxSize}.
+   */
+  byte[] read(Entry entry, long maxSize) throws IOException {
+    RandomAccessFile file = new RandomAccessFile(entry.file, "r");
+    try {
+      long length = file.length();
+      if (length > maxSize) {
+        throw new IOException(
+            "the maximum allowed size was exceeded: " + length + " > " + maxSize + " bytes");
+      }
+      byte[] data = new byte[(int) length];
+      file.readFully(data);
+      return data;
+    } finally {
+      file.close();
+    }
+  }
+
+  void copyTo(Entry entry, File target) throws IOException {
+    copy(entry.file, target);
+  }
+
+  /** Deletes all entries, along with any file left in the directory. */
+  void clear() {
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    entries = null;
+    sizeBytes = 0;
+  }
+
+  /** Drops the entry for the object at {@code path}, and returns its key. */
+  private String startPut(String bucket, String path) {
+    String key = keyFor(bucket, path);
+    Entry previous = index().remove(key);
+    if (previous != null) {
+      sizeBytes -= previous.file.length();
+      previous.file.delete();
+    }
+    if (!directory.exists()) {
+      directory.mkdirs();
+    }
+    return key;
+  }
+
+  /** Moves a completely written {@code temp} file to its entry name. */
+  private void finishPut(File temp, String key, String generation) throws IOException {
+    File file = fileFor(key, generation, System.currentTimeMillis());
+    Entry entry = parse(file);
+    if (entry == null || !temp.renameTo(file)) {
+      temp.delete();
+      throw new IOException("Unable to cache " + file.getName());
+    }
+    entries.put(entry.key, entry);
+    sizeBytes += file.length();
+    trim();
+  }
+
+  private void trim() {
+    if (entries == null || sizeBytes <= maxSizeBytes) {
+      return;
+    }
+    List<Entry> lru = new ArrayList<>(entries.values());
+    Collections.sort(
+        lru,
+        new Comparator<Entry>() {
+          @Override
+          public int compare(Entry a, Entry b) {
+            long lastUsedA = a.file.lastModified();
+            long lastUsedB = b.file.lastModified();
+            return lastUsedA < lastUsedB ? -1 : (lastUsedA == lastUsedB ? 0 : 1);
+          }
+        });
+    for (Entry entry : lru) {
+      if (sizeBytes <= maxSizeBytes) {
+        break;
+      }
+      sizeBytes -= entry.file.length();
+      entry.file.delete();
+      entries.remove(entry.key);
+    }
+  }
+
+  private Map<String, Entry> index() {
+    if (entries != null) {
+      return entries;
+    }
+    entries = new HashMap<>();
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        Entry entry = parse(file);
+        if (entry == null) {
+          file.delete();
+          continue;
+        }
+        entries.put(entry.key, entry);
+        sizeBytes += file.length();
+      }
+    }
+    trim();
+    return entries;
+  }
+
+  /**
+   * Returns the file an entry is written to before it is complete. {@link #parse} rejects its name,
+   * so a write interrupted by the death of the process is deleted by {@link #index}.
+   */
+  private File tempFileFor(String key) {
+    return new File(directory, key + "." + System.nanoTime() + ".tmp");
+  }
+
+  private File fileFor(String key, String generation, long validatedAtMillis) {
+    return new File(directory, key + "." + generation + "." + validatedAtMillis);
+  }
+
+  /** Returns the generation of an object, or a hash of its MD5 hash if it has none. */
+  static String versionOf(StorageMetadata metadata) {
+    if (metadata.getGeneration() != null) {
+      return metadata.getGeneration();
+    }
+    return hash(String.valueOf(metadata.getMd5Hash()));
+  }
+
+  private static Entry parse(File file) {
+    String[] parts = file.getName().split("\\.");
+    if (parts.length != 3) {
+      return null;
+    }
+    try {
+      return new Entry(parts[0], file, parts[1], Long.parseLong(parts[2]));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static String keyFor(String bucket, String path) {
+    return hash(bucket + "/" + path);
+  }
+
+  private static String hash(String value) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      byte[] hash = digest.digest(value.getBytes("UTF-8"));
+      StringBuilder builder = new StringBuilder(hash.length * 2);
+      for (byte b : hash) {
+        builder.append(String.format("%02x", b));
+      }
+      return builder.toString();
+    } catch (NoSuchAlgorithmException | IOException e) {
+      // Both SHA-1 and UTF-8 are always available on Android.
+      Log.e(TAG, "Unable to hash " + value, e);
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void copy(File source, File target) throws IOException {
+    FileInputStream in = new FileInputStream(source);
+    try {
+      FileOutputStream out = new FileOutputStream(target);
+      try {
+        FileChannel inChannel = in.getChannel();
+        FileChannel outChannel = out.getChannel();
+        long size = inChannel.size();
+        long position = 0;
+        while (position < size) {
+          position += inChannel.transferTo(position, size - position, outChannel);
+        }
+      } finally {
+        out.close();
+      }
+    } finally {
+      in.close();
+    }
+  }
+}
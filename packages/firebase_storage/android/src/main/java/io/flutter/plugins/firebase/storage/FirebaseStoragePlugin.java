@@ -5,6 +5,10 @@
 package io.flutter.plugins.firebase.storage;
 
 import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
 import android.util.SparseArray;
 import android.webkit.MimeTypeMap;
 import androidx.annotation.NonNull;
@@ -21,23 +25,63 @@ import com.google.firebase.storage.StorageException;
 import com.google.firebase.storage.StorageMetadata;
 import com.google.firebase.storage.StorageReference;
 import com.google.firebase.storage.UploadTask;
+import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
 import io.flutter.plugin.common.MethodChannel.Result;
 import io.flutter.plugin.common.PluginRegistry.Registrar;
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /** FirebaseStoragePlugin */
 public class FirebaseStoragePlugin implements MethodCallHandler {
+  private static final String TAG = "FirebaseStoragePlugin";
+  // Minimum time between two aggregated upload queue events caused by progress.
+  private static final long UPLOAD_QUEUE_PROGRESS_INTERVAL_MILLIS = 250;
+
+  private static final String DOWNLOAD_STREAM_CHANNEL_PREFIX =
+      "plugins.flutter.io/firebase_storage/download/";
+  private static final int DEFAULT_STREAM_CHUNK_SIZE = 256 * 1024;
+  private static final int DEFAULT_STREAM_CHUNKS_IN_FLIGHT = 4;
+  // Same message as the StorageException of a canceled task.
+  private static final String CANCELED_MESSAGE = "The operation was cancelled.";
+
   private FirebaseStorage firebaseStorage;
+  private final BinaryMessenger messenger;
   private final MethodChannel channel;
 
   private int nextUploadHandle = 0;
   private final SparseArray<UploadTask> uploadTasks = new SparseArray<>();
 
+  // File downloads are keyed by handles allocated on the Dart side.
+  private final SparseArray<FileDownloadTask> downloadTasks = new SparseArray<>();
+
+  private int nextStreamHandle = 0;
+  private final SparseArray<StreamDownload> streamDownloads = new SparseArray<>();
+
+  // The download cache is only used on cacheExecutor, and is null while it is disabled.
+  private final File downloadCacheDirectory;
+  private final ExecutorService cacheExecutor = Executors.newSingleThreadExecutor();
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private DownloadCache downloadCache;
+  private long downloadCacheTtlMillis = 0;
+  // writeToFile calls that have no download task yet, or are served from the download cache.
+  private final SparseArray<CachedFileDownload> cachedFileDownloads = new SparseArray<>();
+
+  private final UploadQueue uploadQueue;
+  private long lastUploadQueueEventMillis = 0;
+
+  // Applied to the progress events of tasks started after they were set.
+  private long progressMinIntervalMillis = 0;
+  private long progressMinBytes = 0;
+
   public static void registerWith(Registrar registrar) {
     final MethodChannel channel =
         new MethodChannel(registrar.messenger(), "plugins.flutter.io/firebase_storage");
@@ -45,23 +89,39 @@ public class FirebaseStoragePlugin implements MethodCallHandler {
   }
 
   private FirebaseStoragePlugin(MethodChannel channel, Registrar registrar) {
+    this.messenger = registrar.messenger();
     this.channel = channel;
+    this.downloadCacheDirectory =
+        new File(registrar.context().getCacheDir(), "firebase_storage_downloads");
     FirebaseApp.initializeApp(registrar.context());
+    this.uploadQueue =
+        new UploadQueue(
+            registrar.context(),
+            new UploadQueue.UploadStarter() {
+              @Override
+              public void startUpload(UploadQueue.QueuedUpload upload) {
+                startQueuedUpload(upload);
+              }
+            });
   }
 
-  @Override
-  public void onMethodCall(@NonNull MethodCall call, @NonNull final Result result) {
-    String app = call.argument("app");
-    String storageBucket = call.argument("bucket");
+  private static FirebaseStorage getStorage(String app, String storageBucket) {
     if (app == null && storageBucket == null) {
-      firebaseStorage = FirebaseStorage.getInstance();
+      return FirebaseStorage.getInstance();
     } else if (storageBucket == null) {
-      firebaseStorage = FirebaseStorage.getInstance(FirebaseApp.getInstance(app));
+      return FirebaseStorage.getInstance(FirebaseApp.getInstance(app));
     } else if (app == null) {
-      firebaseStorage = FirebaseStorage.getInstance(storageBucket);
+      return FirebaseStorage.getInstance(storageBucket);
     } else {
-      firebaseStorage = FirebaseStorage.getInstance(FirebaseApp.getInstance(app), storageBucket);
+      return FirebaseStorage.getInstance(FirebaseApp.getInstance(app), storageBucket);
     }
+  }
+
+  @Override
+  public void onMethodCall(@NonNull MethodCall call, @NonNull final Result result) {
+    String app = call.argument("app");
+    String storageBucket = call.argument("bucket");
+    firebaseStorage = getStorage(app, storageBucket);
 
     switch (call.method) {
       case "FirebaseStorage#getMaxDownloadRetryTime":
@@ -82,6 +142,15 @@ public class FirebaseStoragePlugin implements MethodCallHandler {
       case "FirebaseStorage#setMaxOperationRetryTime":
         setMaxOperationTimeMillis(call, result);
         break;
+      case "FirebaseStorage#setProgressThrottle":
+        setProgressThrottle(call, result);
+        break;
+      case "FirebaseStorage#setDownloadCache":
+        setDownloadCache(call, result);
+        break;
+      case "FirebaseStorage#clearDownloadCache":
+        clearDownloadCache(result);
+        break;
       case "FirebaseStorage#getReferenceFromUrl":
         getReferenceFromUrl(call, result);
         break;
@@ -94,6 +163,12 @@ public class FirebaseStoragePlugin implements MethodCallHandler {
       case "StorageReference#getData":
         getData(call, result);
         break;
+      case "StorageReference#getStream":
+        getStream(call, result);
+        break;
+      case "DownloadStream#ack":
+        ackDownloadStream(call, result);
+        break;
       case "StorageReference#delete":
         delete(call, result);
         break;
@@ -127,6 +202,27 @@ public class FirebaseStoragePlugin implements MethodCallHandler {
       case "UploadTask#cancel":
         cancelUploadTask(call, result);
         break;
+      case "DownloadTask#pause":
+        pauseDownloadTask(call, result);
+        break;
+      case "DownloadTask#resume":
+        resumeDownloadTask(call, result);
+        break;
+      case "DownloadTask#cancel":
+        cancelDownloadTask(call, result);
+        break;
+      case "UploadQueue#enqueueFile":
+        enqueueFile(call, result);
+        break;
+      case "UploadQueue#setMaxConcurrentUploads":
+        setMaxConcurrentUploads(call, result);
+        break;
+      case "UploadQueue#restore":
+        restoreUploadQueue(result);
+        break;
+      case "UploadQueue#getSnapshot":
+        result.success(uploadQueue.getSnapshot());
+        break;
       default:
         result.notImplemented();
         break;
@@ -151,6 +247,51 @@ public class FirebaseStoragePlugin implements MethodCallHandler {
     result.success(null);
   }
 
+  private void setProgressThrottle(MethodCall call, Result result) {
+    Number minIntervalMillis = call.argument("minIntervalMillis");
+    Number minBytes = call.argument("minBytes");
+    progressMinIntervalMillis = minIntervalMillis.longValue();
+    progressMinBytes = minBytes.longValue();
+    result.success(null);
+  }
+
+  private void setDownloadCache(MethodCall call, final Result result) {
+    Number maxSizeBytes = call.argument("maxSizeBytes");
+    Number ttlMillis = call.argument("ttlMillis");
+    downloadCacheTtlMillis = ttlMillis.longValue();
+    if (maxSizeBytes.longValue() <= 0) {
+      clearDownloadCache(result);
+      downloadCache = null;
+      return;
+    }
+    final long maxSize = maxSizeBytes.longValue();
+    if (downloadCache == null) {
+      downloadCache = new DownloadCache(downloadCacheDirectory, maxSize);
+    }
+    final DownloadCache cache = downloadCache;
+    cacheExecutor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            cache.setMaxSizeBytes(maxSize);
+            postSuccess(result, null);
+          }
+        });
+  }
+
+  private void clearDownloadCache(final Result result) {
+    final DownloadCache cache =
+        downloadCache != null ? downloadCache : new DownloadCache(downloadCacheDirectory, 0);
+    cacheExecutor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            cache.clear();
+            postSuccess(result, null);
+          }
+        });
+  }
+
   private void getReferenceFromUrl(MethodCall call, Result result) {
     String fullUrl = call.argument("fullUrl");
     StorageReference ref = firebaseStorage.getReferenceFromUrl(fullUrl);
@@ -285,6 +426,69 @@ public class FirebaseStoragePlugin implements MethodCallHandler {
     result.success(handle);
   }
 
+  private void enqueueFile(MethodCall call, Result result) {
+    String filename = call.argument("filename");
+    Map<String, Object> metadata = call.argument("metadata");
+    Integer priority = call.argument("priority");
+    metadata = ensureMimeType(metadata, Uri.fromFile(new File(filename)));
+
+    UploadQueue.QueuedUpload upload =
+        new UploadQueue.QueuedUpload(
+            ++nextUploadHandle,
+            (String) call.argument("app"),
+            (String) call.argument("bucket"),
+            (String) call.argument("path"),
+            filename,
+            metadata,
+            priority == null ? 0 : priority,
+            uploadQueue.nextSequence());
+    result.success(upload.handle);
+    uploadQueue.enqueue(upload);
+    invokeUploadQueueEvent();
+  }
+
+  private void setMaxConcurrentUploads(MethodCall call, Result result) {
+    int maxConcurrentUploads = call.argument("maxConcurrentUploads");
+    uploadQueue.setMaxConcurrentUploads(maxConcurrentUploads);
+    result.success(null);
+  }
+
+  private void restoreUploadQueue(Result result) {
+    List<UploadQueue.QueuedUpload> uploads =
+        uploadQueue.restore(
+            new UploadQueue.HandleAllocator() {
+              @Override
+              public int nextHandle() {
+                return ++nextUploadHandle;
+              }
+            });
+    List<Map<String, Object>> restored = new ArrayList<>(uploads.size());
+    for (UploadQueue.QueuedUpload upload : uploads) {
+      Map<String, Object> map = new HashMap<>();
+      map.put("handle", upload.handle);
+      map.put("app", upload.app);
+      map.put("bucket", upload.bucket);
+      map.put("path", upload.path);
+      map.put("filename", upload.filename);
+      restored.add(map);
+    }
+    result.success(restored);
+  }
+
+  private void startQueuedUpload(UploadQueue.QueuedUpload upload) {
+    StorageReference ref = getStorage(upload.app, upload.bucket).getReference().child(upload.path);
+    Uri fileUri = Uri.fromFile(new File(upload.filename));
+    StorageMetadata metadata = buildMetadataFromMap(upload.metadata);
+    UploadTask uploadTask;
+    if (upload.uploadSessionUri != null) {
+      // Continues the upload session that was interrupted when the process died.
+      uploadTask = ref.putFile(fileUri, metadata, Uri.parse(upload.uploadSessionUri));
+    } else {
+      uploadTask = ref.putFile(fileUri, metadata);
+    }
+    addUploadListeners(uploadTask, upload.handle);
+  }
+
   private StorageMetadata buildMetadataFromMap(Map<String, Object> map) {
     StorageMetadata.Builder builder = new StorageMetadata.Builder();
     builder.setCacheControl((String) map.get("cacheControl"));
@@ -332,6 +536,10 @@ public class FirebaseStoragePlugin implements MethodCallHandler {
     Integer maxSize = call.argument("maxSize");
     String path = call.argument("path");
     StorageReference ref = firebaseStorage.getReference().child(path);
+    if (downloadCache != null) {
+      getCachedData(downloadCache, ref, maxSize, result);
+      return;
+    }
     Task<byte[]> downloadTask = ref.getBytes(maxSize);
     downloadTask.addOnSuccessListener(
         new OnSuccessListener<byte[]>() {
@@ -349,17 +557,311 @@ public class FirebaseStoragePlugin implements MethodCallHandler {
         });
   }
 
+  private void getStream(MethodCall call, Result result) {
+    String path = call.argument("path");
+    Integer chunkSize = call.argument("chunkSize");
+    Integer maxChunksInFlight = call.argument("maxChunksInFlight");
+    StorageReference ref = firebaseStorage.getReference().child(path);
+    int handle = ++nextStreamHandle;
+    StreamDownload download =
+        new StreamDownload(
+            messenger,
+            DOWNLOAD_STREAM_CHANNEL_PREFIX + handle,
+            handle,
+            ref,
+            chunkSize != null ? chunkSize : DEFAULT_STREAM_CHUNK_SIZE,
+            maxChunksInFlight != null ? maxChunksInFlight : DEFAULT_STREAM_CHUNKS_IN_FLIGHT,
+            new StreamDownload.OnDisposedListener() {
+              @Override
+              public void onDisposed(StreamDownload download) {
+                streamDownloads.remove(download.handle);
+              }
+            });
+    streamDownloads.put(handle, download);
+    result.success(handle);
+  }
+
+  private void ackDownloadStream(MethodCall call, Result result) {
+    int handle = call.argument("handle");
+    int count = call.argument("count");
+    StreamDownload download = streamDownloads.get(handle);
+    // The download may already be done while acknowledgements are still on their way.
+    if (download != null) {
+      download.ack(count);
+    }
+    result.success(null);
+  }
+
+  /**
+   * Serves {@code getData} from the download cache.
+   *
+   * <p>Entries validated less than the cache TTL ago are served without any request. Older entries
+   * are checked with a metadata request, and the object is only downloaded again if its generation
+   * changed.
+   */
+  private void getCachedData(
+      final DownloadCache cache,
+      final StorageReference ref,
+      final int maxSize,
+      final Result result) {
+    final long ttlMillis = downloadCacheTtlMillis;
+    cacheExecutor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            final DownloadCache.Entry entry = cache.get(ref.getBucket(), ref.getPath());
+            if (entry != null && System.currentTimeMillis() - entry.validatedAtMillis < ttlMillis) {
+              postCachedData(cache, entry, maxSize, result);
+              return;
+            }
+            ref.getMetadata()
+                .addOnSuccessListener(
+                    cacheExecutor,
+                    new OnSuccessListener<StorageMetadata>() {
+                      @Override
+                      public void onSuccess(StorageMetadata metadata) {
+                        final String version = DownloadCache.versionOf(metadata);
+                        if (entry != null && entry.generation.equals(version)) {
+                          postCachedData(cache, cache.revalidate(entry), maxSize, result);
+                          return;
+                        }
+                        ref.getBytes(maxSize)
+                            .addOnSuccessListener(
+                                cacheExecutor,
+                                new OnSuccessListener<byte[]>() {
+                                  @Override
+                                  public void onSuccess(byte[] bytes) {
+                                    try {
+                                      cache.put(ref.getBucket(), ref.getPath(), version, bytes);
+                                    } catch (IOException e) {
+                                      Log.w(TAG, "Unable to cache " + ref.getPath(), e);
+                                    }
+                                    postSuccess(result, bytes);
+                                  }
+                                })
+                            .addOnFailureListener(cacheExecutor, postDownloadError(result));
+                      }
+                    })
+                .addOnFailureListener(cacheExecutor, postDownloadError(result));
+          }
+        });
+  }
+
+  private void postCachedData(
+      DownloadCache cache, DownloadCache.Entry entry, int maxSize, Result result) {
+    try {
+      postSuccess(result, cache.read(entry, maxSize));
+    } catch (IOException e) {
+      postError(result, "download_error", e.getMessage());
+    }
+  }
+
   private void writeToFile(MethodCall call, final Result result) {
     String path = call.argument("path");
     String filePath = call.argument("filePath");
+    Integer handle = call.argument("handle");
     File file = new File(filePath);
     StorageReference ref = firebaseStorage.getReference().child(path);
+    if (downloadCache != null) {
+      CachedFileDownload download = new CachedFileDownload(handle, result);
+      if (handle != null) {
+        cachedFileDownloads.put(handle, download);
+      }
+      writeCachedFile(downloadCache, ref, file, download);
+    } else {
+      downloadFile(ref, file, handle, result, null);
+    }
+  }
+
+  /**
+   * A {@code writeToFile} call that is served from the download cache, until it either completes or
+   * is handed over to a download task.
+   *
+   * <p>Pausing it only pauses the download task that may follow, as copying a cached file is not
+   * interruptible. Canceling it stops it before the copy or the download task starts.
+   */
+  private final class CachedFileDownload {
+    final Integer handle;
+    final Result result;
+    volatile boolean paused = false;
+    volatile boolean canceled = false;
+
+    CachedFileDownload(Integer handle, Result result) {
+      this.handle = handle;
+      this.result = result;
+    }
+
+    /** Called on the cache executor. */
+    void copyFromCache(DownloadCache cache, DownloadCache.Entry entry, File file) {
+      if (canceled) {
+        finish(null, CANCELED_MESSAGE);
+        return;
+      }
+      try {
+        cache.copyTo(entry, file);
+        finish(file.length(), null);
+      } catch (IOException e) {
+        finish(null, e.getMessage());
+      }
+    }
+
+    /** Called on the cache executor. */
+    void download(final StorageReference ref, final File file, final Runnable onDownloaded) {
+      mainHandler.post(
+          new Runnable() {
+            @Override
+            public void run() {
+              remove();
+              if (canceled) {
+                result.error("download_error", CANCELED_MESSAGE, null);
+                return;
+              }
+              FileDownloadTask task = downloadFile(ref, file, handle, result, onDownloaded);
+              if (paused) {
+                task.pause();
+              }
+            }
+          });
+    }
+
+    /** Called on the cache executor. */
+    void finish(final Long totalByteCount, final String errorMessage) {
+      mainHandler.post(
+          new Runnable() {
+            @Override
+            public void run() {
+              remove();
+              if (errorMessage != null) {
+                result.error("download_error", errorMessage, null);
+              } else {
+                result.success(totalByteCount);
+              }
+            }
+          });
+    }
+
+    private void remove() {
+      if (handle != null && cachedFileDownloads.get(handle) == this) {
+        cachedFileDownloads.remove(handle);
+      }
+    }
+  }
+
+  /**
+   * Serves {@code writeToFile} from the download cache, validating entries like {@link
+   * #getCachedData}. Downloaded files are copied into the cache before the call completes.
+   */
+  private void writeCachedFile(
+      final DownloadCache cache,
+      final StorageReference ref,
+      final File file,
+      final CachedFileDownload download) {
+    final long ttlMillis = downloadCacheTtlMillis;
+    cacheExecutor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            final DownloadCache.Entry entry = cache.get(ref.getBucket(), ref.getPath());
+            if (entry != null && System.currentTimeMillis() - entry.validatedAtMillis < ttlMillis) {
+              download.copyFromCache(cache, entry, file);
+              return;
+            }
+            ref.getMetadata()
+                .addOnSuccessListener(
+                    cacheExecutor,
+                    new OnSuccessListener<StorageMetadata>() {
+                      @Override
+                      public void onSuccess(StorageMetadata metadata) {
+                        final String version = DownloadCache.versionOf(metadata);
+                        if (entry != null && entry.generation.equals(version)) {
+                          download.copyFromCache(cache, cache.revalidate(entry), file);
+                          return;
+                        }
+                        download.download(
+                            ref,
+                            file,
+                            new Runnable() {
+                              @Override
+                              public void run() {
+                                try {
+                                  cache.put(ref.getBucket(), ref.getPath(), version, file);
+                                } catch (IOException e) {
+                                  Log.w(TAG, "Unable to cache " + ref.getPath(), e);
+                                }
+                              }
+                            });
+                      }
+                    })
+                .addOnFailureListener(
+                    cacheExecutor,
+                    new OnFailureListener() {
+                      @Override
+                      public void onFailure(@NonNull Exception e) {
+                        download.finish(null, e.getMessage());
+                      }
+                    });
+          }
+        });
+  }
+
+  /**
+   * Downloads {@code ref} to {@code file}. If {@code onDownloaded} is set, it is run on the cache
+   * executor once the download succeeded, before the result is sent.
+   */
+  private FileDownloadTask downloadFile(
+      StorageReference ref,
+      File file,
+      final Integer handle,
+      final Result result,
+      final Runnable onDownloaded) {
     FileDownloadTask downloadTask = ref.getFile(file);
+    if (handle != null) {
+      final ProgressThrottle throttle =
+          new ProgressThrottle(progressMinIntervalMillis, progressMinBytes);
+      downloadTask
+          .addOnProgressListener(
+              new OnProgressListener<FileDownloadTask.TaskSnapshot>() {
+                @Override
+                public void onProgress(FileDownloadTask.TaskSnapshot snapshot) {
+                  if (throttle.shouldSend(
+                      snapshot.getBytesTransferred(), snapshot.getTotalByteCount())) {
+                    invokeDownloadTaskEvent(handle, StorageTaskEventType.progress, snapshot);
+                  }
+                }
+              })
+          .addOnPausedListener(
+              new OnPausedListener<FileDownloadTask.TaskSnapshot>() {
+                @Override
+                public void onPaused(FileDownloadTask.TaskSnapshot snapshot) {
+                  invokeDownloadTaskEvent(handle, StorageTaskEventType.pause, snapshot);
+                }
+              })
+          .addOnCompleteListener(
+              new OnCompleteListener<FileDownloadTask.TaskSnapshot>() {
+                @Override
+                public void onComplete(@NonNull Task<FileDownloadTask.TaskSnapshot> task) {
+                  downloadTasks.remove(handle);
+                }
+              });
+      downloadTasks.put(handle, downloadTask);
+    }
     downloadTask.addOnSuccessListener(
         new OnSuccessListener<FileDownloadTask.TaskSnapshot>() {
           @Override
-          public void onSuccess(FileDownloadTask.TaskSnapshot taskSnapshot) {
-            result.success(taskSnapshot.getTotalByteCount());
+          public void onSuccess(final FileDownloadTask.TaskSnapshot taskSnapshot) {
+            if (onDownloaded == null) {
+              result.success(taskSnapshot.getTotalByteCount());
+              return;
+            }
+            // Cached first, so that the calls made once this one completed find the file.
+            cacheExecutor.execute(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    onDownloaded.run();
+                    postSuccess(result, taskSnapshot.getTotalByteCount());
+                  }
+                });
           }
         });
     downloadTask.addOnFailureListener(
@@ -369,6 +871,81 @@ public class FirebaseStoragePlugin implements MethodCallHandler {
             result.error("download_error", e.getMessage(), null);
           }
         });
+    return downloadTask;
+  }
+
+  private void postSuccess(final Result result, final Object value) {
+    mainHandler.post(
+        new Runnable() {
+          @Override
+          public void run() {
+            result.success(value);
+          }
+        });
+  }
+
+  private void postError(final Result result, final String code, final String message) {
+    mainHandler.post(
+        new Runnable() {
+          @Override
+          public void run() {
+            result.error(code, message, null);
+          }
+        });
+  }
+
+  private OnFailureListener postDownloadError(final Result result) {
+    return new OnFailureListener() {
+      @Override
+      public void onFailure(@NonNull Exception e) {
+        postError(result, "download_error", e.getMessage());
+      }
+    };
+  }
+
+  private void pauseDownloadTask(MethodCall call, final Result result) {
+    int handle = call.argument("handle");
+    FileDownloadTask task = downloadTasks.get(handle);
+    CachedFileDownload cachedDownload = cachedFileDownloads.get(handle);
+    if (task != null) {
+      task.pause();
+      result.success(null);
+    } else if (cachedDownload != null) {
+      cachedDownload.paused = true;
+      result.success(null);
+    } else {
+      result.error("pause_error", "task == null", null);
+    }
+  }
+
+  private void resumeDownloadTask(MethodCall call, final Result result) {
+    int handle = call.argument("handle");
+    FileDownloadTask task = downloadTasks.get(handle);
+    CachedFileDownload cachedDownload = cachedFileDownloads.get(handle);
+    if (task != null) {
+      task.resume();
+      result.success(null);
+    } else if (cachedDownload != null) {
+      cachedDownload.paused = false;
+      result.success(null);
+    } else {
+      result.error("resume_error", "task == null", null);
+    }
+  }
+
+  private void cancelDownloadTask(MethodCall call, final Result result) {
+    int handle = call.argument("handle");
+    FileDownloadTask task = downloadTasks.get(handle);
+    CachedFileDownload cachedDownload = cachedFileDownloads.get(handle);
+    if (task != null) {
+      task.cancel();
+      result.success(null);
+    } else if (cachedDownload != null) {
+      cachedDownload.canceled = true;
+      result.success(null);
+    } else {
+      result.error("cancel_error", "task == null", null);
+    }
   }
 
   private void pauseUploadTask(MethodCall call, final Result result) {
@@ -377,6 +954,9 @@ public class FirebaseStoragePlugin implements MethodCallHandler {
     if (task != null) {
       task.pause();
       result.success(null);
+    } else if (uploadQueue.pauseWaiting(handle)) {
+      invokeQueuedUploadEvent(handle, StorageTaskEventType.pause, null);
+      result.success(null);
     } else {
       result.error("pause_error", "task == null", null);
     }
@@ -388,6 +968,11 @@ public class FirebaseStoragePlugin implements MethodCallHandler {
     if (task != null) {
       task.cancel();
       result.success(null);
+    } else if (uploadQueue.cancelWaiting(handle) != null) {
+      invokeQueuedUploadEvent(
+          handle, StorageTaskEventType.failure, StorageException.ERROR_CANCELED);
+      invokeUploadQueueEvent();
+      result.success(null);
     } else {
       result.error("cancel_error", "task == null", null);
     }
@@ -399,6 +984,9 @@ public class FirebaseStoragePlugin implements MethodCallHandler {
     if (task != null) {
       task.resume();
       result.success(null);
+    } else if (uploadQueue.resumeWaiting(handle)) {
+      invokeQueuedUploadEvent(handle, StorageTaskEventType.resume, null);
+      result.success(null);
     } else {
       result.error("resume_error", "task == null", null);
     }
@@ -406,12 +994,33 @@ public class FirebaseStoragePlugin implements MethodCallHandler {
 
   private int addUploadListeners(final UploadTask uploadTask) {
     final int handle = ++nextUploadHandle;
+    addUploadListeners(uploadTask, handle);
+    return handle;
+  }
+
+  private void addUploadListeners(final UploadTask uploadTask, final int handle) {
+    final ProgressThrottle throttle =
+        new ProgressThrottle(progressMinIntervalMillis, progressMinBytes);
     uploadTask
         .addOnProgressListener(
             new OnProgressListener<UploadTask.TaskSnapshot>() {
               @Override
               public void onProgress(UploadTask.TaskSnapshot snapshot) {
-                invokeStorageTaskEvent(handle, StorageTaskEventType.progress, snapshot, null);
+                if (throttle.shouldSend(
+                    snapshot.getBytesTransferred(), snapshot.getTotalByteCount())) {
+                  invokeStorageTaskEvent(handle, StorageTaskEventType.progress, snapshot, null);
+                }
+                if (uploadQueue.contains(handle)) {
+                  Uri sessionUri = snapshot.getUploadSessionUri();
+                  uploadQueue.onProgress(
+                      handle,
+                      snapshot.getBytesTransferred(),
+                      sessionUri != null ? sessionUri.toString() : null);
+                  long now = SystemClock.elapsedRealtime();
+                  if (now - lastUploadQueueEventMillis >= UPLOAD_QUEUE_PROGRESS_INTERVAL_MILLIS) {
+                    invokeUploadQueueEvent();
+                  }
+                }
               }
             })
         .addOnPausedListener(
@@ -436,10 +1045,13 @@ public class FirebaseStoragePlugin implements MethodCallHandler {
                       handle, StorageTaskEventType.success, task.getResult(), null);
                 }
                 uploadTasks.remove(handle);
+                if (uploadQueue.contains(handle)) {
+                  uploadQueue.onComplete(handle, task.isSuccessful());
+                  invokeUploadQueueEvent();
+                }
               }
             });
     uploadTasks.put(handle, uploadTask);
-    return handle;
   }
 
   private enum StorageTaskEventType {
@@ -458,6 +1070,38 @@ public class FirebaseStoragePlugin implements MethodCallHandler {
     channel.invokeMethod("StorageTaskEvent", buildMapFromTaskEvent(handle, type, snapshot, error));
   }
 
+  private void invokeDownloadTaskEvent(
+      int handle, StorageTaskEventType type, FileDownloadTask.TaskSnapshot snapshot) {
+    Map<String, Object> snapshotMap = new HashMap<>();
+    snapshotMap.put("bytesTransferred", snapshot.getBytesTransferred());
+    snapshotMap.put("totalByteCount", snapshot.getTotalByteCount());
+    Map<String, Object> map = new HashMap<>();
+    map.put("handle", handle);
+    map.put("type", type.ordinal());
+    map.put("snapshot", snapshotMap);
+    channel.invokeMethod("DownloadTaskEvent", map);
+  }
+
+  /** Sends a task event for a queued upload that has no upload task yet. */
+  private void invokeQueuedUploadEvent(int handle, StorageTaskEventType type, Integer error) {
+    Map<String, Object> snapshot = new HashMap<>();
+    snapshot.put("bytesTransferred", 0L);
+    snapshot.put("totalByteCount", -1L);
+    if (error != null) {
+      snapshot.put("error", error);
+    }
+    Map<String, Object> map = new HashMap<>();
+    map.put("handle", handle);
+    map.put("type", type.ordinal());
+    map.put("snapshot", snapshot);
+    channel.invokeMethod("StorageTaskEvent", map);
+  }
+
+  private void invokeUploadQueueEvent() {
+    lastUploadQueueEventMillis = SystemClock.elapsedRealtime();
+    channel.invokeMethod("UploadQueueEvent", uploadQueue.getSnapshot());
+  }
+
   private Map<String, Object> buildMapFromTaskEvent(
       int handle,
       StorageTaskEventType type,
@@ -0,0 +1,49 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.storage;
+
+import android.os.SystemClock;
+
+/**
+ * Decides which progress callbacks of a single task are forwarded to Dart.
+ *
+ * <p>A progress event is forwarded once at least {@code minIntervalMillis} have passed or at least
+ * {@code minBytes} have been transferred since the last forwarded one. A limit of 0 is not set, and
+ * every event is forwarded when neither limit is set. The first event and the event that completes
+ * the transfer are always forwarded.
+ */
+class ProgressThrottle {
+  private final long minIntervalMillis;
+  private final long minBytes;
+
+  private long lastEventMillis = Long.MIN_VALUE;
+  private long lastBytesTransferred = 0;
+
+  ProgressThrottle(long minIntervalMillis, long minBytes) {
+    this.minIntervalMillis = minIntervalMillis;
+    this.minBytes = minBytes;
+  }
+
+  boolean shouldSend(long bytesTransferred, long totalByteCount) {
+    long now = SystemClock.elapsedRealtime();
+    if (!isDue(now, bytesTransferred, totalByteCount)) {
+      return false;
+    }
+    lastEventMillis = now;
+    lastBytesTransferred = bytesTransferred;
+    return true;
+  }
+
+  private boolean isDue(long now, long bytesTransferred, long totalByteCount) {
+    if (lastEventMillis == Long.MIN_VALUE || (minIntervalMillis <= 0 && minBytes <= 0)) {
+      return true;
+    }
+    if (totalByteCount >= 0 && bytesTransferred >= totalByteCount) {
+      return true;
+    }
+    return (minIntervalMillis > 0 && now - lastEventMillis >= minIntervalMillis)
+        || (minBytes > 0 && bytesTransferred - lastBytesTransferred >= minBytes);
+  }
+}
@@ -0,0 +1,161 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.storage;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.firebase.storage.StorageReference;
+import com.google.firebase.storage.StreamDownloadTask;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.EventChannel;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Downloads an object with {@link StorageReference#getStream} and sends it to Dart in chunks over
+ * its own {@link EventChannel}.
+ *
+ * <p>At most {@code maxChunksInFlight} chunks are sent before Dart acknowledges them with {@link
+ * #ack}. Until then the background thread of the download task stops reading, so neither the Java
+ * heap nor the Dart side has to hold more than that many chunks of the object at a time.
+ */
+class StreamDownload implements EventChannel.StreamHandler {
+  /** Called once the download finished, failed or was canceled. */
+  interface OnDisposedListener {
+    void onDisposed(StreamDownload download);
+  }
+
+  final int handle;
+  private final EventChannel eventChannel;
+  private final StorageReference ref;
+  private final int chunkSize;
+  private final int maxChunksInFlight;
+  private final Semaphore chunksInFlight;
+  private final OnDisposedListener onDisposedListener;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+  private StreamDownloadTask task;
+  private volatile boolean canceled = false;
+
+  StreamDownload(
+      BinaryMessenger messenger,
+      String channelName,
+      int handle,
+      StorageReference ref,
+      int chunkSize,
+      int maxChunksInFlight,
+      OnDisposedListener onDisposedListener) {
+    this.handle = handle;
+    this.eventChannel = new EventChannel(messenger, channelName);
+    this.ref = ref;
+    this.chunkSize = chunkSize;
+    this.maxChunksInFlight = maxChunksInFlight;
+    this.chunksInFlight = new Semaphore(maxChunksInFlight);
+    this.onDisposedListener = onDisposedListener;
+    eventChannel.setStreamHandler(this);
+  }
+
+  /** Called when Dart consumed {@code count} chunks. */
+  void ack(int count) {
+    chunksInFlight.release(count);
+  }
+
+  @Override
+  public void onListen(Object arguments, final EventChannel.EventSink events) {
+    task =
+        ref.getStream(
+            new StreamDownloadTask.StreamProcessor() {
+              @Override
+              public void doInBackground(
+                  @NonNull StreamDownloadTask.TaskSnapshot snapshot, @NonNull InputStream stream)
+                  throws IOException {
+                try {
+                  byte[] chunk;
+                  while (!canceled && (chunk = readChunk(stream)) != null) {
+                    try {
+                      chunksInFlight.acquire();
+                    } catch (InterruptedException e) {
+                      throw new InterruptedIOException("Stream download was interrupted.");
+                    }
+                    if (canceled) {
+                      break;
+                    }
+                    final byte[] data = chunk;
+                    mainHandler.post(
+                        new Runnable() {
+                          @Override
+                          public void run() {
+                            if (!canceled) {
+                              events.success(data);
+                            }
+                          }
+                        });
+                  }
+                } finally {
+                  stream.close();
+                }
+              }
+            });
+    task.addOnSuccessListener(
+        new OnSuccessListener<StreamDownloadTask.TaskSnapshot>() {
+          @Override
+          public void onSuccess(StreamDownloadTask.TaskSnapshot snapshot) {
+            if (!canceled) {
+              events.endOfStream();
+            }
+            dispose();
+          }
+        });
+    task.addOnFailureListener(
+        new OnFailureListener() {
+          @Override
+          public void onFailure(@NonNull Exception e) {
+            if (!canceled) {
+              events.error("download_error", e.getMessage(), null);
+            }
+            dispose();
+          }
+        });
+  }
+
+  @Override
+  public void onCancel(Object arguments) {
+    canceled = true;
+    if (task != null) {
+      task.cancel();
+    }
+    // Unblocks the background thread if it waits for an acknowledgement.
+    chunksInFlight.release(maxChunksInFlight);
+    dispose();
+  }
+
+  /** Reads until the chunk is full or the stream ends. Returns null at the end of the stream. */
+  private byte[] readChunk(InputStream stream) throws IOException {
+    byte[] buffer = new byte[chunkSize];
+    int length = 0;
+    while (length < chunkSize) {
+      int read = stream.read(buffer, length, chunkSize - length);
+      if (read == -1) {
+        break;
+      }
+      length += read;
+    }
+    if (length == 0) {
+      return null;
+    }
+    return length == chunkSize ? buffer : Arrays.copyOf(buffer, length);
+  }
+
+  private void dispose() {
+    eventChannel.setStreamHandler(null);
+    onDisposedListener.onDisposed(this);
+  }
+}
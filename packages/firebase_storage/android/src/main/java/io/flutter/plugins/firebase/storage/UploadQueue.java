@@ -0,0 +1,346 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.storage;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+import android.util.SparseArray;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Coordinates queued file uploads so that at most {@code maxConcurrentUploads} of them run at the
+ * same time.
+ *
+ * <p>Waiting uploads are started in priority order, and in enqueue order for equal priorities.
+ * Every upload that has not finished yet is persisted to shared preferences together with its
+ * upload session URI, so {@link #restore} can pick the queue back up after the process was killed.
+ *
+ * <p>All methods must be called on the main thread.
+ */
+class UploadQueue {
+  private static final String TAG = "UploadQueue";
+  private static final String PREFERENCES_NAME = "io.flutter.plugins.firebase.storage.UploadQueue";
+  private static final String PREFERENCES_KEY = "uploads";
+
+  /** Starts the actual upload task of a queued upload. */
+  interface UploadStarter {
+    void startUpload(QueuedUpload upload);
+  }
+
+  /** Hands out upload handles from the plugin's handle space. */
+  interface HandleAllocator {
+    int nextHandle();
+  }
+
+  static class QueuedUpload {
+    final int handle;
+    final String app;
+    final String bucket;
+    final String path;
+    final String filename;
+    final Map<String, Object> metadata;
+    final int priority;
+    final long sequence;
+    final long totalByteCount;
+
+    String uploadSessionUri;
+    long bytesTransferred = 0;
+    boolean paused = false;
+
+    QueuedUpload(
+        int handle,
+        String app,
+        String bucket,
+        String path,
+        String filename,
+        Map<String, Object> metadata,
+        int priority,
+        long sequence) {
+      this.handle = handle;
+      this.app = app;
+      this.bucket = bucket;
+      this.path = path;
+      this.filename = filename;
+      this.metadata = metadata;
+      this.priority = priority;
+      this.sequence = sequence;
+      this.totalByteCount = new File(filename).length();
+    }
+  }
+
+  private final SharedPreferences preferences;
+  private final UploadStarter starter;
+
+  private final PriorityQueue<QueuedUpload> waiting =
+      new PriorityQueue<>(
+          11,
+          new Comparator<QueuedUpload>() {
+            @Override
+            public int compare(QueuedUpload a, QueuedUpload b) {
+              if (a.priority != b.priority) {
+                return a.priority > b.priority ? -1 : 1;
+              }
+              return a.sequence < b.sequence ? -1 : (a.sequence == b.sequence ? 0 : 1);
+            }
+          });
+  private final SparseArray<QueuedUpload> running = new SparseArray<>();
+
+  private int maxConcurrentUploads = 3;
+  private long nextSequence = 0;
+  private boolean restored = false;
+
+  // Aggregated counters of the current batch, reset whenever the queue drains.
+  private int completed = 0;
+  private int failed = 0;
+  private long completedBytes = 0;
+  private long batchTotalBytes = 0;
+
+  UploadQueue(Context context, UploadStarter starter) {
+    this.preferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+    this.starter = starter;
+  }
+
+  void setMaxConcurrentUploads(int maxConcurrentUploads) {
+    this.maxConcurrentUploads = Math.max(1, maxConcurrentUploads);
+    schedule();
+  }
+
+  void enqueue(QueuedUpload upload) {
+    waiting.add(upload);
+    batchTotalBytes += upload.totalByteCount;
+    persist();
+    schedule();
+  }
+
+  long nextSequence() {
+    return nextSequence++;
+  }
+
+  boolean contains(int handle) {
+    return running.get(handle) != null || findWaiting(handle) != null;
+  }
+
+  /**
+   * Re-enqueues the uploads that were persisted by a previous process.
+   *
+   * <p>Only does something the first time it is called. Every restored upload gets a new handle
+   * from {@code handles}.
+   */
+  List<QueuedUpload> restore(HandleAllocator handles) {
+    List<QueuedUpload> uploads = new ArrayList<>();
+    if (restored) {
+      return uploads;
+    }
+    restored = true;
+    try {
+      JSONArray array = new JSONArray(preferences.getString(PREFERENCES_KEY, "[]"));
+      for (int i = 0; i < array.length(); i++) {
+        JSONObject json = array.getJSONObject(i);
+        String filename = json.getString("filename");
+        if (!new File(filename).exists()) {
+          continue;
+        }
+        QueuedUpload upload =
+            new QueuedUpload(
+                handles.nextHandle(),
+                json.isNull("app") ? null : json.getString("app"),
+                json.isNull("bucket") ? null : json.getString("bucket"),
+                json.getString("path"),
+                filename,
+                json.isNull("metadata") ? null : toMap(json.getJSONObject("metadata")),
+                json.getInt("priority"),
+                nextSequence());
+        upload.uploadSessionUri =
+            json.isNull("uploadSessionUri") ? null : json.getString("uploadSessionUri");
+        uploads.add(upload);
+      }
+    } catch (JSONException e) {
+      Log.e(TAG, "Unable to restore the upload queue.", e);
+    }
+    for (QueuedUpload upload : uploads) {
+      waiting.add(upload);
+      batchTotalBytes += upload.totalByteCount;
+    }
+    persist();
+    schedule();
+    return uploads;
+  }
+
+  /** Pauses an upload that hasn't started yet. Returns false if it isn't waiting. */
+  boolean pauseWaiting(int handle) {
+    QueuedUpload upload = findWaiting(handle);
+    if (upload == null) {
+      return false;
+    }
+    upload.paused = true;
+    return true;
+  }
+
+  /** Resumes an upload that hasn't started yet. Returns false if it isn't waiting. */
+  boolean resumeWaiting(int handle) {
+    QueuedUpload upload = findWaiting(handle);
+    if (upload == null) {
+      return false;
+    }
+    upload.paused = false;
+    schedule();
+    return true;
+  }
+
+  /** Removes an upload that hasn't started yet. Returns null if it isn't waiting. */
+  QueuedUpload cancelWaiting(int handle) {
+    QueuedUpload upload = findWaiting(handle);
+    if (upload == null) {
+      return null;
+    }
+    waiting.remove(upload);
+    failed++;
+    batchTotalBytes -= upload.totalByteCount;
+    persist();
+    resetIfDrained();
+    return upload;
+  }
+
+  void onProgress(int handle, long bytesTransferred, String uploadSessionUri) {
+    QueuedUpload upload = running.get(handle);
+    if (upload == null) {
+      return;
+    }
+    upload.bytesTransferred = bytesTransferred;
+    if (uploadSessionUri != null && !uploadSessionUri.equals(upload.uploadSessionUri)) {
+      upload.uploadSessionUri = uploadSessionUri;
+      persist();
+    }
+  }
+
+  void onComplete(int handle, boolean successful) {
+    QueuedUpload upload = running.get(handle);
+    if (upload == null) {
+      return;
+    }
+    running.remove(handle);
+    if (successful) {
+      completed++;
+      completedBytes += upload.totalByteCount;
+    } else {
+      failed++;
+      batchTotalBytes -= upload.totalByteCount;
+    }
+    persist();
+    schedule();
+  }
+
+  /** Returns the aggregated state of the current batch of queued uploads. */
+  Map<String, Object> getSnapshot() {
+    long bytesTransferred = completedBytes;
+    for (int i = 0; i < running.size(); i++) {
+      bytesTransferred += running.valueAt(i).bytesTransferred;
+    }
+    Map<String, Object> map = new HashMap<>();
+    map.put("waiting", waiting.size());
+    map.put("running", running.size());
+    map.put("completed", completed);
+    map.put("failed", failed);
+    map.put("bytesTransferred", bytesTransferred);
+    map.put("totalByteCount", batchTotalBytes);
+    return map;
+  }
+
+  private void schedule() {
+    if (running.size() < maxConcurrentUploads && !waiting.isEmpty()) {
+      // Paused uploads stay in the queue but are skipped until they are resumed.
+      List<QueuedUpload> paused = new ArrayList<>();
+      while (running.size() < maxConcurrentUploads && !waiting.isEmpty()) {
+        QueuedUpload upload = waiting.poll();
+        if (upload.paused) {
+          paused.add(upload);
+          continue;
+        }
+        running.put(upload.handle, upload);
+        starter.startUpload(upload);
+      }
+      waiting.addAll(paused);
+    }
+    resetIfDrained();
+  }
+
+  private void resetIfDrained() {
+    if (waiting.isEmpty() && running.size() == 0) {
+      completed = 0;
+      failed = 0;
+      completedBytes = 0;
+      batchTotalBytes = 0;
+    }
+  }
+
+  private QueuedUpload findWaiting(int handle) {
+    Iterator<QueuedUpload> iterator = waiting.iterator();
+    while (iterator.hasNext()) {
+      QueuedUpload upload = iterator.next();
+      if (upload.handle == handle) {
+        return upload;
+      }
+    }
+    return null;
+  }
+
+  private void persist() {
+    JSONArray array = new JSONArray();
+    try {
+      for (int i = 0; i < running.size(); i++) {
+        array.put(toJson(running.valueAt(i)));
+      }
+      for (QueuedUpload upload : waiting) {
+        array.put(toJson(upload));
+      }
+    } catch (JSONException e) {
+      Log.e(TAG, "Unable to persist the upload queue.", e);
+      return;
+    }
+    preferences.edit().putString(PREFERENCES_KEY, array.toString()).apply();
+  }
+
+  private static JSONObject toJson(QueuedUpload upload) throws JSONException {
+    JSONObject json = new JSONObject();
+    json.put("app", upload.app == null ? JSONObject.NULL : upload.app);
+    json.put("bucket", upload.bucket == null ? JSONObject.NULL : upload.bucket);
+    json.put("path", upload.path);
+    json.put("filename", upload.filename);
+    json.put("priority", upload.priority);
+    json.put(
+        "metadata", upload.metadata == null ? JSONObject.NULL : new JSONObject(upload.metadata));
+    json.put(
+        "uploadSessionUri",
+        upload.uploadSessionUri == null ? JSONObject.NULL : upload.uploadSessionUri);
+    return json;
+  }
+
+  private static Map<String, Object> toMap(JSONObject json) throws JSONException {
+    Map<String, Object> map = new HashMap<>();
+    Iterator<String> keys = json.keys();
+    while (keys.hasNext()) {
+      String key = keys.next();
+      Object value = json.get(key);
+      if (value == JSONObject.NULL) {
+        value = null;
+      } else if (value instanceof JSONObject) {
+        value = toMap((JSONObject) value);
+      }
+      map.put(key, value);
+    }
+    return map;
+  }
+}
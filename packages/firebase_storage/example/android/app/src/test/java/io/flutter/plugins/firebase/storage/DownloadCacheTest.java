@@ -0,0 +1,124 @@
+package io.flutter.plugins.firebase.storage;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DownloadCacheTest {
+  private static final String BUCKET = "bucket";
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private File directory;
+  private DownloadCache cache;
+
+  @Before
+  public void setUp() {
+    directory = new File(folder.getRoot(), "cache");
+    cache = new DownloadCache(directory, 1024);
+  }
+
+  @Test
+  public void get_WhenNotCached_ReturnsNull() {
+    assertNull(cache.get(BUCKET, "a"));
+  }
+
+  @Test
+  public void get_AfterPut_ReturnsEntryWithData() throws IOException {
+    cache.put(BUCKET, "a", "1", new byte[] {1, 2, 3});
+
+    DownloadCache.Entry entry = cache.get(BUCKET, "a");
+    assertNotNull(entry);
+    assertThat(entry.generation, equalTo("1"));
+    assertArrayEquals(new byte[] {1, 2, 3}, cache.read(entry, 3));
+  }
+
+  @Test
+  public void get_FromNewInstance_ReturnsEntry() throws IOException {
+    cache.put(BUCKET, "a", "1", new byte[] {1, 2, 3});
+
+    DownloadCache.Entry entry = new DownloadCache(directory, 1024).get(BUCKET, "a");
+    assertNotNull(entry);
+    assertThat(entry.generation, equalTo("1"));
+  }
+
+  @Test
+  public void read_WhenLargerThanMaxSize_Throws() throws IOException {
+    cache.put(BUCKET, "a", "1", new byte[] {1, 2, 3});
+
+    try {
+      cache.read(cache.get(BUCKET, "a"), 2);
+      fail();
+    } catch (IOException e) {
+      // Expected.
+    }
+  }
+
+  @Test
+  public void copyTo_WritesEntryToFile() throws IOException {
+    cache.put(BUCKET, "a", "1", new byte[] {1, 2, 3});
+    File target = new File(folder.getRoot(), "target");
+
+    cache.copyTo(cache.get(BUCKET, "a"), target);
+
+    assertThat(target.length(), equalTo(3L));
+  }
+
+  @Test
+  public void put_WhenOverMaxSize_EvictsLeastRecentlyUsed() throws IOException {
+    cache.put(BUCKET, "a", "1", new byte[600]);
+    cache.get(BUCKET, "a").file.setLastModified(1000);
+    cache.put(BUCKET, "b", "1", new byte[600]);
+
+    assertNull(cache.get(BUCKET, "a"));
+    assertNotNull(cache.get(BUCKET, "b"));
+  }
+
+  @Test
+  public void put_WhenSourceMissing_LeavesNoFile() throws IOException {
+    cache.put(BUCKET, "a", "1", new byte[] {1, 2, 3});
+
+    try {
+      cache.put(BUCKET, "b", "1", new File(folder.getRoot(), "missing"));
+      fail();
+    } catch (IOException e) {
+      // Expected.
+    }
+
+    assertNull(cache.get(BUCKET, "b"));
+    assertThat(directory.list().length, equalTo(1));
+  }
+
+  @Test
+  public void get_IgnoresInterruptedWrites() throws IOException {
+    cache.put(BUCKET, "a", "1", new byte[] {1, 2, 3});
+    String key = cache.get(BUCKET, "a").key;
+    new File(directory, key + ".12345.tmp").createNewFile();
+
+    DownloadCache reopened = new DownloadCache(directory, 1024);
+
+    assertThat(reopened.get(BUCKET, "a").generation, equalTo("1"));
+    assertThat(directory.list().length, equalTo(1));
+  }
+
+  @Test
+  public void clear_DeletesAllFiles() throws IOException {
+    cache.put(BUCKET, "a", "1", new byte[] {1, 2, 3});
+    new File(directory, "leftover.tmp").createNewFile();
+
+    cache.clear();
+
+    assertNull(cache.get(BUCKET, "a"));
+    assertThat(directory.list().length, equalTo(0));
+  }
+}
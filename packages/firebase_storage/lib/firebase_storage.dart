@@ -16,4 +16,5 @@ part 'src/event.dart';
 part 'src/firebase_storage.dart';
 part 'src/storage_metadata.dart';
 part 'src/storage_reference.dart';
+part 'src/upload_queue.dart';
 part 'src/upload_task.dart';
@@ -48,6 +48,13 @@ class FirebaseStorage {
   /// [FirebaseApp].
   static FirebaseStorage get instance => _instance;
 
+  /// Returns the queue that coordinates the uploads started with
+  /// [StorageReference.enqueueFile].
+  ///
+  /// There is a single queue per app process, shared by all [FirebaseStorage]
+  /// instances.
+  static final StorageUploadQueue uploadQueue = StorageUploadQueue._();
+
   /// Used to dispatch method calls
   static final StreamController<MethodCall> _methodStreamController =
       StreamController<MethodCall>.broadcast(); // ignore: close_sinks
@@ -108,6 +115,54 @@ class FirebaseStorage {
     });
   }
 
+  /// Limits how often progress events are sent for upload tasks and file
+  /// downloads.
+  ///
+  /// A progress event is only sent once at least [minInterval] has passed or
+  /// at least [minBytes] have been transferred since the previous one. A zero
+  /// limit is not used, and every progress event is sent when both are zero.
+  /// The final progress event as well as pause, success and failure events
+  /// are always sent. The limits apply to tasks started after this call, for
+  /// all [FirebaseStorage] instances.
+  ///
+  /// Currently only supported on Android.
+  static Future<void> setProgressThrottle(
+      {Duration minInterval = Duration.zero, int minBytes = 0}) {
+    return channel.invokeMethod<void>(
+        "FirebaseStorage#setProgressThrottle", <String, dynamic>{
+      'minIntervalMillis': minInterval.inMilliseconds,
+      'minBytes': minBytes,
+    });
+  }
+
+  /// Enables an on-disk cache for [StorageReference.getData] and
+  /// [StorageReference.writeToFile], or disables it and deletes the cached
+  /// objects if [maxSizeBytes] is 0.
+  ///
+  /// Cached objects are stored in the app's cache directory and the least
+  /// recently used ones are evicted once they take more than [maxSizeBytes].
+  /// A cached object is served without any request if it was validated less
+  /// than [ttl] ago. Otherwise its metadata is fetched, and the object is only
+  /// downloaded again if its generation changed.
+  ///
+  /// Currently only supported on Android.
+  static Future<void> setDownloadCache(
+      {int maxSizeBytes = 50 * 1024 * 1024, Duration ttl = Duration.zero}) {
+    assert(maxSizeBytes >= 0);
+    return channel.invokeMethod<void>(
+        "FirebaseStorage#setDownloadCache", <String, dynamic>{
+      'maxSizeBytes': maxSizeBytes,
+      'ttlMillis': ttl.inMilliseconds,
+    });
+  }
+
+  /// Deletes all objects from the download cache.
+  ///
+  /// Currently only supported on Android.
+  static Future<void> clearDownloadCache() {
+    return channel.invokeMethod<void>("FirebaseStorage#clearDownloadCache");
+  }
+
   /// Creates a [StorageReference] given a gs:// or // URL pointing to a Firebase
   /// Storage location.
   Future<StorageReference> getReferenceFromUrl(String fullUrl) async {
@@ -129,27 +184,88 @@ class FirebaseStorage {
 class StorageFileDownloadTask {
   StorageFileDownloadTask._(this._firebaseStorage, this._path, this._file);
 
+  static int _nextHandle = 0;
+
   final FirebaseStorage _firebaseStorage;
   final String _path;
   final File _file;
+  final int _handle = _nextHandle++;
+
+  StreamController<StorageTaskEvent> _controller =
+      StreamController<StorageTaskEvent>.broadcast();
+
+  /// Progress and pause events of the download.
+  ///
+  /// Progress events are throttled as configured with
+  /// [FirebaseStorage.setProgressThrottle]. Currently only sent on Android.
+  Stream<StorageTaskEvent> get events => _controller.stream;
 
   Future<void> _start() async {
-    final int totalByteCount = await FirebaseStorage.channel.invokeMethod<int>(
-      "StorageReference#writeToFile",
-      <String, dynamic>{
-        'app': _firebaseStorage.app?.name,
-        'bucket': _firebaseStorage.storageBucket,
-        'filePath': _file.absolute.path,
-        'path': _path,
-      },
-    );
-    _completer
-        .complete(FileDownloadTaskSnapshot(totalByteCount: totalByteCount));
+    final StorageReference ref = _firebaseStorage.ref().child(_path);
+    final StreamSubscription<MethodCall> subscription = _firebaseStorage
+        ._methodStream
+        .where((MethodCall m) =>
+            m.method == 'DownloadTaskEvent' && m.arguments['handle'] == _handle)
+        .listen((MethodCall m) {
+      _controller.add(StorageTaskEvent._(
+          m.arguments['type'], ref, m.arguments['snapshot']));
+    });
+    try {
+      final int totalByteCount =
+          await FirebaseStorage.channel.invokeMethod<int>(
+        "StorageReference#writeToFile",
+        <String, dynamic>{
+          'app': _firebaseStorage.app?.name,
+          'bucket': _firebaseStorage.storageBucket,
+          'filePath': _file.absolute.path,
+          'path': _path,
+          'handle': _handle,
+        },
+      );
+      _completer
+          .complete(FileDownloadTaskSnapshot(totalByteCount: totalByteCount));
+    } finally {
+      await subscription.cancel();
+      await _controller.close();
+    }
   }
 
   Completer<FileDownloadTaskSnapshot> _completer =
       Completer<FileDownloadTaskSnapshot>();
   Future<FileDownloadTaskSnapshot> get future => _completer.future;
+
+  /// Pause the download
+  ///
+  /// A resumed download continues where it was paused instead of starting
+  /// over. Currently only supported on Android.
+  Future<void> pause() => FirebaseStorage.channel.invokeMethod<void>(
+        'DownloadTask#pause',
+        <String, dynamic>{
+          'app': _firebaseStorage.app?.name,
+          'bucket': _firebaseStorage.storageBucket,
+          'handle': _handle,
+        },
+      );
+
+  /// Resume the download
+  Future<void> resume() => FirebaseStorage.channel.invokeMethod<void>(
+        'DownloadTask#resume',
+        <String, dynamic>{
+          'app': _firebaseStorage.app?.name,
+          'bucket': _firebaseStorage.storageBucket,
+          'handle': _handle,
+        },
+      );
+
+  /// Cancel the download
+  Future<void> cancel() => FirebaseStorage.channel.invokeMethod<void>(
+        'DownloadTask#cancel',
+        <String, dynamic>{
+          'app': _firebaseStorage.app?.name,
+          'bucket': _firebaseStorage.storageBucket,
+          'handle': _handle,
+        },
+      );
 }
 
 class FileDownloadTaskSnapshot {
@@ -75,6 +75,24 @@ class StorageReference {
     return task;
   }
 
+  /// Adds a file upload to the [StorageUploadQueue] of the app.
+  ///
+  /// The upload starts once fewer than the queue's maximum number of
+  /// concurrent uploads are running and no waiting upload has a higher
+  /// [priority]. Uploads with the same priority start in the order they were
+  /// enqueued. Waiting uploads can be paused, resumed and canceled like
+  /// running ones.
+  ///
+  /// Currently only supported on Android.
+  StorageUploadTask enqueueFile(File file,
+      {StorageMetadata metadata, int priority = 0}) {
+    assert(file.existsSync());
+    final _StorageQueuedFileUploadTask task = _StorageQueuedFileUploadTask._(
+        file, priority, _firebaseStorage, this, metadata);
+    task._start();
+    return task;
+  }
+
   /// Returns the Google Cloud Storage bucket that holds this object.
   Future<String> getBucket() async {
     return await FirebaseStorage.channel
@@ -126,6 +144,70 @@ class StorageReference {
     );
   }
 
+  /// Downloads the object at this [StorageReference] as a stream of chunks of
+  /// at most [chunkSize] bytes.
+  ///
+  /// Unlike [getData], the object doesn't have to fit in memory at once. The
+  /// platform side sends at most [maxChunksInFlight] chunks ahead of the
+  /// listener and stops reading from the network while the subscription is
+  /// paused. Canceling the subscription cancels the download.
+  ///
+  /// Currently only supported on Android.
+  Stream<Uint8List> getStream(
+      {int chunkSize = 256 * 1024, int maxChunksInFlight = 4}) {
+    assert(chunkSize > 0);
+    assert(maxChunksInFlight > 0);
+    StreamController<Uint8List> controller;
+    StreamSubscription<dynamic> subscription;
+    bool canceled = false;
+    int handle;
+    int unacknowledged = 0;
+
+    void acknowledge() {
+      if (unacknowledged == 0) return;
+      FirebaseStorage.channel.invokeMethod<void>(
+        'DownloadStream#ack',
+        <String, dynamic>{'handle': handle, 'count': unacknowledged},
+      );
+      unacknowledged = 0;
+    }
+
+    controller = StreamController<Uint8List>(
+      onListen: () async {
+        handle = await FirebaseStorage.channel.invokeMethod<int>(
+          'StorageReference#getStream',
+          <String, dynamic>{
+            'app': _firebaseStorage.app?.name,
+            'bucket': _firebaseStorage.storageBucket,
+            'path': _pathComponents.join("/"),
+            'chunkSize': chunkSize,
+            'maxChunksInFlight': maxChunksInFlight,
+          },
+        );
+        subscription =
+            EventChannel('plugins.flutter.io/firebase_storage/download/$handle')
+                .receiveBroadcastStream()
+                .listen(
+          (dynamic chunk) {
+            controller.add(chunk);
+            unacknowledged++;
+            if (!controller.isPaused) acknowledge();
+          },
+          onError: controller.addError,
+          onDone: controller.close,
+        );
+        // Listening and canceling right away releases the platform side.
+        if (canceled) subscription.cancel();
+      },
+      onResume: acknowledge,
+      onCancel: () {
+        canceled = true;
+        return subscription?.cancel();
+      },
+    );
+    return controller.stream;
+  }
+
   /// Asynchronously downloads the object at this [StorageReference] to a
   /// specified system file.
   StorageFileDownloadTask writeToFile(File file) {
@@ -0,0 +1,99 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+part of firebase_storage;
+
+/// Limits how many of the uploads started with [StorageReference.enqueueFile]
+/// run at the same time.
+///
+/// Uploads that haven't finished are persisted by the platform side and can be
+/// picked up again with [restore] after the app was killed. Currently only
+/// supported on Android.
+class StorageUploadQueue {
+  StorageUploadQueue._();
+
+  /// Aggregated progress of the queued uploads.
+  ///
+  /// An event is sent whenever an upload is enqueued, canceled or finishes, and
+  /// at most a few times per second while uploads make progress.
+  Stream<StorageUploadQueueSnapshot> get events {
+    // Makes sure the method call handler is registered.
+    FirebaseStorage.instance;
+    return FirebaseStorage._methodStreamController.stream
+        .where((MethodCall m) => m.method == 'UploadQueueEvent')
+        .map<StorageUploadQueueSnapshot>((MethodCall m) =>
+            StorageUploadQueueSnapshot._(m.arguments.cast<String, dynamic>()));
+  }
+
+  /// Sets the maximum number of queued uploads that run at the same time.
+  ///
+  /// Defaults to 3. Paused uploads that already started keep their slot.
+  Future<void> setMaxConcurrentUploads(int maxConcurrentUploads) {
+    assert(maxConcurrentUploads > 0);
+    return FirebaseStorage.channel.invokeMethod<void>(
+      'UploadQueue#setMaxConcurrentUploads',
+      <String, dynamic>{'maxConcurrentUploads': maxConcurrentUploads},
+    );
+  }
+
+  /// Returns the aggregated progress of the queued uploads.
+  Future<StorageUploadQueueSnapshot> getSnapshot() async {
+    return StorageUploadQueueSnapshot._(await FirebaseStorage.channel
+        .invokeMapMethod<String, dynamic>('UploadQueue#getSnapshot'));
+  }
+
+  /// Re-enqueues the uploads that didn't finish before the app was last
+  /// killed, and returns their tasks.
+  ///
+  /// Uploads that were already in progress continue their upload session
+  /// where possible. Only the first call restores anything, later calls
+  /// return an empty list.
+  Future<List<StorageUploadTask>> restore() async {
+    FirebaseStorage.instance;
+    final List<dynamic> uploads = await FirebaseStorage.channel
+        .invokeListMethod<dynamic>('UploadQueue#restore');
+    return uploads.map<StorageUploadTask>((dynamic upload) {
+      final String app = upload['app'];
+      final FirebaseStorage storage = FirebaseStorage(
+        app: app == null ? null : FirebaseApp(name: app),
+        storageBucket: upload['bucket'],
+      );
+      final _StorageRestoredUploadTask task = _StorageRestoredUploadTask._(
+          upload['handle'], storage, storage.ref().child(upload['path']));
+      task._start();
+      return task;
+    }).toList();
+  }
+}
+
+/// The aggregated state of the uploads in a [StorageUploadQueue].
+///
+/// The counters cover the uploads enqueued since the queue was last empty.
+class StorageUploadQueueSnapshot {
+  StorageUploadQueueSnapshot._(Map<String, dynamic> m)
+      : waiting = m['waiting'],
+        running = m['running'],
+        completed = m['completed'],
+        failed = m['failed'],
+        bytesTransferred = m['bytesTransferred'],
+        totalByteCount = m['totalByteCount'];
+
+  /// The number of uploads that haven't started yet.
+  final int waiting;
+
+  /// The number of uploads that are in progress.
+  final int running;
+
+  /// The number of uploads that finished successfully.
+  final int completed;
+
+  /// The number of uploads that failed or were canceled.
+  final int failed;
+
+  /// The bytes uploaded by running and completed uploads.
+  final int bytesTransferred;
+
+  /// The size of all uploads that haven't failed.
+  final int totalByteCount;
+}
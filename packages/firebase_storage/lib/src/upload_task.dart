@@ -141,6 +141,45 @@ class _StorageFileUploadTask extends StorageUploadTask {
   }
 }
 
+class _StorageQueuedFileUploadTask extends StorageUploadTask {
+  _StorageQueuedFileUploadTask._(this._file, this._priority,
+      FirebaseStorage firebaseStorage, StorageReference ref,
+      StorageMetadata metadata)
+      : super._(firebaseStorage, ref, metadata);
+
+  final File _file;
+  final int _priority;
+
+  @override
+  Future<dynamic> _platformStart() {
+    return FirebaseStorage.channel.invokeMethod<dynamic>(
+      'UploadQueue#enqueueFile',
+      <String, dynamic>{
+        'app': _firebaseStorage.app?.name,
+        'bucket': _firebaseStorage.storageBucket,
+        'filename': _file.absolute.path,
+        'path': _ref.path,
+        'metadata':
+            _metadata == null ? null : _buildMetadataUploadMap(_metadata),
+        'priority': _priority,
+      },
+    );
+  }
+}
+
+/// A queued upload that was restored after the app was restarted and
+/// already has a platform handle.
+class _StorageRestoredUploadTask extends StorageUploadTask {
+  _StorageRestoredUploadTask._(this._restoredHandle,
+      FirebaseStorage firebaseStorage, StorageReference ref)
+      : super._(firebaseStorage, ref, null);
+
+  final int _restoredHandle;
+
+  @override
+  Future<dynamic> _platformStart() => Future<dynamic>.value(_restoredHandle);
+}
+
 class _StorageDataUploadTask extends StorageUploadTask {
   _StorageDataUploadTask._(this._bytes, FirebaseStorage firebaseStorage,
       StorageReference ref, StorageMetadata metadata)
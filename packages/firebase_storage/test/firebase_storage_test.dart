@@ -3,6 +3,7 @@
 // found in the LICENSE file.
 
 import 'dart:async';
+import 'dart:io';
 import 'dart:typed_data';
 
 import 'package:firebase_core/firebase_core.dart';
@@ -187,6 +188,65 @@ void main() {
       });
     });
 
+    group('setProgressThrottle', () {
+      final List<MethodCall> log = <MethodCall>[];
+
+      setUp(() {
+        FirebaseStorage.channel
+            .setMockMethodCallHandler((MethodCall methodCall) async {
+          log.add(methodCall);
+        });
+      });
+
+      test('invokes correct method', () async {
+        await FirebaseStorage.setProgressThrottle(
+          minInterval: const Duration(milliseconds: 200),
+          minBytes: 65536,
+        );
+
+        expect(log, <Matcher>[
+          isMethodCall(
+            'FirebaseStorage#setProgressThrottle',
+            arguments: <String, dynamic>{
+              'minIntervalMillis': 200,
+              'minBytes': 65536,
+            },
+          ),
+        ]);
+      });
+    });
+
+    group('setDownloadCache', () {
+      final List<MethodCall> log = <MethodCall>[];
+
+      setUp(() {
+        log.clear();
+        FirebaseStorage.channel
+            .setMockMethodCallHandler((MethodCall methodCall) async {
+          log.add(methodCall);
+        });
+      });
+
+      test('invokes correct method', () async {
+        await FirebaseStorage.setDownloadCache(
+          maxSizeBytes: 1024,
+          ttl: const Duration(minutes: 5),
+        );
+        await FirebaseStorage.clearDownloadCache();
+
+        expect(log, <Matcher>[
+          isMethodCall(
+            'FirebaseStorage#setDownloadCache',
+            arguments: <String, dynamic>{
+              'maxSizeBytes': 1024,
+              'ttlMillis': 300000,
+            },
+          ),
+          isMethodCall('FirebaseStorage#clearDownloadCache', arguments: null),
+        ]);
+      });
+    });
+
     group('getReferenceFromUrl', () {
       final List<MethodCall> log = <MethodCall>[];
 
@@ -256,6 +316,141 @@ void main() {
         });
       });
 
+      group('getStream', () {
+        final List<MethodCall> log = <MethodCall>[];
+        const MethodChannel downloadChannel =
+            MethodChannel('plugins.flutter.io/firebase_storage/download/1');
+
+        StorageReference ref;
+
+        setUp(() {
+          log.clear();
+          FirebaseStorage.channel
+              .setMockMethodCallHandler((MethodCall methodCall) async {
+            log.add(methodCall);
+            return methodCall.method == 'StorageReference#getStream' ? 1 : null;
+          });
+          downloadChannel
+              .setMockMethodCallHandler((MethodCall methodCall) async {});
+          ref =
+              storage.ref().child('avatars').child('large').child('image.jpg');
+        });
+
+        test('invokes correct methods', () async {
+          final Completer<Uint8List> firstChunk = Completer<Uint8List>();
+          final StreamSubscription<Uint8List> subscription = ref
+              .getStream(chunkSize: 1024, maxChunksInFlight: 2)
+              .listen(firstChunk.complete);
+          await Future<void>.delayed(Duration.zero);
+          // TODO(hterkelsen): Remove this when defaultBinaryMessages is in stable.
+          // https://github.com/flutter/flutter/issues/33446
+          // ignore: deprecated_member_use
+          await BinaryMessages.handlePlatformMessage(
+            downloadChannel.name,
+            downloadChannel.codec
+                .encodeSuccessEnvelope(Uint8List.fromList(<int>[1, 2, 3])),
+            (ByteData data) {},
+          );
+
+          expect(await firstChunk.future,
+              equals(Uint8List.fromList(<int>[1, 2, 3])));
+          expect(log, <Matcher>[
+            isMethodCall(
+              'StorageReference#getStream',
+              arguments: <String, dynamic>{
+                'app': 'testApp',
+                'bucket': 'gs://fake-storage-bucket-url.com',
+                'path': 'avatars/large/image.jpg',
+                'chunkSize': 1024,
+                'maxChunksInFlight': 2,
+              },
+            ),
+            isMethodCall(
+              'DownloadStream#ack',
+              arguments: <String, dynamic>{'handle': 1, 'count': 1},
+            ),
+          ]);
+          await subscription.cancel();
+        });
+      });
+
+      group('writeToFile', () {
+        final List<MethodCall> log = <MethodCall>[];
+
+        StorageReference ref;
+
+        Future<void> simulateEvent(int handle, int type, int bytes) async {
+          // TODO(hterkelsen): Remove this when defaultBinaryMessages is in stable.
+          // https://github.com/flutter/flutter/issues/33446
+          // ignore: deprecated_member_use
+          await BinaryMessages.handlePlatformMessage(
+            FirebaseStorage.channel.name,
+            FirebaseStorage.channel.codec.encodeMethodCall(
+              MethodCall('DownloadTaskEvent', <String, dynamic>{
+                'handle': handle,
+                'type': type,
+                'snapshot': <String, dynamic>{
+                  'bytesTransferred': bytes,
+                  'totalByteCount': 4096,
+                },
+              }),
+            ),
+            (_) {},
+          );
+        }
+
+        setUp(() {
+          log.clear();
+          FirebaseStorage.channel
+              .setMockMethodCallHandler((MethodCall methodCall) async {
+            log.add(methodCall);
+            final int handle = methodCall.arguments['handle'];
+            await simulateEvent(handle, 1, 1024);
+            await simulateEvent(handle, 2, 1024);
+            await simulateEvent(handle + 1, 1, 2048);
+            await Future<void>.delayed(Duration.zero);
+            return 4096;
+          });
+          ref =
+              storage.ref().child('avatars').child('large').child('image.jpg');
+        });
+
+        test('invokes correct method', () async {
+          final StorageFileDownloadTask task =
+              ref.writeToFile(File('/tmp/image.jpg'));
+          await task.future;
+
+          expect(log, <Matcher>[
+            isMethodCall(
+              'StorageReference#writeToFile',
+              arguments: <String, dynamic>{
+                'app': 'testApp',
+                'bucket': 'gs://fake-storage-bucket-url.com',
+                'filePath': '/tmp/image.jpg',
+                'path': 'avatars/large/image.jpg',
+                'handle': log[0].arguments['handle'],
+              },
+            ),
+          ]);
+        });
+
+        test('sends the events of its own download', () async {
+          final StorageFileDownloadTask task =
+              ref.writeToFile(File('/tmp/image.jpg'));
+          final Future<List<StorageTaskEvent>> events = task.events.toList();
+
+          final FileDownloadTaskSnapshot snapshot = await task.future;
+
+          expect(snapshot.totalByteCount, 4096);
+          final List<StorageTaskEvent> received = await events;
+          expect(received, hasLength(2));
+          expect(received[0].type, StorageTaskEventType.progress);
+          expect(received[0].snapshot.bytesTransferred, 1024);
+          expect(received[0].snapshot.totalByteCount, 4096);
+          expect(received[1].type, StorageTaskEventType.pause);
+        });
+      });
+
       group('getMetadata', () {
         final List<MethodCall> log = <MethodCall>[];
 
@@ -526,5 +721,56 @@ void main() {
         expect(await ref.getPath(), 'avatars/large/image.jpg');
       });
     });
+
+    group('StorageUploadQueue', () {
+      final List<MethodCall> log = <MethodCall>[];
+
+      setUp(() {
+        log.clear();
+        FirebaseStorage.channel
+            .setMockMethodCallHandler((MethodCall methodCall) async {
+          log.add(methodCall);
+          switch (methodCall.method) {
+            case 'UploadQueue#getSnapshot':
+              return <String, dynamic>{
+                'waiting': 2,
+                'running': 3,
+                'completed': 4,
+                'failed': 1,
+                'bytesTransferred': 1024,
+                'totalByteCount': 4096,
+              };
+            default:
+              return null;
+          }
+        });
+      });
+
+      test('setMaxConcurrentUploads invokes correct method', () async {
+        await FirebaseStorage.uploadQueue.setMaxConcurrentUploads(5);
+
+        expect(log, <Matcher>[
+          isMethodCall(
+            'UploadQueue#setMaxConcurrentUploads',
+            arguments: <String, dynamic>{'maxConcurrentUploads': 5},
+          ),
+        ]);
+      });
+
+      test('getSnapshot returns correct result', () async {
+        final StorageUploadQueueSnapshot snapshot =
+            await FirebaseStorage.uploadQueue.getSnapshot();
+
+        expect(log, <Matcher>[
+          isMethodCall('UploadQueue#getSnapshot', arguments: null),
+        ]);
+        expect(snapshot.waiting, 2);
+        expect(snapshot.running, 3);
+        expect(snapshot.completed, 4);
+        expect(snapshot.failed, 1);
+        expect(snapshot.bytesTransferred, 1024);
+        expect(snapshot.totalByteCount, 4096);
+      });
+    });
   });
 }
@@ -0,0 +1,103 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.util.LruCache;
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cache of the {@link BitmapDescriptor}s used for marker icons and caps, shared by all maps.
+ *
+ * <p>Descriptors are keyed by what they were created from: the asset name and scale, or a hash of
+ * the image for {@code fromBytes}. Markers that share an icon thus share one decoded bitmap. The
+ * cache is bounded by the size of the bitmaps it holds, and evicts the least recently used
+ * descriptors first. Descriptors of assets are only loaded by the maps library, so their size is
+ * estimated.
+ *
+ * <p>Icons can also be registered by id. Registrations belong to the map whose controller made
+ * them, so maps can use the same ids, and aren't evicted until they are unregistered or the map is
+ * disposed.
+ */
+class BitmapDescriptorCache {
+  /** Size assumed for descriptors whose bitmap we never see. */
+  static final int ESTIMATED_ASSET_SIZE_BYTES = 16 * 1024;
+
+  private static final class Entry {
+    final BitmapDescriptor descriptor;
+    final int sizeBytes;
+
+    Entry(BitmapDescriptor descriptor, int sizeBytes) {
+      this.descriptor = descriptor;
+      this.sizeBytes = sizeBytes;
+    }
+  }
+
+  private final LruCache<String, Entry> cache;
+  private final Map<Integer, Map<String, BitmapDescriptor>> registeredIcons = new HashMap<>();
+
+  BitmapDescriptorCache(int maxSizeBytes) {
+    cache =
+        new LruCache<String, Entry>(maxSizeBytes) {
+          @Override
+          protected int sizeOf(String key, Entry entry) {
+            return entry.sizeBytes;
+          }
+        };
+  }
+
+  BitmapDescriptor get(String key) {
+    Entry entry = cache.get(key);
+    return entry == null ? null : entry.descriptor;
+  }
+
+  void put(String key, BitmapDescriptor descriptor, int sizeBytes) {
+    cache.put(key, new Entry(descriptor, sizeBytes));
+  }
+
+  synchronized void register(int mapId, String iconId, BitmapDescriptor descriptor) {
+    Map<String, BitmapDescriptor> icons = registeredIcons.get(mapId);
+    if (icons == null) {
+      icons = new HashMap<>();
+      registeredIcons.put(mapId, icons);
+    }
+    icons.put(iconId, descriptor);
+  }
+
+  synchronized void unregister(int mapId, String iconId) {
+    Map<String, BitmapDescriptor> icons = registeredIcons.get(mapId);
+    if (icons != null) {
+      icons.remove(iconId);
+      if (icons.isEmpty()) {
+        registeredIcons.remove(mapId);
+      }
+    }
+  }
+
+  /** Releases all icons registered for the map with {@code mapId}. */
+  synchronized void unregisterAll(int mapId) {
+    registeredIcons.remove(mapId);
+  }
+
+  synchronized BitmapDescriptor getRegistered(int mapId, String iconId) {
+    Map<String, BitmapDescriptor> icons = registeredIcons.get(mapId);
+    return icons == null ? null : icons.get(iconId);
+  }
+
+  /** Returns the cache key of an image given as bytes. */
+  static String keyForBytes(byte[] bytes) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      return "fromBytes:" + new BigInteger(1, digest.digest(bytes)).toString(16);
+    } catch (NoSuchAlgorithmException e) {
+      // SHA-1 is always available on Android.
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,287 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+import io.flutter.plugin.common.MethodChannel;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tile provider serving tiles from a memory cache, then from a disk cache, and only then from a URL
+ * template or from the Dart tile provider of the overlay.
+ *
+ * <p>The maps SDK calls {@link #getTile} from several of its own background threads, so tiles are
+ * fetched concurrently and never on the main thread. Tiles from Dart are requested on the main
+ * thread, and the calling tile thread waits for the reply.
+ */
+class CachingTileProvider implements TileProvider {
+  private static final String TAG = "CachingTileProvider";
+  private static final int TIMEOUT_MILLIS = 15000;
+
+  private final String tileOverlayId;
+  private final MethodChannel methodChannel;
+  private final File cacheDirectory;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private String urlTemplate;
+  private int tileSize = 256;
+  private int memoryCacheSizeBytes;
+  private int diskCacheSizeBytes;
+  private long diskCacheMaxAgeMillis;
+  // Replaced as a whole when the source or the cache sizes change, so tiles fetched for a previous
+  // source never end up in the caches of the current one.
+  private volatile Source source;
+  private volatile boolean disposed = false;
+
+  /** The tile source of the overlay together with its caches. */
+  private static class Source {
+    final String urlTemplate;
+    final int tileSize;
+    final LruCache<String, byte[]> memoryCache;
+    final TileDiskCache diskCache;
+
+    Source(
+        String urlTemplate,
+        int tileSize,
+        LruCache<String, byte[]> memoryCache,
+        TileDiskCache diskCache) {
+      this.urlTemplate = urlTemplate;
+      this.tileSize = tileSize;
+      this.memoryCache = memoryCache;
+      this.diskCache = diskCache;
+    }
+  }
+
+  CachingTileProvider(String tileOverlayId, MethodChannel methodChannel, File cacheDirectory) {
+    this.tileOverlayId = tileOverlayId;
+    this.methodChannel = methodChannel;
+    this.cacheDirectory = cacheDirectory;
+  }
+
+  /**
+   * Sets where tiles come from, {@code urlTemplate} or the Dart tile provider if it is null.
+   *
+   * @return true if the source changed.
+   */
+  synchronized boolean setTileSource(String urlTemplate, int tileSize) {
+    boolean changed =
+        source == null
+            || tileSize != this.tileSize
+            || (urlTemplate == null
+                ? this.urlTemplate != null
+                : !urlTemplate.equals(this.urlTemplate));
+    this.urlTemplate = urlTemplate;
+    this.tileSize = tileSize;
+    if (changed) {
+      updateSource();
+    }
+    return changed;
+  }
+
+  synchronized void setCacheLimits(
+      int memoryCacheSizeBytes, int diskCacheSizeBytes, long diskCacheMaxAgeMillis) {
+    if (memoryCacheSizeBytes == this.memoryCacheSizeBytes
+        && diskCacheSizeBytes == this.diskCacheSizeBytes
+        && diskCacheMaxAgeMillis == this.diskCacheMaxAgeMillis) {
+      return;
+    }
+    this.memoryCacheSizeBytes = memoryCacheSizeBytes;
+    this.diskCacheSizeBytes = diskCacheSizeBytes;
+    this.diskCacheMaxAgeMillis = diskCacheMaxAgeMillis;
+    if (source != null) {
+      updateSource();
+    }
+  }
+
+  synchronized void clearCache() {
+    if (source == null) {
+      return;
+    }
+    if (source.memoryCache != null) {
+      source.memoryCache.evictAll();
+    }
+    if (source.diskCache != null) {
+      source.diskCache.clear();
+    }
+  }
+
+  void dispose() {
+    disposed = true;
+  }
+
+  private void updateSource() {
+    LruCache<String, byte[]> memoryCache = null;
+    if (memoryCacheSizeBytes > 0) {
+      memoryCache =
+          new LruCache<String, byte[]>(memoryCacheSizeBytes) {
+            @Override
+            protected int sizeOf(String key, byte[] tile) {
+              return tile.length;
+            }
+          };
+    }
+    TileDiskCache diskCache = null;
+    if (diskCacheSizeBytes > 0) {
+      String sourceKey = urlTemplate != null ? urlTemplate : "tileOverlay:" + tileOverlayId;
+      diskCache =
+          TileDiskCache.forDirectory(
+              TileDiskCache.directoryFor(cacheDirectory, sourceKey + "@" + tileSize),
+              diskCacheSizeBytes,
+              diskCacheMaxAgeMillis);
+    }
+    source = new Source(urlTemplate, tileSize, memoryCache, diskCache);
+  }
+
+  @Override
+  public Tile getTile(int x, int y, int zoom) {
+    final Source source = this.source;
+    if (disposed || source == null) {
+      return NO_TILE;
+    }
+    final String key = zoom + "/" + x + "/" + y;
+    byte[] data = source.memoryCache != null ? source.memoryCache.get(key) : null;
+    if (data == null && source.diskCache != null) {
+      data = source.diskCache.get(x, y, zoom);
+      if (data != null && source.memoryCache != null) {
+        source.memoryCache.put(key, data);
+      }
+    }
+    if (data == null) {
+      try {
+        data =
+            source.urlTemplate != null
+                ? fetchFromUrl(source.urlTemplate, x, y, zoom)
+                : fetchFromDart(x, y, zoom);
+      } catch (IOException e) {
+        // Returning null makes the maps SDK ask for the tile again later.
+        Log.w(TAG, "Unable to fetch tile " + key + " of " + tileOverlayId, e);
+        return null;
+      }
+      if (data == null) {
+        return NO_TILE;
+      }
+      if (source.memoryCache != null) {
+        source.memoryCache.put(key, data);
+      }
+      if (source.diskCache != null) {
+        source.diskCache.put(x, y, zoom, data);
+      }
+    }
+    return new Tile(source.tileSize, source.tileSize, data);
+  }
+
+  /** Returns the tile at {@code urlTemplate}, or null if the server has no such tile. */
+  private static byte[] fetchFromUrl(String urlTemplate, int x, int y, int zoom)
+      throws IOException {
+    URL url =
+        new URL(
+            urlTemplate
+                .replace("{x}", Integer.toString(x))
+                .replace("{y}", Integer.toString(y))
+                .replace("{z}", Integer.toString(zoom)));
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setConnectTimeout(TIMEOUT_MILLIS);
+    connection.setReadTimeout(TIMEOUT_MILLIS);
+    try {
+      int status = connection.getResponseCode();
+      if (status == HttpURLConnection.HTTP_NOT_FOUND
+          || status == HttpURLConnection.HTTP_NO_CONTENT) {
+        return null;
+      }
+      if (status != HttpURLConnection.HTTP_OK) {
+        throw new IOException("Unexpected status " + status + " for " + url);
+      }
+      InputStream in = connection.getInputStream();
+      try {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+          out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+      } finally {
+        in.close();
+      }
+    } finally {
+      connection.disconnect();
+    }
+  }
+
+  /** Asks the Dart tile provider for a tile, returns null if it has no such tile. */
+  private byte[] fetchFromDart(int x, int y, int zoom) throws IOException {
+    final Map<String, Object> arguments = new HashMap<>();
+    arguments.put("tileOverlayId", tileOverlayId);
+    arguments.put("x", x);
+    arguments.put("y", y);
+    arguments.put("zoom", zoom);
+    final PendingTile pendingTile = new PendingTile();
+    mainHandler.post(
+        new Runnable() {
+          @Override
+          public void run() {
+            if (disposed) {
+              pendingTile.error("disposed", null, null);
+              return;
+            }
+            methodChannel.invokeMethod("tileOverlay#getTile", arguments, pendingTile);
+          }
+        });
+    return pendingTile.await();
+  }
+
+  /** Reply of the Dart tile provider that a tile thread waits for. */
+  private static class PendingTile implements MethodChannel.Result {
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private volatile byte[] tile;
+    private volatile String error;
+
+    byte[] await() throws IOException {
+      try {
+        if (!latch.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+          throw new IOException("Timed out waiting for the tile provider");
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      }
+      if (error != null) {
+        throw new IOException("Tile provider failed: " + error);
+      }
+      return tile;
+    }
+
+    @Override
+    public void success(Object result) {
+      tile = (byte[]) result;
+      latch.countDown();
+    }
+
+    @Override
+    public void error(String errorCode, String errorMessage, Object errorDetails) {
+      error = errorCode + " " + errorMessage;
+      latch.countDown();
+    }
+
+    @Override
+    public void notImplemented() {
+      error = "notImplemented";
+      latch.countDown();
+    }
+  }
+}
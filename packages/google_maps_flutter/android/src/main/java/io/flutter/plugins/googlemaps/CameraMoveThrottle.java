@@ -0,0 +1,159 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import com.google.android.gms.maps.model.CameraPosition;
+import com.google.android.gms.maps.model.LatLng;
+
+/**
+ * Decides which camera moves are reported to Dart.
+ *
+ * <p>A move is reported if the last one was reported long enough ago and the camera moved far
+ * enough since. In latest only mode, a move is not reported right away: a single delivery is posted
+ * to the main thread, and reads the camera position when it runs, so the moves that happen before
+ * the main thread is free are reported once.
+ *
+ * <p>All methods must be called from the main thread.
+ */
+class CameraMoveThrottle {
+
+  /** Source of the camera position and receiver of the moves to report. */
+  interface Target {
+    CameraPosition getCameraPosition();
+
+    void reportCameraMove(CameraPosition position);
+  }
+
+  private static final float MIN_ANGLE_DELTA = 1;
+
+  private final Target target;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private final Runnable delivery =
+      new Runnable() {
+        @Override
+        public void run() {
+          deliveryPosted = false;
+          CameraPosition position = target.getCameraPosition();
+          if (movedEnough(position)) {
+            report(position);
+          }
+        }
+      };
+  private boolean enabled = false;
+  private long minIntervalMillis;
+  private float minDistance;
+  private float minZoomDelta;
+  private boolean latestOnly;
+  private CameraPosition lastReported;
+  private long lastReportedAtMillis;
+  private boolean deliveryPosted = false;
+
+  CameraMoveThrottle(Target target) {
+    this.target = target;
+  }
+
+  /**
+   * Configures the throttle, or reports every move if {@code enabled} is false.
+   *
+   * @param minDistance distance in logical pixels the camera target must move on screen.
+   */
+  void configure(
+      boolean enabled,
+      int maxEventsPerSecond,
+      float minDistance,
+      float minZoomDelta,
+      boolean latestOnly) {
+    this.enabled = enabled;
+    this.minIntervalMillis = enabled && maxEventsPerSecond > 0 ? 1000 / maxEventsPerSecond : 0;
+    this.minDistance = minDistance;
+    this.minZoomDelta = minZoomDelta;
+    this.latestOnly = latestOnly;
+    if (!enabled || !latestOnly) {
+      cancelDelivery();
+    }
+  }
+
+  void onCameraMove() {
+    if (!enabled) {
+      report(target.getCameraPosition());
+      return;
+    }
+    long sinceLastReport = SystemClock.uptimeMillis() - lastReportedAtMillis;
+    if (latestOnly) {
+      if (!deliveryPosted) {
+        deliveryPosted = true;
+        mainHandler.postDelayed(delivery, Math.max(0, minIntervalMillis - sinceLastReport));
+      }
+      return;
+    }
+    if (sinceLastReport < minIntervalMillis) {
+      return;
+    }
+    CameraPosition position = target.getCameraPosition();
+    if (movedEnough(position)) {
+      report(position);
+    }
+  }
+
+  /** Reports the final position if it wasn't, so the last move matches the idle camera. */
+  void onCameraIdle() {
+    if (!enabled) {
+      return;
+    }
+    cancelDelivery();
+    CameraPosition position = target.getCameraPosition();
+    if (!position.equals(lastReported)) {
+      report(position);
+    }
+    // The next gesture starts with a report.
+    lastReported = null;
+  }
+
+  void dispose() {
+    cancelDelivery();
+  }
+
+  private void cancelDelivery() {
+    if (deliveryPosted) {
+      mainHandler.removeCallbacks(delivery);
+      deliveryPosted = false;
+    }
+  }
+
+  private void report(CameraPosition position) {
+    lastReported = position;
+    lastReportedAtMillis = SystemClock.uptimeMillis();
+    target.reportCameraMove(position);
+  }
+
+  private boolean movedEnough(CameraPosition position) {
+    if (lastReported == null) {
+      return true;
+    }
+    if (Math.abs(position.zoom - lastReported.zoom) >= Math.max(minZoomDelta, Float.MIN_VALUE)
+        || Math.abs(position.bearing - lastReported.bearing) >= MIN_ANGLE_DELTA
+        || Math.abs(position.tilt - lastReported.tilt) >= MIN_ANGLE_DELTA) {
+      return true;
+    }
+    // The map is 256 logical pixels wide at zoom level 0.
+    double worldSize = 256 * Math.pow(2, position.zoom);
+    double dx = (x(position.target) - x(lastReported.target)) * worldSize;
+    double dy = (y(position.target) - y(lastReported.target)) * worldSize;
+    // Any move counts without a minimum distance, but not an unchanged position.
+    double distance = Math.sqrt(dx * dx + dy * dy);
+    return minDistance > 0 ? distance >= minDistance : distance > 0;
+  }
+
+  private static double x(LatLng latLng) {
+    return WebMercator.x(latLng.longitude);
+  }
+
+  private static double y(LatLng latLng) {
+    return WebMercator.y(latLng.latitude);
+  }
+}
@@ -0,0 +1,80 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Draws the icons of cluster markers: a disc showing how many markers the cluster holds.
+ *
+ * <p>Large sizes are rounded down to a few buckets, so only a handful of icons are ever drawn.
+ */
+class ClusterIcons {
+  private static final int[] BUCKETS = {10, 20, 50, 100, 200, 500, 1000};
+
+  private final float density;
+  private final Map<String, BitmapDescriptor> icons = new HashMap<>();
+  private int color;
+
+  ClusterIcons(float density, int color) {
+    this.density = density;
+    this.color = color;
+  }
+
+  void setColor(int color) {
+    if (this.color != color) {
+      this.color = color;
+      icons.clear();
+    }
+  }
+
+  BitmapDescriptor get(int size) {
+    final String label = label(size);
+    BitmapDescriptor icon = icons.get(label);
+    if (icon == null) {
+      icon = BitmapDescriptorFactory.fromBitmap(draw(label));
+      icons.put(label, icon);
+    }
+    return icon;
+  }
+
+  private static String label(int size) {
+    for (int i = BUCKETS.length - 1; i >= 0; i--) {
+      if (size >= BUCKETS[i]) {
+        return BUCKETS[i] + "+";
+      }
+    }
+    return String.valueOf(size);
+  }
+
+  private Bitmap draw(String label) {
+    final int diameter = (int) (density * (label.length() <= 2 ? 36 : 44));
+    final float radius = diameter / 2f;
+    final Bitmap bitmap = Bitmap.createBitmap(diameter, diameter, Bitmap.Config.ARGB_8888);
+    final Canvas canvas = new Canvas(bitmap);
+
+    final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    paint.setColor(Color.WHITE);
+    canvas.drawCircle(radius, radius, radius, paint);
+    paint.setColor(color);
+    canvas.drawCircle(radius, radius, radius - 2 * density, paint);
+
+    paint.setColor(Color.WHITE);
+    paint.setTextAlign(Paint.Align.CENTER);
+    paint.setTextSize(14 * density);
+    paint.setTypeface(Typeface.DEFAULT_BOLD);
+    final float baseline = radius - (paint.descent() + paint.ascent()) / 2;
+    canvas.drawText(label, radius, baseline, paint);
+    return bitmap;
+  }
+}
@@ -33,9 +33,35 @@ import java.util.Map;
 /** Conversions between JSON-like values and GoogleMaps data types. */
 class Convert {
 
-  private static BitmapDescriptor toBitmapDescriptor(Object o) {
+  private static final BitmapDescriptorCache bitmapDescriptorCache =
+      new BitmapDescriptorCache((int) Math.min(Runtime.getRuntime().maxMemory() / 32, 16 << 20));
+
+  static BitmapDescriptor toBitmapDescriptor(Object o) {
     final List<?> data = toList(o);
-    switch (toString(data.get(0))) {
+    final String kind = toString(data.get(0));
+    if (kind.equals("fromRegisteredIcon")) {
+      final BitmapDescriptor registered =
+          bitmapDescriptorCache.getRegistered(toInt(data.get(2)), toString(data.get(1)));
+      if (registered == null) {
+        throw new IllegalArgumentException("No icon is registered as " + data.get(1));
+      }
+      return registered;
+    }
+    if (kind.equals("fromBytes")) {
+      return getBitmapFromBytes(data);
+    }
+    // The remaining kinds only hold strings and numbers.
+    final String key = data.toString();
+    BitmapDescriptor descriptor = bitmapDescriptorCache.get(key);
+    if (descriptor == null) {
+      descriptor = createBitmapDescriptor(kind, data);
+      bitmapDescriptorCache.put(key, descriptor, BitmapDescriptorCache.ESTIMATED_ASSET_SIZE_BYTES);
+    }
+    return descriptor;
+  }
+
+  private static BitmapDescriptor createBitmapDescriptor(String kind, List<?> data) {
+    switch (kind) {
       case "defaultMarker":
         if (data.size() == 1) {
           return BitmapDescriptorFactory.defaultMarker();
@@ -58,18 +84,36 @@ class Convert {
           throw new IllegalArgumentException(
               "'fromAssetImage' Expected exactly 3 arguments, got: " + data.size());
         }
-      case "fromBytes":
-        return getBitmapFromBytes(data);
       default:
-        throw new IllegalArgumentException("Cannot interpret " + o + " as BitmapDescriptor");
+        throw new IllegalArgumentException("Cannot interpret " + data + " as BitmapDescriptor");
     }
   }
 
+  /** Registers {@code icon} under {@code iconId} for the map with {@code mapId}. */
+  static void registerBitmapDescriptor(int mapId, String iconId, Object icon) {
+    bitmapDescriptorCache.register(mapId, iconId, toBitmapDescriptor(icon));
+  }
+
+  static void unregisterBitmapDescriptor(int mapId, String iconId) {
+    bitmapDescriptorCache.unregister(mapId, iconId);
+  }
+
+  static void unregisterBitmapDescriptors(int mapId) {
+    bitmapDescriptorCache.unregisterAll(mapId);
+  }
+
   private static BitmapDescriptor getBitmapFromBytes(List<?> data) {
     if (data.size() == 2) {
+      final String key = BitmapDescriptorCache.keyForBytes((byte[]) data.get(1));
+      BitmapDescriptor descriptor = bitmapDescriptorCache.get(key);
+      if (descriptor != null) {
+        return descriptor;
+      }
       try {
         Bitmap bitmap = toBitmap(data.get(1));
-        return BitmapDescriptorFactory.fromBitmap(bitmap);
+        descriptor = BitmapDescriptorFactory.fromBitmap(bitmap);
+        bitmapDescriptorCache.put(key, descriptor, bitmap.getByteCount());
+        return descriptor;
       } catch (Exception e) {
         throw new IllegalArgumentException("Unable to interpret bytes as a valid image.", e);
       }
@@ -275,6 +319,50 @@ class Convert {
           toFloatWrapper(zoomPreferenceData.get(0)), //
           toFloatWrapper(zoomPreferenceData.get(1)));
     }
+    final Object simplificationTolerance = data.get("simplificationTolerance");
+    if (simplificationTolerance != null) {
+      sink.setSimplificationTolerance(toFloat(simplificationTolerance));
+    }
+    final Object markerClustering = data.get("markerClustering");
+    if (markerClustering != null) {
+      final List<?> clusteringData = toList(markerClustering);
+      if (clusteringData.get(0) == null) {
+        sink.setMarkerClustering(false, 0, 0, 0);
+      } else {
+        sink.setMarkerClustering(
+            true,
+            toFloat(clusteringData.get(0)),
+            toInt(clusteringData.get(1)),
+            toInt(clusteringData.get(2)));
+      }
+    }
+    final Object markerVirtualization = data.get("markerVirtualization");
+    if (markerVirtualization != null) {
+      final List<?> virtualizationData = toList(markerVirtualization);
+      if (virtualizationData.get(0) == null) {
+        sink.setMarkerVirtualization(false, 0, 0, 0);
+      } else {
+        sink.setMarkerVirtualization(
+            true,
+            toFloat(virtualizationData.get(0)),
+            toInt(virtualizationData.get(1)),
+            toInt(virtualizationData.get(2)));
+      }
+    }
+    final Object cameraMoveThrottle = data.get("cameraMoveThrottle");
+    if (cameraMoveThrottle != null) {
+      final List<?> throttleData = toList(cameraMoveThrottle);
+      if (throttleData.get(0) == null) {
+        sink.setCameraMoveThrottle(false, 0, 0, 0, false);
+      } else {
+        sink.setCameraMoveThrottle(
+            true,
+            toInt(throttleData.get(0)),
+            toFloat(throttleData.get(1)),
+            toFloat(throttleData.get(2)),
+            toBoolean(throttleData.get(3)));
+      }
+    }
     final Object padding = data.get("padding");
     if (padding != null) {
       final List<?> paddingData = toList(padding);
@@ -424,6 +512,10 @@ class Convert {
     if (points != null) {
       sink.setPoints(toPoints(points));
     }
+    final Object packedPoints = data.get("packedPoints");
+    if (packedPoints != null) {
+      sink.setPoints(toPackedPoints(packedPoints));
+    }
     final String polygonId = (String) data.get("polygonId");
     if (polygonId == null) {
       throw new IllegalArgumentException("polygonId was null");
@@ -474,6 +566,14 @@ class Convert {
     if (points != null) {
       sink.setPoints(toPoints(points));
     }
+    final Object packedPoints = data.get("packedPoints");
+    if (packedPoints != null) {
+      sink.setPoints(toPackedPoints(packedPoints));
+    }
+    final Object appendedPoints = data.get("appendedPoints");
+    if (appendedPoints != null) {
+      sink.appendPoints(toPackedPoints(appendedPoints));
+    }
     final Object pattern = data.get("pattern");
     if (pattern != null) {
       sink.setPattern(toPattern(pattern));
@@ -528,13 +628,114 @@ class Convert {
     }
   }
 
+  static String interpretTileOverlayOptions(Object o, TileOverlayOptionsSink sink) {
+    final Map<?, ?> data = toMap(o);
+    final Object fadeIn = data.get("fadeIn");
+    if (fadeIn != null) {
+      sink.setFadeIn(toBoolean(fadeIn));
+    }
+    final Object transparency = data.get("transparency");
+    if (transparency != null) {
+      sink.setTransparency(toFloat(transparency));
+    }
+    final Object visible = data.get("visible");
+    if (visible != null) {
+      sink.setVisible(toBoolean(visible));
+    }
+    final Object zIndex = data.get("zIndex");
+    if (zIndex != null) {
+      sink.setZIndex(toFloat(zIndex));
+    }
+    final Object memoryCacheSize = data.get("memoryCacheSize");
+    final Object diskCacheSize = data.get("diskCacheSize");
+    if (memoryCacheSize != null && diskCacheSize != null) {
+      final Object diskCacheMaxAge = data.get("diskCacheMaxAgeMillis");
+      sink.setCacheLimits(
+          toInt(memoryCacheSize),
+          toInt(diskCacheSize),
+          diskCacheMaxAge == null ? 0 : ((Number) diskCacheMaxAge).longValue());
+    }
+    final Object tileSize = data.get("tileSize");
+    if (tileSize != null) {
+      // Without a URL template, tiles come from the Dart tile provider.
+      sink.setTileSource((String) data.get("urlTemplate"), toInt(tileSize));
+    }
+    final String tileOverlayId = (String) data.get("tileOverlayId");
+    if (tileOverlayId == null) {
+      throw new IllegalArgumentException("tileOverlayId was null");
+    } else {
+      return tileOverlayId;
+    }
+  }
+
+  static String interpretHeatmapOptions(Object o, HeatmapOptionsSink sink) {
+    final Map<?, ?> data = toMap(o);
+    final Object points = data.get("points");
+    if (points != null) {
+      sink.setPoints((double[]) points);
+    }
+    final Object appendedPoints = data.get("appendedPoints");
+    if (appendedPoints != null) {
+      sink.appendPoints((double[]) appendedPoints);
+    }
+    final Object radius = data.get("radius");
+    if (radius != null) {
+      sink.setRadius(toInt(radius));
+    }
+    final Object gradient = data.get("gradient");
+    if (gradient != null) {
+      final Map<?, ?> gradientData = toMap(gradient);
+      final List<?> colors = toList(gradientData.get("colors"));
+      final List<?> startPoints = toList(gradientData.get("startPoints"));
+      final int[] colorValues = new int[colors.size()];
+      final float[] startPointValues = new float[startPoints.size()];
+      for (int i = 0; i < colorValues.length; i++) {
+        colorValues[i] = toInt(colors.get(i));
+        startPointValues[i] = toFloat(startPoints.get(i));
+      }
+      sink.setGradient(colorValues, startPointValues, toInt(gradientData.get("colorMapSize")));
+    }
+    final Object opacity = data.get("opacity");
+    if (opacity != null) {
+      sink.setOpacity(toFloat(opacity));
+    }
+    final Object maxIntensity = data.get("maxIntensity");
+    if (maxIntensity != null) {
+      sink.setMaxIntensity(toDouble(maxIntensity));
+    }
+    final Object visible = data.get("visible");
+    if (visible != null) {
+      sink.setVisible(toBoolean(visible));
+    }
+    final Object zIndex = data.get("zIndex");
+    if (zIndex != null) {
+      sink.setZIndex(toFloat(zIndex));
+    }
+    final String heatmapId = (String) data.get("heatmapId");
+    if (heatmapId == null) {
+      throw new IllegalArgumentException("heatmapId was null");
+    } else {
+      return heatmapId;
+    }
+  }
+
   private static List<LatLng> toPoints(Object o) {
     final List<?> data = toList(o);
     final List<LatLng> points = new ArrayList<>(data.size());
 
     for (Object ob : data) {
       final List<?> point = toList(ob);
-      points.add(new LatLng(toFloat(point.get(0)), toFloat(point.get(1))));
+      points.add(new LatLng(toDouble(point.get(0)), toDouble(point.get(1))));
+    }
+    return points;
+  }
+
+  /** Reads points packed as latitude, longitude pairs. */
+  private static List<LatLng> toPackedPoints(Object o) {
+    final double[] data = (double[]) o;
+    final List<LatLng> points = new ArrayList<>(data.length / 2);
+    for (int i = 0; i + 1 < data.length; i += 2) {
+      points.add(new LatLng(data[i], data[i + 1]));
     }
     return points;
   }
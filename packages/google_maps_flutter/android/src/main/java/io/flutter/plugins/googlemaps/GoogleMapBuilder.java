@@ -22,7 +22,23 @@ class GoogleMapBuilder implements GoogleMapOptionsSink {
   private Object initialPolygons;
   private Object initialPolylines;
   private Object initialCircles;
+  private Object initialTileOverlays;
+  private Object initialHeatmaps;
   private Rect padding = new Rect(0, 0, 0, 0);
+  private float simplificationTolerance = 0;
+  private boolean clusteringEnabled = false;
+  private float clusterGridSize;
+  private int minClusterSize;
+  private int clusterColor;
+  private boolean virtualizationEnabled = false;
+  private float virtualizationMargin;
+  private int maxRecycledMarkers;
+  private int maxVisibleMarkers;
+  private boolean cameraMoveThrottled = false;
+  private int maxCameraMovesPerSecond;
+  private float minCameraMoveDistance;
+  private float minCameraMoveZoomDelta;
+  private boolean latestCameraMoveOnly;
 
   GoogleMapController build(
       int id, Context context, AtomicInteger state, PluginRegistry.Registrar registrar) {
@@ -33,10 +49,23 @@ class GoogleMapBuilder implements GoogleMapOptionsSink {
     controller.setMyLocationButtonEnabled(myLocationButtonEnabled);
     controller.setIndoorEnabled(indoorEnabled);
     controller.setTrackCameraPosition(trackCameraPosition);
+    controller.setSimplificationTolerance(simplificationTolerance);
+    controller.setMarkerClustering(
+        clusteringEnabled, clusterGridSize, minClusterSize, clusterColor);
+    controller.setMarkerVirtualization(
+        virtualizationEnabled, virtualizationMargin, maxRecycledMarkers, maxVisibleMarkers);
+    controller.setCameraMoveThrottle(
+        cameraMoveThrottled,
+        maxCameraMovesPerSecond,
+        minCameraMoveDistance,
+        minCameraMoveZoomDelta,
+        latestCameraMoveOnly);
     controller.setInitialMarkers(initialMarkers);
     controller.setInitialPolygons(initialPolygons);
     controller.setInitialPolylines(initialPolylines);
     controller.setInitialCircles(initialCircles);
+    controller.setInitialTileOverlays(initialTileOverlays);
+    controller.setInitialHeatmaps(initialHeatmaps);
     controller.setPadding(padding.top, padding.left, padding.bottom, padding.right);
     return controller;
   }
@@ -139,4 +168,50 @@ class GoogleMapBuilder implements GoogleMapOptionsSink {
   public void setInitialCircles(Object initialCircles) {
     this.initialCircles = initialCircles;
   }
+
+  @Override
+  public void setInitialTileOverlays(Object initialTileOverlays) {
+    this.initialTileOverlays = initialTileOverlays;
+  }
+
+  @Override
+  public void setInitialHeatmaps(Object initialHeatmaps) {
+    this.initialHeatmaps = initialHeatmaps;
+  }
+
+  @Override
+  public void setSimplificationTolerance(float tolerance) {
+    this.simplificationTolerance = tolerance;
+  }
+
+  @Override
+  public void setMarkerClustering(boolean enabled, float gridSize, int minClusterSize, int color) {
+    this.clusteringEnabled = enabled;
+    this.clusterGridSize = gridSize;
+    this.minClusterSize = minClusterSize;
+    this.clusterColor = color;
+  }
+
+  @Override
+  public void setMarkerVirtualization(
+      boolean enabled, float margin, int maxRecycledMarkers, int maxVisibleMarkers) {
+    this.virtualizationEnabled = enabled;
+    this.virtualizationMargin = margin;
+    this.maxRecycledMarkers = maxRecycledMarkers;
+    this.maxVisibleMarkers = maxVisibleMarkers;
+  }
+
+  @Override
+  public void setCameraMoveThrottle(
+      boolean enabled,
+      int maxEventsPerSecond,
+      float minDistance,
+      float minZoomDelta,
+      boolean latestOnly) {
+    this.cameraMoveThrottled = enabled;
+    this.maxCameraMovesPerSecond = maxEventsPerSecond;
+    this.minCameraMoveDistance = minDistance;
+    this.minCameraMoveZoomDelta = minZoomDelta;
+    this.latestCameraMoveOnly = latestOnly;
+  }
 }
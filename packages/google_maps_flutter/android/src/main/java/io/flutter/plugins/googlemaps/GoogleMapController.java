@@ -17,6 +17,7 @@ import android.app.Activity;
 import android.app.Application;
 import android.content.Context;
 import android.content.pm.PackageManager;
+import android.graphics.Bitmap;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
@@ -24,6 +25,7 @@ import com.google.android.gms.maps.CameraUpdate;
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.GoogleMapOptions;
 import com.google.android.gms.maps.MapView;
+import com.google.android.gms.maps.MapsInitializer;
 import com.google.android.gms.maps.OnMapReadyCallback;
 import com.google.android.gms.maps.model.CameraPosition;
 import com.google.android.gms.maps.model.Circle;
@@ -37,6 +39,7 @@ import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.PluginRegistry;
 import io.flutter.plugin.platform.PlatformView;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -81,11 +84,18 @@ final class GoogleMapController
   private final MarkersController markersController;
   private final PolygonsController polygonsController;
   private final PolylinesController polylinesController;
+  private final ShapeSimplifier shapeSimplifier;
   private final CirclesController circlesController;
+  private final TileOverlaysController tileOverlaysController;
+  private final HeatmapsController heatmapsController;
+  private final CameraMoveThrottle cameraMoveThrottle;
+  private final SnapshotWriter snapshotWriter = new SnapshotWriter();
   private List<Object> initialMarkers;
   private List<Object> initialPolygons;
   private List<Object> initialPolylines;
   private List<Object> initialCircles;
+  private List<Object> initialTileOverlays;
+  private List<Object> initialHeatmaps;
 
   GoogleMapController(
       int id,
@@ -103,10 +113,30 @@ final class GoogleMapController
         new MethodChannel(registrar.messenger(), "plugins.flutter.io/google_maps_" + id);
     methodChannel.setMethodCallHandler(this);
     this.registrarActivityHashCode = registrar.activity().hashCode();
-    this.markersController = new MarkersController(methodChannel);
-    this.polygonsController = new PolygonsController(methodChannel);
-    this.polylinesController = new PolylinesController(methodChannel, density);
+    this.markersController = new MarkersController(methodChannel, density);
+    this.shapeSimplifier = new ShapeSimplifier();
+    this.polygonsController = new PolygonsController(methodChannel, shapeSimplifier);
+    this.polylinesController = new PolylinesController(methodChannel, density, shapeSimplifier);
     this.circlesController = new CirclesController(methodChannel);
+    this.tileOverlaysController =
+        new TileOverlaysController(
+            methodChannel, new File(context.getCacheDir(), "google_maps_flutter_tiles"));
+    this.heatmapsController = new HeatmapsController();
+    this.cameraMoveThrottle =
+        new CameraMoveThrottle(
+            new CameraMoveThrottle.Target() {
+              @Override
+              public CameraPosition getCameraPosition() {
+                return googleMap.getCameraPosition();
+              }
+
+              @Override
+              public void reportCameraMove(CameraPosition position) {
+                final Map<String, Object> arguments = new HashMap<>(2);
+                arguments.put("position", Convert.cameraPositionToJson(position));
+                methodChannel.invokeMethod("camera#onMove", arguments);
+              }
+            });
   }
 
   @Override
@@ -186,11 +216,16 @@ final class GoogleMapController
     markersController.setGoogleMap(googleMap);
     polygonsController.setGoogleMap(googleMap);
     polylinesController.setGoogleMap(googleMap);
+    shapeSimplifier.onCameraIdle(googleMap.getCameraPosition().zoom);
     circlesController.setGoogleMap(googleMap);
+    tileOverlaysController.setGoogleMap(googleMap);
+    heatmapsController.setGoogleMap(googleMap);
     updateInitialMarkers();
     updateInitialPolygons();
     updateInitialPolylines();
     updateInitialCircles();
+    updateInitialTileOverlays();
+    updateInitialHeatmaps();
   }
 
   @Override
@@ -240,15 +275,34 @@ final class GoogleMapController
         }
       case "markers#update":
         {
-          Object markersToAdd = call.argument("markersToAdd");
-          markersController.addMarkers((List<Object>) markersToAdd);
-          Object markersToChange = call.argument("markersToChange");
-          markersController.changeMarkers((List<Object>) markersToChange);
+          if (call.hasArgument("markerFields")) {
+            markersController.updateMarkers(call.arguments);
+          } else {
+            Object markersToAdd = call.argument("markersToAdd");
+            markersController.addMarkers((List<Object>) markersToAdd);
+            Object markersToChange = call.argument("markersToChange");
+            markersController.changeMarkers((List<Object>) markersToChange);
+          }
           Object markerIdsToRemove = call.argument("markerIdsToRemove");
           markersController.removeMarkers((List<Object>) markerIdsToRemove);
           result.success(null);
           break;
         }
+      case "icons#register":
+        {
+          // Icons may be registered before the map is ready.
+          MapsInitializer.initialize(context);
+          Convert.registerBitmapDescriptor(
+              id, (String) call.argument("iconId"), call.argument("icon"));
+          result.success(null);
+          break;
+        }
+      case "icons#unregister":
+        {
+          Convert.unregisterBitmapDescriptor(id, (String) call.argument("iconId"));
+          result.success(null);
+          break;
+        }
       case "polygons#update":
         {
           Object polygonsToAdd = call.argument("polygonsToAdd");
@@ -282,6 +336,39 @@ final class GoogleMapController
           result.success(null);
           break;
         }
+      case "tileOverlays#update":
+        {
+          Object tileOverlaysToAdd = call.argument("tileOverlaysToAdd");
+          tileOverlaysController.addTileOverlays((List<Object>) tileOverlaysToAdd);
+          Object tileOverlaysToChange = call.argument("tileOverlaysToChange");
+          tileOverlaysController.changeTileOverlays((List<Object>) tileOverlaysToChange);
+          Object tileOverlayIdsToRemove = call.argument("tileOverlayIdsToRemove");
+          tileOverlaysController.removeTileOverlays((List<Object>) tileOverlayIdsToRemove);
+          result.success(null);
+          break;
+        }
+      case "heatmaps#update":
+        {
+          Object heatmapsToAdd = call.argument("heatmapsToAdd");
+          heatmapsController.addHeatmaps((List<Object>) heatmapsToAdd);
+          Object heatmapsToChange = call.argument("heatmapsToChange");
+          heatmapsController.changeHeatmaps((List<Object>) heatmapsToChange);
+          Object heatmapIdsToRemove = call.argument("heatmapIdsToRemove");
+          heatmapsController.removeHeatmaps((List<Object>) heatmapIdsToRemove);
+          result.success(null);
+          break;
+        }
+      case "tileOverlays#clearTileCache":
+        {
+          tileOverlaysController.clearTileCache((String) call.argument("tileOverlayId"));
+          result.success(null);
+          break;
+        }
+      case "map#takeSnapshot":
+        {
+          takeSnapshot(SnapshotWriter.Options.fromJson(call.arguments), result);
+          break;
+        }
       case "map#isCompassEnabled":
         {
           result.success(googleMap.getUiSettings().isCompassEnabled());
@@ -348,6 +435,35 @@ final class GoogleMapController
     }
   }
 
+  private void takeSnapshot(
+      final SnapshotWriter.Options options, final MethodChannel.Result result) {
+    if (googleMap == null) {
+      result.error(
+          "GoogleMap uninitialized", "takeSnapshot called prior to map initialization", null);
+      return;
+    }
+    googleMap.snapshot(
+        new GoogleMap.SnapshotReadyCallback() {
+          @Override
+          public void onSnapshotReady(Bitmap bitmap) {
+            snapshotWriter.write(
+                bitmap,
+                options,
+                new SnapshotWriter.Callback() {
+                  @Override
+                  public void onSnapshotWritten(byte[] bytes) {
+                    result.success(bytes);
+                  }
+
+                  @Override
+                  public void onError(String message) {
+                    result.error("snapshotFailed", message, null);
+                  }
+                });
+          }
+        });
+  }
+
   @Override
   public void onMapClick(LatLng latLng) {
     final Map<String, Object> arguments = new HashMap<>(2);
@@ -380,13 +496,16 @@ final class GoogleMapController
     if (!trackCameraPosition) {
       return;
     }
-    final Map<String, Object> arguments = new HashMap<>(2);
-    arguments.put("position", Convert.cameraPositionToJson(googleMap.getCameraPosition()));
-    methodChannel.invokeMethod("camera#onMove", arguments);
+    cameraMoveThrottle.onCameraMove();
   }
 
   @Override
   public void onCameraIdle() {
+    if (trackCameraPosition) {
+      cameraMoveThrottle.onCameraIdle();
+    }
+    markersController.onCameraIdle();
+    shapeSimplifier.onCameraIdle(googleMap.getCameraPosition().zoom);
     methodChannel.invokeMethod("camera#onIdle", Collections.singletonMap("map", id));
   }
 
@@ -417,6 +536,13 @@ final class GoogleMapController
     }
     disposed = true;
     methodChannel.setMethodCallHandler(null);
+    markersController.dispose();
+    shapeSimplifier.dispose();
+    tileOverlaysController.dispose();
+    heatmapsController.dispose();
+    cameraMoveThrottle.dispose();
+    snapshotWriter.dispose();
+    Convert.unregisterBitmapDescriptors(id);
     mapView.onDestroy();
     registrar.activity().getApplication().unregisterActivityLifecycleCallbacks(this);
   }
@@ -616,6 +742,30 @@ final class GoogleMapController
     circlesController.addCircles(initialCircles);
   }
 
+  @Override
+  public void setInitialTileOverlays(Object initialTileOverlays) {
+    this.initialTileOverlays = (List<Object>) initialTileOverlays;
+    if (googleMap != null) {
+      updateInitialTileOverlays();
+    }
+  }
+
+  private void updateInitialTileOverlays() {
+    tileOverlaysController.addTileOverlays(initialTileOverlays);
+  }
+
+  @Override
+  public void setInitialHeatmaps(Object initialHeatmaps) {
+    this.initialHeatmaps = (List<Object>) initialHeatmaps;
+    if (googleMap != null) {
+      updateInitialHeatmaps();
+    }
+  }
+
+  private void updateInitialHeatmaps() {
+    heatmapsController.addHeatmaps(initialHeatmaps);
+  }
+
   @SuppressLint("MissingPermission")
   private void updateMyLocationSettings() {
     if (hasLocationPermission()) {
@@ -651,4 +801,31 @@ final class GoogleMapController
   public void setIndoorEnabled(boolean indoorEnabled) {
     this.indoorEnabled = indoorEnabled;
   }
+
+  @Override
+  public void setSimplificationTolerance(float tolerance) {
+    shapeSimplifier.setTolerance(tolerance);
+  }
+
+  @Override
+  public void setMarkerClustering(boolean enabled, float gridSize, int minClusterSize, int color) {
+    markersController.setClustering(enabled, gridSize, minClusterSize, color);
+  }
+
+  @Override
+  public void setMarkerVirtualization(
+      boolean enabled, float margin, int maxRecycledMarkers, int maxVisibleMarkers) {
+    markersController.setVirtualization(enabled, margin, maxRecycledMarkers, maxVisibleMarkers);
+  }
+
+  @Override
+  public void setCameraMoveThrottle(
+      boolean enabled,
+      int maxEventsPerSecond,
+      float minDistance,
+      float minZoomDelta,
+      boolean latestOnly) {
+    cameraMoveThrottle.configure(
+        enabled, maxEventsPerSecond, minDistance, minZoomDelta, latestOnly);
+  }
 }
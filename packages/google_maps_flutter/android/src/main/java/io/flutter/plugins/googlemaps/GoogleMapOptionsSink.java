@@ -36,6 +36,20 @@ interface GoogleMapOptionsSink {
 
   void setIndoorEnabled(boolean indoorEnabled);
 
+  void setSimplificationTolerance(float tolerance);
+
+  void setMarkerClustering(boolean enabled, float gridSize, int minClusterSize, int color);
+
+  void setMarkerVirtualization(
+      boolean enabled, float margin, int maxRecycledMarkers, int maxVisibleMarkers);
+
+  void setCameraMoveThrottle(
+      boolean enabled,
+      int maxEventsPerSecond,
+      float minDistance,
+      float minZoomDelta,
+      boolean latestOnly);
+
   void setInitialMarkers(Object initialMarkers);
 
   void setInitialPolygons(Object initialPolygons);
@@ -43,4 +57,8 @@ interface GoogleMapOptionsSink {
   void setInitialPolylines(Object initialPolylines);
 
   void setInitialCircles(Object initialCircles);
+
+  void setInitialTileOverlays(Object initialTileOverlays);
+
+  void setInitialHeatmaps(Object initialHeatmaps);
 }
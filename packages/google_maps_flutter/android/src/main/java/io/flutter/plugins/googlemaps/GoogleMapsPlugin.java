@@ -7,6 +7,7 @@ package io.flutter.plugins.googlemaps;
 import android.app.Activity;
 import android.app.Application;
 import android.os.Bundle;
+import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.PluginRegistry.Registrar;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -38,6 +39,9 @@ public class GoogleMapsPlugin implements Application.ActivityLifecycleCallbacks
         .platformViewRegistry()
         .registerViewFactory(
             "plugins.flutter.io/google_maps", new GoogleMapFactory(plugin.state, registrar));
+    final MethodChannel snapshotterChannel =
+        new MethodChannel(registrar.messenger(), "plugins.flutter.io/google_maps_snapshotter");
+    snapshotterChannel.setMethodCallHandler(new MapSnapshotter(registrar));
   }
 
   @Override
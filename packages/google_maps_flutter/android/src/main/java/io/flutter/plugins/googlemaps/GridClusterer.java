@@ -0,0 +1,125 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Clusters markers by the cell of a square grid they fall in.
+ *
+ * <p>The grid is laid over the world in the pixel coordinates of an integer zoom level, and acts as
+ * the spatial index: assigning the markers to cells takes a single pass, and a cell keeps its key
+ * while the camera pans at the same zoom level. Only the cells that cover the viewport are
+ * returned, so callers just have to replace what changed between two results.
+ *
+ * <p>Pure computation, safe to run on any thread.
+ */
+class GridClusterer {
+
+  static final class Cluster {
+    final String key;
+    final List<String> markerIds = new ArrayList<>();
+    private double sumX;
+    private double sumY;
+
+    Cluster(String key) {
+      this.key = key;
+    }
+
+    LatLng position() {
+      return fromWorld(sumX / markerIds.size(), sumY / markerIds.size());
+    }
+  }
+
+  static final class Result {
+    /** Markers that are shown on their own. */
+    final List<String> markerIds = new ArrayList<>();
+    /** Clusters by key. */
+    final Map<String, Cluster> clusters = new HashMap<>();
+  }
+
+  /** Just below 1, so that longitude 180 falls in the last column instead of one past it. */
+  private static final double MAX_WORLD_X = 1 - 1e-9;
+
+  private final int zoom;
+  private final double cellsPerWorld;
+
+  /** Creates a grid at {@code zoom} whose cells are {@code cellSize} pixels wide. */
+  GridClusterer(int zoom, double cellSize) {
+    this.zoom = zoom;
+    this.cellsPerWorld = 256 * Math.pow(2, zoom) / cellSize;
+  }
+
+  /**
+   * Clusters the markers in the cells that intersect {@code viewport}, which holds the south west
+   * and north east corners as {@code [south, west, north, east]} in degrees.
+   *
+   * <p>Cells holding fewer than {@code minClusterSize} markers don't form a cluster.
+   */
+  Result cluster(
+      String[] markerIds,
+      double[] latitudes,
+      double[] longitudes,
+      double[] viewport,
+      int minClusterSize) {
+    final long minCellX = cellX(viewport[1]);
+    final long maxCellX = cellX(viewport[3]);
+    final long minCellY = cellY(viewport[2]);
+    final long maxCellY = cellY(viewport[0]);
+    // The viewport crosses the antimeridian.
+    final boolean wraps = minCellX > maxCellX;
+
+    final Map<String, Cluster> cells = new HashMap<>();
+    for (int i = 0; i < markerIds.length; i++) {
+      final long x = cellX(longitudes[i]);
+      final long y = cellY(latitudes[i]);
+      if (y < minCellY || y > maxCellY) {
+        continue;
+      }
+      if (wraps ? (x < minCellX && x > maxCellX) : (x < minCellX || x > maxCellX)) {
+        continue;
+      }
+      final String key = zoom + ":" + x + ":" + y;
+      Cluster cell = cells.get(key);
+      if (cell == null) {
+        cell = new Cluster(key);
+        cells.put(key, cell);
+      }
+      cell.markerIds.add(markerIds[i]);
+      cell.sumX += worldX(longitudes[i]);
+      cell.sumY += WebMercator.y(latitudes[i]);
+    }
+
+    final Result result = new Result();
+    for (Cluster cell : cells.values()) {
+      if (cell.markerIds.size() < minClusterSize) {
+        result.markerIds.addAll(cell.markerIds);
+      } else {
+        result.clusters.put(cell.key, cell);
+      }
+    }
+    return result;
+  }
+
+  private long cellX(double longitude) {
+    return (long) Math.floor(worldX(longitude) * cellsPerWorld);
+  }
+
+  private long cellY(double latitude) {
+    return (long) Math.floor(WebMercator.y(latitude) * cellsPerWorld);
+  }
+
+  private static double worldX(double longitude) {
+    return Math.min(WebMercator.x(longitude), MAX_WORLD_X);
+  }
+
+  private static LatLng fromWorld(double x, double y) {
+    return new LatLng(WebMercator.latitude(y), WebMercator.longitude(x));
+  }
+}
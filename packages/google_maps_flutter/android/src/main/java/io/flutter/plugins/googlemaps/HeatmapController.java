@@ -0,0 +1,82 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.TileOverlay;
+
+/** Controller of a single Heatmap on the map. */
+class HeatmapController implements HeatmapOptionsSink {
+  private final TileOverlay tileOverlay;
+  private final HeatmapTileProvider tileProvider;
+  private boolean removed = false;
+
+  HeatmapController(TileOverlay tileOverlay, HeatmapTileProvider tileProvider) {
+    this.tileOverlay = tileOverlay;
+    this.tileProvider = tileProvider;
+    tileProvider.setOnTilesChanged(
+        new Runnable() {
+          @Override
+          public void run() {
+            if (!removed) {
+              HeatmapController.this.tileOverlay.clearTileCache();
+            }
+          }
+        });
+  }
+
+  void remove() {
+    removed = true;
+    tileOverlay.remove();
+  }
+
+  @Override
+  public void setPoints(double[] points) {
+    // The tiles are cleared once the points are indexed.
+    tileProvider.setPoints(points);
+  }
+
+  @Override
+  public void appendPoints(double[] points) {
+    tileProvider.appendPoints(points);
+  }
+
+  @Override
+  public void setRadius(int radius) {
+    if (tileProvider.setRadius(radius)) {
+      tileOverlay.clearTileCache();
+    }
+  }
+
+  @Override
+  public void setGradient(int[] colors, float[] startPoints, int colorMapSize) {
+    if (tileProvider.setGradient(colors, startPoints, colorMapSize)) {
+      tileOverlay.clearTileCache();
+    }
+  }
+
+  @Override
+  public void setOpacity(float opacity) {
+    if (tileProvider.setOpacity(opacity)) {
+      tileOverlay.clearTileCache();
+    }
+  }
+
+  @Override
+  public void setMaxIntensity(double maxIntensity) {
+    if (tileProvider.setMaxIntensity(maxIntensity)) {
+      tileOverlay.clearTileCache();
+    }
+  }
+
+  @Override
+  public void setVisible(boolean visible) {
+    tileOverlay.setVisible(visible);
+  }
+
+  @Override
+  public void setZIndex(float zIndex) {
+    tileOverlay.setZIndex(zIndex);
+  }
+}
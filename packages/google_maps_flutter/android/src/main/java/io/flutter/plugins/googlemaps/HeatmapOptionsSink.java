@@ -0,0 +1,27 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+/** Receiver of Heatmap configuration options. */
+interface HeatmapOptionsSink {
+
+  /** Sets the points, packed as latitude, longitude, weight triples. */
+  void setPoints(double[] points);
+
+  /** Adds points, packed like in {@link #setPoints}. */
+  void appendPoints(double[] points);
+
+  void setRadius(int radius);
+
+  void setGradient(int[] colors, float[] startPoints, int colorMapSize);
+
+  void setOpacity(float opacity);
+
+  void setMaxIntensity(double maxIntensity);
+
+  void setVisible(boolean visible);
+
+  void setZIndex(float zIndex);
+}
@@ -0,0 +1,353 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.os.Handler;
+import android.os.Looper;
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Tile provider rasterizing a heatmap of weighted points.
+ *
+ * <p>Each tile sums the weights of the points around it into a grid, blurs the grid with a
+ * separable Gaussian kernel of the heatmap radius, and maps the intensities to colors. The maps SDK
+ * requests tiles from its own pool of background threads, so tiles are rasterized concurrently from
+ * an immutable snapshot of the heatmap, without locking.
+ *
+ * <p>Setters must be called from the main thread. Points are indexed on {@code executor}, and the
+ * tiles changed callback runs on the main thread once the new points are in use.
+ */
+class HeatmapTileProvider implements TileProvider {
+  static final int TILE_SIZE = 256;
+  private static final int MAX_ZOOM = 22;
+
+  /** Everything a tile is rasterized from. */
+  private static final class Snapshot {
+    final WeightedPoints points;
+    final int radius;
+    final double[] kernel;
+    final int[] colorMap;
+    final double maxIntensity;
+    // Computed lazily, racing threads compute the same values.
+    final double[] maxIntensityByZoom = new double[MAX_ZOOM + 1];
+
+    Snapshot(
+        WeightedPoints points, int radius, double[] kernel, int[] colorMap, double maxIntensity) {
+      this.points = points;
+      this.radius = radius;
+      this.kernel = kernel;
+      this.colorMap = colorMap;
+      this.maxIntensity = maxIntensity;
+      Arrays.fill(maxIntensityByZoom, Double.NaN);
+    }
+  }
+
+  private final ExecutorService executor;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private Runnable onTilesChanged;
+  private WeightedPoints points = WeightedPoints.EMPTY;
+  private int radius = 20;
+  private int[] colors = {Color.rgb(102, 225, 0), Color.rgb(255, 0, 0)};
+  private float[] startPoints = {0.2f, 1f};
+  private int colorMapSize = 1000;
+  private float opacity = 0.7f;
+  private double maxIntensity = 0;
+  private double[] kernel = kernel(radius);
+  private int[] colorMap = colorMap(colors, startPoints, colorMapSize, opacity);
+  private volatile Snapshot snapshot;
+
+  HeatmapTileProvider(ExecutorService executor) {
+    this.executor = executor;
+    update();
+  }
+
+  /** Sets what runs on the main thread when tiles rasterized earlier became stale. */
+  void setOnTilesChanged(Runnable onTilesChanged) {
+    this.onTilesChanged = onTilesChanged;
+  }
+
+  void setPoints(final double[] packed) {
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            updatePoints(WeightedPoints.fromPacked(packed));
+          }
+        });
+  }
+
+  void appendPoints(final double[] packed) {
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            // Only the executor replaces the points, so they can't change meanwhile.
+            updatePoints(points.append(packed));
+          }
+        });
+  }
+
+  /** @return true if the tiles changed. */
+  synchronized boolean setRadius(int radius) {
+    if (radius == this.radius) {
+      return false;
+    }
+    this.radius = radius;
+    this.kernel = kernel(radius);
+    update();
+    return true;
+  }
+
+  /** @return true if the tiles changed. */
+  synchronized boolean setGradient(int[] colors, float[] startPoints, int colorMapSize) {
+    if (Arrays.equals(colors, this.colors)
+        && Arrays.equals(startPoints, this.startPoints)
+        && colorMapSize == this.colorMapSize) {
+      return false;
+    }
+    this.colors = colors;
+    this.startPoints = startPoints;
+    this.colorMapSize = colorMapSize;
+    this.colorMap = colorMap(colors, startPoints, colorMapSize, opacity);
+    update();
+    return true;
+  }
+
+  /** @return true if the tiles changed. */
+  synchronized boolean setOpacity(float opacity) {
+    if (opacity == this.opacity) {
+      return false;
+    }
+    this.opacity = opacity;
+    this.colorMap = colorMap(colors, startPoints, colorMapSize, opacity);
+    update();
+    return true;
+  }
+
+  /**
+   * Sets the intensity of the last color of the gradient, computed per zoom level if 0.
+   *
+   * @return true if the tiles changed.
+   */
+  synchronized boolean setMaxIntensity(double maxIntensity) {
+    if (maxIntensity == this.maxIntensity) {
+      return false;
+    }
+    this.maxIntensity = maxIntensity;
+    update();
+    return true;
+  }
+
+  private void updatePoints(WeightedPoints points) {
+    synchronized (this) {
+      this.points = points;
+      update();
+    }
+    mainHandler.post(
+        new Runnable() {
+          @Override
+          public void run() {
+            if (onTilesChanged != null) {
+              onTilesChanged.run();
+            }
+          }
+        });
+  }
+
+  private void update() {
+    snapshot = new Snapshot(points, radius, kernel, colorMap, maxIntensity);
+  }
+
+  @Override
+  public Tile getTile(int x, int y, int zoom) {
+    byte[] data = rasterize(snapshot, x, y, Math.min(zoom, MAX_ZOOM));
+    return data == null ? NO_TILE : new Tile(TILE_SIZE, TILE_SIZE, data);
+  }
+
+  private static byte[] rasterize(Snapshot snapshot, int x, int y, int zoom) {
+    final WeightedPoints points = snapshot.points;
+    final int radius = snapshot.radius;
+    final int dim = TILE_SIZE + 2 * radius;
+    final double scale = (double) TILE_SIZE * (1 << zoom);
+    final double left = (double) x * TILE_SIZE - radius;
+    final double top = (double) y * TILE_SIZE - radius;
+    final double minY = top / scale;
+    final double maxY = (top + dim) / scale;
+
+    // Sums the weights into the grid, including points a world width away for tiles next to the
+    // antimeridian.
+    double[] grid = null;
+    for (int shift = -1; shift <= 1; shift++) {
+      double minX = left / scale - shift;
+      double maxX = (left + dim) / scale - shift;
+      if (maxX < 0 || minX >= 1) {
+        continue;
+      }
+      int end = points.endOf(maxX);
+      for (int i = points.startOf(minX); i < end; i++) {
+        double pointY = points.ys[i];
+        if (pointY < minY || pointY >= maxY) {
+          continue;
+        }
+        int column = (int) ((points.xs[i] + shift) * scale - left);
+        int row = (int) (pointY * scale - top);
+        if (column < 0 || column >= dim || row < 0 || row >= dim) {
+          continue;
+        }
+        if (grid == null) {
+          grid = new double[dim * dim];
+        }
+        grid[row * dim + column] += points.weights[i];
+      }
+    }
+    if (grid == null) {
+      return null;
+    }
+
+    // Blurs the rows, then the columns, only keeping the intensities inside the tile.
+    final double[] kernel = snapshot.kernel;
+    final double[] blurredRows = new double[dim * TILE_SIZE];
+    for (int row = 0; row < dim; row++) {
+      for (int column = 0; column < dim; column++) {
+        double value = grid[row * dim + column];
+        if (value == 0) {
+          continue;
+        }
+        // Only the kernel values landing inside the tile.
+        int from = Math.max(0, 2 * radius - column);
+        int to = Math.min(kernel.length, TILE_SIZE + 2 * radius - column);
+        for (int k = from; k < to; k++) {
+          blurredRows[row * TILE_SIZE + column + k - 2 * radius] += value * kernel[k];
+        }
+      }
+    }
+    final double[] intensity = new double[TILE_SIZE * TILE_SIZE];
+    for (int row = 0; row < dim; row++) {
+      for (int column = 0; column < TILE_SIZE; column++) {
+        double value = blurredRows[row * TILE_SIZE + column];
+        if (value == 0) {
+          continue;
+        }
+        int from = Math.max(0, 2 * radius - row);
+        int to = Math.min(kernel.length, TILE_SIZE + 2 * radius - row);
+        for (int k = from; k < to; k++) {
+          intensity[(row + k - 2 * radius) * TILE_SIZE + column] += value * kernel[k];
+        }
+      }
+    }
+
+    final int[] colorMap = snapshot.colorMap;
+    final double maxIntensity =
+        snapshot.maxIntensity > 0 ? snapshot.maxIntensity : maxIntensity(snapshot, zoom);
+    final double colorScale = (colorMap.length - 1) / maxIntensity;
+    final int[] pixels = new int[TILE_SIZE * TILE_SIZE];
+    boolean empty = true;
+    for (int i = 0; i < pixels.length; i++) {
+      if (intensity[i] <= 0) {
+        continue;
+      }
+      int index = (int) (intensity[i] * colorScale);
+      pixels[i] = colorMap[Math.min(index, colorMap.length - 1)];
+      empty &= pixels[i] == Color.TRANSPARENT;
+    }
+    if (empty) {
+      return null;
+    }
+    Bitmap bitmap = Bitmap.createBitmap(pixels, TILE_SIZE, TILE_SIZE, Bitmap.Config.ARGB_8888);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+    bitmap.recycle();
+    return out.toByteArray();
+  }
+
+  /**
+   * Returns the largest sum of weights in a cell of the heatmap radius at {@code zoom}, which is
+   * about the largest intensity of the heatmap at that zoom level.
+   */
+  private static double maxIntensity(Snapshot snapshot, int zoom) {
+    double cached = snapshot.maxIntensityByZoom[zoom];
+    if (!Double.isNaN(cached)) {
+      return cached;
+    }
+    WeightedPoints points = snapshot.points;
+    double cellsPerWorld = Math.ceil((double) TILE_SIZE * (1 << zoom) / snapshot.radius);
+    Map<Long, double[]> cells = new HashMap<>();
+    double max = 0;
+    for (int i = 0; i < points.size(); i++) {
+      long key =
+          (long) (points.xs[i] * cellsPerWorld) * (long) cellsPerWorld
+              + (long) (points.ys[i] * cellsPerWorld);
+      double[] sum = cells.get(key);
+      if (sum == null) {
+        sum = new double[1];
+        cells.put(key, sum);
+      }
+      sum[0] += points.weights[i];
+      max = Math.max(max, sum[0]);
+    }
+    max = max > 0 ? max : 1;
+    snapshot.maxIntensityByZoom[zoom] = max;
+    return max;
+  }
+
+  /** Returns a Gaussian kernel of {@code 2 * radius + 1} values, peaking at 1. */
+  private static double[] kernel(int radius) {
+    double[] kernel = new double[2 * radius + 1];
+    double sigma = radius / 3.0;
+    for (int i = -radius; i <= radius; i++) {
+      kernel[i + radius] = Math.exp(-i * i / (2 * sigma * sigma));
+    }
+    return kernel;
+  }
+
+  /**
+   * Interpolates the gradient into {@code size} colors, fading in from transparent below the first
+   * start point.
+   */
+  private static int[] colorMap(int[] colors, float[] startPoints, int size, float opacity) {
+    int[] colorMap = new int[size];
+    for (int i = 0; i < size; i++) {
+      float fraction = size > 1 ? (float) i / (size - 1) : 1;
+      int color;
+      if (fraction <= startPoints[0]) {
+        color = colors[0];
+        int alpha =
+            (int) (Color.alpha(color) * (startPoints[0] > 0 ? fraction / startPoints[0] : 1));
+        color = (color & 0x00FFFFFF) | (alpha << 24);
+      } else {
+        int segment = 0;
+        while (segment + 1 < startPoints.length && fraction > startPoints[segment + 1]) {
+          segment++;
+        }
+        if (segment + 1 == startPoints.length) {
+          color = colors[segment];
+        } else {
+          float t =
+              (fraction - startPoints[segment]) / (startPoints[segment + 1] - startPoints[segment]);
+          color = interpolate(colors[segment], colors[segment + 1], t);
+        }
+      }
+      int alpha = (int) (Color.alpha(color) * opacity);
+      colorMap[i] = (color & 0x00FFFFFF) | (alpha << 24);
+    }
+    return colorMap;
+  }
+
+  private static int interpolate(int from, int to, float t) {
+    return Color.argb(
+        Math.round(Color.alpha(from) + (Color.alpha(to) - Color.alpha(from)) * t),
+        Math.round(Color.red(from) + (Color.red(to) - Color.red(from)) * t),
+        Math.round(Color.green(from) + (Color.green(to) - Color.green(from)) * t),
+        Math.round(Color.blue(from) + (Color.blue(to) - Color.blue(from)) * t));
+  }
+}
@@ -0,0 +1,287 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewGroup;
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.GoogleMapOptions;
+import com.google.android.gms.maps.MapView;
+import com.google.android.gms.maps.OnMapReadyCallback;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel;
+import io.flutter.plugin.common.PluginRegistry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders batches of map snapshots without a map widget.
+ *
+ * <p>All snapshots are rendered in sequence by a single lite mode MapView, which is added behind
+ * the Flutter view so that it is laid out and drawn without being visible. The view is created for
+ * the first batch, reused by the batches requested while it is busy, and destroyed once there is
+ * nothing left to render, or after a snapshot fails to render. The activity is only referenced
+ * through that view.
+ */
+final class MapSnapshotter implements MethodChannel.MethodCallHandler, OnMapReadyCallback {
+  /** Longest wait for the map of a snapshot to load, before it is captured as it is. */
+  private static final long LOAD_TIMEOUT_MS = 10000;
+
+  private static final class Batch {
+    final int width;
+    final int height;
+    final int mapType;
+    final int format;
+    final int quality;
+    final List<Map<String, Object>> snapshots;
+    final MethodChannel.Result result;
+    final List<byte[]> results = new ArrayList<>();
+
+    Batch(
+        int width,
+        int height,
+        int mapType,
+        int format,
+        int quality,
+        List<Map<String, Object>> snapshots,
+        MethodChannel.Result result) {
+      this.width = width;
+      this.height = height;
+      this.mapType = mapType;
+      this.format = format;
+      this.quality = quality;
+      this.snapshots = snapshots;
+      this.result = result;
+    }
+  }
+
+  /** Captures the current snapshot once, when the map has loaded or after a timeout. */
+  private final class Capture implements Runnable, GoogleMap.OnMapLoadedCallback {
+    @Override
+    public void onMapLoaded() {
+      run();
+    }
+
+    @Override
+    public void run() {
+      if (pendingCapture != this) {
+        return;
+      }
+      pendingCapture = null;
+      mainHandler.removeCallbacks(this);
+      googleMap.setOnMapLoadedCallback(null);
+      googleMap.snapshot(
+          new GoogleMap.SnapshotReadyCallback() {
+            @Override
+            public void onSnapshotReady(Bitmap bitmap) {
+              onCaptured(bitmap);
+            }
+          });
+    }
+  }
+
+  private final PluginRegistry.Registrar registrar;
+  private final float density;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private final SnapshotWriter snapshotWriter = new SnapshotWriter();
+  private final ArrayDeque<Batch> pendingBatches = new ArrayDeque<>();
+  private Batch batch;
+  private MapView mapView;
+  private GoogleMap googleMap;
+  private Capture pendingCapture;
+
+  MapSnapshotter(PluginRegistry.Registrar registrar) {
+    this.registrar = registrar;
+    this.density = registrar.context().getResources().getDisplayMetrics().density;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public void onMethodCall(MethodCall call, MethodChannel.Result result) {
+    switch (call.method) {
+      case "snapshots#render":
+        {
+          final Integer format = call.argument("format");
+          final Integer quality = call.argument("quality");
+          final Integer mapType = call.argument("mapType");
+          final Double width = call.argument("width");
+          final Double height = call.argument("height");
+          pendingBatches.add(
+              new Batch(
+                  Math.max(1, Math.round(width.floatValue() * density)),
+                  Math.max(1, Math.round(height.floatValue() * density)),
+                  mapType,
+                  format,
+                  quality,
+                  (List<Map<String, Object>>) call.argument("snapshots"),
+                  result));
+          if (batch == null) {
+            startNextBatch();
+          }
+          break;
+        }
+      default:
+        result.notImplemented();
+    }
+  }
+
+  @Override
+  public void onMapReady(GoogleMap googleMap) {
+    this.googleMap = googleMap;
+    googleMap.getUiSettings().setMapToolbarEnabled(false);
+    renderNextSnapshot();
+  }
+
+  private void startNextBatch() {
+    batch = pendingBatches.poll();
+    if (batch == null) {
+      releaseMapView();
+      return;
+    }
+    try {
+      if (mapView == null) {
+        createMapView();
+        return;
+      }
+      layoutMapView();
+      googleMap.setMapType(batch.mapType);
+    } catch (RuntimeException e) {
+      failBatch(e);
+      return;
+    }
+    renderNextSnapshot();
+  }
+
+  /** Fails the current batch, and moves on to the next one with a new map view. */
+  private void failBatch(RuntimeException e) {
+    releaseMapView();
+    batch.result.error("snapshotFailed", e.getMessage(), null);
+    startNextBatch();
+  }
+
+  private void createMapView() {
+    final Activity activity = registrar.activity();
+    if (activity == null) {
+      throw new IllegalStateException("Map snapshots can only be rendered in an activity");
+    }
+    mapView = new MapView(activity, new GoogleMapOptions().liteMode(true).mapType(batch.mapType));
+    mapView.onCreate(null);
+    mapView.onResume();
+    final ViewGroup content = (ViewGroup) activity.findViewById(android.R.id.content);
+    // Behind the Flutter view, which is opaque.
+    content.addView(mapView, 0, new ViewGroup.LayoutParams(batch.width, batch.height));
+    layoutMapView();
+    mapView.getMapAsync(this);
+  }
+
+  /** Lays the map out at the size of the current batch right away, for the camera updates. */
+  private void layoutMapView() {
+    final ViewGroup.LayoutParams params = mapView.getLayoutParams();
+    params.width = batch.width;
+    params.height = batch.height;
+    mapView.setLayoutParams(params);
+    mapView.measure(
+        View.MeasureSpec.makeMeasureSpec(batch.width, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(batch.height, View.MeasureSpec.EXACTLY));
+    mapView.layout(0, 0, batch.width, batch.height);
+  }
+
+  private void releaseMapView() {
+    if (mapView == null) {
+      return;
+    }
+    final ViewGroup parent = (ViewGroup) mapView.getParent();
+    if (parent != null) {
+      parent.removeView(mapView);
+    }
+    mapView.onPause();
+    mapView.onDestroy();
+    mapView = null;
+    googleMap = null;
+    snapshotWriter.dispose();
+  }
+
+  private void renderNextSnapshot() {
+    if (batch.results.size() == batch.snapshots.size()) {
+      batch.result.success(batch.results);
+      startNextBatch();
+      return;
+    }
+    final Map<String, Object> snapshot = batch.snapshots.get(batch.results.size());
+    try {
+      googleMap.clear();
+      addOverlays(snapshot);
+      googleMap.moveCamera(Convert.toCameraUpdate(snapshot.get("cameraUpdate"), density));
+    } catch (RuntimeException e) {
+      failBatch(e);
+      return;
+    }
+    pendingCapture = new Capture();
+    googleMap.setOnMapLoadedCallback(pendingCapture);
+    mainHandler.postDelayed(pendingCapture, LOAD_TIMEOUT_MS);
+  }
+
+  private void onCaptured(Bitmap bitmap) {
+    final Map<String, Object> snapshot = batch.snapshots.get(batch.results.size());
+    snapshotWriter.write(
+        bitmap,
+        new SnapshotWriter.Options(batch.format, batch.quality, (String) snapshot.get("path")),
+        new SnapshotWriter.Callback() {
+          @Override
+          public void onSnapshotWritten(byte[] bytes) {
+            batch.results.add(bytes);
+            renderNextSnapshot();
+          }
+
+          @Override
+          public void onError(String message) {
+            batch.result.error("snapshotFailed", message, null);
+            startNextBatch();
+          }
+        });
+  }
+
+  @SuppressWarnings("unchecked")
+  private void addOverlays(Map<String, Object> snapshot) {
+    final List<Object> markers = (List<Object>) snapshot.get("markers");
+    if (markers != null) {
+      for (Object marker : markers) {
+        final MarkerBuilder builder = new MarkerBuilder();
+        Convert.interpretMarkerOptions(marker, builder);
+        googleMap.addMarker(builder.build());
+      }
+    }
+    final List<Object> polylines = (List<Object>) snapshot.get("polylines");
+    if (polylines != null) {
+      for (Object polyline : polylines) {
+        final PolylineBuilder builder = new PolylineBuilder();
+        Convert.interpretPolylineOptions(polyline, builder);
+        googleMap.addPolyline(builder.build());
+      }
+    }
+    final List<Object> polygons = (List<Object>) snapshot.get("polygons");
+    if (polygons != null) {
+      for (Object polygon : polygons) {
+        final PolygonBuilder builder = new PolygonBuilder();
+        Convert.interpretPolygonOptions(polygon, builder);
+        googleMap.addPolygon(builder.build());
+      }
+    }
+    final List<Object> circles = (List<Object>) snapshot.get("circles");
+    if (circles != null) {
+      for (Object circle : circles) {
+        final CircleBuilder builder = new CircleBuilder();
+        Convert.interpretCircleOptions(circle, builder);
+        googleMap.addCircle(builder.build());
+      }
+    }
+  }
+}
@@ -7,17 +7,24 @@ package io.flutter.plugins.googlemaps;
 import com.google.android.gms.maps.model.BitmapDescriptor;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Marker;
-
-/** Controller of a single Marker on the map. */
+import com.google.android.gms.maps.model.MarkerOptions;
+
+/**
+ * Controller of a single Marker on the map.
+ *
+ * <p>Changes are also written to the {@link MarkerBuilder} the marker was built from, so that the
+ * marker can be added again after it was taken off the map by clustering or viewport
+ * virtualization.
+ */
 class MarkerController implements MarkerOptionsSink {
 
   private final Marker marker;
+  private final MarkerBuilder builder;
   private final String googleMapsMarkerId;
-  private boolean consumeTapEvents;
 
-  MarkerController(Marker marker, boolean consumeTapEvents) {
+  MarkerController(Marker marker, MarkerBuilder builder) {
     this.marker = marker;
-    this.consumeTapEvents = consumeTapEvents;
+    this.builder = builder;
     this.googleMapsMarkerId = marker.getId();
   }
 
@@ -25,65 +32,104 @@ class MarkerController implements MarkerOptionsSink {
     marker.remove();
   }
 
+  /**
+   * Hides the marker and returns it, so that it can show another marker with {@link #reuse} instead
+   * of being removed from the map.
+   */
+  Marker recycle() {
+    marker.hideInfoWindow();
+    marker.setVisible(false);
+    return marker;
+  }
+
+  /** Shows the marker of {@code builder} with a marker returned by {@link #recycle}. */
+  static MarkerController reuse(Marker marker, MarkerBuilder builder) {
+    final MarkerOptions options = builder.build();
+    marker.setAlpha(options.getAlpha());
+    marker.setAnchor(options.getAnchorU(), options.getAnchorV());
+    marker.setDraggable(options.isDraggable());
+    marker.setFlat(options.isFlat());
+    marker.setIcon(options.getIcon());
+    marker.setInfoWindowAnchor(options.getInfoWindowAnchorU(), options.getInfoWindowAnchorV());
+    marker.setTitle(options.getTitle());
+    marker.setSnippet(options.getSnippet());
+    marker.setPosition(options.getPosition());
+    marker.setRotation(options.getRotation());
+    marker.setZIndex(options.getZIndex());
+    marker.setVisible(options.isVisible());
+    return new MarkerController(marker, builder);
+  }
+
   @Override
   public void setAlpha(float alpha) {
     marker.setAlpha(alpha);
+    builder.setAlpha(alpha);
   }
 
   @Override
   public void setAnchor(float u, float v) {
     marker.setAnchor(u, v);
+    builder.setAnchor(u, v);
   }
 
   @Override
   public void setConsumeTapEvents(boolean consumeTapEvents) {
-    this.consumeTapEvents = consumeTapEvents;
+    builder.setConsumeTapEvents(consumeTapEvents);
   }
 
   @Override
   public void setDraggable(boolean draggable) {
     marker.setDraggable(draggable);
+    builder.setDraggable(draggable);
   }
 
   @Override
   public void setFlat(boolean flat) {
     marker.setFlat(flat);
+    builder.setFlat(flat);
   }
 
   @Override
   public void setIcon(BitmapDescriptor bitmapDescriptor) {
     marker.setIcon(bitmapDescriptor);
+    builder.setIcon(bitmapDescriptor);
   }
 
   @Override
   public void setInfoWindowAnchor(float u, float v) {
     marker.setInfoWindowAnchor(u, v);
+    builder.setInfoWindowAnchor(u, v);
   }
 
   @Override
   public void setInfoWindowText(String title, String snippet) {
     marker.setTitle(title);
     marker.setSnippet(snippet);
+    builder.setInfoWindowText(title, snippet);
   }
 
   @Override
   public void setPosition(LatLng position) {
     marker.setPosition(position);
+    builder.setPosition(position);
   }
 
   @Override
   public void setRotation(float rotation) {
     marker.setRotation(rotation);
+    builder.setRotation(rotation);
   }
 
   @Override
   public void setVisible(boolean visible) {
     marker.setVisible(visible);
+    builder.setVisible(visible);
   }
 
   @Override
   public void setZIndex(float zIndex) {
     marker.setZIndex(zIndex);
+    builder.setZIndex(zIndex);
   }
 
   String getGoogleMapsMarkerId() {
@@ -91,6 +137,6 @@ class MarkerController implements MarkerOptionsSink {
   }
 
   boolean consumeTapEvents() {
-    return consumeTapEvents;
+    return builder.consumeTapEvents();
   }
 }
@@ -0,0 +1,127 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Buckets marker ids by the cell of a fixed grid laid over the world in Web Mercator coordinates.
+ *
+ * <p>Moving or removing a marker only touches its own cell, and a query only visits the cells that
+ * intersect the queried rectangle, or the non-empty cells when there are fewer of those.
+ *
+ * <p>Not thread safe, all methods must be called from the same thread.
+ */
+class MarkerSpatialIndex {
+  /** Number of cells along each axis of the grid. */
+  private static final int GRID_SIZE = 256;
+
+  private final Map<Integer, Set<String>> cellToMarkerIds = new HashMap<>();
+  private final Map<String, Integer> markerIdToCell = new HashMap<>();
+
+  /** Adds the marker at {@code position}, or moves it there if it was already indexed. */
+  void put(String markerId, LatLng position) {
+    if (position == null) {
+      remove(markerId);
+      return;
+    }
+    final int cell =
+        cell(cellX(WebMercator.x(position.longitude)), cellY(WebMercator.y(position.latitude)));
+    final Integer previousCell = markerIdToCell.put(markerId, cell);
+    if (previousCell != null) {
+      if (previousCell == cell) {
+        return;
+      }
+      removeFromCell(markerId, previousCell);
+    }
+    Set<String> markerIds = cellToMarkerIds.get(cell);
+    if (markerIds == null) {
+      markerIds = new HashSet<>();
+      cellToMarkerIds.put(cell, markerIds);
+    }
+    markerIds.add(markerId);
+  }
+
+  void remove(String markerId) {
+    final Integer cell = markerIdToCell.remove(markerId);
+    if (cell != null) {
+      removeFromCell(markerId, cell);
+    }
+  }
+
+  void clear() {
+    cellToMarkerIds.clear();
+    markerIdToCell.clear();
+  }
+
+  /**
+   * Returns the markers of the cells that intersect a rectangle in world coordinates.
+   *
+   * <p>The x coordinates may extend past 0 and 1 to cross the antimeridian, the y coordinates are
+   * clamped to the world.
+   */
+  List<String> query(double minX, double minY, double maxX, double maxY) {
+    final List<String> result = new ArrayList<>();
+    final int minCellY = cellY(minY);
+    final int maxCellY = cellY(maxY);
+    final int minCellX = (int) Math.floor(minX * GRID_SIZE);
+    final int maxCellX = (int) Math.floor(maxX * GRID_SIZE);
+    final int columns = Math.min(maxCellX - minCellX + 1, GRID_SIZE);
+    final int rows = maxCellY - minCellY + 1;
+
+    if ((long) columns * rows > cellToMarkerIds.size()) {
+      for (Map.Entry<Integer, Set<String>> entry : cellToMarkerIds.entrySet()) {
+        final int cell = entry.getKey();
+        final int x = cell % GRID_SIZE;
+        final int y = cell / GRID_SIZE;
+        if (y >= minCellY && y <= maxCellY && wrap(x - minCellX) < columns) {
+          result.addAll(entry.getValue());
+        }
+      }
+      return result;
+    }
+    for (int column = 0; column < columns; column++) {
+      final int x = wrap(minCellX + column);
+      for (int y = minCellY; y <= maxCellY; y++) {
+        final Set<String> markerIds = cellToMarkerIds.get(cell(x, y));
+        if (markerIds != null) {
+          result.addAll(markerIds);
+        }
+      }
+    }
+    return result;
+  }
+
+  private void removeFromCell(String markerId, int cell) {
+    final Set<String> markerIds = cellToMarkerIds.get(cell);
+    markerIds.remove(markerId);
+    if (markerIds.isEmpty()) {
+      cellToMarkerIds.remove(cell);
+    }
+  }
+
+  /** Wraps a column index around the antimeridian. */
+  private static int wrap(int x) {
+    return ((x % GRID_SIZE) + GRID_SIZE) % GRID_SIZE;
+  }
+
+  private static int cell(int x, int y) {
+    return y * GRID_SIZE + x;
+  }
+
+  private static int cellX(double worldX) {
+    return wrap((int) Math.floor(worldX * GRID_SIZE));
+  }
+
+  private static int cellY(double worldY) {
+    return Math.max(0, Math.min((int) Math.floor(worldY * GRID_SIZE), GRID_SIZE - 1));
+  }
+}
@@ -4,29 +4,207 @@
 
 package io.flutter.plugins.googlemaps;
 
+import android.os.Handler;
+import android.os.Looper;
 import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
 import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 class MarkersController {
 
+  /** A marker standing for a cluster of markers. */
+  private static final class ClusterMarker {
+    final Marker marker;
+    final List<String> markerIds;
+
+    ClusterMarker(Marker marker, List<String> markerIds) {
+      this.marker = marker;
+      this.markerIds = markerIds;
+    }
+  }
+
+  /** A marker and its squared distance to the center of the viewport. */
+  private static final class MarkerDistance {
+    final String markerId;
+    final double distance;
+
+    MarkerDistance(String markerId, double distance) {
+      this.markerId = markerId;
+      this.distance = distance;
+    }
+  }
+
+  private final Map<String, MarkerBuilder> markerIdToBuilder;
   private final Map<String, MarkerController> markerIdToController;
   private final Map<String, String> googleMapsMarkerIdToDartMarkerId;
+  private final Map<String, ClusterMarker> clusterKeyToMarker;
+  private final Map<String, ClusterMarker> googleMapsMarkerIdToCluster;
   private final MethodChannel methodChannel;
+  private final float density;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
   private GoogleMap googleMap;
 
-  MarkersController(MethodChannel methodChannel) {
+  private boolean clusteringEnabled = false;
+  private float clusterGridSize;
+  private int minClusterSize;
+  private int clusterColor;
+  private ClusterIcons clusterIcons;
+  private ExecutorService clusteringExecutor;
+  // Only the result of the latest clustering request is applied.
+  private int clusteringGeneration = 0;
+
+  private boolean virtualizationEnabled = false;
+  private float virtualizationMargin;
+  private int maxRecycledMarkers;
+  private int maxVisibleMarkers;
+  private MarkerSpatialIndex spatialIndex;
+  // Markers taken off the viewport, hidden and waiting to show another marker.
+  private final ArrayDeque<Marker> recycledMarkers = new ArrayDeque<>();
+
+  private boolean viewportUpdateScheduled = false;
+
+  MarkersController(MethodChannel methodChannel, float density) {
+    this.markerIdToBuilder = new HashMap<>();
     this.markerIdToController = new HashMap<>();
     this.googleMapsMarkerIdToDartMarkerId = new HashMap<>();
+    this.clusterKeyToMarker = new HashMap<>();
+    this.googleMapsMarkerIdToCluster = new HashMap<>();
     this.methodChannel = methodChannel;
+    this.density = density;
   }
 
   void setGoogleMap(GoogleMap googleMap) {
     this.googleMap = googleMap;
+    scheduleViewportUpdate();
+  }
+
+  /**
+   * Enables or disables clustering.
+   *
+   * <p>While clustering is enabled, the markers in the viewport are grouped by the cell of a grid
+   * of {@code gridSize} logical pixels they fall in. Cells with at least {@code minClusterSize}
+   * markers are shown as a single cluster marker, and markers outside the viewport aren't added to
+   * the map at all.
+   */
+  void setClustering(boolean enabled, float gridSize, int minClusterSize, int color) {
+    if (!enabled) {
+      if (clusteringEnabled) {
+        disableClustering();
+      }
+      return;
+    }
+    // The options are sent again whenever the widget is rebuilt.
+    if (clusteringEnabled
+        && gridSize == clusterGridSize
+        && minClusterSize == this.minClusterSize
+        && color == clusterColor) {
+      return;
+    }
+    // Map tiles are 256 logical pixels wide, so the grid size needs no scaling.
+    clusterGridSize = gridSize;
+    this.minClusterSize = minClusterSize;
+    clusterColor = color;
+    if (clusterIcons == null) {
+      clusterIcons = new ClusterIcons(density, color);
+    } else {
+      clusterIcons.setColor(color);
+    }
+    if (clusteringEnabled) {
+      removeClusterMarkers();
+    } else {
+      clusteringEnabled = true;
+      clusteringExecutor = Executors.newSingleThreadExecutor();
+    }
+    scheduleViewportUpdate();
+  }
+
+  private void disableClustering() {
+    clusteringEnabled = false;
+    clusteringExecutor.shutdown();
+    clusteringExecutor = null;
+    clusteringGeneration++;
+    removeClusterMarkers();
+    if (virtualizationEnabled) {
+      scheduleViewportUpdate();
+    } else {
+      showAllMarkers();
+    }
+  }
+
+  /**
+   * Enables or disables viewport virtualization.
+   *
+   * <p>While virtualization is enabled, all markers are kept in a {@link MarkerSpatialIndex}, and
+   * only those within the viewport, grown by {@code margin} times its size on each side, are added
+   * to the map when the camera stops moving. Markers that leave that area are hidden and reused for
+   * the markers that enter it, keeping at most {@code maxRecycledMarkers} hidden markers around.
+   * When more than {@code maxVisibleMarkers} markers are in that area, only those closest to the
+   * center of the viewport are added. Clustering takes precedence while it is enabled.
+   */
+  void setVirtualization(
+      boolean enabled, float margin, int maxRecycledMarkers, int maxVisibleMarkers) {
+    if (!enabled) {
+      if (virtualizationEnabled) {
+        disableVirtualization();
+      }
+      return;
+    }
+    // The options are sent again whenever the widget is rebuilt.
+    if (virtualizationEnabled
+        && margin == virtualizationMargin
+        && maxRecycledMarkers == this.maxRecycledMarkers
+        && maxVisibleMarkers == this.maxVisibleMarkers) {
+      return;
+    }
+    virtualizationMargin = margin;
+    this.maxRecycledMarkers = maxRecycledMarkers;
+    this.maxVisibleMarkers = maxVisibleMarkers;
+    trimRecycledMarkers();
+    if (!virtualizationEnabled) {
+      virtualizationEnabled = true;
+      spatialIndex = new MarkerSpatialIndex();
+      for (Map.Entry<String, MarkerBuilder> entry : markerIdToBuilder.entrySet()) {
+        spatialIndex.put(entry.getKey(), entry.getValue().build().getPosition());
+      }
+    }
+    scheduleViewportUpdate();
+  }
+
+  private void disableVirtualization() {
+    virtualizationEnabled = false;
+    spatialIndex = null;
+    maxRecycledMarkers = 0;
+    trimRecycledMarkers();
+    if (!clusteringEnabled) {
+      showAllMarkers();
+    }
+  }
+
+  private void showAllMarkers() {
+    if (googleMap == null) {
+      return;
+    }
+    for (Map.Entry<String, MarkerBuilder> entry : markerIdToBuilder.entrySet()) {
+      if (!markerIdToController.containsKey(entry.getKey())) {
+        showMarker(entry.getKey(), entry.getValue());
+      }
+    }
   }
 
   void addMarkers(List<Object> markersToAdd) {
@@ -34,6 +212,7 @@ class MarkersController {
       for (Object markerToAdd : markersToAdd) {
         addMarker(markerToAdd);
       }
+      scheduleViewportUpdate();
     }
   }
 
@@ -42,7 +221,28 @@ class MarkersController {
       for (Object markerToChange : markersToChange) {
         changeMarker(markerToChange);
       }
+      scheduleViewportUpdate();
+    }
+  }
+
+  /** Adds and changes the markers of a packed update, see {@link PackedMarkerReader}. */
+  void updateMarkers(Object packedMarkers) {
+    if (packedMarkers == null) {
+      return;
+    }
+    PackedMarkerReader reader = new PackedMarkerReader(packedMarkers);
+    while (reader.next()) {
+      String markerId = reader.markerId();
+      if (reader.isAdded()) {
+        MarkerBuilder markerBuilder = new MarkerBuilder();
+        reader.readInto(markerBuilder);
+        addMarker(markerId, markerBuilder);
+      } else {
+        reader.readInto(sinkFor(markerId));
+        indexMarker(markerId);
+      }
     }
+    scheduleViewportUpdate();
   }
 
   void removeMarkers(List<Object> markerIdsToRemove) {
@@ -54,15 +254,24 @@ class MarkersController {
         continue;
       }
       String markerId = (String) rawMarkerId;
-      final MarkerController markerController = markerIdToController.remove(markerId);
-      if (markerController != null) {
-        markerController.remove();
-        googleMapsMarkerIdToDartMarkerId.remove(markerController.getGoogleMapsMarkerId());
+      markerIdToBuilder.remove(markerId);
+      if (virtualizationEnabled) {
+        spatialIndex.remove(markerId);
       }
+      hideMarker(markerId);
     }
+    scheduleViewportUpdate();
   }
 
   boolean onMarkerTap(String googleMarkerId) {
+    ClusterMarker cluster = googleMapsMarkerIdToCluster.get(googleMarkerId);
+    if (cluster != null) {
+      final Map<String, Object> arguments = new HashMap<>(2);
+      arguments.put("position", Convert.latLngToJson(cluster.marker.getPosition()));
+      arguments.put("markerIds", cluster.markerIds);
+      methodChannel.invokeMethod("cluster#onTap", arguments);
+      return true;
+    }
     String markerId = googleMapsMarkerIdToDartMarkerId.get(googleMarkerId);
     if (markerId == null) {
       return false;
@@ -83,21 +292,46 @@ class MarkersController {
     methodChannel.invokeMethod("infoWindow#onTap", Convert.markerIdToJson(markerId));
   }
 
+  void onCameraIdle() {
+    scheduleViewportUpdate();
+  }
+
+  void dispose() {
+    if (clusteringExecutor != null) {
+      clusteringExecutor.shutdownNow();
+      clusteringExecutor = null;
+    }
+    clusteringGeneration++;
+    mainHandler.removeCallbacksAndMessages(null);
+  }
+
   private void addMarker(Object marker) {
     if (marker == null) {
       return;
     }
     MarkerBuilder markerBuilder = new MarkerBuilder();
     String markerId = Convert.interpretMarkerOptions(marker, markerBuilder);
-    MarkerOptions options = markerBuilder.build();
-    addMarker(markerId, options, markerBuilder.consumeTapEvents());
+    addMarker(markerId, markerBuilder);
   }
 
-  private void addMarker(String markerId, MarkerOptions markerOptions, boolean consumeTapEvents) {
-    final Marker marker = googleMap.addMarker(markerOptions);
-    MarkerController controller = new MarkerController(marker, consumeTapEvents);
-    markerIdToController.put(markerId, controller);
-    googleMapsMarkerIdToDartMarkerId.put(marker.getId(), markerId);
+  private void addMarker(String markerId, MarkerBuilder markerBuilder) {
+    markerIdToBuilder.put(markerId, markerBuilder);
+    indexMarker(markerId);
+    // With clustering or virtualization the marker is shown once the viewport has been processed.
+    if (!clusteringEnabled && !virtualizationEnabled) {
+      showMarker(markerId, markerBuilder);
+    }
+  }
+
+  /** Moves a marker to its current position in the spatial index. */
+  private void indexMarker(String markerId) {
+    if (!virtualizationEnabled) {
+      return;
+    }
+    final MarkerBuilder markerBuilder = markerIdToBuilder.get(markerId);
+    if (markerBuilder != null) {
+      spatialIndex.put(markerId, markerBuilder.build().getPosition());
+    }
   }
 
   private void changeMarker(Object marker) {
@@ -105,10 +339,262 @@ class MarkersController {
       return;
     }
     String markerId = getMarkerId(marker);
+    MarkerOptionsSink sink = sinkFor(markerId);
+    if (sink != null) {
+      Convert.interpretMarkerOptions(marker, sink);
+      indexMarker(markerId);
+    }
+  }
+
+  /** Returns where changes to a marker go, or null if there is no such marker. */
+  private MarkerOptionsSink sinkFor(String markerId) {
     MarkerController markerController = markerIdToController.get(markerId);
     if (markerController != null) {
-      Convert.interpretMarkerOptions(marker, markerController);
+      return markerController;
+    }
+    return markerIdToBuilder.get(markerId);
+  }
+
+  private void showMarker(String markerId, MarkerBuilder markerBuilder) {
+    final Marker recycledMarker = recycledMarkers.poll();
+    final MarkerController controller;
+    if (recycledMarker != null) {
+      controller = MarkerController.reuse(recycledMarker, markerBuilder);
+    } else {
+      controller = new MarkerController(googleMap.addMarker(markerBuilder.build()), markerBuilder);
+    }
+    markerIdToController.put(markerId, controller);
+    googleMapsMarkerIdToDartMarkerId.put(controller.getGoogleMapsMarkerId(), markerId);
+  }
+
+  private void hideMarker(String markerId) {
+    final MarkerController markerController = markerIdToController.remove(markerId);
+    if (markerController != null) {
+      if (virtualizationEnabled) {
+        recycledMarkers.add(markerController.recycle());
+      } else {
+        markerController.remove();
+      }
+      googleMapsMarkerIdToDartMarkerId.remove(markerController.getGoogleMapsMarkerId());
+    }
+  }
+
+  private void trimRecycledMarkers() {
+    while (recycledMarkers.size() > maxRecycledMarkers) {
+      recycledMarkers.poll().remove();
+    }
+  }
+
+  private void removeClusterMarkers() {
+    for (ClusterMarker cluster : clusterKeyToMarker.values()) {
+      cluster.marker.remove();
+    }
+    clusterKeyToMarker.clear();
+    googleMapsMarkerIdToCluster.clear();
+  }
+
+  /** Recomputes the markers shown in the viewport once the current batch of changes is done. */
+  private void scheduleViewportUpdate() {
+    if ((!clusteringEnabled && !virtualizationEnabled)
+        || googleMap == null
+        || viewportUpdateScheduled) {
+      return;
+    }
+    viewportUpdateScheduled = true;
+    mainHandler.post(
+        new Runnable() {
+          @Override
+          public void run() {
+            viewportUpdateScheduled = false;
+            if (clusteringEnabled) {
+              startClustering();
+            } else {
+              showViewportMarkers();
+            }
+          }
+        });
+  }
+
+  /** Shows the markers within the viewport and its margin, and hides all others. */
+  private void showViewportMarkers() {
+    if (!virtualizationEnabled || googleMap == null) {
+      return;
+    }
+    final LatLngBounds bounds = googleMap.getProjection().getVisibleRegion().latLngBounds;
+    final double minX = WebMercator.x(bounds.southwest.longitude);
+    double maxX = WebMercator.x(bounds.northeast.longitude);
+    // The viewport crosses the antimeridian.
+    if (maxX < minX) {
+      maxX += 1;
+    }
+    final double minY = WebMercator.y(bounds.northeast.latitude);
+    final double maxY = WebMercator.y(bounds.southwest.latitude);
+    final double marginX = (maxX - minX) * virtualizationMargin;
+    final double marginY = (maxY - minY) * virtualizationMargin;
+    List<String> markerIds =
+        spatialIndex.query(minX - marginX, minY - marginY, maxX + marginX, maxY + marginY);
+    if (markerIds.size() > maxVisibleMarkers) {
+      markerIds = closestMarkerIds(markerIds, (minX + maxX) / 2, (minY + maxY) / 2);
+    }
+    final Set<String> shownMarkerIds = new HashSet<>(markerIds);
+
+    // Hide first, so that the markers entering the viewport reuse those that left it.
+    for (String markerId : new ArrayList<>(markerIdToController.keySet())) {
+      if (!shownMarkerIds.contains(markerId)) {
+        hideMarker(markerId);
+      }
+    }
+    for (String markerId : shownMarkerIds) {
+      if (!markerIdToController.containsKey(markerId)) {
+        showMarker(markerId, markerIdToBuilder.get(markerId));
+      }
+    }
+    trimRecycledMarkers();
+  }
+
+  /** Returns the {@code maxVisibleMarkers} markers closest to the given world point. */
+  private List<String> closestMarkerIds(
+      List<String> markerIds, final double centerX, final double centerY) {
+    // The farthest of the closest markers found so far is at the head.
+    final PriorityQueue<MarkerDistance> closest =
+        new PriorityQueue<>(
+            maxVisibleMarkers + 1,
+            new Comparator<MarkerDistance>() {
+              @Override
+              public int compare(MarkerDistance a, MarkerDistance b) {
+                return Double.compare(b.distance, a.distance);
+              }
+            });
+    for (String markerId : markerIds) {
+      final LatLng position = markerIdToBuilder.get(markerId).build().getPosition();
+      double dx = WebMercator.x(position.longitude) - centerX;
+      // Measure across the antimeridian when that is shorter.
+      dx -= Math.floor(dx + 0.5);
+      final double dy = WebMercator.y(position.latitude) - centerY;
+      final double distance = dx * dx + dy * dy;
+      if (closest.size() < maxVisibleMarkers) {
+        closest.add(new MarkerDistance(markerId, distance));
+      } else if (distance < closest.peek().distance) {
+        closest.poll();
+        closest.add(new MarkerDistance(markerId, distance));
+      }
+    }
+    final List<String> closestMarkerIds = new ArrayList<>(closest.size());
+    for (MarkerDistance markerDistance : closest) {
+      closestMarkerIds.add(markerDistance.markerId);
+    }
+    return closestMarkerIds;
+  }
+
+  /** Snapshots the markers and the camera, and clusters them on a background thread. */
+  private void startClustering() {
+    if (!clusteringEnabled || googleMap == null) {
+      return;
+    }
+    final int size = markerIdToBuilder.size();
+    String[] markerIds = new String[size];
+    double[] latitudes = new double[size];
+    double[] longitudes = new double[size];
+    int i = 0;
+    for (Map.Entry<String, MarkerBuilder> entry : markerIdToBuilder.entrySet()) {
+      final LatLng position = entry.getValue().build().getPosition();
+      if (position == null) {
+        continue;
+      }
+      markerIds[i] = entry.getKey();
+      latitudes[i] = position.latitude;
+      longitudes[i] = position.longitude;
+      i++;
+    }
+    if (i < size) {
+      markerIds = Arrays.copyOf(markerIds, i);
+      latitudes = Arrays.copyOf(latitudes, i);
+      longitudes = Arrays.copyOf(longitudes, i);
+    }
+    final LatLngBounds bounds = googleMap.getProjection().getVisibleRegion().latLngBounds;
+    final double[] viewport = {
+      bounds.southwest.latitude,
+      bounds.southwest.longitude,
+      bounds.northeast.latitude,
+      bounds.northeast.longitude
+    };
+    final GridClusterer clusterer =
+        new GridClusterer((int) googleMap.getCameraPosition().zoom, clusterGridSize);
+    final int minClusterSize = this.minClusterSize;
+    final int generation = ++clusteringGeneration;
+    final String[] clusteredMarkerIds = markerIds;
+    final double[] clusteredLatitudes = latitudes;
+    final double[] clusteredLongitudes = longitudes;
+    clusteringExecutor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            final GridClusterer.Result result =
+                clusterer.cluster(
+                    clusteredMarkerIds,
+                    clusteredLatitudes,
+                    clusteredLongitudes,
+                    viewport,
+                    minClusterSize);
+            mainHandler.post(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    if (generation == clusteringGeneration) {
+                      applyClusters(result);
+                    }
+                  }
+                });
+          }
+        });
+  }
+
+  /** Adds and removes what changed since the previous clustering. */
+  private void applyClusters(GridClusterer.Result result) {
+    final Set<String> shownMarkerIds = new HashSet<>();
+    for (String markerId : result.markerIds) {
+      // The marker may have been removed in the meantime.
+      if (markerIdToBuilder.containsKey(markerId)) {
+        shownMarkerIds.add(markerId);
+      }
+    }
+    for (String markerId : new ArrayList<>(markerIdToController.keySet())) {
+      if (!shownMarkerIds.contains(markerId)) {
+        hideMarker(markerId);
+      }
+    }
+    for (String markerId : shownMarkerIds) {
+      if (!markerIdToController.containsKey(markerId)) {
+        showMarker(markerId, markerIdToBuilder.get(markerId));
+      }
+    }
+
+    final Iterator<Map.Entry<String, ClusterMarker>> iterator =
+        clusterKeyToMarker.entrySet().iterator();
+    while (iterator.hasNext()) {
+      final Map.Entry<String, ClusterMarker> entry = iterator.next();
+      final GridClusterer.Cluster cluster = result.clusters.get(entry.getKey());
+      if (cluster == null || !cluster.markerIds.equals(entry.getValue().markerIds)) {
+        entry.getValue().marker.remove();
+        googleMapsMarkerIdToCluster.remove(entry.getValue().marker.getId());
+        iterator.remove();
+      }
+    }
+    for (GridClusterer.Cluster cluster : result.clusters.values()) {
+      if (clusterKeyToMarker.containsKey(cluster.key)) {
+        continue;
+      }
+      final Marker marker =
+          googleMap.addMarker(
+              new MarkerOptions()
+                  .position(cluster.position())
+                  .icon(clusterIcons.get(cluster.markerIds.size()))
+                  .anchor(0.5f, 0.5f));
+      final ClusterMarker clusterMarker = new ClusterMarker(marker, cluster.markerIds);
+      clusterKeyToMarker.put(cluster.key, clusterMarker);
+      googleMapsMarkerIdToCluster.put(marker.getId(), clusterMarker);
     }
+    trimRecycledMarkers();
   }
 
   @SuppressWarnings("unchecked")
@@ -0,0 +1,148 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the packed marker updates sent by {@code _MarkerUpdates._toPackedMap} in Dart.
+ *
+ * <p>Each marker only carries the fields that changed. Their bits are in {@code markerFields}, and
+ * their values follow in the order of the bits: numbers in {@code markerValues}, info window
+ * strings in {@code markerStrings} and icons in {@code markerIcons}. Reading them doesn't allocate
+ * a map per marker.
+ */
+class PackedMarkerReader {
+  // Must be kept in sync with the _kMarker constants in marker.dart.
+  private static final int ALPHA = 1 << 0;
+  private static final int ANCHOR = 1 << 1;
+  private static final int CONSUME_TAP_EVENTS = 1 << 2;
+  private static final int DRAGGABLE = 1 << 3;
+  private static final int FLAT = 1 << 4;
+  private static final int ICON = 1 << 5;
+  private static final int INFO_WINDOW = 1 << 6;
+  private static final int POSITION = 1 << 7;
+  private static final int ROTATION = 1 << 8;
+  private static final int VISIBLE = 1 << 9;
+  private static final int Z_INDEX = 1 << 10;
+
+  private static final int CONSUME_TAP_EVENTS_VALUE = 1 << 16;
+  private static final int DRAGGABLE_VALUE = 1 << 17;
+  private static final int FLAT_VALUE = 1 << 18;
+  private static final int VISIBLE_VALUE = 1 << 19;
+
+  private final List<?> markerIds;
+  private final int addedMarkerCount;
+  private final int[] fields;
+  private final double[] values;
+  private final List<?> strings;
+  private final List<?> icons;
+
+  private int marker = -1;
+  private int value = 0;
+  private int string = 0;
+  private int icon = 0;
+
+  PackedMarkerReader(Object o) {
+    Map<?, ?> data = (Map<?, ?>) o;
+    markerIds = (List<?>) data.get("markerIds");
+    addedMarkerCount = (Integer) data.get("addedMarkerCount");
+    fields = (int[]) data.get("markerFields");
+    values = (double[]) data.get("markerValues");
+    strings = (List<?>) data.get("markerStrings");
+    icons = (List<?>) data.get("markerIcons");
+  }
+
+  /** Moves to the next marker, returns false once all markers have been read. */
+  boolean next() {
+    marker++;
+    return marker < fields.length;
+  }
+
+  String markerId() {
+    return (String) markerIds.get(marker);
+  }
+
+  /** Whether the current marker is new, as opposed to changed. */
+  boolean isAdded() {
+    return marker < addedMarkerCount;
+  }
+
+  /**
+   * Applies the fields of the current marker to {@code sink}.
+   *
+   * <p>The values are consumed even if {@code sink} is null, so that the next marker can be read.
+   */
+  void readInto(MarkerOptionsSink sink) {
+    final int bits = fields[marker];
+    if ((bits & ALPHA) != 0) {
+      float alpha = (float) values[value++];
+      if (sink != null) {
+        sink.setAlpha(alpha);
+      }
+    }
+    if ((bits & ANCHOR) != 0) {
+      float u = (float) values[value++];
+      float v = (float) values[value++];
+      if (sink != null) {
+        sink.setAnchor(u, v);
+      }
+    }
+    if ((bits & CONSUME_TAP_EVENTS) != 0 && sink != null) {
+      sink.setConsumeTapEvents((bits & CONSUME_TAP_EVENTS_VALUE) != 0);
+    }
+    if ((bits & DRAGGABLE) != 0 && sink != null) {
+      sink.setDraggable((bits & DRAGGABLE_VALUE) != 0);
+    }
+    if ((bits & FLAT) != 0 && sink != null) {
+      sink.setFlat((bits & FLAT_VALUE) != 0);
+    }
+    if ((bits & ICON) != 0) {
+      Object descriptor = icons.get(icon++);
+      if (sink != null) {
+        sink.setIcon(Convert.toBitmapDescriptor(descriptor));
+      }
+    }
+    if ((bits & INFO_WINDOW) != 0) {
+      String title = (String) strings.get(string++);
+      // snippet is nullable.
+      String snippet = (String) strings.get(string++);
+      double u = values[value++];
+      double v = values[value++];
+      if (sink != null) {
+        if (title != null) {
+          sink.setInfoWindowText(title, snippet);
+        }
+        if (!Double.isNaN(u) && !Double.isNaN(v)) {
+          sink.setInfoWindowAnchor((float) u, (float) v);
+        }
+      }
+    }
+    if ((bits & POSITION) != 0) {
+      double latitude = values[value++];
+      double longitude = values[value++];
+      if (sink != null) {
+        sink.setPosition(new LatLng(latitude, longitude));
+      }
+    }
+    if ((bits & ROTATION) != 0) {
+      float rotation = (float) values[value++];
+      if (sink != null) {
+        sink.setRotation(rotation);
+      }
+    }
+    if ((bits & VISIBLE) != 0 && sink != null) {
+      sink.setVisible((bits & VISIBLE_VALUE) != 0);
+    }
+    if ((bits & Z_INDEX) != 0) {
+      float zIndex = (float) values[value++];
+      if (sink != null) {
+        sink.setZIndex(zIndex);
+      }
+    }
+  }
+}
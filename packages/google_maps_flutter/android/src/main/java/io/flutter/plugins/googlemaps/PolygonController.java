@@ -5,19 +5,24 @@ import com.google.android.gms.maps.model.Polygon;
 import java.util.List;
 
 /** Controller of a single Polygon on the map. */
-class PolygonController implements PolygonOptionsSink {
+class PolygonController implements PolygonOptionsSink, ShapeSimplifier.Target {
   private final Polygon polygon;
   private final String googleMapsPolygonId;
   private boolean consumeTapEvents;
+  private final ShapeSimplifier simplifier;
 
-  PolygonController(Polygon polygon, boolean consumeTapEvents) {
+  PolygonController(
+      Polygon polygon, List<LatLng> points, boolean consumeTapEvents, ShapeSimplifier simplifier) {
     this.polygon = polygon;
     this.consumeTapEvents = consumeTapEvents;
+    this.simplifier = simplifier;
     this.googleMapsPolygonId = polygon.getId();
+    simplifier.setPoints(this, points);
   }
 
   void remove() {
     polygon.remove();
+    simplifier.remove(this);
   }
 
   @Override
@@ -44,6 +49,12 @@ class PolygonController implements PolygonOptionsSink {
   @Override
   public void setPoints(List<LatLng> points) {
     polygon.setPoints(points);
+    simplifier.setPoints(this, points);
+  }
+
+  @Override
+  public void setRenderedPoints(List<LatLng> points) {
+    polygon.setPoints(points);
   }
 
   @Override
@@ -17,12 +17,14 @@ class PolygonsController {
   private final Map<String, PolygonController> polygonIdToController;
   private final Map<String, String> googleMapsPolygonIdToDartPolygonId;
   private final MethodChannel methodChannel;
+  private final ShapeSimplifier simplifier;
   private GoogleMap googleMap;
 
-  PolygonsController(MethodChannel methodChannel) {
+  PolygonsController(MethodChannel methodChannel, ShapeSimplifier simplifier) {
     this.polygonIdToController = new HashMap<>();
     this.googleMapsPolygonIdToDartPolygonId = new HashMap<>();
     this.methodChannel = methodChannel;
+    this.simplifier = simplifier;
   }
 
   void setGoogleMap(GoogleMap googleMap) {
@@ -88,7 +90,8 @@ class PolygonsController {
   private void addPolygon(
       String polygonId, PolygonOptions polygonOptions, boolean consumeTapEvents) {
     final Polygon polygon = googleMap.addPolygon(polygonOptions);
-    PolygonController controller = new PolygonController(polygon, consumeTapEvents);
+    PolygonController controller =
+        new PolygonController(polygon, polygonOptions.getPoints(), consumeTapEvents, simplifier);
     polygonIdToController.put(polygonId, controller);
     googleMapsPolygonIdToDartPolygonId.put(polygon.getId(), polygonId);
   }
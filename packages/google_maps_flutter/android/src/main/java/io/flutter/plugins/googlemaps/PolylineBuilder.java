@@ -47,6 +47,11 @@ class PolylineBuilder implements PolylineOptionsSink {
     polylineOptions.addAll(points);
   }
 
+  @Override
+  public void appendPoints(List<LatLng> points) {
+    polylineOptions.addAll(points);
+  }
+
   @Override
   public void setConsumeTapEvents(boolean consumeTapEvents) {
     this.consumeTapEvents = consumeTapEvents;
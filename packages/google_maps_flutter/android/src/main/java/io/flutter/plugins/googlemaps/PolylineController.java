@@ -7,21 +7,34 @@ import com.google.android.gms.maps.model.Polyline;
 import java.util.List;
 
 /** Controller of a single Polyline on the map. */
-class PolylineController implements PolylineOptionsSink {
+class PolylineController implements PolylineOptionsSink, ShapeSimplifier.Target {
   private final Polyline polyline;
   private final String googleMapsPolylineId;
   private boolean consumeTapEvents;
   private final float density;
-
-  PolylineController(Polyline polyline, boolean consumeTapEvents, float density) {
+  private final ShapeSimplifier simplifier;
+  // Full resolution points, kept so that points can be appended without reading them back from
+  // the map, and for simplification.
+  private List<LatLng> points;
+
+  PolylineController(
+      Polyline polyline,
+      List<LatLng> points,
+      boolean consumeTapEvents,
+      float density,
+      ShapeSimplifier simplifier) {
     this.polyline = polyline;
+    this.points = points;
+    this.simplifier = simplifier;
     this.consumeTapEvents = consumeTapEvents;
     this.density = density;
     this.googleMapsPolylineId = polyline.getId();
+    simplifier.setPoints(this, points);
   }
 
   void remove() {
     polyline.remove();
+    simplifier.remove(this);
   }
 
   @Override
@@ -57,6 +70,23 @@ class PolylineController implements PolylineOptionsSink {
 
   @Override
   public void setPoints(List<LatLng> points) {
+    this.points = points;
+    polyline.setPoints(points);
+    simplifier.setPoints(this, points);
+  }
+
+  @Override
+  public void appendPoints(List<LatLng> points) {
+    if (points.isEmpty()) {
+      return;
+    }
+    this.points.addAll(points);
+    polyline.setPoints(this.points);
+    simplifier.setPoints(this, this.points);
+  }
+
+  @Override
+  public void setRenderedPoints(List<LatLng> points) {
     polyline.setPoints(points);
   }
 
@@ -22,6 +22,9 @@ interface PolylineOptionsSink {
 
   void setPoints(List<LatLng> points);
 
+  /** Adds {@code points} after the current points. */
+  void appendPoints(List<LatLng> points);
+
   void setStartCap(Cap startCap);
 
   void setVisible(boolean visible);
@@ -8,6 +8,7 @@ import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.model.Polyline;
 import com.google.android.gms.maps.model.PolylineOptions;
 import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,11 +20,13 @@ class PolylinesController {
   private final MethodChannel methodChannel;
   private GoogleMap googleMap;
   private final float density;
+  private final ShapeSimplifier simplifier;
 
-  PolylinesController(MethodChannel methodChannel, float density) {
+  PolylinesController(MethodChannel methodChannel, float density, ShapeSimplifier simplifier) {
     this.polylineIdToController = new HashMap<>();
     this.googleMapsPolylineIdToDartPolylineId = new HashMap<>();
     this.methodChannel = methodChannel;
+    this.simplifier = simplifier;
     this.density = density;
   }
 
@@ -90,7 +93,13 @@ class PolylinesController {
   private void addPolyline(
       String polylineId, PolylineOptions polylineOptions, boolean consumeTapEvents) {
     final Polyline polyline = googleMap.addPolyline(polylineOptions);
-    PolylineController controller = new PolylineController(polyline, consumeTapEvents, density);
+    PolylineController controller =
+        new PolylineController(
+            polyline,
+            new ArrayList<>(polylineOptions.getPoints()),
+            consumeTapEvents,
+            density,
+            simplifier);
     polylineIdToController.put(polylineId, controller);
     googleMapsPolylineIdToDartPolylineId.put(polyline.getId(), polylineId);
   }
@@ -0,0 +1,287 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.os.Handler;
+import android.os.Looper;
+import com.google.android.gms.maps.model.LatLng;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Renders polylines and polygons with fewer points when the camera is zoomed out.
+ *
+ * <p>When the points of a shape are set, a single Douglas-Peucker pass on a background thread
+ * computes the importance of each point: the largest tolerance at which the point is still kept.
+ * Each level of detail is then just the points whose importance exceeds the tolerance at a zoom
+ * level, so switching levels in {@link #onCameraIdle} only filters the points. Levels are selected
+ * on the background thread too, and cached per integer zoom level.
+ *
+ * <p>Shapes keep their full resolution points, this class only changes what is rendered. The
+ * rendered shape is within the tolerance of the full one, so it still receives the same taps.
+ *
+ * <p>All methods must be called from the main thread.
+ */
+class ShapeSimplifier {
+
+  /** A shape whose rendered points can be replaced. */
+  interface Target {
+    void setRenderedPoints(List<LatLng> points);
+  }
+
+  private static final class Entry {
+    final List<LatLng> points;
+    double[] importance;
+    final Map<Integer, List<LatLng>> levels = new HashMap<>();
+
+    Entry(List<LatLng> points) {
+      this.points = points;
+    }
+  }
+
+  private final Map<Target, Entry> entries = new HashMap<>();
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private ExecutorService executor;
+  private float tolerance = 0;
+  private int zoom = -1;
+
+  /**
+   * Sets the tolerance in logical pixels, or disables simplification if {@code tolerance} isn't
+   * positive.
+   */
+  void setTolerance(float tolerance) {
+    if (tolerance == this.tolerance) {
+      return;
+    }
+    this.tolerance = tolerance;
+    if (tolerance <= 0) {
+      if (executor == null) {
+        return;
+      }
+      executor.shutdownNow();
+      executor = null;
+      for (Map.Entry<Target, Entry> entry : entries.entrySet()) {
+        entry.getValue().importance = null;
+        entry.getValue().levels.clear();
+        entry.getKey().setRenderedPoints(entry.getValue().points);
+      }
+      return;
+    }
+    if (executor == null) {
+      executor = Executors.newSingleThreadExecutor();
+    }
+    for (Map.Entry<Target, Entry> entry : entries.entrySet()) {
+      if (entry.getValue().importance == null) {
+        final Entry copy = new Entry(new ArrayList<>(entry.getValue().points));
+        entry.setValue(copy);
+        computeImportance(entry.getKey(), copy);
+      } else {
+        entry.getValue().levels.clear();
+        render(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  /** Called when the full resolution points of {@code target} changed. */
+  void setPoints(Target target, List<LatLng> points) {
+    if (tolerance <= 0) {
+      // Copied once simplification is enabled.
+      entries.put(target, new Entry(points));
+      return;
+    }
+    // The caller may keep changing its list.
+    final Entry entry = new Entry(new ArrayList<>(points));
+    entries.put(target, entry);
+    computeImportance(target, entry);
+  }
+
+  void remove(Target target) {
+    entries.remove(target);
+  }
+
+  void onCameraIdle(float zoom) {
+    // Rounding up keeps the error below the tolerance.
+    final int level = (int) Math.ceil(zoom);
+    if (level == this.zoom) {
+      return;
+    }
+    this.zoom = level;
+    if (tolerance <= 0) {
+      return;
+    }
+    for (Map.Entry<Target, Entry> entry : entries.entrySet()) {
+      render(entry.getKey(), entry.getValue());
+    }
+  }
+
+  void dispose() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+    entries.clear();
+    mainHandler.removeCallbacksAndMessages(null);
+  }
+
+  private void computeImportance(final Target target, final Entry entry) {
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            final double[] importance = importance(entry.points);
+            mainHandler.post(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    if (entries.get(target) == entry && tolerance > 0) {
+                      entry.importance = importance;
+                      render(target, entry);
+                    }
+                  }
+                });
+          }
+        });
+  }
+
+  /** Renders the level of the current zoom, selecting it first if needed. */
+  private void render(final Target target, final Entry entry) {
+    if (entry.importance == null || zoom < 0) {
+      return;
+    }
+    final int level = zoom;
+    final List<LatLng> points = entry.levels.get(level);
+    if (points != null) {
+      target.setRenderedPoints(points);
+      return;
+    }
+    // Tolerance in the world coordinates of the importance, which span 256 * 2^zoom pixels.
+    final double worldTolerance = tolerance / (256 * Math.pow(2, level));
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            final List<LatLng> selected = select(entry.points, entry.importance, worldTolerance);
+            mainHandler.post(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    if (entries.get(target) != entry || tolerance <= 0) {
+                      return;
+                    }
+                    entry.levels.put(level, selected);
+                    if (zoom == level) {
+                      target.setRenderedPoints(selected);
+                    }
+                  }
+                });
+          }
+        });
+  }
+
+  /** Returns the points whose importance is above {@code tolerance}. */
+  static List<LatLng> select(List<LatLng> points, double[] importance, double tolerance) {
+    int count = 0;
+    for (double value : importance) {
+      if (value > tolerance) {
+        count++;
+      }
+    }
+    if (count == points.size()) {
+      return points;
+    }
+    final List<LatLng> selected = new ArrayList<>(count);
+    for (int i = 0; i < importance.length; i++) {
+      if (importance[i] > tolerance) {
+        selected.add(points.get(i));
+      }
+    }
+    return selected;
+  }
+
+  /**
+   * Computes the importance of each point with Douglas-Peucker, in Web Mercator coordinates
+   * spanning 0 to 1.
+   *
+   * <p>The importance of a point is the smaller of its distance to the segment it splits and the
+   * importance of the point that created that segment, so keeping the points above any tolerance
+   * gives the result of Douglas-Peucker at that tolerance. End points are always kept.
+   */
+  static double[] importance(List<LatLng> points) {
+    final int n = points.size();
+    final double[] importance = new double[n];
+    if (n == 0) {
+      return importance;
+    }
+    final double[] xs = new double[n];
+    final double[] ys = new double[n];
+    for (int i = 0; i < n; i++) {
+      final LatLng point = points.get(i);
+      xs[i] = WebMercator.x(point.longitude);
+      ys[i] = WebMercator.y(point.latitude);
+    }
+    importance[0] = Double.POSITIVE_INFINITY;
+    importance[n - 1] = Double.POSITIVE_INFINITY;
+
+    // Pending segments as (first, last) pairs, with the importance of the point that created them.
+    int[] segments = new int[16];
+    double[] parents = new double[8];
+    segments[0] = 0;
+    segments[1] = n - 1;
+    parents[0] = Double.POSITIVE_INFINITY;
+    int size = 1;
+    while (size > 0) {
+      size--;
+      final int first = segments[2 * size];
+      final int last = segments[2 * size + 1];
+      final double parent = parents[size];
+      int farthest = -1;
+      double maxDistance = -1;
+      for (int i = first + 1; i < last; i++) {
+        final double distance = distance(xs, ys, i, first, last);
+        if (distance > maxDistance) {
+          maxDistance = distance;
+          farthest = i;
+        }
+      }
+      if (farthest < 0) {
+        continue;
+      }
+      importance[farthest] = Math.min(maxDistance, parent);
+      if (2 * size + 4 > segments.length) {
+        segments = Arrays.copyOf(segments, segments.length * 2);
+        parents = Arrays.copyOf(parents, parents.length * 2);
+      }
+      segments[2 * size] = first;
+      segments[2 * size + 1] = farthest;
+      parents[size] = importance[farthest];
+      size++;
+      segments[2 * size] = farthest;
+      segments[2 * size + 1] = last;
+      parents[size] = importance[farthest];
+      size++;
+    }
+    return importance;
+  }
+
+  /** Distance of point {@code i} to the segment from {@code a} to {@code b}. */
+  private static double distance(double[] xs, double[] ys, int i, int a, int b) {
+    final double dx = xs[b] - xs[a];
+    final double dy = ys[b] - ys[a];
+    final double lengthSquared = dx * dx + dy * dy;
+    double t = 0;
+    if (lengthSquared > 0) {
+      t = ((xs[i] - xs[a]) * dx + (ys[i] - ys[a]) * dy) / lengthSquared;
+      t = Math.max(0, Math.min(1, t));
+    }
+    final double x = xs[a] + t * dx - xs[i];
+    final double y = ys[a] + t * dy - ys[i];
+    return Math.sqrt(x * x + y * y);
+  }
+}
@@ -0,0 +1,134 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Encodes map snapshots as PNG or JPEG off the main thread.
+ *
+ * <p>The encoded image is either returned as bytes, or written to a file without being copied to
+ * the Dart side. Callbacks are called on the main thread.
+ */
+class SnapshotWriter {
+  static final int FORMAT_PNG = 0;
+  static final int FORMAT_JPEG = 1;
+
+  interface Callback {
+    /** Called with the encoded bytes, or with null when the snapshot was written to a file. */
+    void onSnapshotWritten(byte[] bytes);
+
+    void onError(String message);
+  }
+
+  /** How to encode a snapshot, and where to write it. */
+  static final class Options {
+    final int format;
+    final int quality;
+    final String path;
+
+    Options(int format, int quality, String path) {
+      this.format = format;
+      this.quality = quality;
+      this.path = path;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Options fromJson(Object o) {
+      final Map<String, Object> data = (Map<String, Object>) o;
+      final Object format = data.get("format");
+      final Object quality = data.get("quality");
+      return new Options(
+          format == null ? FORMAT_PNG : (Integer) format,
+          quality == null ? 100 : (Integer) quality,
+          (String) data.get("path"));
+    }
+  }
+
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private ExecutorService executor;
+
+  /** Encodes {@code bitmap} and recycles it. */
+  void write(final Bitmap bitmap, final Options options, final Callback callback) {
+    if (bitmap == null) {
+      callback.onError("The map could not be rendered");
+      return;
+    }
+    if (executor == null) {
+      executor = Executors.newSingleThreadExecutor();
+    }
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            byte[] bytes = null;
+            String error = null;
+            try {
+              bytes = encode(bitmap, options);
+            } catch (IOException e) {
+              error = e.getMessage();
+            } finally {
+              bitmap.recycle();
+            }
+            final byte[] encoded = bytes;
+            final String message = error;
+            mainHandler.post(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    if (message != null) {
+                      callback.onError(message);
+                    } else {
+                      callback.onSnapshotWritten(encoded);
+                    }
+                  }
+                });
+          }
+        });
+  }
+
+  void dispose() {
+    if (executor != null) {
+      executor.shutdown();
+      executor = null;
+    }
+  }
+
+  private static byte[] encode(Bitmap bitmap, Options options) throws IOException {
+    final Bitmap.CompressFormat format =
+        options.format == FORMAT_JPEG ? Bitmap.CompressFormat.JPEG : Bitmap.CompressFormat.PNG;
+    if (options.path == null) {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      bitmap.compress(format, options.quality, out);
+      return out.toByteArray();
+    }
+    // Written next to the target and renamed, so that no partial image is ever left at the path.
+    final File file = new File(options.path);
+    final File tempFile = new File(file.getPath() + ".tmp");
+    final OutputStream out = new FileOutputStream(tempFile);
+    try {
+      if (!bitmap.compress(format, options.quality, out)) {
+        throw new IOException("Unable to encode the snapshot");
+      }
+    } finally {
+      out.close();
+    }
+    if (!tempFile.renameTo(file)) {
+      tempFile.delete();
+      throw new IOException("Unable to write the snapshot to " + options.path);
+    }
+    return null;
+  }
+}
@@ -0,0 +1,243 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.util.Log;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Size-capped on-disk LRU cache of the tiles of one tile source.
+ *
+ * <p>Each tile is a single file named {@code <zoom>_<x>_<y>.tile}, starting with the time it was
+ * written, and the last modification time of that file is its last access time, so the recency
+ * order survives restarts. Tiles older than the max age are dropped when they are read. The index
+ * is kept in memory in access order and is only rebuilt from the directory listing on first use.
+ *
+ * <p>There is one instance per directory, shared by all overlays and maps of the same source, so
+ * that they share one size cap and don't delete each other's files.
+ *
+ * <p>Thread safe. Files are read and written outside of the lock so that tiles can be served
+ * concurrently.
+ */
+class TileDiskCache {
+  private static final String TAG = "TileDiskCache";
+  private static final String EXTENSION = ".tile";
+  private static final int HEADER_SIZE_BYTES = 8;
+  private static final Map<File, TileDiskCache> instances = new HashMap<>();
+
+  private final File directory;
+  private long maxSizeBytes;
+  private long maxAgeMillis;
+  private Map<String, Long> entries;
+  private long sizeBytes = 0;
+
+  private TileDiskCache(File directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Returns the cache of {@code directory}, limited to {@code maxSizeBytes} and to tiles written
+   * less than {@code maxAgeMillis} ago. A max age of 0 keeps tiles until they are evicted.
+   *
+   * <p>The limits apply to every user of the directory, the last ones set win.
+   */
+  static TileDiskCache forDirectory(File directory, long maxSizeBytes, long maxAgeMillis) {
+    TileDiskCache cache;
+    synchronized (instances) {
+      cache = instances.get(directory);
+      if (cache == null) {
+        cache = new TileDiskCache(directory);
+        instances.put(directory, cache);
+      }
+    }
+    cache.setLimits(maxSizeBytes, maxAgeMillis);
+    return cache;
+  }
+
+  private synchronized void setLimits(long maxSizeBytes, long maxAgeMillis) {
+    this.maxSizeBytes = maxSizeBytes;
+    this.maxAgeMillis = maxAgeMillis;
+    if (entries != null) {
+      trim();
+    }
+  }
+
+  /** Returns the directory under {@code root} holding the tiles of {@code source}. */
+  static File directoryFor(File root, String source) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      byte[] hash = digest.digest(source.getBytes("UTF-8"));
+      return new File(root, new BigInteger(1, hash).toString(16));
+    } catch (NoSuchAlgorithmException | IOException e) {
+      // Both SHA-1 and UTF-8 are always available on Android.
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Returns the cached tile at the given coordinates, or null if it isn't cached. */
+  byte[] get(int x, int y, int zoom) {
+    String key = keyFor(x, y, zoom);
+    long maxAgeMillis;
+    synchronized (this) {
+      if (index().get(key) == null) {
+        return null;
+      }
+      maxAgeMillis = this.maxAgeMillis;
+    }
+    File file = new File(directory, key);
+    try {
+      long now = System.currentTimeMillis();
+      byte[] data = read(file, maxAgeMillis > 0 ? now - maxAgeMillis : Long.MIN_VALUE);
+      if (data == null) {
+        remove(key);
+        return null;
+      }
+      file.setLastModified(now);
+      return data;
+    } catch (IOException e) {
+      remove(key);
+      return null;
+    }
+  }
+
+  void put(int x, int y, int zoom, byte[] data) {
+    String key = keyFor(x, y, zoom);
+    synchronized (this) {
+      index();
+      if (!directory.exists()) {
+        directory.mkdirs();
+      }
+    }
+    File file = new File(directory, key);
+    File temp = new File(directory, key + "." + Thread.currentThread().getId() + ".tmp");
+    try {
+      DataOutputStream out = new DataOutputStream(new FileOutputStream(temp));
+      try {
+        out.writeLong(System.currentTimeMillis());
+        out.write(data);
+      } finally {
+        out.close();
+      }
+    } catch (IOException e) {
+      Log.w(TAG, "Unable to cache tile " + key, e);
+      temp.delete();
+      return;
+    }
+    synchronized (this) {
+      Long previous = entries.remove(key);
+      if (previous != null) {
+        sizeBytes -= previous;
+      }
+      if (!temp.renameTo(file)) {
+        temp.delete();
+        file.delete();
+        return;
+      }
+      entries.put(key, (long) (HEADER_SIZE_BYTES + data.length));
+      sizeBytes += HEADER_SIZE_BYTES + data.length;
+      trim();
+    }
+  }
+
+  synchronized void clear() {
+    for (String key : index().keySet()) {
+      new File(directory, key).delete();
+    }
+    entries.clear();
+    sizeBytes = 0;
+  }
+
+  private synchronized void remove(String key) {
+    Long size = index().remove(key);
+    if (size != null) {
+      sizeBytes -= size;
+      new File(directory, key).delete();
+    }
+  }
+
+  private void trim() {
+    Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+    while (sizeBytes > maxSizeBytes && iterator.hasNext()) {
+      Map.Entry<String, Long> eldest = iterator.next();
+      sizeBytes -= eldest.getValue();
+      new File(directory, eldest.getKey()).delete();
+      iterator.remove();
+    }
+  }
+
+  private Map<String, Long> index() {
+    if (entries != null) {
+      return entries;
+    }
+    entries = new LinkedHashMap<>(16, 0.75f, true);
+    File[] files = directory.listFiles();
+    if (files != null) {
+      List<File> tiles = new ArrayList<>(files.length);
+      for (File file : files) {
+        if (file.getName().matches("\\d+_\\d+_\\d+\\.tile")) {
+          tiles.add(file);
+        } else {
+          // Left over from an interrupted write, or from an older format.
+          file.delete();
+        }
+      }
+      Collections.sort(
+          tiles,
+          new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+              long lastUsedA = a.lastModified();
+              long lastUsedB = b.lastModified();
+              return lastUsedA < lastUsedB ? -1 : (lastUsedA == lastUsedB ? 0 : 1);
+            }
+          });
+      for (File tile : tiles) {
+        entries.put(tile.getName(), tile.length());
+        sizeBytes += tile.length();
+      }
+    }
+    trim();
+    return entries;
+  }
+
+  private static String keyFor(int x, int y, int zoom) {
+    return zoom + "_" + x + "_" + y + EXTENSION;
+  }
+
+  /** Returns the tile in {@code file}, or null if it was written before {@code minWriteTime}. */
+  private static byte[] read(File file, long minWriteTime) throws IOException {
+    DataInputStream in = new DataInputStream(new FileInputStream(file));
+    try {
+      long length = file.length() - HEADER_SIZE_BYTES;
+      if (length < 0) {
+        throw new IOException("Truncated tile " + file);
+      }
+      if (in.readLong() < minWriteTime) {
+        return null;
+      }
+      byte[] data = new byte[(int) length];
+      in.readFully(data);
+      return data;
+    } finally {
+      in.close();
+    }
+  }
+}
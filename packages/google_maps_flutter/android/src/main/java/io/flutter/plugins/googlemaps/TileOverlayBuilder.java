@@ -0,0 +1,60 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.TileOverlayOptions;
+
+class TileOverlayBuilder implements TileOverlayOptionsSink {
+  private final TileOverlayOptions tileOverlayOptions;
+  private String urlTemplate;
+  private int tileSize = 256;
+  private int memoryCacheSizeBytes;
+  private int diskCacheSizeBytes;
+  private long diskCacheMaxAgeMillis;
+
+  TileOverlayBuilder() {
+    this.tileOverlayOptions = new TileOverlayOptions();
+  }
+
+  TileOverlayOptions build(CachingTileProvider tileProvider) {
+    tileProvider.setCacheLimits(memoryCacheSizeBytes, diskCacheSizeBytes, diskCacheMaxAgeMillis);
+    tileProvider.setTileSource(urlTemplate, tileSize);
+    return tileOverlayOptions.tileProvider(tileProvider);
+  }
+
+  @Override
+  public void setFadeIn(boolean fadeIn) {
+    tileOverlayOptions.fadeIn(fadeIn);
+  }
+
+  @Override
+  public void setTransparency(float transparency) {
+    tileOverlayOptions.transparency(transparency);
+  }
+
+  @Override
+  public void setVisible(boolean visible) {
+    tileOverlayOptions.visible(visible);
+  }
+
+  @Override
+  public void setZIndex(float zIndex) {
+    tileOverlayOptions.zIndex(zIndex);
+  }
+
+  @Override
+  public void setTileSource(String urlTemplate, int tileSize) {
+    this.urlTemplate = urlTemplate;
+    this.tileSize = tileSize;
+  }
+
+  @Override
+  public void setCacheLimits(
+      int memoryCacheSizeBytes, int diskCacheSizeBytes, long diskCacheMaxAgeMillis) {
+    this.memoryCacheSizeBytes = memoryCacheSizeBytes;
+    this.diskCacheSizeBytes = diskCacheSizeBytes;
+    this.diskCacheMaxAgeMillis = diskCacheMaxAgeMillis;
+  }
+}
@@ -0,0 +1,66 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.TileOverlay;
+
+/** Controller of a single TileOverlay on the map. */
+class TileOverlayController implements TileOverlayOptionsSink {
+  private final TileOverlay tileOverlay;
+  private final CachingTileProvider tileProvider;
+
+  TileOverlayController(TileOverlay tileOverlay, CachingTileProvider tileProvider) {
+    this.tileOverlay = tileOverlay;
+    this.tileProvider = tileProvider;
+  }
+
+  void remove() {
+    tileProvider.dispose();
+    tileOverlay.remove();
+  }
+
+  void dispose() {
+    tileProvider.dispose();
+  }
+
+  void clearTileCache() {
+    tileProvider.clearCache();
+    tileOverlay.clearTileCache();
+  }
+
+  @Override
+  public void setFadeIn(boolean fadeIn) {
+    tileOverlay.setFadeIn(fadeIn);
+  }
+
+  @Override
+  public void setTransparency(float transparency) {
+    tileOverlay.setTransparency(transparency);
+  }
+
+  @Override
+  public void setVisible(boolean visible) {
+    tileOverlay.setVisible(visible);
+  }
+
+  @Override
+  public void setZIndex(float zIndex) {
+    tileOverlay.setZIndex(zIndex);
+  }
+
+  @Override
+  public void setTileSource(String urlTemplate, int tileSize) {
+    if (tileProvider.setTileSource(urlTemplate, tileSize)) {
+      // The tiles the map already holds came from the previous source.
+      tileOverlay.clearTileCache();
+    }
+  }
+
+  @Override
+  public void setCacheLimits(
+      int memoryCacheSizeBytes, int diskCacheSizeBytes, long diskCacheMaxAgeMillis) {
+    tileProvider.setCacheLimits(memoryCacheSizeBytes, diskCacheSizeBytes, diskCacheMaxAgeMillis);
+  }
+}
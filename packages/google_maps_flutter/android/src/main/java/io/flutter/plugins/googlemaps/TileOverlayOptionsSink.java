@@ -0,0 +1,23 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+/** Receiver of TileOverlay configuration options. */
+interface TileOverlayOptionsSink {
+
+  void setFadeIn(boolean fadeIn);
+
+  void setTransparency(float transparency);
+
+  void setVisible(boolean visible);
+
+  void setZIndex(float zIndex);
+
+  /** Sets where tiles come from: {@code urlTemplate}, or the Dart tile provider if it is null. */
+  void setTileSource(String urlTemplate, int tileSize);
+
+  /** Limits the caches of the tiles. Zero sizes disable a cache, a zero age keeps tiles. */
+  void setCacheLimits(int memoryCacheSizeBytes, int diskCacheSizeBytes, long diskCacheMaxAgeMillis);
+}
@@ -0,0 +1,108 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.TileOverlay;
+import com.google.android.gms.maps.model.TileOverlayOptions;
+import io.flutter.plugin.common.MethodChannel;
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class TileOverlaysController {
+
+  private final Map<String, TileOverlayController> tileOverlayIdToController;
+  private final MethodChannel methodChannel;
+  private final File cacheDirectory;
+  private GoogleMap googleMap;
+
+  TileOverlaysController(MethodChannel methodChannel, File cacheDirectory) {
+    this.tileOverlayIdToController = new HashMap<>();
+    this.methodChannel = methodChannel;
+    this.cacheDirectory = cacheDirectory;
+  }
+
+  void setGoogleMap(GoogleMap googleMap) {
+    this.googleMap = googleMap;
+  }
+
+  void addTileOverlays(List<Object> tileOverlaysToAdd) {
+    if (tileOverlaysToAdd != null) {
+      for (Object tileOverlayToAdd : tileOverlaysToAdd) {
+        addTileOverlay(tileOverlayToAdd);
+      }
+    }
+  }
+
+  void changeTileOverlays(List<Object> tileOverlaysToChange) {
+    if (tileOverlaysToChange != null) {
+      for (Object tileOverlayToChange : tileOverlaysToChange) {
+        changeTileOverlay(tileOverlayToChange);
+      }
+    }
+  }
+
+  void removeTileOverlays(List<Object> tileOverlayIdsToRemove) {
+    if (tileOverlayIdsToRemove == null) {
+      return;
+    }
+    for (Object rawTileOverlayId : tileOverlayIdsToRemove) {
+      if (rawTileOverlayId == null) {
+        continue;
+      }
+      String tileOverlayId = (String) rawTileOverlayId;
+      final TileOverlayController tileOverlayController =
+          tileOverlayIdToController.remove(tileOverlayId);
+      if (tileOverlayController != null) {
+        tileOverlayController.remove();
+      }
+    }
+  }
+
+  void clearTileCache(String tileOverlayId) {
+    TileOverlayController tileOverlayController = tileOverlayIdToController.get(tileOverlayId);
+    if (tileOverlayController != null) {
+      tileOverlayController.clearTileCache();
+    }
+  }
+
+  void dispose() {
+    for (TileOverlayController tileOverlayController : tileOverlayIdToController.values()) {
+      tileOverlayController.dispose();
+    }
+  }
+
+  private void addTileOverlay(Object tileOverlay) {
+    if (tileOverlay == null) {
+      return;
+    }
+    TileOverlayBuilder tileOverlayBuilder = new TileOverlayBuilder();
+    String tileOverlayId = Convert.interpretTileOverlayOptions(tileOverlay, tileOverlayBuilder);
+    CachingTileProvider tileProvider =
+        new CachingTileProvider(tileOverlayId, methodChannel, cacheDirectory);
+    TileOverlayOptions options = tileOverlayBuilder.build(tileProvider);
+    final TileOverlay overlay = googleMap.addTileOverlay(options);
+    tileOverlayIdToController.put(tileOverlayId, new TileOverlayController(overlay, tileProvider));
+  }
+
+  private void changeTileOverlay(Object tileOverlay) {
+    if (tileOverlay == null) {
+      return;
+    }
+    String tileOverlayId = getTileOverlayId(tileOverlay);
+    TileOverlayController tileOverlayController = tileOverlayIdToController.get(tileOverlayId);
+    if (tileOverlayController != null) {
+      Convert.interpretTileOverlayOptions(tileOverlay, tileOverlayController);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static String getTileOverlayId(Object tileOverlay) {
+    Map<String, Object> tileOverlayMap = (Map<String, Object>) tileOverlay;
+    return (String) tileOverlayMap.get("tileOverlayId");
+  }
+}
@@ -0,0 +1,37 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+/**
+ * Web Mercator projection onto a square world of size 1.
+ *
+ * <p>x grows eastwards from 0 at the antimeridian, and y southwards from 0 at the north edge of the
+ * map. Latitudes beyond {@link #MAX_LATITUDE} are clamped to the edges.
+ */
+final class WebMercator {
+  static final double MAX_LATITUDE = 85.0511;
+
+  private WebMercator() {}
+
+  /** Returns the x of {@code longitude}, from 0 at -180 to 1 at 180. */
+  static double x(double longitude) {
+    return longitude / 360 + 0.5;
+  }
+
+  /** Returns the y of {@code latitude}, from 0 at the top to 1 at the bottom. */
+  static double y(double latitude) {
+    final double sin =
+        Math.sin(Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude))));
+    return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+  }
+
+  static double longitude(double x) {
+    return (x - 0.5) * 360;
+  }
+
+  static double latitude(double y) {
+    return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y))));
+  }
+}
@@ -0,0 +1,87 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+/**
+ * Immutable weighted points in normalized Web Mercator coordinates.
+ *
+ * <p>Both coordinates are in [0, 1), x growing eastwards from the antimeridian and y southwards
+ * from the north edge of the map. Points are bucketed by x into columns with a counting sort, so
+ * the points near a tile are found without scanning all of them.
+ */
+final class WeightedPoints {
+  private static final int COLUMNS = 4096;
+
+  static final WeightedPoints EMPTY =
+      new WeightedPoints(new double[0], new double[0], new double[0]);
+
+  final double[] xs;
+  final double[] ys;
+  final double[] weights;
+  private final int[] columnStarts = new int[COLUMNS + 1];
+
+  private WeightedPoints(double[] xs, double[] ys, double[] weights) {
+    int size = xs.length;
+    for (int i = 0; i < size; i++) {
+      columnStarts[columnOf(xs[i]) + 1]++;
+    }
+    for (int column = 0; column < COLUMNS; column++) {
+      columnStarts[column + 1] += columnStarts[column];
+    }
+    int[] next = new int[COLUMNS];
+    System.arraycopy(columnStarts, 0, next, 0, COLUMNS);
+    this.xs = new double[size];
+    this.ys = new double[size];
+    this.weights = new double[size];
+    for (int i = 0; i < size; i++) {
+      int index = next[columnOf(xs[i])]++;
+      this.xs[index] = xs[i];
+      this.ys[index] = ys[i];
+      this.weights[index] = weights[i];
+    }
+  }
+
+  /** Reads points packed as latitude, longitude, weight triples. */
+  static WeightedPoints fromPacked(double[] packed) {
+    return EMPTY.append(packed);
+  }
+
+  /** Returns these points and the {@code packed} ones. */
+  WeightedPoints append(double[] packed) {
+    int count = packed.length / 3;
+    int size = xs.length + count;
+    double[] newXs = new double[size];
+    double[] newYs = new double[size];
+    double[] newWeights = new double[size];
+    System.arraycopy(xs, 0, newXs, 0, xs.length);
+    System.arraycopy(ys, 0, newYs, 0, ys.length);
+    System.arraycopy(weights, 0, newWeights, 0, weights.length);
+    for (int i = 0; i < count; i++) {
+      double x = WebMercator.x(packed[i * 3 + 1]);
+      newXs[xs.length + i] = x - Math.floor(x);
+      newYs[xs.length + i] = WebMercator.y(packed[i * 3]);
+      newWeights[xs.length + i] = packed[i * 3 + 2];
+    }
+    return new WeightedPoints(newXs, newYs, newWeights);
+  }
+
+  int size() {
+    return xs.length;
+  }
+
+  /** Index of the first point that may have an x of at least {@code x}. */
+  int startOf(double x) {
+    return columnStarts[columnOf(x)];
+  }
+
+  /** Index after the last point that may have an x of at most {@code x}. */
+  int endOf(double x) {
+    return columnStarts[columnOf(x) + 1];
+  }
+
+  private static int columnOf(double x) {
+    return Math.max(0, Math.min(COLUMNS - 1, (int) (x * COLUMNS)));
+  }
+}
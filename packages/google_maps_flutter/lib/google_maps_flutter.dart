@@ -22,6 +22,7 @@ part 'src/google_map.dart';
 part 'src/joint_type.dart';
 part 'src/marker.dart';
 part 'src/marker_updates.dart';
+part 'src/marker_virtualization.dart';
 part 'src/location.dart';
 part 'src/pattern_item.dart';
 part 'src/polygon.dart';
@@ -30,4 +31,10 @@ part 'src/polyline.dart';
 part 'src/polyline_updates.dart';
 part 'src/circle.dart';
 part 'src/circle_updates.dart';
+part 'src/cluster.dart';
+part 'src/heatmap.dart';
+part 'src/heatmap_updates.dart';
+part 'src/snapshot.dart';
+part 'src/tile_overlay.dart';
+part 'src/tile_overlay_updates.dart';
 part 'src/ui.dart';
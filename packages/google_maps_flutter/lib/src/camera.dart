@@ -180,3 +180,84 @@ class CameraUpdate {
 
   dynamic _toJson() => _json;
 }
+
+/// Limits how often [GoogleMap.onCameraMove] is called while the camera
+/// moves.
+///
+/// The platform side only reports a move if at most [maxEventsPerSecond]
+/// were reported in the last second, and if the camera moved far enough
+/// since the last reported position. With [latestOnly], moves are not
+/// reported right away but once the platform thread is free, with the
+/// position the camera has then, so only the latest position is sent.
+///
+/// Throttling is currently only supported on Android.
+class CameraMoveThrottle {
+  /// Creates a throttle of camera move events.
+  const CameraMoveThrottle({
+    this.maxEventsPerSecond = 30,
+    this.minDistance = 0.0,
+    this.minZoomDelta = 0.0,
+    this.latestOnly = true,
+  })  : assert(maxEventsPerSecond != null && maxEventsPerSecond > 0),
+        assert(minDistance != null && minDistance >= 0.0),
+        assert(minZoomDelta != null && minZoomDelta >= 0.0),
+        assert(latestOnly != null),
+        enabled = true;
+
+  const CameraMoveThrottle._disabled()
+      : enabled = false,
+        maxEventsPerSecond = null,
+        minDistance = null,
+        minZoomDelta = null,
+        latestOnly = null;
+
+  /// Every camera move is reported.
+  static const CameraMoveThrottle none = CameraMoveThrottle._disabled();
+
+  /// Whether camera move events are throttled.
+  final bool enabled;
+
+  /// Largest number of camera moves reported per second.
+  final int maxEventsPerSecond;
+
+  /// Distance in logical pixels the camera target must move on screen
+  /// before a move is reported again.
+  ///
+  /// Changes of [minZoomDelta] zoom levels, or of a degree of bearing or
+  /// tilt, are reported regardless of the distance.
+  final double minDistance;
+
+  /// Zoom change that is reported regardless of [minDistance].
+  final double minZoomDelta;
+
+  /// Whether moves are reported once the platform thread is free, with the
+  /// latest camera position.
+  final bool latestOnly;
+
+  dynamic _toJson() => enabled
+      ? <dynamic>[maxEventsPerSecond, minDistance, minZoomDelta, latestOnly]
+      : <dynamic>[null];
+
+  @override
+  bool operator ==(dynamic other) {
+    if (identical(this, other)) return true;
+    if (runtimeType != other.runtimeType) return false;
+    final CameraMoveThrottle typedOther = other;
+    return enabled == typedOther.enabled &&
+        maxEventsPerSecond == typedOther.maxEventsPerSecond &&
+        minDistance == typedOther.minDistance &&
+        minZoomDelta == typedOther.minZoomDelta &&
+        latestOnly == typedOther.latestOnly;
+  }
+
+  @override
+  int get hashCode => hashValues(
+      enabled, maxEventsPerSecond, minDistance, minZoomDelta, latestOnly);
+
+  @override
+  String toString() {
+    return 'CameraMoveThrottle(enabled: $enabled, '
+        'maxEventsPerSecond: $maxEventsPerSecond, minDistance: $minDistance, '
+        'minZoomDelta: $minZoomDelta, latestOnly: $latestOnly)';
+  }
+}
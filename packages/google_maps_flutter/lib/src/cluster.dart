@@ -0,0 +1,92 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+part of google_maps_flutter;
+
+/// Configuration of the native clustering of the markers of a [GoogleMap].
+///
+/// When clustering is enabled, the markers in the viewport are grouped by the
+/// cell of a square grid they fall in. Cells holding at least
+/// [minClusterSize] markers are shown as a single marker that displays the
+/// number of markers, and markers outside the viewport aren't added to the
+/// map at all. Clusters are recomputed on a background thread each time the
+/// camera stops moving.
+///
+/// Clustering is currently only supported on Android.
+class MarkerClustering {
+  /// Creates a clustering configuration that groups markers.
+  const MarkerClustering({
+    this.gridSize = 64.0,
+    this.minClusterSize = 2,
+    this.color = const Color(0xFF1976D2),
+  })  : assert(gridSize != null && gridSize > 0),
+        assert(minClusterSize != null && minClusterSize >= 2),
+        assert(color != null),
+        enabled = true;
+
+  const MarkerClustering._disabled()
+      : enabled = false,
+        gridSize = null,
+        minClusterSize = null,
+        color = null;
+
+  /// Markers are never clustered.
+  static const MarkerClustering disabled = MarkerClustering._disabled();
+
+  /// Whether markers are clustered.
+  final bool enabled;
+
+  /// Width of the cells of the grid, in logical pixels.
+  final double gridSize;
+
+  /// Smallest number of markers in a cell that form a cluster.
+  final int minClusterSize;
+
+  /// Fill color of the cluster markers.
+  final Color color;
+
+  dynamic _toJson() => enabled
+      ? <dynamic>[gridSize, minClusterSize, color.value]
+      : <dynamic>[null];
+
+  @override
+  bool operator ==(dynamic other) {
+    if (identical(this, other)) return true;
+    if (runtimeType != other.runtimeType) return false;
+    final MarkerClustering typedOther = other;
+    return enabled == typedOther.enabled &&
+        gridSize == typedOther.gridSize &&
+        minClusterSize == typedOther.minClusterSize &&
+        color == typedOther.color;
+  }
+
+  @override
+  int get hashCode => hashValues(enabled, gridSize, minClusterSize, color);
+
+  @override
+  String toString() {
+    return 'MarkerClustering(enabled: $enabled, gridSize: $gridSize, '
+        'minClusterSize: $minClusterSize, color: $color)';
+  }
+}
+
+/// A group of markers shown as a single marker on the map.
+///
+/// Passed to [GoogleMap.onClusterTap].
+class Cluster {
+  /// Creates a cluster of the markers with the given ids.
+  const Cluster(this.position, this.markerIds);
+
+  /// Position of the cluster marker, the center of its markers.
+  final LatLng position;
+
+  /// Markers that are part of the cluster.
+  final List<MarkerId> markerIds;
+
+  /// Number of markers in the cluster.
+  int get size => markerIds.length;
+
+  @override
+  String toString() => 'Cluster(position: $position, size: $size)';
+}
@@ -8,6 +8,7 @@ part of google_maps_flutter;
 class GoogleMapController {
   GoogleMapController._(
     this.channel,
+    this._id,
     CameraPosition initialCameraPosition,
     this._googleMapState,
   ) : assert(channel != null) {
@@ -25,6 +26,7 @@ class GoogleMapController {
     await channel.invokeMethod<void>('map#waitForMap');
     return GoogleMapController._(
       channel,
+      id,
       initialCameraPosition,
       googleMapState,
     );
@@ -33,6 +35,8 @@ class GoogleMapController {
   @visibleForTesting
   final MethodChannel channel;
 
+  final int _id;
+
   final _GoogleMapState _googleMapState;
 
   Future<dynamic> _handleMethodCall(MethodCall call) async {
@@ -69,6 +73,20 @@ class GoogleMapController {
       case 'circle#onTap':
         _googleMapState.onCircleTap(call.arguments['circleId']);
         break;
+      case 'cluster#onTap':
+        final List<dynamic> markerIds = call.arguments['markerIds'];
+        _googleMapState.onClusterTap(Cluster(
+          LatLng._fromJson(call.arguments['position']),
+          markerIds.map<MarkerId>((dynamic id) => MarkerId(id)).toList(),
+        ));
+        break;
+      case 'tileOverlay#getTile':
+        return _googleMapState.onGetTile(
+          call.arguments['tileOverlayId'],
+          call.arguments['x'],
+          call.arguments['y'],
+          call.arguments['zoom'],
+        );
       case 'map#onTap':
         _googleMapState.onTap(LatLng._fromJson(call.arguments['position']));
         break;
@@ -105,9 +123,13 @@ class GoogleMapController {
   /// The returned [Future] completes after listeners have been notified.
   Future<void> _updateMarkers(_MarkerUpdates markerUpdates) async {
     assert(markerUpdates != null);
+    // The Android side reads the packed format, which only carries the fields
+    // that changed.
     await channel.invokeMethod<void>(
       'markers#update',
-      markerUpdates._toMap(),
+      defaultTargetPlatform == TargetPlatform.android
+          ? markerUpdates._toPackedMap()
+          : markerUpdates._toMap(),
     );
   }
 
@@ -153,6 +175,93 @@ class GoogleMapController {
     );
   }
 
+  /// Updates tile overlay configuration.
+  ///
+  /// Change listeners are notified once the update has been made on the
+  /// platform side.
+  ///
+  /// The returned [Future] completes after listeners have been notified.
+  Future<void> _updateTileOverlays(
+      _TileOverlayUpdates tileOverlayUpdates) async {
+    assert(tileOverlayUpdates != null);
+    if (defaultTargetPlatform != TargetPlatform.android) {
+      return;
+    }
+    await channel.invokeMethod<void>(
+      'tileOverlays#update',
+      tileOverlayUpdates._toMap(),
+    );
+  }
+
+  /// Updates heatmap configuration.
+  ///
+  /// Change listeners are notified once the update has been made on the
+  /// platform side.
+  ///
+  /// The returned [Future] completes after listeners have been notified.
+  Future<void> _updateHeatmaps(_HeatmapUpdates heatmapUpdates) async {
+    assert(heatmapUpdates != null);
+    if (defaultTargetPlatform != TargetPlatform.android) {
+      return;
+    }
+    await channel.invokeMethod<void>(
+      'heatmaps#update',
+      heatmapUpdates._toMap(),
+    );
+  }
+
+  /// Drops the cached tiles of the overlay with [tileOverlayId], in memory
+  /// and on disk, and fetches the visible ones again.
+  ///
+  /// Supported on Android only.
+  Future<void> clearTileCache(TileOverlayId tileOverlayId) async {
+    assert(tileOverlayId != null);
+    if (defaultTargetPlatform != TargetPlatform.android) {
+      return;
+    }
+    await channel.invokeMethod<void>(
+        'tileOverlays#clearTileCache', <String, dynamic>{
+      'tileOverlayId': tileOverlayId.value,
+    });
+  }
+
+  /// Returns an image of the map as it is currently shown.
+  ///
+  /// The image is encoded off the platform thread.
+  ///
+  /// Supported on Android only.
+  Future<Uint8List> takeSnapshot({
+    SnapshotFormat format = SnapshotFormat.png,
+    int quality = 100,
+  }) {
+    assert(format != null);
+    assert(quality != null && quality >= 0 && quality <= 100);
+    return channel
+        .invokeMethod<Uint8List>('map#takeSnapshot', <String, dynamic>{
+      'format': format.index,
+      'quality': quality,
+    });
+  }
+
+  /// Writes an image of the map as it is currently shown to the file at
+  /// [path], without sending the image to Dart.
+  ///
+  /// Supported on Android only.
+  Future<void> saveSnapshot(
+    String path, {
+    SnapshotFormat format = SnapshotFormat.png,
+    int quality = 100,
+  }) async {
+    assert(path != null);
+    assert(format != null);
+    assert(quality != null && quality >= 0 && quality <= 100);
+    await channel.invokeMethod<void>('map#takeSnapshot', <String, dynamic>{
+      'format': format.index,
+      'quality': quality,
+      'path': path,
+    });
+  }
+
   /// Starts an animated change of the map camera position.
   ///
   /// The returned [Future] completes after the change has been started on the
@@ -195,6 +304,43 @@ class GoogleMapController {
     }
   }
 
+  /// Registers [icon] under [iconId] on the platform side.
+  ///
+  /// The returned [BitmapDescriptor] refers to the registered icon by its id,
+  /// so markers using it don't send the image with every update, and all of
+  /// them share one bitmap. Registered icons belong to this map, and are kept
+  /// until [unregisterIcon] is called or the map is disposed. Icon ids of
+  /// different maps don't clash.
+  ///
+  /// Registration is only supported on Android, [icon] is returned as is on
+  /// other platforms.
+  Future<BitmapDescriptor> registerIcon(
+      String iconId, BitmapDescriptor icon) async {
+    assert(iconId != null);
+    assert(icon != null);
+    if (defaultTargetPlatform != TargetPlatform.android) {
+      return icon;
+    }
+    await channel.invokeMethod<void>('icons#register', <String, dynamic>{
+      'iconId': iconId,
+      'icon': icon._toJson(),
+    });
+    return BitmapDescriptor._(<dynamic>['fromRegisteredIcon', iconId, _id]);
+  }
+
+  /// Releases the icon registered under [iconId] with [registerIcon].
+  ///
+  /// Markers must not refer to the icon anymore.
+  Future<void> unregisterIcon(String iconId) async {
+    assert(iconId != null);
+    if (defaultTargetPlatform != TargetPlatform.android) {
+      return;
+    }
+    await channel.invokeMethod<void>('icons#unregister', <String, dynamic>{
+      'iconId': iconId,
+    });
+  }
+
   /// Return [LatLngBounds] defining the region that is visible in a map.
   Future<LatLngBounds> getVisibleRegion() async {
     final Map<String, dynamic> latLngBounds =
@@ -39,11 +39,18 @@ class GoogleMap extends StatefulWidget {
     this.polygons,
     this.polylines,
     this.circles,
+    this.tileOverlays,
+    this.heatmaps,
+    this.simplificationTolerance = 0.0,
+    this.markerClustering = MarkerClustering.disabled,
+    this.markerVirtualization = MarkerVirtualization.disabled,
+    this.cameraMoveThrottle = CameraMoveThrottle.none,
     this.onCameraMoveStarted,
     this.onCameraMove,
     this.onCameraIdle,
     this.onTap,
     this.onLongPress,
+    this.onClusterTap,
   })  : assert(initialCameraPosition != null),
         super(key: key);
 
@@ -96,6 +103,33 @@ class GoogleMap extends StatefulWidget {
   /// Circles to be placed on the map.
   final Set<Circle> circles;
 
+  /// Tile overlays to be placed on the map.
+  ///
+  /// Supported on Android only.
+  final Set<TileOverlay> tileOverlays;
+
+  /// Heatmaps to be placed on the map.
+  ///
+  /// Supported on Android only.
+  final Set<Heatmap> heatmaps;
+
+  /// How far, in logical pixels, simplified [polylines] and [polygons] may
+  /// be from their actual shape.
+  ///
+  /// When positive, polylines and polygons are rendered with fewer points
+  /// when the camera is zoomed out. The levels of detail are computed on a
+  /// background thread, and switched when the camera stops moving. Zero
+  /// disables simplification.
+  ///
+  /// Supported on Android only.
+  final double simplificationTolerance;
+
+  /// Whether and how [markers] are clustered.
+  final MarkerClustering markerClustering;
+
+  /// Whether only the [markers] near the viewport are added to the map.
+  final MarkerVirtualization markerVirtualization;
+
   /// Called when the camera starts moving.
   ///
   /// This can be initiated by the following:
@@ -110,9 +144,13 @@ class GoogleMap extends StatefulWidget {
   /// onCameraMoveStarted call.
   ///
   /// This may be called as often as once every frame and should
-  /// not perform expensive operations.
+  /// not perform expensive operations, unless limited with
+  /// [cameraMoveThrottle].
   final CameraPositionCallback onCameraMove;
 
+  /// Limits how often [onCameraMove] is called.
+  final CameraMoveThrottle cameraMoveThrottle;
+
   /// Called when camera movement has ended, there are no pending
   /// animations and the user has stopped interacting with the map.
   final VoidCallback onCameraIdle;
@@ -123,6 +161,9 @@ class GoogleMap extends StatefulWidget {
   /// Called every time a [GoogleMap] is long pressed.
   final ArgumentCallback<LatLng> onLongPress;
 
+  /// Called every time a cluster marker is tapped, see [markerClustering].
+  final ArgumentCallback<Cluster> onClusterTap;
+
   /// True if a "My Location" layer should be shown on the map.
   ///
   /// This layer includes a location indicator at the current device location,
@@ -187,6 +228,9 @@ class _GoogleMapState extends State<GoogleMap> {
   Map<PolygonId, Polygon> _polygons = <PolygonId, Polygon>{};
   Map<PolylineId, Polyline> _polylines = <PolylineId, Polyline>{};
   Map<CircleId, Circle> _circles = <CircleId, Circle>{};
+  Map<TileOverlayId, TileOverlay> _tileOverlays =
+      <TileOverlayId, TileOverlay>{};
+  Map<HeatmapId, Heatmap> _heatmaps = <HeatmapId, Heatmap>{};
   _GoogleMapOptions _googleMapOptions;
 
   @override
@@ -198,6 +242,8 @@ class _GoogleMapState extends State<GoogleMap> {
       'polygonsToAdd': _serializePolygonSet(widget.polygons),
       'polylinesToAdd': _serializePolylineSet(widget.polylines),
       'circlesToAdd': _serializeCircleSet(widget.circles),
+      'tileOverlaysToAdd': _serializeTileOverlaySet(widget.tileOverlays),
+      'heatmapsToAdd': _serializeHeatmapSet(widget.heatmaps),
     };
     if (defaultTargetPlatform == TargetPlatform.android) {
       return AndroidView(
@@ -227,8 +273,10 @@ class _GoogleMapState extends State<GoogleMap> {
     _googleMapOptions = _GoogleMapOptions.fromWidget(widget);
     _markers = _keyByMarkerId(widget.markers);
     _polygons = _keyByPolygonId(widget.polygons);
-    _polylines = _keyByPolylineId(widget.polylines);
+    _polylines = _snapshotPolylines(widget.polylines);
     _circles = _keyByCircleId(widget.circles);
+    _tileOverlays = _keyByTileOverlayId(widget.tileOverlays);
+    _heatmaps = _snapshotHeatmaps(widget.heatmaps);
   }
 
   @override
@@ -239,6 +287,8 @@ class _GoogleMapState extends State<GoogleMap> {
     _updatePolygons();
     _updatePolylines();
     _updateCircles();
+    _updateTileOverlays();
+    _updateHeatmaps();
   }
 
   void _updateOptions() async {
@@ -271,7 +321,7 @@ class _GoogleMapState extends State<GoogleMap> {
     final GoogleMapController controller = await _controller.future;
     controller._updatePolylines(
         _PolylineUpdates.from(_polylines.values.toSet(), widget.polylines));
-    _polylines = _keyByPolylineId(widget.polylines);
+    _polylines = _snapshotPolylines(widget.polylines);
   }
 
   void _updateCircles() async {
@@ -281,6 +331,26 @@ class _GoogleMapState extends State<GoogleMap> {
     _circles = _keyByCircleId(widget.circles);
   }
 
+  void _updateTileOverlays() async {
+    final GoogleMapController controller = await _controller.future;
+    final _TileOverlayUpdates updates = _TileOverlayUpdates.from(
+        _tileOverlays.values.toSet(), widget.tileOverlays);
+    _tileOverlays = _keyByTileOverlayId(widget.tileOverlays);
+    if (!updates.isEmpty) {
+      controller._updateTileOverlays(updates);
+    }
+  }
+
+  void _updateHeatmaps() async {
+    final GoogleMapController controller = await _controller.future;
+    final _HeatmapUpdates updates =
+        _HeatmapUpdates.from(_heatmaps.values.toSet(), widget.heatmaps);
+    _heatmaps = _snapshotHeatmaps(widget.heatmaps);
+    if (!updates.isEmpty) {
+      controller._updateHeatmaps(updates);
+    }
+  }
+
   Future<void> onPlatformViewCreated(int id) async {
     final GoogleMapController controller = await GoogleMapController.init(
       id,
@@ -321,6 +391,18 @@ class _GoogleMapState extends State<GoogleMap> {
     _circles[circleId].onTap();
   }
 
+  Future<Uint8List> onGetTile(
+      String tileOverlayIdParam, int x, int y, int zoom) {
+    assert(tileOverlayIdParam != null);
+    final TileOverlayId tileOverlayId = TileOverlayId(tileOverlayIdParam);
+    final TileProvider tileProvider =
+        _tileOverlays[tileOverlayId]?.tileProvider;
+    if (tileProvider == null) {
+      return Future<Uint8List>.value(null);
+    }
+    return tileProvider(x, y, zoom);
+  }
+
   void onInfoWindowTap(String markerIdParam) {
     assert(markerIdParam != null);
     final MarkerId markerId = MarkerId(markerIdParam);
@@ -329,6 +411,13 @@ class _GoogleMapState extends State<GoogleMap> {
     }
   }
 
+  void onClusterTap(Cluster cluster) {
+    assert(cluster != null);
+    if (widget.onClusterTap != null) {
+      widget.onClusterTap(cluster);
+    }
+  }
+
   void onTap(LatLng position) {
     assert(position != null);
     if (widget.onTap != null) {
@@ -364,6 +453,10 @@ class _GoogleMapOptions {
     this.myLocationButtonEnabled,
     this.padding,
     this.indoorViewEnabled,
+    this.simplificationTolerance,
+    this.markerClustering,
+    this.markerVirtualization,
+    this.cameraMoveThrottle,
   });
 
   static _GoogleMapOptions fromWidget(GoogleMap map) {
@@ -382,6 +475,10 @@ class _GoogleMapOptions {
       myLocationButtonEnabled: map.myLocationButtonEnabled,
       padding: map.padding,
       indoorViewEnabled: map.indoorViewEnabled,
+      simplificationTolerance: map.simplificationTolerance,
+      markerClustering: map.markerClustering,
+      markerVirtualization: map.markerVirtualization,
+      cameraMoveThrottle: map.cameraMoveThrottle,
     );
   }
 
@@ -413,6 +510,14 @@ class _GoogleMapOptions {
 
   final bool indoorViewEnabled;
 
+  final double simplificationTolerance;
+
+  final MarkerClustering markerClustering;
+
+  final MarkerVirtualization markerVirtualization;
+
+  final CameraMoveThrottle cameraMoveThrottle;
+
   Map<String, dynamic> toMap() {
     final Map<String, dynamic> optionsMap = <String, dynamic>{};
 
@@ -441,6 +546,10 @@ class _GoogleMapOptions {
       padding?.right,
     ]);
     addIfNonNull('indoorEnabled', indoorViewEnabled);
+    addIfNonNull('simplificationTolerance', simplificationTolerance);
+    addIfNonNull('markerClustering', markerClustering?._toJson());
+    addIfNonNull('markerVirtualization', markerVirtualization?._toJson());
+    addIfNonNull('cameraMoveThrottle', cameraMoveThrottle?._toJson());
     return optionsMap;
   }
 
@@ -0,0 +1,282 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+part of google_maps_flutter;
+
+/// A [LatLng] with a weight, the intensity it adds to a [Heatmap].
+class WeightedLatLng {
+  const WeightedLatLng(this.point, {this.weight = 1.0})
+      : assert(point != null),
+        assert(weight != null);
+
+  /// Location of the point.
+  final LatLng point;
+
+  /// Intensity the point adds to the heatmap.
+  final double weight;
+
+  @override
+  String toString() => '$runtimeType($point, $weight)';
+
+  @override
+  bool operator ==(Object o) {
+    return o is WeightedLatLng && o.point == point && o.weight == weight;
+  }
+
+  @override
+  int get hashCode => hashValues(point, weight);
+}
+
+/// Colors of a [Heatmap] from its lowest to its highest intensities.
+@immutable
+class HeatmapGradient {
+  /// Creates a gradient where each color starts at the intensity fraction
+  /// of the same index in [startPoints].
+  ///
+  /// Intensities below the first start point fade in from transparent. The
+  /// gradient is interpolated into [colorMapSize] colors.
+  const HeatmapGradient(
+    this.colors,
+    this.startPoints, {
+    this.colorMapSize = 256,
+  })  : assert(colors != null),
+        assert(startPoints != null),
+        assert(colorMapSize > 1);
+
+  /// Green fading to red, the gradient of the Google Maps heatmap utility.
+  static const HeatmapGradient defaultGradient = HeatmapGradient(
+    <Color>[Color.fromARGB(255, 102, 225, 0), Color.fromARGB(255, 255, 0, 0)],
+    <double>[0.2, 1.0],
+    colorMapSize: 1000,
+  );
+
+  /// Colors of the gradient.
+  final List<Color> colors;
+
+  /// Increasing intensity fractions between 0.0 and 1.0 where each of the
+  /// [colors] starts.
+  final List<double> startPoints;
+
+  /// Number of distinct colors the gradient is interpolated into.
+  final int colorMapSize;
+
+  dynamic _toJson() {
+    return <String, dynamic>{
+      'colors': colors.map<int>((Color color) => color.value).toList(),
+      'startPoints': startPoints,
+      'colorMapSize': colorMapSize,
+    };
+  }
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    if (other.runtimeType != runtimeType) return false;
+    final HeatmapGradient typedOther = other;
+    return listEquals(colors, typedOther.colors) &&
+        listEquals(startPoints, typedOther.startPoints) &&
+        colorMapSize == typedOther.colorMapSize;
+  }
+
+  @override
+  int get hashCode =>
+      hashValues(hashList(colors), hashList(startPoints), colorMapSize);
+}
+
+/// Uniquely identifies a [Heatmap] among [GoogleMap] heatmaps.
+///
+/// This does not have to be globally unique, only unique among the list.
+@immutable
+class HeatmapId {
+  HeatmapId(this.value) : assert(value != null);
+
+  /// value of the [HeatmapId].
+  final String value;
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    if (other.runtimeType != runtimeType) return false;
+    final HeatmapId typedOther = other;
+    return value == typedOther.value;
+  }
+
+  @override
+  int get hashCode => value.hashCode;
+
+  @override
+  String toString() {
+    return 'HeatmapId{value: $value}';
+  }
+}
+
+/// Draws the density of weighted points as a colored layer over the map.
+///
+/// The heatmap is rasterized into tiles on the platform side, so it stays
+/// fast with many thousands of points. Points are only sent again when they
+/// change, and only the new ones when points were appended to [points].
+///
+/// Supported on Android only.
+@immutable
+class Heatmap {
+  const Heatmap({
+    @required this.heatmapId,
+    this.points = const <WeightedLatLng>[],
+    this.radius = 20,
+    this.gradient = HeatmapGradient.defaultGradient,
+    this.opacity = 0.7,
+    this.maxIntensity,
+    this.visible = true,
+    this.zIndex = 0.0,
+  })  : assert(radius > 0),
+        assert(0.0 <= opacity && opacity <= 1.0);
+
+  /// Uniquely identifies a [Heatmap].
+  final HeatmapId heatmapId;
+
+  /// The weighted points of the heatmap.
+  final List<WeightedLatLng> points;
+
+  /// Radius in pixels of the blur applied to each point.
+  final int radius;
+
+  /// Colors of the heatmap from its lowest to its highest intensities.
+  final HeatmapGradient gradient;
+
+  /// Opacity of the heatmap, between 0.0 and 1.0 inclusive.
+  final double opacity;
+
+  /// Intensity mapped to the last color of the [gradient].
+  ///
+  /// If null, it is computed from the densest area at each zoom level.
+  final double maxIntensity;
+
+  /// True if the heatmap is visible.
+  final bool visible;
+
+  /// The z-index of the heatmap, used to determine relative drawing order of
+  /// map overlays.
+  final double zIndex;
+
+  /// Creates a new [Heatmap] object whose values are the same as this
+  /// instance, unless overwritten by the specified parameters.
+  Heatmap copyWith({
+    List<WeightedLatLng> pointsParam,
+    int radiusParam,
+    HeatmapGradient gradientParam,
+    double opacityParam,
+    double maxIntensityParam,
+    bool visibleParam,
+    double zIndexParam,
+  }) {
+    return Heatmap(
+      heatmapId: heatmapId,
+      points: pointsParam ?? points,
+      radius: radiusParam ?? radius,
+      gradient: gradientParam ?? gradient,
+      opacity: opacityParam ?? opacity,
+      maxIntensity: maxIntensityParam ?? maxIntensity,
+      visible: visibleParam ?? visible,
+      zIndex: zIndexParam ?? zIndex,
+    );
+  }
+
+  Map<String, dynamic> _toJson() {
+    final Map<String, dynamic> json = _optionsToJson();
+    if (points != null) {
+      json['points'] = _packWeightedPoints(points);
+    }
+    return json;
+  }
+
+  /// Serializes everything but the points.
+  Map<String, dynamic> _optionsToJson() {
+    final Map<String, dynamic> json = <String, dynamic>{};
+
+    void addIfPresent(String fieldName, dynamic value) {
+      if (value != null) {
+        json[fieldName] = value;
+      }
+    }
+
+    addIfPresent('heatmapId', heatmapId.value);
+    addIfPresent('radius', radius);
+    addIfPresent('gradient', gradient?._toJson());
+    addIfPresent('opacity', opacity);
+    // Zero lets the platform side compute it.
+    addIfPresent('maxIntensity', maxIntensity ?? 0.0);
+    addIfPresent('visible', visible);
+    addIfPresent('zIndex', zIndex);
+
+    return json;
+  }
+
+  /// Whether everything but the points is the same as in [other].
+  bool _hasSameOptions(Heatmap other) {
+    return radius == other.radius &&
+        gradient == other.gradient &&
+        opacity == other.opacity &&
+        maxIntensity == other.maxIntensity &&
+        visible == other.visible &&
+        zIndex == other.zIndex;
+  }
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    if (other.runtimeType != runtimeType) return false;
+    final Heatmap typedOther = other;
+    return heatmapId == typedOther.heatmapId;
+  }
+
+  @override
+  int get hashCode => heatmapId.hashCode;
+}
+
+/// Packs [points] from [start] as latitude, longitude, weight triples.
+Float64List _packWeightedPoints(List<WeightedLatLng> points,
+    [int start = 0]) {
+  final Float64List packed = Float64List((points.length - start) * 3);
+  for (int i = start; i < points.length; i++) {
+    final WeightedLatLng point = points[i];
+    packed[(i - start) * 3] = point.point.latitude;
+    packed[(i - start) * 3 + 1] = point.point.longitude;
+    packed[(i - start) * 3 + 2] = point.weight;
+  }
+  return packed;
+}
+
+Map<HeatmapId, Heatmap> _keyByHeatmapId(Iterable<Heatmap> heatmaps) {
+  if (heatmaps == null) {
+    return <HeatmapId, Heatmap>{};
+  }
+  return Map<HeatmapId, Heatmap>.fromEntries(heatmaps.map((Heatmap heatmap) =>
+      MapEntry<HeatmapId, Heatmap>(heatmap.heatmapId, heatmap)));
+}
+
+/// Keys [heatmaps] by id, with copies of their points.
+///
+/// The next update is compared against the copies, so that points the app
+/// changed in place in the same list are still sent.
+Map<HeatmapId, Heatmap> _snapshotHeatmaps(Iterable<Heatmap> heatmaps) {
+  if (heatmaps == null) {
+    return <HeatmapId, Heatmap>{};
+  }
+  return _keyByHeatmapId(heatmaps.map((Heatmap heatmap) {
+    if (heatmap.points == null) {
+      return heatmap;
+    }
+    return heatmap.copyWith(
+        pointsParam: List<WeightedLatLng>.of(heatmap.points));
+  }));
+}
+
+List<Map<String, dynamic>> _serializeHeatmapSet(Set<Heatmap> heatmaps) {
+  if (heatmaps == null) {
+    return null;
+  }
+  return heatmaps
+      .map<Map<String, dynamic>>((Heatmap h) => h._toJson())
+      .toList();
+}
@@ -0,0 +1,132 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+part of google_maps_flutter;
+
+/// [Heatmap] update events to be applied to the [GoogleMap].
+///
+/// Used in [GoogleMapController] when the map is updated.
+class _HeatmapUpdates {
+  /// Computes [_HeatmapUpdates] given previous and current [Heatmap]s.
+  _HeatmapUpdates.from(Set<Heatmap> previous, Set<Heatmap> current) {
+    if (previous == null) {
+      previous = Set<Heatmap>.identity();
+    }
+
+    if (current == null) {
+      current = Set<Heatmap>.identity();
+    }
+
+    final Map<HeatmapId, Heatmap> previousHeatmaps = _keyByHeatmapId(previous);
+    final Map<HeatmapId, Heatmap> currentHeatmaps = _keyByHeatmapId(current);
+
+    final Set<HeatmapId> prevHeatmapIds = previousHeatmaps.keys.toSet();
+    final Set<HeatmapId> currentHeatmapIds = currentHeatmaps.keys.toSet();
+
+    Heatmap idToCurrentHeatmap(HeatmapId id) {
+      return currentHeatmaps[id];
+    }
+
+    heatmapIdsToRemove = prevHeatmapIds.difference(currentHeatmapIds);
+
+    heatmapsToAdd = currentHeatmapIds
+        .difference(prevHeatmapIds)
+        .map(idToCurrentHeatmap)
+        .toSet();
+
+    for (HeatmapId heatmapId
+        in currentHeatmapIds.intersection(prevHeatmapIds)) {
+      final Map<String, dynamic> change = _changeToJson(
+          previousHeatmaps[heatmapId], currentHeatmaps[heatmapId]);
+      if (change != null) {
+        _changes[heatmapId] = change;
+      }
+    }
+    heatmapsToChange = _changes.keys.map(idToCurrentHeatmap).toSet();
+  }
+
+  Set<Heatmap> heatmapsToAdd;
+  Set<HeatmapId> heatmapIdsToRemove;
+  Set<Heatmap> heatmapsToChange;
+
+  final Map<HeatmapId, Map<String, dynamic>> _changes =
+      <HeatmapId, Map<String, dynamic>>{};
+
+  bool get isEmpty =>
+      heatmapsToAdd.isEmpty &&
+      heatmapIdsToRemove.isEmpty &&
+      heatmapsToChange.isEmpty;
+
+  /// Serializes the change from [previous] to [current], or returns null if
+  /// nothing changed.
+  ///
+  /// Points are only sent if they changed, and only the new ones if points
+  /// were appended. All points are sent if [previous] has the same list of
+  /// points, since points changed in that list can't be told apart.
+  static Map<String, dynamic> _changeToJson(
+      Heatmap previous, Heatmap current) {
+    final Map<String, dynamic> json = current._optionsToJson();
+    final List<WeightedLatLng> previousPoints =
+        previous.points ?? const <WeightedLatLng>[];
+    final List<WeightedLatLng> points =
+        current.points ?? const <WeightedLatLng>[];
+    bool isPrefix = previousPoints.length <= points.length &&
+        (points.isEmpty || !identical(previousPoints, points));
+    if (isPrefix) {
+      for (int i = 0; i < previousPoints.length; i++) {
+        if (points[i] != previousPoints[i]) {
+          isPrefix = false;
+          break;
+        }
+      }
+    }
+    if (!isPrefix) {
+      json['points'] = _packWeightedPoints(points);
+    } else if (points.length > previousPoints.length) {
+      json['appendedPoints'] =
+          _packWeightedPoints(points, previousPoints.length);
+    } else if (current._hasSameOptions(previous)) {
+      return null;
+    }
+    return json;
+  }
+
+  Map<String, dynamic> _toMap() {
+    final Map<String, dynamic> updateMap = <String, dynamic>{};
+
+    void addIfNonNull(String fieldName, dynamic value) {
+      if (value != null) {
+        updateMap[fieldName] = value;
+      }
+    }
+
+    addIfNonNull('heatmapsToAdd', _serializeHeatmapSet(heatmapsToAdd));
+    addIfNonNull('heatmapsToChange', _changes.values.toList());
+    addIfNonNull('heatmapIdsToRemove',
+        heatmapIdsToRemove.map<dynamic>((HeatmapId m) => m.value).toList());
+
+    return updateMap;
+  }
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    if (other.runtimeType != runtimeType) return false;
+    final _HeatmapUpdates typedOther = other;
+    return setEquals(heatmapsToAdd, typedOther.heatmapsToAdd) &&
+        setEquals(heatmapIdsToRemove, typedOther.heatmapIdsToRemove) &&
+        setEquals(heatmapsToChange, typedOther.heatmapsToChange);
+  }
+
+  @override
+  int get hashCode =>
+      hashValues(heatmapsToAdd, heatmapIdsToRemove, heatmapsToChange);
+
+  @override
+  String toString() {
+    return '_HeatmapUpdates{heatmapsToAdd: $heatmapsToAdd, '
+        'heatmapIdsToRemove: $heatmapIdsToRemove, '
+        'heatmapsToChange: $heatmapsToChange}';
+  }
+}
@@ -121,3 +121,18 @@ class LatLngBounds {
   @override
   int get hashCode => hashValues(southwest, northeast);
 }
+
+/// Packs [points] from index [start] on as latitude, longitude pairs.
+///
+/// The platform side reads these without boxing each coordinate.
+Float64List _packPoints(List<LatLng> points, [int start = 0]) {
+  final Float64List packed = Float64List((points.length - start) * 2);
+  for (int i = start; i < points.length; i++) {
+    packed[(i - start) * 2] = points[i].latitude;
+    packed[(i - start) * 2 + 1] = points[i].longitude;
+  }
+  return packed;
+}
+
+/// Whether the points are sent packed, see [_packPoints].
+bool get _packsPoints => defaultTargetPlatform == TargetPlatform.android;
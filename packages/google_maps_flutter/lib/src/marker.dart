@@ -4,6 +4,27 @@
 
 part of google_maps_flutter;
 
+// Bits of the fields of a [Marker] in packed marker updates.
+//
+// See [_MarkerUpdates._toPackedMap] for the layout of the values.
+const int _kMarkerAlpha = 1 << 0;
+const int _kMarkerAnchor = 1 << 1;
+const int _kMarkerConsumeTapEvents = 1 << 2;
+const int _kMarkerDraggable = 1 << 3;
+const int _kMarkerFlat = 1 << 4;
+const int _kMarkerIcon = 1 << 5;
+const int _kMarkerInfoWindow = 1 << 6;
+const int _kMarkerPosition = 1 << 7;
+const int _kMarkerRotation = 1 << 8;
+const int _kMarkerVisible = 1 << 9;
+const int _kMarkerZIndex = 1 << 10;
+
+// Bits holding the values of the boolean fields of a [Marker].
+const int _kMarkerConsumeTapEventsValue = 1 << 16;
+const int _kMarkerDraggableValue = 1 << 17;
+const int _kMarkerFlatValue = 1 << 18;
+const int _kMarkerVisibleValue = 1 << 19;
+
 dynamic _offsetToJson(Offset offset) {
   if (offset == null) {
     return null;
@@ -273,6 +294,35 @@ class Marker {
     return json;
   }
 
+  /// Returns the bits of the fields that are set and differ from [previous].
+  ///
+  /// All fields that are set count as changed if [previous] is null.
+  int _changedFields(Marker previous) {
+    int fields = 0;
+    void addIfChanged(int field, dynamic value, dynamic previousValue) {
+      if (value != null && (previous == null || value != previousValue)) {
+        fields |= field;
+      }
+    }
+
+    addIfChanged(_kMarkerAlpha, alpha, previous?.alpha);
+    addIfChanged(_kMarkerAnchor, anchor, previous?.anchor);
+    addIfChanged(_kMarkerConsumeTapEvents, consumeTapEvents,
+        previous?.consumeTapEvents);
+    addIfChanged(_kMarkerDraggable, draggable, previous?.draggable);
+    addIfChanged(_kMarkerFlat, flat, previous?.flat);
+    if (icon != null &&
+        (previous == null || !listEquals(icon._json, previous.icon?._json))) {
+      fields |= _kMarkerIcon;
+    }
+    addIfChanged(_kMarkerInfoWindow, infoWindow, previous?.infoWindow);
+    addIfChanged(_kMarkerPosition, position, previous?.position);
+    addIfChanged(_kMarkerRotation, rotation, previous?.rotation);
+    addIfChanged(_kMarkerVisible, visible, previous?.visible);
+    addIfChanged(_kMarkerZIndex, zIndex, previous?.zIndex);
+    return fields;
+  }
+
   @override
   bool operator ==(Object other) {
     if (identical(this, other)) return true;
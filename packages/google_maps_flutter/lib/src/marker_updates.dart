@@ -11,11 +11,11 @@ class _MarkerUpdates {
   /// Computes [_MarkerUpdates] given previous and current [Marker]s.
   _MarkerUpdates.from(Set<Marker> previous, Set<Marker> current) {
     if (previous == null) {
-      previous = Set<Marker>.identity();
+      previous = Set<Marker>();
     }
 
     if (current == null) {
-      current = Set<Marker>.identity();
+      current = Set<Marker>();
     }
 
     final Map<MarkerId, Marker> previousMarkers = _keyByMarkerId(previous);
@@ -36,10 +36,17 @@ class _MarkerUpdates {
         .map(idToCurrentMarker)
         .toSet();
 
-    final Set<Marker> _markersToChange = currentMarkerIds
-        .intersection(prevMarkerIds)
-        .map(idToCurrentMarker)
-        .toSet();
+    // Only markers that differ in at least one field are changed.
+    final Set<Marker> _markersToChange = Set<Marker>();
+    for (MarkerId markerId in currentMarkerIds.intersection(prevMarkerIds)) {
+      final Marker current = currentMarkers[markerId];
+      final int changedFields =
+          current._changedFields(previousMarkers[markerId]);
+      if (changedFields != 0) {
+        _markersToChange.add(current);
+        _changedFields[markerId] = changedFields;
+      }
+    }
 
     markersToAdd = _markersToAdd;
     markerIdsToRemove = _markerIdsToRemove;
@@ -50,6 +57,8 @@ class _MarkerUpdates {
   Set<MarkerId> markerIdsToRemove;
   Set<Marker> markersToChange;
 
+  final Map<MarkerId, int> _changedFields = <MarkerId, int>{};
+
   Map<String, dynamic> _toMap() {
     final Map<String, dynamic> updateMap = <String, dynamic>{};
 
@@ -67,6 +76,88 @@ class _MarkerUpdates {
     return updateMap;
   }
 
+  /// Packs the updates into typed arrays, so that the platform side can read
+  /// them without building a map per marker.
+  ///
+  /// Added and changed markers are listed in `markerIds`, added ones first.
+  /// For each of them `markerFields` holds the bits of the fields that are
+  /// sent and the values of the boolean fields. The other values follow in
+  /// the order of the field bits: numbers in `markerValues` (NaN for a null
+  /// info window anchor), info window titles and snippets in `markerStrings`
+  /// and icons in `markerIcons`.
+  Map<String, dynamic> _toPackedMap() {
+    final List<String> markerIds = <String>[];
+    final List<int> markerFields = <int>[];
+    final List<double> markerValues = <double>[];
+    final List<String> markerStrings = <String>[];
+    final List<dynamic> markerIcons = <dynamic>[];
+
+    void addMarker(Marker marker, int fields) {
+      markerIds.add(marker.markerId.value);
+      if (fields & _kMarkerAlpha != 0) {
+        markerValues.add(marker.alpha);
+      }
+      if (fields & _kMarkerAnchor != 0) {
+        markerValues..add(marker.anchor.dx)..add(marker.anchor.dy);
+      }
+      if (fields & _kMarkerConsumeTapEvents != 0 && marker.consumeTapEvents) {
+        fields |= _kMarkerConsumeTapEventsValue;
+      }
+      if (fields & _kMarkerDraggable != 0 && marker.draggable) {
+        fields |= _kMarkerDraggableValue;
+      }
+      if (fields & _kMarkerFlat != 0 && marker.flat) {
+        fields |= _kMarkerFlatValue;
+      }
+      if (fields & _kMarkerIcon != 0) {
+        markerIcons.add(marker.icon._toJson());
+      }
+      if (fields & _kMarkerInfoWindow != 0) {
+        final Offset anchor = marker.infoWindow.anchor;
+        markerStrings
+          ..add(marker.infoWindow.title)
+          ..add(marker.infoWindow.snippet);
+        markerValues
+          ..add(anchor?.dx ?? double.nan)
+          ..add(anchor?.dy ?? double.nan);
+      }
+      if (fields & _kMarkerPosition != 0) {
+        markerValues
+          ..add(marker.position.latitude)
+          ..add(marker.position.longitude);
+      }
+      if (fields & _kMarkerRotation != 0) {
+        markerValues.add(marker.rotation);
+      }
+      if (fields & _kMarkerVisible != 0 && marker.visible) {
+        fields |= _kMarkerVisibleValue;
+      }
+      if (fields & _kMarkerZIndex != 0) {
+        markerValues.add(marker.zIndex);
+      }
+      markerFields.add(fields);
+    }
+
+    for (Marker marker in markersToAdd) {
+      addMarker(marker, marker._changedFields(null));
+    }
+    for (Marker marker in markersToChange) {
+      addMarker(marker, _changedFields[marker.markerId] ??
+          marker._changedFields(null));
+    }
+
+    return <String, dynamic>{
+      'markerIds': markerIds,
+      'addedMarkerCount': markersToAdd.length,
+      'markerFields': Int32List.fromList(markerFields),
+      'markerValues': Float64List.fromList(markerValues),
+      'markerStrings': markerStrings,
+      'markerIcons': markerIcons,
+      'markerIdsToRemove':
+          markerIdsToRemove.map<dynamic>((MarkerId m) => m.value).toList(),
+    };
+  }
+
   @override
   bool operator ==(Object other) {
     if (identical(this, other)) return true;
@@ -0,0 +1,82 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+part of google_maps_flutter;
+
+/// Configuration of the viewport virtualization of the markers of a
+/// [GoogleMap].
+///
+/// When virtualization is enabled, all markers are kept in a native spatial
+/// index, and only those within the viewport, grown by [margin] times its
+/// size on each side, are added to the map each time the camera stops
+/// moving. Markers that leave that area are hidden and reused for the markers
+/// that enter it, so browsing a large set of markers only ever creates about
+/// as many native markers as fit in the viewport. When more than
+/// [maxVisibleMarkers] markers are in that area, only those closest to the
+/// center of the viewport are added.
+///
+/// [GoogleMap.markerClustering] takes precedence while it is enabled.
+///
+/// Virtualization is currently only supported on Android.
+class MarkerVirtualization {
+  /// Creates a virtualization configuration.
+  const MarkerVirtualization({
+    this.margin = 0.5,
+    this.maxRecycledMarkers = 100,
+    this.maxVisibleMarkers = 500,
+  })  : assert(margin != null && margin >= 0.0),
+        assert(maxRecycledMarkers != null && maxRecycledMarkers >= 0),
+        assert(maxVisibleMarkers != null && maxVisibleMarkers > 0),
+        enabled = true;
+
+  const MarkerVirtualization._disabled()
+      : enabled = false,
+        margin = null,
+        maxRecycledMarkers = null,
+        maxVisibleMarkers = null;
+
+  /// All markers are added to the map.
+  static const MarkerVirtualization disabled = MarkerVirtualization._disabled();
+
+  /// Whether only the markers near the viewport are added to the map.
+  final bool enabled;
+
+  /// How far outside the viewport markers are still added to the map, as a
+  /// fraction of the width and height of the viewport.
+  final double margin;
+
+  /// Largest number of hidden native markers kept around to be reused.
+  final int maxRecycledMarkers;
+
+  /// Largest number of markers added to the map at once.
+  ///
+  /// Use [GoogleMap.markerClustering] to show the markers of dense areas.
+  final int maxVisibleMarkers;
+
+  dynamic _toJson() => enabled
+      ? <dynamic>[margin, maxRecycledMarkers, maxVisibleMarkers]
+      : <dynamic>[null];
+
+  @override
+  bool operator ==(dynamic other) {
+    if (identical(this, other)) return true;
+    if (runtimeType != other.runtimeType) return false;
+    final MarkerVirtualization typedOther = other;
+    return enabled == typedOther.enabled &&
+        margin == typedOther.margin &&
+        maxRecycledMarkers == typedOther.maxRecycledMarkers &&
+        maxVisibleMarkers == typedOther.maxVisibleMarkers;
+  }
+
+  @override
+  int get hashCode =>
+      hashValues(enabled, margin, maxRecycledMarkers, maxVisibleMarkers);
+
+  @override
+  String toString() {
+    return 'MarkerVirtualization(enabled: $enabled, margin: $margin, '
+        'maxRecycledMarkers: $maxRecycledMarkers, '
+        'maxVisibleMarkers: $maxVisibleMarkers)';
+  }
+}
@@ -135,7 +135,11 @@ class Polygon {
     addIfPresent('zIndex', zIndex);
 
     if (points != null) {
-      json['points'] = _pointsToJson();
+      if (_packsPoints) {
+        json['packedPoints'] = _packPoints(points);
+      } else {
+        json['points'] = _pointsToJson();
+      }
     }
 
     return json;
@@ -173,7 +173,11 @@ class Polyline {
     addIfPresent('zIndex', zIndex);
 
     if (points != null) {
-      json['points'] = _pointsToJson();
+      if (_packsPoints) {
+        json['packedPoints'] = _packPoints(points);
+      } else {
+        json['points'] = _pointsToJson();
+      }
     }
 
     if (patterns != null) {
@@ -222,6 +226,20 @@ Map<PolylineId, Polyline> _keyByPolylineId(Iterable<Polyline> polylines) {
           MapEntry<PolylineId, Polyline>(polyline.polylineId, polyline)));
 }
 
+/// Keys [polylines] by id, with copies of their points.
+///
+/// The next update is compared against the copies, so that points the app
+/// changed in place in the same list are still sent.
+Map<PolylineId, Polyline> _snapshotPolylines(Iterable<Polyline> polylines) {
+  if (polylines == null) {
+    return <PolylineId, Polyline>{};
+  }
+  return _keyByPolylineId(polylines.map((Polyline polyline) =>
+      polyline.points == null
+          ? polyline
+          : polyline.copyWith(pointsParam: List<LatLng>.of(polyline.points))));
+}
+
 List<Map<String, dynamic>> _serializePolylineSet(Set<Polyline> polylines) {
   if (polylines == null) {
     return null;
@@ -43,6 +43,11 @@ class _PolylineUpdates {
         .map(idToCurrentPolyline)
         .toSet();
 
+    for (Polyline polyline in _polylinesToChange) {
+      _previousPolylines[polyline.polylineId] =
+          previousPolylines[polyline.polylineId];
+    }
+
     polylinesToAdd = _polylinesToAdd;
     polylineIdsToRemove = _polylineIdsToRemove;
     polylinesToChange = _polylinesToChange;
@@ -52,6 +57,40 @@ class _PolylineUpdates {
   Set<PolylineId> polylineIdsToRemove;
   Set<Polyline> polylinesToChange;
 
+  final Map<PolylineId, Polyline> _previousPolylines =
+      <PolylineId, Polyline>{};
+
+  /// Serializes a changed polyline, sending only the new points if the
+  /// polyline grew and no points if they didn't change.
+  ///
+  /// All points are sent if the previous polyline has the same list of points,
+  /// since points changed in that list can't be told apart.
+  dynamic _changeToJson(Polyline polyline) {
+    final Map<String, dynamic> json = polyline._toJson();
+    final List<LatLng> previousPoints =
+        _previousPolylines[polyline.polylineId]?.points;
+    final List<LatLng> points = polyline.points;
+    if (!_packsPoints ||
+        previousPoints == null ||
+        points == null ||
+        identical(previousPoints, points)) {
+      return json;
+    }
+    if (points.length < previousPoints.length) {
+      return json;
+    }
+    for (int i = 0; i < previousPoints.length; i++) {
+      if (points[i] != previousPoints[i]) {
+        return json;
+      }
+    }
+    json.remove('packedPoints');
+    if (points.length > previousPoints.length) {
+      json['appendedPoints'] = _packPoints(points, previousPoints.length);
+    }
+    return json;
+  }
+
   Map<String, dynamic> _toMap() {
     final Map<String, dynamic> updateMap = <String, dynamic>{};
 
@@ -62,7 +101,11 @@ class _PolylineUpdates {
     }
 
     addIfNonNull('polylinesToAdd', _serializePolylineSet(polylinesToAdd));
-    addIfNonNull('polylinesToChange', _serializePolylineSet(polylinesToChange));
+    addIfNonNull(
+        'polylinesToChange',
+        polylinesToChange
+            .map<dynamic>((Polyline p) => _changeToJson(p))
+            .toList());
     addIfNonNull('polylineIdsToRemove',
         polylineIdsToRemove.map<dynamic>((PolylineId m) => m.value).toList());
 
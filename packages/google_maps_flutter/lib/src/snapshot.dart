@@ -0,0 +1,115 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+part of google_maps_flutter;
+
+/// Image format of a map snapshot.
+enum SnapshotFormat {
+  /// Lossless PNG, the quality is ignored.
+  png,
+
+  /// Lossy JPEG.
+  jpeg,
+}
+
+/// The camera position and the overlays of a snapshot rendered by
+/// [MapSnapshotter].
+class MapSnapshot {
+  /// Creates the description of a snapshot.
+  ///
+  /// When [path] is set, the image is written to that file instead of being
+  /// returned.
+  const MapSnapshot({
+    @required this.cameraUpdate,
+    this.markers,
+    this.polylines,
+    this.polygons,
+    this.circles,
+    this.path,
+  }) : assert(cameraUpdate != null);
+
+  /// Moves the camera to the area of the snapshot.
+  ///
+  /// [CameraUpdate.newLatLngBounds] fits an area such as the bounds of a
+  /// route in the snapshot.
+  final CameraUpdate cameraUpdate;
+
+  /// Markers drawn on the snapshot.
+  final Set<Marker> markers;
+
+  /// Polylines drawn on the snapshot.
+  final Set<Polyline> polylines;
+
+  /// Polygons drawn on the snapshot.
+  final Set<Polygon> polygons;
+
+  /// Circles drawn on the snapshot.
+  final Set<Circle> circles;
+
+  /// File the image is written to, or null to return it.
+  final String path;
+
+  Map<String, dynamic> _toJson() {
+    final Map<String, dynamic> json = <String, dynamic>{};
+
+    void addIfPresent(String fieldName, dynamic value) {
+      if (value != null) {
+        json[fieldName] = value;
+      }
+    }
+
+    addIfPresent('cameraUpdate', cameraUpdate._toJson());
+    addIfPresent('markers', _serializeMarkerSet(markers));
+    addIfPresent('polylines', _serializePolylineSet(polylines));
+    addIfPresent('polygons', _serializePolygonSet(polygons));
+    addIfPresent('circles', _serializeCircleSet(circles));
+    addIfPresent('path', path);
+    return json;
+  }
+}
+
+/// Renders map snapshots without showing a [GoogleMap].
+///
+/// Supported on Android only.
+class MapSnapshotter {
+  MapSnapshotter._();
+
+  @visibleForTesting
+  static const MethodChannel channel =
+      MethodChannel('plugins.flutter.io/google_maps_snapshotter');
+
+  /// Renders [snapshots] in sequence, with a single off-screen lite mode map
+  /// of [size] logical pixels.
+  ///
+  /// Returns the encoded image of each snapshot, in order, or null for the
+  /// snapshots written to their [MapSnapshot.path]. Batches requested while
+  /// another one is rendering are rendered after it, with the same map.
+  ///
+  /// Throws a [PlatformException] when a snapshot of the batch fails to
+  /// render. The batches requested after it are still rendered.
+  static Future<List<Uint8List>> render(
+    List<MapSnapshot> snapshots, {
+    Size size = const Size(256.0, 256.0),
+    MapType mapType = MapType.normal,
+    SnapshotFormat format = SnapshotFormat.png,
+    int quality = 100,
+  }) async {
+    assert(snapshots != null);
+    assert(size != null && !size.isEmpty);
+    assert(quality != null && quality >= 0 && quality <= 100);
+    final List<Map<String, dynamic>> snapshotsJson = snapshots
+        .map<Map<String, dynamic>>((MapSnapshot snapshot) => snapshot._toJson())
+        .toList();
+    final List<dynamic> images = await channel
+        .invokeMethod<List<dynamic>>('snapshots#render', <String, dynamic>{
+      'snapshots': snapshotsJson,
+      'width': size.width,
+      'height': size.height,
+      'mapType': mapType.index,
+      'format': format.index,
+      'quality': quality,
+    });
+    return images.cast<Uint8List>();
+  }
+}
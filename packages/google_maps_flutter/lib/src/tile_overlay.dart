@@ -0,0 +1,203 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+part of google_maps_flutter;
+
+/// Returns the encoded image of the tile at [x], [y] and [zoom].
+///
+/// Tile coordinates follow the Google Maps convention: at zoom level `z` the
+/// world is `2^z` tiles wide and high, and tile (0, 0) is the north west
+/// corner.
+///
+/// The returned bytes must be in a format Android can decode, such as PNG or
+/// JPEG. Completes with null if there is no tile at these coordinates.
+typedef Future<Uint8List> TileProvider(int x, int y, int zoom);
+
+/// Uniquely identifies a [TileOverlay] among [GoogleMap] tile overlays.
+///
+/// This does not have to be globally unique, only unique among the list.
+@immutable
+class TileOverlayId {
+  TileOverlayId(this.value) : assert(value != null);
+
+  /// value of the [TileOverlayId].
+  final String value;
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    if (other.runtimeType != runtimeType) return false;
+    final TileOverlayId typedOther = other;
+    return value == typedOther.value;
+  }
+
+  @override
+  int get hashCode => value.hashCode;
+
+  @override
+  String toString() {
+    return 'TileOverlayId{value: $value}';
+  }
+}
+
+/// Draws a layer of image tiles on top of the base map.
+///
+/// Tiles come either from [urlTemplate] or from [tileProvider]. They are
+/// fetched concurrently off the main thread, and kept in a memory cache of
+/// [memoryCacheSize] bytes and in a disk cache of [diskCacheSize] bytes for
+/// up to [diskCacheMaxAge], so panning back to a region or restarting the app
+/// doesn't fetch them again.
+///
+/// Supported on Android only.
+@immutable
+class TileOverlay {
+  const TileOverlay({
+    @required this.tileOverlayId,
+    this.urlTemplate,
+    this.tileProvider,
+    this.tileSize = 256,
+    this.fadeIn = true,
+    this.transparency = 0.0,
+    this.visible = true,
+    this.zIndex = 0.0,
+    this.memoryCacheSize = 4 * 1024 * 1024,
+    this.diskCacheSize,
+    this.diskCacheMaxAge = const Duration(days: 7),
+  })  : assert((urlTemplate == null) != (tileProvider == null)),
+        assert(0.0 <= transparency && transparency <= 1.0),
+        assert(memoryCacheSize >= 0),
+        assert(diskCacheSize == null || diskCacheSize >= 0);
+
+  /// Uniquely identifies a [TileOverlay].
+  final TileOverlayId tileOverlayId;
+
+  /// URL of the tiles, where `{x}`, `{y}` and `{z}` are replaced with the
+  /// coordinates and the zoom level of each tile.
+  ///
+  /// Tiles the server answers with a 404 are left empty.
+  final String urlTemplate;
+
+  /// Provides the tiles when there is no [urlTemplate].
+  ///
+  /// Provided tiles are only cached on disk if [diskCacheSize] is set. They
+  /// are cached under [tileOverlayId], so overlays of different providers
+  /// need different ids. Call [GoogleMapController.clearTileCache] when
+  /// previously provided tiles became stale.
+  final TileProvider tileProvider;
+
+  /// Width and height of the tiles, in pixels.
+  final int tileSize;
+
+  /// True if the tiles fade in.
+  final bool fadeIn;
+
+  /// Transparency of the tiles, between 0.0 (opaque) and 1.0 (invisible).
+  final double transparency;
+
+  /// True if the overlay is visible.
+  final bool visible;
+
+  /// The z-index of the overlay, used to determine relative drawing order of
+  /// map overlays.
+  final double zIndex;
+
+  /// Maximum size in bytes of the tiles kept in memory. Zero disables it.
+  final int memoryCacheSize;
+
+  /// Maximum size in bytes of the tiles kept on disk. Zero disables it.
+  ///
+  /// Defaults to 32 MB for tiles from [urlTemplate]. Tiles from
+  /// [tileProvider] are not cached on disk unless this is set.
+  ///
+  /// Overlays and maps with the same [urlTemplate] share one disk cache, the
+  /// size and max age most recently set apply to it.
+  final int diskCacheSize;
+
+  /// How long tiles are served from the disk cache after they were fetched.
+  /// Null keeps them until they are evicted.
+  final Duration diskCacheMaxAge;
+
+  /// Creates a new [TileOverlay] object whose values are the same as this
+  /// instance, unless overwritten by the specified parameters.
+  TileOverlay copyWith({
+    bool fadeInParam,
+    double transparencyParam,
+    bool visibleParam,
+    double zIndexParam,
+    int memoryCacheSizeParam,
+    int diskCacheSizeParam,
+    Duration diskCacheMaxAgeParam,
+  }) {
+    return TileOverlay(
+      tileOverlayId: tileOverlayId,
+      urlTemplate: urlTemplate,
+      tileProvider: tileProvider,
+      tileSize: tileSize,
+      fadeIn: fadeInParam ?? fadeIn,
+      transparency: transparencyParam ?? transparency,
+      visible: visibleParam ?? visible,
+      zIndex: zIndexParam ?? zIndex,
+      memoryCacheSize: memoryCacheSizeParam ?? memoryCacheSize,
+      diskCacheSize: diskCacheSizeParam ?? diskCacheSize,
+      diskCacheMaxAge: diskCacheMaxAgeParam ?? diskCacheMaxAge,
+    );
+  }
+
+  Map<String, dynamic> _toJson() {
+    final Map<String, dynamic> json = <String, dynamic>{};
+
+    void addIfPresent(String fieldName, dynamic value) {
+      if (value != null) {
+        json[fieldName] = value;
+      }
+    }
+
+    addIfPresent('tileOverlayId', tileOverlayId.value);
+    addIfPresent('urlTemplate', urlTemplate);
+    addIfPresent('tileSize', tileSize);
+    addIfPresent('fadeIn', fadeIn);
+    addIfPresent('transparency', transparency);
+    addIfPresent('visible', visible);
+    addIfPresent('zIndex', zIndex);
+    addIfPresent('memoryCacheSize', memoryCacheSize);
+    addIfPresent('diskCacheSize',
+        diskCacheSize ?? (urlTemplate != null ? _defaultDiskCacheSize : 0));
+    addIfPresent('diskCacheMaxAgeMillis', diskCacheMaxAge?.inMilliseconds);
+
+    return json;
+  }
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    if (other.runtimeType != runtimeType) return false;
+    final TileOverlay typedOther = other;
+    return tileOverlayId == typedOther.tileOverlayId;
+  }
+
+  @override
+  int get hashCode => tileOverlayId.hashCode;
+}
+
+const int _defaultDiskCacheSize = 32 * 1024 * 1024;
+
+Map<TileOverlayId, TileOverlay> _keyByTileOverlayId(
+    Iterable<TileOverlay> tileOverlays) {
+  if (tileOverlays == null) {
+    return <TileOverlayId, TileOverlay>{};
+  }
+  return Map<TileOverlayId, TileOverlay>.fromEntries(tileOverlays.map(
+      (TileOverlay tileOverlay) => MapEntry<TileOverlayId, TileOverlay>(
+          tileOverlay.tileOverlayId, tileOverlay)));
+}
+
+List<Map<String, dynamic>> _serializeTileOverlaySet(
+    Set<TileOverlay> tileOverlays) {
+  if (tileOverlays == null) {
+    return null;
+  }
+  return tileOverlays
+      .map<Map<String, dynamic>>((TileOverlay t) => t._toJson())
+      .toList();
+}
@@ -0,0 +1,110 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+part of google_maps_flutter;
+
+/// [TileOverlay] update events to be applied to the [GoogleMap].
+///
+/// Used in [GoogleMapController] when the map is updated.
+class _TileOverlayUpdates {
+  /// Computes [_TileOverlayUpdates] given previous and current
+  /// [TileOverlay]s.
+  _TileOverlayUpdates.from(
+      Set<TileOverlay> previous, Set<TileOverlay> current) {
+    if (previous == null) {
+      previous = Set<TileOverlay>.identity();
+    }
+
+    if (current == null) {
+      current = Set<TileOverlay>.identity();
+    }
+
+    final Map<TileOverlayId, TileOverlay> previousTileOverlays =
+        _keyByTileOverlayId(previous);
+    final Map<TileOverlayId, TileOverlay> currentTileOverlays =
+        _keyByTileOverlayId(current);
+
+    final Set<TileOverlayId> prevTileOverlayIds =
+        previousTileOverlays.keys.toSet();
+    final Set<TileOverlayId> currentTileOverlayIds =
+        currentTileOverlays.keys.toSet();
+
+    TileOverlay idToCurrentTileOverlay(TileOverlayId id) {
+      return currentTileOverlays[id];
+    }
+
+    // A new tile provider callback alone doesn't need to reach the platform
+    // side, which always asks the current one.
+    bool hasChanged(TileOverlay current) {
+      return !mapEquals(current._toJson(),
+          previousTileOverlays[current.tileOverlayId]._toJson());
+    }
+
+    tileOverlayIdsToRemove =
+        prevTileOverlayIds.difference(currentTileOverlayIds);
+
+    tileOverlaysToAdd = currentTileOverlayIds
+        .difference(prevTileOverlayIds)
+        .map(idToCurrentTileOverlay)
+        .toSet();
+
+    tileOverlaysToChange = currentTileOverlayIds
+        .intersection(prevTileOverlayIds)
+        .map(idToCurrentTileOverlay)
+        .where(hasChanged)
+        .toSet();
+  }
+
+  Set<TileOverlay> tileOverlaysToAdd;
+  Set<TileOverlayId> tileOverlayIdsToRemove;
+  Set<TileOverlay> tileOverlaysToChange;
+
+  bool get isEmpty =>
+      tileOverlaysToAdd.isEmpty &&
+      tileOverlayIdsToRemove.isEmpty &&
+      tileOverlaysToChange.isEmpty;
+
+  Map<String, dynamic> _toMap() {
+    final Map<String, dynamic> updateMap = <String, dynamic>{};
+
+    void addIfNonNull(String fieldName, dynamic value) {
+      if (value != null) {
+        updateMap[fieldName] = value;
+      }
+    }
+
+    addIfNonNull(
+        'tileOverlaysToAdd', _serializeTileOverlaySet(tileOverlaysToAdd));
+    addIfNonNull(
+        'tileOverlaysToChange', _serializeTileOverlaySet(tileOverlaysToChange));
+    addIfNonNull(
+        'tileOverlayIdsToRemove',
+        tileOverlayIdsToRemove
+            .map<dynamic>((TileOverlayId m) => m.value)
+            .toList());
+
+    return updateMap;
+  }
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    if (other.runtimeType != runtimeType) return false;
+    final _TileOverlayUpdates typedOther = other;
+    return setEquals(tileOverlaysToAdd, typedOther.tileOverlaysToAdd) &&
+        setEquals(tileOverlayIdsToRemove, typedOther.tileOverlayIdsToRemove) &&
+        setEquals(tileOverlaysToChange, typedOther.tileOverlaysToChange);
+  }
+
+  @override
+  int get hashCode => hashValues(
+      tileOverlaysToAdd, tileOverlayIdsToRemove, tileOverlaysToChange);
+
+  @override
+  String toString() {
+    return '_TileOverlayUpdates{tileOverlaysToAdd: $tileOverlaysToAdd, '
+        'tileOverlayIdsToRemove: $tileOverlayIdsToRemove, '
+        'tileOverlaysToChange: $tileOverlaysToChange}';
+  }
+}
@@ -2,7 +2,9 @@
 // Use of this source code is governed by a BSD-style license that can be
 // found in the LICENSE file.
 
+import 'dart:async';
 import 'dart:typed_data';
+import 'dart:ui' show Color;
 
 import 'package:flutter/services.dart';
 import 'package:flutter_test/flutter_test.dart';
@@ -19,6 +21,8 @@ class FakePlatformGoogleMap {
     updatePolygons(params);
     updatePolylines(params);
     updateCircles(params);
+    updateTileOverlays(params);
+    updateHeatmaps(params);
   }
 
   MethodChannel channel;
@@ -51,6 +55,14 @@ class FakePlatformGoogleMap {
 
   List<dynamic> padding;
 
+  double simplificationTolerance;
+
+  MarkerClustering markerClustering;
+
+  MarkerVirtualization markerVirtualization;
+
+  CameraMoveThrottle cameraMoveThrottle;
+
   Set<MarkerId> markerIdsToRemove;
 
   Set<Marker> markersToAdd;
@@ -69,12 +81,32 @@ class FakePlatformGoogleMap {
 
   Set<Polyline> polylinesToChange;
 
+  Map<PolylineId, List<LatLng>> appendedPolylinePoints;
+
   Set<CircleId> circleIdsToRemove;
 
   Set<Circle> circlesToAdd;
 
   Set<Circle> circlesToChange;
 
+  Set<String> tileOverlayIdsToRemove;
+
+  List<Map<dynamic, dynamic>> tileOverlaysToAdd;
+
+  List<Map<dynamic, dynamic>> tileOverlaysToChange;
+
+  List<String> clearedTileCaches = <String>[];
+
+  Set<String> heatmapIdsToRemove;
+
+  List<Map<dynamic, dynamic>> heatmapsToAdd;
+
+  List<Map<dynamic, dynamic>> heatmapsToChange;
+
+  Map<String, dynamic> registeredIcons = <String, dynamic>{};
+
+  List<Map<dynamic, dynamic>> snapshotRequests = <Map<dynamic, dynamic>>[];
+
   Future<dynamic> onMethodCall(MethodCall call) {
     switch (call.method) {
       case 'map#update':
@@ -92,6 +124,26 @@ class FakePlatformGoogleMap {
       case 'circles#update':
         updateCircles(call.arguments);
         return Future<void>.sync(() {});
+      case 'tileOverlays#update':
+        updateTileOverlays(call.arguments);
+        return Future<void>.sync(() {});
+      case 'heatmaps#update':
+        updateHeatmaps(call.arguments);
+        return Future<void>.sync(() {});
+      case 'tileOverlays#clearTileCache':
+        clearedTileCaches.add(call.arguments['tileOverlayId']);
+        return Future<void>.sync(() {});
+      case 'icons#register':
+        registeredIcons[call.arguments['iconId']] = call.arguments['icon'];
+        return Future<void>.sync(() {});
+      case 'icons#unregister':
+        registeredIcons.remove(call.arguments['iconId']);
+        return Future<void>.sync(() {});
+      case 'map#takeSnapshot':
+        snapshotRequests.add(call.arguments);
+        return Future<Uint8List>.sync(() => call.arguments['path'] == null
+            ? Uint8List.fromList(<int>[1, 2, 3])
+            : null);
       default:
         return Future<void>.sync(() {});
     }
@@ -101,10 +153,85 @@ class FakePlatformGoogleMap {
     if (markerUpdates == null) {
       return;
     }
-    markersToAdd = _deserializeMarkers(markerUpdates['markersToAdd']);
+    if (markerUpdates.containsKey('markerFields')) {
+      _deserializePackedMarkers(markerUpdates);
+    } else {
+      markersToAdd = _deserializeMarkers(markerUpdates['markersToAdd']);
+      markersToChange = _deserializeMarkers(markerUpdates['markersToChange']);
+    }
     markerIdsToRemove =
         _deserializeMarkerIds(markerUpdates['markerIdsToRemove']);
-    markersToChange = _deserializeMarkers(markerUpdates['markersToChange']);
+  }
+
+  // Mirrors the field bits of the packed marker updates in marker.dart.
+  static const int _kMarkerAlpha = 1 << 0;
+  static const int _kMarkerAnchor = 1 << 1;
+  static const int _kMarkerInfoWindow = 1 << 6;
+  static const int _kMarkerPosition = 1 << 7;
+  static const int _kMarkerRotation = 1 << 8;
+  static const int _kMarkerVisible = 1 << 9;
+  static const int _kMarkerZIndex = 1 << 10;
+  static const int _kMarkerDraggableValue = 1 << 17;
+  static const int _kMarkerVisibleValue = 1 << 19;
+
+  void _deserializePackedMarkers(Map<dynamic, dynamic> markerUpdates) {
+    final List<dynamic> markerIds = markerUpdates['markerIds'];
+    final int addedMarkerCount = markerUpdates['addedMarkerCount'];
+    final Int32List fields = markerUpdates['markerFields'];
+    final Float64List values = markerUpdates['markerValues'];
+    final List<dynamic> strings = markerUpdates['markerStrings'];
+    int value = 0;
+    int string = 0;
+
+    // TODO(iskakaushik): Remove this when collection literals makes it to stable.
+    // https://github.com/flutter/flutter/issues/28312
+    // ignore: prefer_collection_literals
+    markersToAdd = Set<Marker>();
+    // ignore: prefer_collection_literals
+    markersToChange = Set<Marker>();
+    for (int i = 0; i < fields.length; i++) {
+      final int bits = fields[i];
+      if (bits & _kMarkerAlpha != 0) {
+        value++;
+      }
+      if (bits & _kMarkerAnchor != 0) {
+        value += 2;
+      }
+      InfoWindow infoWindow = InfoWindow.noText;
+      if (bits & _kMarkerInfoWindow != 0) {
+        infoWindow = InfoWindow(
+          title: strings[string++],
+          snippet: strings[string++],
+        );
+        value += 2;
+      }
+      LatLng position = const LatLng(0.0, 0.0);
+      if (bits & _kMarkerPosition != 0) {
+        position = LatLng(values[value], values[value + 1]);
+        value += 2;
+      }
+      if (bits & _kMarkerRotation != 0) {
+        value++;
+      }
+      if (bits & _kMarkerZIndex != 0) {
+        value++;
+      }
+
+      final Marker marker = Marker(
+        markerId: MarkerId(markerIds[i]),
+        draggable: bits & _kMarkerDraggableValue != 0,
+        visible:
+            bits & _kMarkerVisible == 0 || bits & _kMarkerVisibleValue != 0,
+        infoWindow: infoWindow,
+        position: position,
+      );
+      if (i < addedMarkerCount) {
+        markersToAdd.add(marker);
+      } else {
+        markersToChange.add(marker);
+      }
+    }
+    assert(value == values.length);
   }
 
   Set<MarkerId> _deserializeMarkerIds(List<dynamic> markerIds) {
@@ -206,6 +333,7 @@ class FakePlatformGoogleMap {
     if (polylineUpdates == null) {
       return;
     }
+    appendedPolylinePoints = <PolylineId, List<LatLng>>{};
     polylinesToAdd = _deserializePolylines(polylineUpdates['polylinesToAdd']);
     polylineIdsToRemove =
         _deserializePolylineIds(polylineUpdates['polylineIdsToRemove']);
@@ -242,10 +370,16 @@ class FakePlatformGoogleMap {
       final bool visible = polylineData['visible'];
       final bool geodesic = polylineData['geodesic'];
 
+      if (polylineData['appendedPoints'] != null) {
+        appendedPolylinePoints[PolylineId(polylineId)] =
+            _unpackPoints(polylineData['appendedPoints']);
+      }
+
       result.add(Polyline(
         polylineId: PolylineId(polylineId),
         visible: visible,
         geodesic: geodesic,
+        points: _unpackPoints(polylineData['packedPoints']),
       ));
     }
 
@@ -262,6 +396,57 @@ class FakePlatformGoogleMap {
     circlesToChange = _deserializeCircles(circleUpdates['circlesToChange']);
   }
 
+  void updateTileOverlays(Map<dynamic, dynamic> tileOverlayUpdates) {
+    if (tileOverlayUpdates == null) {
+      return;
+    }
+    tileOverlaysToAdd =
+        _deserializeTileOverlays(tileOverlayUpdates['tileOverlaysToAdd']);
+    tileOverlayIdsToRemove = Set<String>.from(
+        tileOverlayUpdates['tileOverlayIdsToRemove'] ?? <dynamic>[]);
+    tileOverlaysToChange =
+        _deserializeTileOverlays(tileOverlayUpdates['tileOverlaysToChange']);
+  }
+
+  List<Map<dynamic, dynamic>> _deserializeTileOverlays(dynamic tileOverlays) {
+    if (tileOverlays == null) {
+      return <Map<dynamic, dynamic>>[];
+    }
+    return List<Map<dynamic, dynamic>>.from(tileOverlays);
+  }
+
+  void updateHeatmaps(Map<dynamic, dynamic> heatmapUpdates) {
+    if (heatmapUpdates == null) {
+      return;
+    }
+    heatmapsToAdd = List<Map<dynamic, dynamic>>.from(
+        heatmapUpdates['heatmapsToAdd'] ?? <dynamic>[]);
+    heatmapIdsToRemove =
+        Set<String>.from(heatmapUpdates['heatmapIdsToRemove'] ?? <dynamic>[]);
+    heatmapsToChange = List<Map<dynamic, dynamic>>.from(
+        heatmapUpdates['heatmapsToChange'] ?? <dynamic>[]);
+  }
+
+  /// Asks the Dart side for a tile, like the platform tile provider does.
+  Future<dynamic> getTile(String tileOverlayId, int x, int y, int zoom) {
+    final Completer<dynamic> reply = Completer<dynamic>();
+    // TODO(hterkelsen): Remove this when defaultBinaryMessages is in stable.
+    // https://github.com/flutter/flutter/issues/33446
+    // ignore: deprecated_member_use
+    BinaryMessages.handlePlatformMessage(
+      channel.name,
+      channel.codec
+          .encodeMethodCall(MethodCall('tileOverlay#getTile', <String, dynamic>{
+        'tileOverlayId': tileOverlayId,
+        'x': x,
+        'y': y,
+        'zoom': zoom,
+      })),
+      (ByteData data) => reply.complete(channel.codec.decodeEnvelope(data)),
+    );
+    return reply.future;
+  }
+
   Set<CircleId> _deserializeCircleIds(List<dynamic> circleIds) {
     if (circleIds == null) {
       // TODO(iskakaushik): Remove this when collection literals makes it to stable.
@@ -299,6 +484,17 @@ class FakePlatformGoogleMap {
     return result;
   }
 
+  List<LatLng> _unpackPoints(Float64List packed) {
+    final List<LatLng> points = <LatLng>[];
+    if (packed == null) {
+      return points;
+    }
+    for (int i = 0; i < packed.length; i += 2) {
+      points.add(LatLng(packed[i], packed[i + 1]));
+    }
+    return points;
+  }
+
   void updateOptions(Map<dynamic, dynamic> options) {
     if (options.containsKey('compassEnabled')) {
       compassEnabled = options['compassEnabled'];
@@ -344,6 +540,40 @@ class FakePlatformGoogleMap {
     if (options.containsKey('padding')) {
       padding = options['padding'];
     }
+    if (options.containsKey('simplificationTolerance')) {
+      simplificationTolerance = options['simplificationTolerance'];
+    }
+    if (options.containsKey('markerClustering')) {
+      final List<dynamic> clusteringList = options['markerClustering'];
+      markerClustering = clusteringList[0] == null
+          ? MarkerClustering.disabled
+          : MarkerClustering(
+              gridSize: clusteringList[0],
+              minClusterSize: clusteringList[1],
+              color: Color(clusteringList[2]),
+            );
+    }
+    if (options.containsKey('markerVirtualization')) {
+      final List<dynamic> virtualizationList = options['markerVirtualization'];
+      markerVirtualization = virtualizationList[0] == null
+          ? MarkerVirtualization.disabled
+          : MarkerVirtualization(
+              margin: virtualizationList[0],
+              maxRecycledMarkers: virtualizationList[1],
+              maxVisibleMarkers: virtualizationList[2],
+            );
+    }
+    if (options.containsKey('cameraMoveThrottle')) {
+      final List<dynamic> throttleList = options['cameraMoveThrottle'];
+      cameraMoveThrottle = throttleList[0] == null
+          ? CameraMoveThrottle.none
+          : CameraMoveThrottle(
+              maxEventsPerSecond: throttleList[0],
+              minDistance: throttleList[1],
+              minZoomDelta: throttleList[2],
+              latestOnly: throttleList[3],
+            );
+    }
   }
 }
 
@@ -498,4 +498,182 @@ void main() {
 
     expect(platformGoogleMap.padding, <double>[60, 50, 80, 70]);
   });
+
+  testWidgets('Can register icons', (WidgetTester tester) async {
+    GoogleMapController controller;
+    await tester.pumpWidget(
+      Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition:
+              const CameraPosition(target: LatLng(10.0, 15.0)),
+          onMapCreated: (GoogleMapController value) => controller = value,
+        ),
+      ),
+    );
+
+    await tester.pump();
+    expect(controller, isNotNull);
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+
+    final BitmapDescriptor icon = await controller.registerIcon(
+        'blue', BitmapDescriptor.defaultMarkerWithHue(240.0));
+
+    expect(platformGoogleMap.registeredIcons['blue'],
+        <dynamic>['defaultMarker', 240.0]);
+    expect(icon, isNot(BitmapDescriptor.defaultMarker));
+
+    await controller.unregisterIcon('blue');
+
+    expect(platformGoogleMap.registeredIcons, isEmpty);
+  });
+
+  testWidgets('Can take snapshots', (WidgetTester tester) async {
+    GoogleMapController controller;
+    await tester.pumpWidget(
+      Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition:
+              const CameraPosition(target: LatLng(10.0, 15.0)),
+          onMapCreated: (GoogleMapController value) => controller = value,
+        ),
+      ),
+    );
+
+    await tester.pump();
+    expect(controller, isNotNull);
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+
+    expect(await controller.takeSnapshot(), <int>[1, 2, 3]);
+    await controller.saveSnapshot('/tmp/map.jpg',
+        format: SnapshotFormat.jpeg, quality: 80);
+
+    expect(platformGoogleMap.snapshotRequests, <Map<dynamic, dynamic>>[
+      <dynamic, dynamic>{'format': 0, 'quality': 100},
+      <dynamic, dynamic>{'format': 1, 'quality': 80, 'path': '/tmp/map.jpg'},
+    ]);
+  });
+
+  testWidgets('Can update markerClustering', (WidgetTester tester) async {
+    await tester.pumpWidget(
+      const Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition: CameraPosition(target: LatLng(10.0, 15.0)),
+        ),
+      ),
+    );
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+
+    expect(platformGoogleMap.markerClustering, MarkerClustering.disabled);
+
+    await tester.pumpWidget(
+      const Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition: CameraPosition(target: LatLng(10.0, 15.0)),
+          markerClustering: MarkerClustering(gridSize: 80.0),
+        ),
+      ),
+    );
+
+    expect(platformGoogleMap.markerClustering,
+        const MarkerClustering(gridSize: 80.0));
+  });
+
+  testWidgets('Can update markerVirtualization', (WidgetTester tester) async {
+    await tester.pumpWidget(
+      const Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition: CameraPosition(target: LatLng(10.0, 15.0)),
+        ),
+      ),
+    );
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+
+    expect(platformGoogleMap.markerVirtualization,
+        MarkerVirtualization.disabled);
+
+    await tester.pumpWidget(
+      const Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition: CameraPosition(target: LatLng(10.0, 15.0)),
+          markerVirtualization: MarkerVirtualization(margin: 0.25),
+        ),
+      ),
+    );
+
+    expect(platformGoogleMap.markerVirtualization,
+        const MarkerVirtualization(margin: 0.25));
+  });
+
+  testWidgets('Can update cameraMoveThrottle', (WidgetTester tester) async {
+    await tester.pumpWidget(
+      const Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition: CameraPosition(target: LatLng(10.0, 15.0)),
+        ),
+      ),
+    );
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+
+    expect(platformGoogleMap.cameraMoveThrottle, CameraMoveThrottle.none);
+
+    await tester.pumpWidget(
+      const Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition: CameraPosition(target: LatLng(10.0, 15.0)),
+          cameraMoveThrottle:
+              CameraMoveThrottle(maxEventsPerSecond: 10, minDistance: 4.0),
+        ),
+      ),
+    );
+
+    expect(platformGoogleMap.cameraMoveThrottle,
+        const CameraMoveThrottle(maxEventsPerSecond: 10, minDistance: 4.0));
+  });
+
+  testWidgets('Can update simplificationTolerance',
+      (WidgetTester tester) async {
+    await tester.pumpWidget(
+      const Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition: CameraPosition(target: LatLng(10.0, 15.0)),
+        ),
+      ),
+    );
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+
+    expect(platformGoogleMap.simplificationTolerance, 0.0);
+
+    await tester.pumpWidget(
+      const Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition: CameraPosition(target: LatLng(10.0, 15.0)),
+          simplificationTolerance: 1.5,
+        ),
+      ),
+    );
+
+    expect(platformGoogleMap.simplificationTolerance, 1.5);
+  });
 }
@@ -0,0 +1,131 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:typed_data';
+
+import 'package:flutter/services.dart';
+import 'package:flutter/widgets.dart';
+import 'package:flutter_test/flutter_test.dart';
+import 'package:google_maps_flutter/google_maps_flutter.dart';
+
+import 'fake_maps_controllers.dart';
+
+Widget _mapWithHeatmaps(Set<Heatmap> heatmaps) {
+  return Directionality(
+    textDirection: TextDirection.ltr,
+    child: GoogleMap(
+      initialCameraPosition: const CameraPosition(target: LatLng(10.0, 15.0)),
+      heatmaps: heatmaps,
+    ),
+  );
+}
+
+void main() {
+  final FakePlatformViewsController fakePlatformViewsController =
+      FakePlatformViewsController();
+
+  setUpAll(() {
+    SystemChannels.platform_views.setMockMethodCallHandler(
+        fakePlatformViewsController.fakePlatformViewsMethodHandler);
+  });
+
+  setUp(() {
+    fakePlatformViewsController.reset();
+  });
+
+  const List<WeightedLatLng> points = <WeightedLatLng>[
+    WeightedLatLng(LatLng(10.0, 15.0)),
+    WeightedLatLng(LatLng(11.0, 16.0), weight: 2.0),
+  ];
+
+  testWidgets('Initializing a heatmap', (WidgetTester tester) async {
+    final Heatmap h1 = Heatmap(heatmapId: HeatmapId('heatmap_1'));
+    await tester.pumpWidget(
+        _mapWithHeatmaps(<Heatmap>{h1.copyWith(pointsParam: points)}));
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformGoogleMap.heatmapsToAdd.length, 1);
+    final Map<dynamic, dynamic> added = platformGoogleMap.heatmapsToAdd.first;
+    expect(added['heatmapId'], 'heatmap_1');
+    expect(added['points'],
+        Float64List.fromList(<double>[10.0, 15.0, 1.0, 11.0, 16.0, 2.0]));
+    expect(added['radius'], 20);
+    expect(added['maxIntensity'], 0.0);
+    expect(added['gradient']['startPoints'], <double>[0.2, 1.0]);
+  });
+
+  testWidgets('Appending points only sends the new ones',
+      (WidgetTester tester) async {
+    final Heatmap h1 = Heatmap(
+        heatmapId: HeatmapId('heatmap_1'), points: points.sublist(0, 1));
+    await tester.pumpWidget(_mapWithHeatmaps(<Heatmap>{h1}));
+    await tester.pumpWidget(
+        _mapWithHeatmaps(<Heatmap>{h1.copyWith(pointsParam: points)}));
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformGoogleMap.heatmapsToChange.length, 1);
+    final Map<dynamic, dynamic> changed =
+        platformGoogleMap.heatmapsToChange.first;
+    expect(changed['points'], isNull);
+    expect(changed['appendedPoints'],
+        Float64List.fromList(<double>[11.0, 16.0, 2.0]));
+  });
+
+  testWidgets('Points appended in place are sent',
+      (WidgetTester tester) async {
+    final List<WeightedLatLng> mutablePoints = <WeightedLatLng>[points[0]];
+    final Heatmap h1 =
+        Heatmap(heatmapId: HeatmapId('heatmap_1'), points: mutablePoints);
+    await tester.pumpWidget(_mapWithHeatmaps(<Heatmap>{h1}));
+    mutablePoints.add(points[1]);
+    await tester.pumpWidget(_mapWithHeatmaps(<Heatmap>{h1}));
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformGoogleMap.heatmapsToChange.length, 1);
+    final Map<dynamic, dynamic> changed =
+        platformGoogleMap.heatmapsToChange.first;
+    expect(changed['points'], isNull);
+    expect(changed['appendedPoints'],
+        Float64List.fromList(<double>[11.0, 16.0, 2.0]));
+  });
+
+  testWidgets('Changing the radius does not resend the points',
+      (WidgetTester tester) async {
+    final Heatmap h1 = Heatmap(heatmapId: HeatmapId('heatmap_1'));
+    final Heatmap h2 = Heatmap(heatmapId: HeatmapId('heatmap_2'));
+    await tester.pumpWidget(_mapWithHeatmaps(<Heatmap>{
+      h1.copyWith(pointsParam: points),
+      h2,
+    }));
+    await tester.pumpWidget(_mapWithHeatmaps(<Heatmap>{
+      h1.copyWith(pointsParam: points, radiusParam: 30),
+      h2.copyWith(),
+    }));
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformGoogleMap.heatmapsToChange.length, 1);
+    final Map<dynamic, dynamic> changed =
+        platformGoogleMap.heatmapsToChange.first;
+    expect(changed['heatmapId'], 'heatmap_1');
+    expect(changed['radius'], 30);
+    expect(changed.containsKey('points'), false);
+    expect(changed.containsKey('appendedPoints'), false);
+  });
+
+  testWidgets('Removing a heatmap', (WidgetTester tester) async {
+    final Heatmap h1 = Heatmap(heatmapId: HeatmapId('heatmap_1'));
+    await tester.pumpWidget(_mapWithHeatmaps(<Heatmap>{h1}));
+    await tester.pumpWidget(_mapWithHeatmaps(null));
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformGoogleMap.heatmapIdsToRemove, <String>{'heatmap_1'});
+    expect(platformGoogleMap.heatmapsToAdd, isEmpty);
+    expect(platformGoogleMap.heatmapsToChange, isEmpty);
+  });
+}
@@ -0,0 +1,79 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:typed_data';
+
+import 'package:flutter/services.dart';
+import 'package:flutter/widgets.dart';
+import 'package:flutter_test/flutter_test.dart';
+import 'package:google_maps_flutter/google_maps_flutter.dart';
+
+void main() {
+  group('$MapSnapshotter', () {
+    final List<MethodCall> log = <MethodCall>[];
+
+    setUp(() {
+      MapSnapshotter.channel
+          .setMockMethodCallHandler((MethodCall methodCall) async {
+        log.add(methodCall);
+        final List<dynamic> snapshots = methodCall.arguments['snapshots'];
+        return snapshots
+            .map<dynamic>((dynamic snapshot) => snapshot['path'] == null
+                ? Uint8List.fromList(<int>[snapshots.indexOf(snapshot)])
+                : null)
+            .toList();
+      });
+      log.clear();
+    });
+
+    test('renders a batch of snapshots', () async {
+      final List<Uint8List> images = await MapSnapshotter.render(
+        <MapSnapshot>[
+          MapSnapshot(
+            cameraUpdate:
+                CameraUpdate.newLatLngZoom(const LatLng(1.0, 2.0), 12.0),
+            polylines: Set<Polyline>.of(<Polyline>[
+              Polyline(
+                polylineId: PolylineId('route'),
+                points: const <LatLng>[LatLng(1.0, 2.0), LatLng(1.5, 2.5)],
+              ),
+            ]),
+          ),
+          MapSnapshot(
+            cameraUpdate: CameraUpdate.newLatLng(const LatLng(3.0, 4.0)),
+            markers: Set<Marker>.of(<Marker>[
+              Marker(markerId: MarkerId('start')),
+            ]),
+            path: '/tmp/second.jpg',
+          ),
+        ],
+        size: const Size(320.0, 180.0),
+        mapType: MapType.terrain,
+        format: SnapshotFormat.jpeg,
+        quality: 75,
+      );
+
+      expect(images, <Uint8List>[
+        Uint8List.fromList(<int>[0]),
+        null,
+      ]);
+      expect(log.single.method, 'snapshots#render');
+      expect(log.single.arguments['width'], 320.0);
+      expect(log.single.arguments['height'], 180.0);
+      expect(log.single.arguments['mapType'], MapType.terrain.index);
+      expect(log.single.arguments['format'], 1);
+      expect(log.single.arguments['quality'], 75);
+      final List<dynamic> snapshots = log.single.arguments['snapshots'];
+      expect(snapshots[0]['cameraUpdate'], <dynamic>[
+        'newLatLngZoom',
+        <double>[1.0, 2.0],
+        12.0
+      ]);
+      expect(snapshots[0]['polylines'], hasLength(1));
+      expect(snapshots[0].containsKey('path'), isFalse);
+      expect(snapshots[1]['markers'][0]['markerId'], 'start');
+      expect(snapshots[1]['path'], '/tmp/second.jpg');
+    });
+  });
+}
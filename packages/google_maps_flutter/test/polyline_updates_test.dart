@@ -197,4 +197,64 @@ void main() {
     // TODO(amirh): enable this test when the issue is fixed.
     skip: true,
   );
+
+  testWidgets("Adding a polyline sends its points",
+      (WidgetTester tester) async {
+    const List<LatLng> points = <LatLng>[
+      LatLng(10.0, 15.0),
+      LatLng(10.5, 15.5),
+    ];
+    const Polyline p1 =
+        Polyline(polylineId: PolylineId("polyline_1"), points: points);
+
+    await tester.pumpWidget(_mapWithPolylines(null));
+    await tester.pumpWidget(_mapWithPolylines(_toSet(p1: p1)));
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformGoogleMap.polylinesToAdd.first.points, points);
+  });
+
+  testWidgets("Appending points only sends the new points",
+      (WidgetTester tester) async {
+    const Polyline p1 = Polyline(
+      polylineId: PolylineId("polyline_1"),
+      points: <LatLng>[LatLng(10.0, 15.0), LatLng(10.5, 15.5)],
+    );
+    final Polyline p2 = p1.copyWith(pointsParam: <LatLng>[
+      const LatLng(10.0, 15.0),
+      const LatLng(10.5, 15.5),
+      const LatLng(11.0, 16.0),
+    ]);
+
+    await tester.pumpWidget(_mapWithPolylines(_toSet(p1: p1)));
+    await tester.pumpWidget(_mapWithPolylines(_toSet(p1: p2)));
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformGoogleMap.polylinesToChange.length, 1);
+    expect(platformGoogleMap.polylinesToChange.first.points, isEmpty);
+    expect(platformGoogleMap.appendedPolylinePoints[p1.polylineId],
+        <LatLng>[const LatLng(11.0, 16.0)]);
+  });
+
+  testWidgets("Points appended in place are sent",
+      (WidgetTester tester) async {
+    final List<LatLng> points = <LatLng>[
+      const LatLng(10.0, 15.0),
+      const LatLng(10.5, 15.5),
+    ];
+    final Polyline p1 =
+        Polyline(polylineId: PolylineId("polyline_1"), points: points);
+
+    await tester.pumpWidget(_mapWithPolylines(_toSet(p1: p1)));
+    points.add(const LatLng(11.0, 16.0));
+    await tester.pumpWidget(_mapWithPolylines(_toSet(p1: p1)));
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformGoogleMap.polylinesToChange.length, 1);
+    expect(platformGoogleMap.appendedPolylinePoints[p1.polylineId],
+        <LatLng>[const LatLng(11.0, 16.0)]);
+  });
 }
@@ -0,0 +1,147 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:typed_data';
+
+import 'package:flutter/services.dart';
+import 'package:flutter/widgets.dart';
+import 'package:flutter_test/flutter_test.dart';
+import 'package:google_maps_flutter/google_maps_flutter.dart';
+
+import 'fake_maps_controllers.dart';
+
+Widget _mapWithTileOverlays(Set<TileOverlay> tileOverlays,
+    {MapCreatedCallback onMapCreated}) {
+  return Directionality(
+    textDirection: TextDirection.ltr,
+    child: GoogleMap(
+      initialCameraPosition: const CameraPosition(target: LatLng(10.0, 15.0)),
+      tileOverlays: tileOverlays,
+      onMapCreated: onMapCreated,
+    ),
+  );
+}
+
+void main() {
+  final FakePlatformViewsController fakePlatformViewsController =
+      FakePlatformViewsController();
+
+  setUpAll(() {
+    SystemChannels.platform_views.setMockMethodCallHandler(
+        fakePlatformViewsController.fakePlatformViewsMethodHandler);
+  });
+
+  setUp(() {
+    fakePlatformViewsController.reset();
+  });
+
+  testWidgets('Initializing a tile overlay', (WidgetTester tester) async {
+    final TileOverlay t1 = TileOverlay(
+      tileOverlayId: TileOverlayId('tiles_1'),
+      urlTemplate: 'https://tiles.example.com/{z}/{x}/{y}.png',
+    );
+    await tester.pumpWidget(_mapWithTileOverlays(<TileOverlay>{t1}));
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformGoogleMap.tileOverlaysToAdd, <Map<dynamic, dynamic>>[
+      <dynamic, dynamic>{
+        'tileOverlayId': 'tiles_1',
+        'urlTemplate': 'https://tiles.example.com/{z}/{x}/{y}.png',
+        'tileSize': 256,
+        'fadeIn': true,
+        'transparency': 0.0,
+        'visible': true,
+        'zIndex': 0.0,
+        'memoryCacheSize': 4 * 1024 * 1024,
+        'diskCacheSize': 32 * 1024 * 1024,
+        'diskCacheMaxAgeMillis': const Duration(days: 7).inMilliseconds,
+      },
+    ]);
+  });
+
+  testWidgets('Provided tiles are only cached on disk if asked to',
+      (WidgetTester tester) async {
+    final TileOverlay t1 = TileOverlay(
+      tileOverlayId: TileOverlayId('tiles_1'),
+      tileProvider: (int x, int y, int zoom) async => null,
+    );
+    final TileOverlay t2 = TileOverlay(
+      tileOverlayId: TileOverlayId('tiles_2'),
+      tileProvider: (int x, int y, int zoom) async => null,
+      diskCacheSize: 1024,
+      diskCacheMaxAge: null,
+    );
+    await tester.pumpWidget(_mapWithTileOverlays(<TileOverlay>{t1, t2}));
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    Map<dynamic, dynamic> added(String id) {
+      return platformGoogleMap.tileOverlaysToAdd.firstWhere(
+          (Map<dynamic, dynamic> t) => t['tileOverlayId'] == id);
+    }
+
+    expect(added('tiles_1')['diskCacheSize'], 0);
+    expect(added('tiles_2')['diskCacheSize'], 1024);
+    expect(added('tiles_2').containsKey('diskCacheMaxAgeMillis'), false);
+  });
+
+  testWidgets('Only changed tile overlays are sent',
+      (WidgetTester tester) async {
+    final TileOverlay t1 = TileOverlay(
+      tileOverlayId: TileOverlayId('tiles_1'),
+      urlTemplate: 'https://tiles.example.com/{z}/{x}/{y}.png',
+    );
+    final TileOverlay t2 = TileOverlay(
+      tileOverlayId: TileOverlayId('tiles_2'),
+      tileProvider: (int x, int y, int zoom) async => null,
+    );
+    await tester.pumpWidget(_mapWithTileOverlays(<TileOverlay>{t1, t2}));
+
+    final TileOverlay t2Hidden = t2.copyWith(visibleParam: false);
+    await tester.pumpWidget(_mapWithTileOverlays(<TileOverlay>{t1, t2Hidden}));
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformGoogleMap.tileOverlaysToAdd, isEmpty);
+    expect(platformGoogleMap.tileOverlayIdsToRemove, isEmpty);
+    expect(platformGoogleMap.tileOverlaysToChange.length, 1);
+    expect(platformGoogleMap.tileOverlaysToChange.first['tileOverlayId'],
+        'tiles_2');
+    expect(platformGoogleMap.tileOverlaysToChange.first['visible'], false);
+    expect(
+        platformGoogleMap.tileOverlaysToChange.first['urlTemplate'], isNull);
+
+    await tester.pumpWidget(_mapWithTileOverlays(<TileOverlay>{t2Hidden}));
+
+    expect(platformGoogleMap.tileOverlayIdsToRemove, <String>{'tiles_1'});
+    expect(platformGoogleMap.tileOverlaysToChange, isEmpty);
+  });
+
+  testWidgets('Tiles come from the tile provider',
+      (WidgetTester tester) async {
+    final List<String> requestedTiles = <String>[];
+    final TileOverlay t1 = TileOverlay(
+      tileOverlayId: TileOverlayId('tiles_1'),
+      tileProvider: (int x, int y, int zoom) async {
+        requestedTiles.add('$zoom/$x/$y');
+        return Uint8List.fromList(<int>[x, y, zoom]);
+      },
+    );
+    GoogleMapController controller;
+    await tester.pumpWidget(_mapWithTileOverlays(<TileOverlay>{t1},
+        onMapCreated: (GoogleMapController value) => controller = value));
+    await tester.pump();
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    expect(await platformGoogleMap.getTile('tiles_1', 1, 2, 3),
+        Uint8List.fromList(<int>[1, 2, 3]));
+    expect(await platformGoogleMap.getTile('unknown', 1, 2, 3), isNull);
+    expect(requestedTiles, <String>['3/1/2']);
+
+    await controller.clearTileCache(TileOverlayId('tiles_1'));
+    expect(platformGoogleMap.clearedTileCaches, <String>['tiles_1']);
+  });
+}
@@ -4,52 +4,498 @@
 
 package io.flutter.plugins.imagepicker;
 
+import android.annotation.TargetApi;
 import android.media.ExifInterface;
+import android.os.Build;
 import android.util.Log;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 class ExifDataCopier {
+  private static final int MARKER_PREFIX = 0xFF;
+  private static final int MARKER_SOI = 0xD8;
+  private static final int MARKER_APP0 = 0xE0;
+  private static final int MARKER_APP1 = 0xE1;
+  private static final int MARKER_SOS = 0xDA;
+  private static final int MARKER_EOI = 0xD9;
+  private static final byte[] EXIF_IDENTIFIER = {'E', 'x', 'i', 'f', 0, 0};
+
+  // Tags pointing to the Exif and GPS sub-IFDs of IFD0.
+  private static final int TAG_EXIF_IFD_POINTER = 0x8769;
+  private static final int TAG_GPS_IFD_POINTER = 0x8825;
+
+  // The tags that are copied, the same as the attributes copied with ExifInterface. Everything
+  // else, such as the pixel dimensions, the thumbnail and the maker notes, is left out.
+  private static final List<Integer> IFD0_TAGS =
+      Arrays.asList(
+          0x010F, // Make
+          0x0110, // Model
+          0x0112, // Orientation
+          0x0132); // DateTime
+  private static final List<Integer> EXIF_IFD_TAGS =
+      Arrays.asList(
+          0x829A, // ExposureTime
+          0x829D, // FNumber
+          0x8827, // ISOSpeedRatings
+          0x9209, // Flash
+          0x920A, // FocalLength
+          0xA403); // WhiteBalance
+  private static final List<Integer> GPS_IFD_TAGS =
+      Arrays.asList(
+          0x0001, // GPSLatitudeRef
+          0x0002, // GPSLatitude
+          0x0003, // GPSLongitudeRef
+          0x0004, // GPSLongitude
+          0x0005, // GPSAltitudeRef
+          0x0006, // GPSAltitude
+          0x0007, // GPSTimeStamp
+          0x001B, // GPSProcessingMethod
+          0x001D); // GPSDateStamp
+
+  /**
+   * Returns an Exif APP1 segment holding the copied tags of the JPEG at {@code filePath}, including
+   * its marker and length, or null if the file isn't a JPEG or has none of these tags.
+   *
+   * <p>Only the headers in front of the image data are read.
+   */
+  byte[] readExifSegment(String filePath) {
+    try {
+      InputStream in = new FileInputStream(filePath);
+      try {
+        return readExifSegment(in);
+      } finally {
+        in.close();
+      }
+    } catch (IOException ex) {
+      Log.e("ExifDataCopier", "Error reading Exif data of selected image: " + ex);
+      return null;
+    }
+  }
+
+  /**
+   * Same as {@link #readExifSegment(String)}, for a JPEG that is read from {@code inputStream}.
+   *
+   * <p>The stream is left open.
+   */
+  byte[] readExifSegment(InputStream inputStream) {
+    try {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+      if (in.readUnsignedByte() != MARKER_PREFIX || in.readUnsignedByte() != MARKER_SOI) {
+        return null;
+      }
+      while (true) {
+        if (in.readUnsignedByte() != MARKER_PREFIX) {
+          return null;
+        }
+        int marker = in.readUnsignedByte();
+        while (marker == MARKER_PREFIX) {
+          marker = in.readUnsignedByte();
+        }
+        if (marker == MARKER_SOS || marker == MARKER_EOI) {
+          return null;
+        }
+        int length = in.readUnsignedShort();
+        if (length < 2) {
+          return null;
+        }
+        byte[] payload = new byte[length - 2];
+        in.readFully(payload);
+        if (marker == MARKER_APP1 && isExif(payload)) {
+          return filterExifSegment(payload);
+        }
+      }
+    } catch (EOFException ex) {
+      return null;
+    } catch (IOException ex) {
+      Log.e("ExifDataCopier", "Error reading Exif data of selected image: " + ex);
+      return null;
+    }
+  }
+
+  /**
+   * Wraps a stream a JPEG is about to be written to, so that {@code exifSegment} ends up right
+   * after its start of image marker, or after its JFIF APP0 segment if it starts with one.
+   *
+   * <p>This writes the Exif data while the image is written, instead of rewriting the file once it
+   * is complete.
+   */
+  OutputStream insertExifSegment(OutputStream out, byte[] exifSegment) {
+    return new ExifInsertingOutputStream(out, exifSegment);
+  }
+
   void copyExif(String filePathOri, String filePathDest) {
     try {
-      ExifInterface oldExif = new ExifInterface(filePathOri);
-      ExifInterface newExif = new ExifInterface(filePathDest);
-
-      List<String> attributes =
-          Arrays.asList(
-              "FNumber",
-              "ExposureTime",
-              "ISOSpeedRatings",
-              "GPSAltitude",
-              "GPSAltitudeRef",
-              "FocalLength",
-              "GPSDateStamp",
-              "WhiteBalance",
-              "GPSProcessingMethod",
-              "GPSTimeStamp",
-              "DateTime",
-              "Flash",
-              "GPSLatitude",
-              "GPSLatitudeRef",
-              "GPSLongitude",
-              "GPSLongitudeRef",
-              "Make",
-              "Model",
-              "Orientation");
-      for (String attribute : attributes) {
-        setIfNotNull(oldExif, newExif, attribute);
-      }
-
-      newExif.saveAttributes();
+      copyExif(new ExifInterface(filePathOri), filePathDest);
+    } catch (Exception ex) {
+      Log.e("ExifDataCopier", "Error preserving Exif data on selected image: " + ex);
+    }
+  }
 
+  /** Copies the Exif data of an image read from {@code inputStream}. Requires API 24. */
+  @TargetApi(Build.VERSION_CODES.N)
+  void copyExif(InputStream inputStream, String filePathDest) {
+    try {
+      copyExif(new ExifInterface(inputStream), filePathDest);
     } catch (Exception ex) {
       Log.e("ExifDataCopier", "Error preserving Exif data on selected image: " + ex);
     }
   }
 
+  private void copyExif(ExifInterface oldExif, String filePathDest) throws IOException {
+    ExifInterface newExif = new ExifInterface(filePathDest);
+
+    List<String> attributes =
+        Arrays.asList(
+            "FNumber",
+            "ExposureTime",
+            "ISOSpeedRatings",
+            "GPSAltitude",
+            "GPSAltitudeRef",
+            "FocalLength",
+            "GPSDateStamp",
+            "WhiteBalance",
+            "GPSProcessingMethod",
+            "GPSTimeStamp",
+            "DateTime",
+            "Flash",
+            "GPSLatitude",
+            "GPSLatitudeRef",
+            "GPSLongitude",
+            "GPSLongitudeRef",
+            "Make",
+            "Model",
+            "Orientation");
+    for (String attribute : attributes) {
+      setIfNotNull(oldExif, newExif, attribute);
+    }
+
+    newExif.saveAttributes();
+  }
+
   private static void setIfNotNull(ExifInterface oldExif, ExifInterface newExif, String property) {
     if (oldExif.getAttribute(property) != null) {
       newExif.setAttribute(property, oldExif.getAttribute(property));
     }
   }
+
+  private static boolean isExif(byte[] payload) {
+    if (payload.length < EXIF_IDENTIFIER.length) {
+      return false;
+    }
+    for (int i = 0; i < EXIF_IDENTIFIER.length; i++) {
+      if (payload[i] != EXIF_IDENTIFIER[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** An entry of an image file directory, with its value in the byte order of the source. */
+  private static class IfdEntry {
+    final int tag;
+    final int type;
+    final int count;
+    final byte[] value;
+
+    IfdEntry(int tag, int type, int count, byte[] value) {
+      this.tag = tag;
+      this.type = type;
+      this.count = count;
+      this.value = value;
+    }
+  }
+
+  /**
+   * Builds a new APP1 segment from the TIFF structure in an Exif APP1 {@code payload}, with only
+   * the copied tags of IFD0 and of its Exif and GPS IFDs. Returns null if there is nothing to copy
+   * or the payload is malformed.
+   */
+  private static byte[] filterExifSegment(byte[] payload) {
+    try {
+      ByteBuffer tiff =
+          ByteBuffer.wrap(payload, EXIF_IDENTIFIER.length, payload.length - EXIF_IDENTIFIER.length)
+              .slice();
+      if (tiff.get(0) == 'I' && tiff.get(1) == 'I') {
+        tiff.order(ByteOrder.LITTLE_ENDIAN);
+      } else if (tiff.get(0) == 'M' && tiff.get(1) == 'M') {
+        tiff.order(ByteOrder.BIG_ENDIAN);
+      } else {
+        return null;
+      }
+      if ((tiff.getShort(2) & 0xFFFF) != 42) {
+        return null;
+      }
+      List<IfdEntry> ifd0 = new ArrayList<>();
+      List<IfdEntry> exifIfd = new ArrayList<>();
+      List<IfdEntry> gpsIfd = new ArrayList<>();
+      for (IfdEntry entry : readIfd(tiff, tiff.getInt(4))) {
+        if (entry.tag == TAG_EXIF_IFD_POINTER) {
+          exifIfd = filterIfd(readIfd(tiff, pointerValue(tiff, entry)), EXIF_IFD_TAGS);
+        } else if (entry.tag == TAG_GPS_IFD_POINTER) {
+          gpsIfd = filterIfd(readIfd(tiff, pointerValue(tiff, entry)), GPS_IFD_TAGS);
+        } else if (IFD0_TAGS.contains(entry.tag)) {
+          ifd0.add(entry);
+        }
+      }
+      if (ifd0.isEmpty() && exifIfd.isEmpty() && gpsIfd.isEmpty()) {
+        return null;
+      }
+      return writeExifSegment(tiff.order(), ifd0, exifIfd, gpsIfd);
+    } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException ex) {
+      Log.e("ExifDataCopier", "Error reading Exif data of selected image: " + ex);
+      return null;
+    }
+  }
+
+  private static List<IfdEntry> readIfd(ByteBuffer tiff, int offset) {
+    int count = tiff.getShort(offset) & 0xFFFF;
+    List<IfdEntry> entries = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int entryOffset = offset + 2 + i * 12;
+      int tag = tiff.getShort(entryOffset) & 0xFFFF;
+      int type = tiff.getShort(entryOffset + 2) & 0xFFFF;
+      int valueCount = tiff.getInt(entryOffset + 4);
+      int size = typeSize(type) * valueCount;
+      if (size <= 0 || size > tiff.capacity()) {
+        continue;
+      }
+      int valueOffset = size <= 4 ? entryOffset + 8 : tiff.getInt(entryOffset + 8);
+      byte[] value = new byte[size];
+      for (int j = 0; j < size; j++) {
+        value[j] = tiff.get(valueOffset + j);
+      }
+      entries.add(new IfdEntry(tag, type, valueCount, value));
+    }
+    return entries;
+  }
+
+  private static List<IfdEntry> filterIfd(List<IfdEntry> entries, List<Integer> tags) {
+    List<IfdEntry> filtered = new ArrayList<>();
+    for (IfdEntry entry : entries) {
+      if (tags.contains(entry.tag)) {
+        filtered.add(entry);
+      }
+    }
+    return filtered;
+  }
+
+  private static int pointerValue(ByteBuffer tiff, IfdEntry entry) {
+    return ByteBuffer.wrap(entry.value).order(tiff.order()).getInt();
+  }
+
+  /** Size of a single value of a TIFF field type, or 0 for unknown types. */
+  private static int typeSize(int type) {
+    switch (type) {
+      case 1: // BYTE
+      case 2: // ASCII
+      case 6: // SBYTE
+      case 7: // UNDEFINED
+        return 1;
+      case 3: // SHORT
+      case 8: // SSHORT
+        return 2;
+      case 4: // LONG
+      case 9: // SLONG
+      case 11: // FLOAT
+        return 4;
+      case 5: // RATIONAL
+      case 10: // SRATIONAL
+      case 12: // DOUBLE
+        return 8;
+      default:
+        return 0;
+    }
+  }
+
+  private static byte[] writeExifSegment(
+      ByteOrder order, List<IfdEntry> ifd0, List<IfdEntry> exifIfd, List<IfdEntry> gpsIfd) {
+    ifd0 = new ArrayList<>(ifd0);
+    int ifd0Offset = 8;
+    int ifd0Size = ifdSize(ifd0.size() + (exifIfd.isEmpty() ? 0 : 1) + (gpsIfd.isEmpty() ? 0 : 1));
+    int exifIfdOffset = ifd0Offset + ifd0Size + dataSize(ifd0);
+    int gpsIfdOffset =
+        exifIfdOffset + (exifIfd.isEmpty() ? 0 : ifdSize(exifIfd.size()) + dataSize(exifIfd));
+    if (!exifIfd.isEmpty()) {
+      ifd0.add(new IfdEntry(TAG_EXIF_IFD_POINTER, 4, 1, intBytes(order, exifIfdOffset)));
+    }
+    if (!gpsIfd.isEmpty()) {
+      ifd0.add(new IfdEntry(TAG_GPS_IFD_POINTER, 4, 1, intBytes(order, gpsIfdOffset)));
+    }
+    int tiffSize =
+        gpsIfdOffset + (gpsIfd.isEmpty() ? 0 : ifdSize(gpsIfd.size()) + dataSize(gpsIfd));
+    int length = 2 + EXIF_IDENTIFIER.length + tiffSize;
+    if (length > 0xFFFF) {
+      return null;
+    }
+
+    ByteBuffer segment = ByteBuffer.allocate(2 + length);
+    segment.put((byte) MARKER_PREFIX).put((byte) MARKER_APP1);
+    segment.putShort((short) length);
+    segment.put(EXIF_IDENTIFIER);
+    ByteBuffer tiff = segment.slice().order(order);
+    tiff.put(order == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+    tiff.put(order == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+    tiff.putShort((short) 42);
+    tiff.putInt(ifd0Offset);
+    writeIfd(tiff, ifd0);
+    if (!exifIfd.isEmpty()) {
+      writeIfd(tiff, exifIfd);
+    }
+    if (!gpsIfd.isEmpty()) {
+      writeIfd(tiff, gpsIfd);
+    }
+    return segment.array();
+  }
+
+  /** Writes an IFD at the position of {@code tiff}, followed by the values that don't fit in it. */
+  private static void writeIfd(ByteBuffer tiff, List<IfdEntry> entries) {
+    Collections.sort(
+        entries,
+        new Comparator<IfdEntry>() {
+          @Override
+          public int compare(IfdEntry a, IfdEntry b) {
+            return a.tag - b.tag;
+          }
+        });
+    int dataOffset = tiff.position() + ifdSize(entries.size());
+    tiff.putShort((short) entries.size());
+    for (IfdEntry entry : entries) {
+      tiff.putShort((short) entry.tag);
+      tiff.putShort((short) entry.type);
+      tiff.putInt(entry.count);
+      if (entry.value.length <= 4) {
+        tiff.put(Arrays.copyOf(entry.value, 4));
+      } else {
+        tiff.putInt(dataOffset);
+        dataOffset += paddedSize(entry.value.length);
+      }
+    }
+    tiff.putInt(0); // No next IFD, which drops the thumbnail of IFD1.
+    for (IfdEntry entry : entries) {
+      if (entry.value.length > 4) {
+        tiff.put(entry.value);
+        tiff.position(tiff.position() + paddedSize(entry.value.length) - entry.value.length);
+      }
+    }
+  }
+
+  private static int ifdSize(int entryCount) {
+    return 2 + entryCount * 12 + 4;
+  }
+
+  private static int dataSize(List<IfdEntry> entries) {
+    int size = 0;
+    for (IfdEntry entry : entries) {
+      if (entry.value.length > 4) {
+        size += paddedSize(entry.value.length);
+      }
+    }
+    return size;
+  }
+
+  // Values are kept at even offsets, as TIFF requires.
+  private static int paddedSize(int size) {
+    return (size + 1) & ~1;
+  }
+
+  private static byte[] intBytes(ByteOrder order, int value) {
+    return ByteBuffer.allocate(4).order(order).putInt(value).array();
+  }
+
+  /**
+   * Writes {@code exifSegment} after the start of image marker, or after the APP0 segment that
+   * directly follows it, as JFIF requires its APP0 segment to come first.
+   *
+   * <p>The bytes following the start of image marker are held back until it is known whether they
+   * start an APP0 segment. Once the segment is inserted, writes go straight to the wrapped stream.
+   */
+  private static class ExifInsertingOutputStream extends FilterOutputStream {
+    // Length of the start of image marker that precedes the inserted segment.
+    private static final int SOI_LENGTH = 2;
+
+    private byte[] exifSegment;
+    private int written = 0;
+    // Offset the segment is inserted at, or -1 until it is known.
+    private int insertAt = -1;
+    // Marker and length of the segment following the start of image marker.
+    private final byte[] pending = new byte[4];
+    private int pendingLength = 0;
+
+    ExifInsertingOutputStream(OutputStream out, byte[] exifSegment) {
+      super(out);
+      this.exifSegment = exifSegment;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      if (exifSegment == null) {
+        out.write(b);
+        return;
+      }
+      if (insertAt >= 0 || written < SOI_LENGTH) {
+        out.write(b);
+        written++;
+        insertIfNeeded();
+        return;
+      }
+      pending[pendingLength++] = (byte) b;
+      if (pendingLength == 2
+          && ((pending[0] & 0xFF) != MARKER_PREFIX || (pending[1] & 0xFF) != MARKER_APP0)) {
+        insertAt = SOI_LENGTH;
+        insertIfNeeded();
+        writePending();
+      } else if (pendingLength == pending.length) {
+        int length = ((pending[2] & 0xFF) << 8) | (pending[3] & 0xFF);
+        insertAt = SOI_LENGTH + 2 + length;
+        writePending();
+        insertIfNeeded();
+      }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      // Only the few bytes in front of the inserted segment are written one by one.
+      while (len > 0 && exifSegment != null) {
+        write(b[off]);
+        off++;
+        len--;
+      }
+      if (len > 0) {
+        out.write(b, off, len);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      writePending();
+      super.close();
+    }
+
+    private void writePending() throws IOException {
+      out.write(pending, 0, pendingLength);
+      written += pendingLength;
+      pendingLength = 0;
+    }
+
+    private void insertIfNeeded() throws IOException {
+      if (exifSegment != null && written == insertAt) {
+        out.write(exifSegment);
+        exifSegment = null;
+      }
+    }
+  }
 }
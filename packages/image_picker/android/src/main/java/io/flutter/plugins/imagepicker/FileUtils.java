@@ -26,16 +26,21 @@ import android.database.Cursor;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Environment;
+import android.os.ParcelFileDescriptor;
 import android.provider.DocumentsContract;
 import android.provider.MediaStore;
 import android.text.TextUtils;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 class FileUtils {
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
 
   String getPathFromUri(final Context context, final Uri uri) {
     String path = getPathFromLocalUri(context, uri);
@@ -45,8 +50,9 @@ class FileUtils {
     return path;
   }
 
+  /** Returns the path of a file the {@code uri} refers to, or null if there is none. */
   @SuppressLint("NewApi")
-  private String getPathFromLocalUri(final Context context, final Uri uri) {
+  String getPathFromLocalUri(final Context context, final Uri uri) {
     final boolean isKitKat = Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT;
 
     if (isKitKat && DocumentsContract.isDocumentUri(context, uri)) {
@@ -136,20 +142,45 @@ class FileUtils {
   private static String getPathFromRemoteUri(final Context context, final Uri uri) {
     // The code below is why Java now has try-with-resources and the Files utility.
     File file = null;
+    ParcelFileDescriptor fileDescriptor = null;
     InputStream inputStream = null;
-    OutputStream outputStream = null;
+    FileOutputStream outputStream = null;
     boolean success = false;
     try {
       String extension = getImageExtension(uri);
-      inputStream = context.getContentResolver().openInputStream(uri);
-      file = File.createTempFile("image_picker", extension, context.getCacheDir());
-      outputStream = new FileOutputStream(file);
+      fileDescriptor = openFileDescriptor(context, uri);
+      if (fileDescriptor != null) {
+        inputStream = new FileInputStream(fileDescriptor.getFileDescriptor());
+      } else {
+        // Providers that only serve streams, e.g. piped or generated content, have no descriptor.
+        inputStream = context.getContentResolver().openInputStream(uri);
+      }
       if (inputStream != null) {
-        copy(inputStream, outputStream);
+        file = File.createTempFile("image_picker", extension, context.getCacheDir());
+        outputStream = new FileOutputStream(file);
+        long size = fileDescriptor != null ? fileDescriptor.getStatSize() : -1;
+        if (size >= 0) {
+          // The descriptor refers to a file, so the kernel can copy it without a user space buffer.
+          long transferred =
+              transfer(
+                  ((FileInputStream) inputStream).getChannel(), outputStream.getChannel(), size);
+          if (transferred < size) {
+            // Descriptors backed by a pipe or a provider can stop short of their stat size. The
+            // stream goes on from where the transfer stopped, until the actual end of the content.
+            outputStream.getChannel().position(transferred);
+            copy(inputStream, outputStream);
+          }
+        } else {
+          copy(inputStream, outputStream);
+        }
         success = true;
       }
     } catch (IOException ignored) {
     } finally {
+      try {
+        if (fileDescriptor != null) fileDescriptor.close();
+      } catch (IOException ignored) {
+      }
       try {
         if (inputStream != null) inputStream.close();
       } catch (IOException ignored) {
@@ -163,9 +194,23 @@ class FileUtils {
         success = false;
       }
     }
+    if (!success && file != null) {
+      file.delete();
+    }
     return success ? file.getPath() : null;
   }
 
+  /** Returns null if the provider can't open the content as a file. */
+  private static ParcelFileDescriptor openFileDescriptor(Context context, Uri uri) {
+    try {
+      return context.getContentResolver().openFileDescriptor(uri, "r");
+    } catch (FileNotFoundException e) {
+      return null;
+    } catch (UnsupportedOperationException e) {
+      return null;
+    }
+  }
+
   /** @return extension of image with dot, or default .jpg if it none. */
   private static String getImageExtension(Uri uriImage) {
     String extension = null;
@@ -187,8 +232,21 @@ class FileUtils {
     return "." + extension;
   }
 
+  /** Returns the number of bytes copied, less than {@code size} if {@code in} ends first. */
+  private static long transfer(FileChannel in, FileChannel out, long size) throws IOException {
+    long position = 0;
+    while (position < size) {
+      long transferred = out.transferFrom(in, position, size - position);
+      if (transferred <= 0) {
+        break;
+      }
+      position += transferred;
+    }
+    return position;
+  }
+
   private static void copy(InputStream in, OutputStream out) throws IOException {
-    final byte[] buffer = new byte[4 * 1024];
+    final byte[] buffer = new byte[COPY_BUFFER_SIZE];
     int bytesRead;
     while ((bytesRead = in.read(buffer)) != -1) {
       out.write(buffer, 0, bytesRead);
@@ -0,0 +1,91 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.imagepicker;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.media.MediaCodecInfo;
+import android.media.MediaCodecList;
+import android.media.MediaFormat;
+import android.os.Build;
+import androidx.heifwriter.HeifWriter;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writes images as HEIF with {@link HeifWriter}.
+ *
+ * <p>The plugin only compiles against {@code androidx.heifwriter}, because its minSdkVersion of 28
+ * would otherwise have to be overridden in every app. Apps that want HEIF output add the dependency
+ * themselves. Without it, {@link HeifWriter} is never used and HEIF falls back to JPEG.
+ */
+class HeifImageWriter {
+  private static final String HEIF_WRITER_CLASS = "androidx.heifwriter.HeifWriter";
+  private static final long TIMEOUT_MS = 10000;
+  private static Boolean available;
+
+  private HeifImageWriter() {}
+
+  /** Whether the app includes HeifWriter and the device has an encoder it can use. */
+  static synchronized boolean isAvailable() {
+    if (available == null) {
+      // HeifWriter uses an image encoder if there is one, and a video encoder otherwise.
+      available =
+          Build.VERSION.SDK_INT >= Build.VERSION_CODES.P
+              && hasHeifWriter()
+              && (hasEncoderFor("image/vnd.android.heic")
+                  || hasEncoderFor(MediaFormat.MIMETYPE_VIDEO_HEVC));
+    }
+    return available;
+  }
+
+  private static boolean hasHeifWriter() {
+    try {
+      Class.forName(HEIF_WRITER_CLASS, false, HeifImageWriter.class.getClassLoader());
+      return true;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+  private static boolean hasEncoderFor(String mimeType) {
+    for (MediaCodecInfo info : new MediaCodecList(MediaCodecList.REGULAR_CODECS).getCodecInfos()) {
+      if (!info.isEncoder()) {
+        continue;
+      }
+      for (String type : info.getSupportedTypes()) {
+        if (type.equalsIgnoreCase(mimeType)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /** Only call this if {@link #isAvailable()} returned true. */
+  @TargetApi(Build.VERSION_CODES.P)
+  static void write(Bitmap bitmap, File imageFile, int quality) throws IOException {
+    HeifWriter writer =
+        new HeifWriter.Builder(
+                imageFile.getPath(),
+                bitmap.getWidth(),
+                bitmap.getHeight(),
+                HeifWriter.INPUT_MODE_BITMAP)
+            .setQuality(quality)
+            .build();
+    try {
+      writer.start();
+      writer.addBitmap(bitmap);
+      writer.stop(TIMEOUT_MS);
+    } catch (IOException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException("Unable to encode image " + imageFile.getName(), e);
+    } finally {
+      writer.close();
+    }
+  }
+}
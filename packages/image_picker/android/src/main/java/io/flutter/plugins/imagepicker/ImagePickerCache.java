@@ -18,6 +18,8 @@ class ImagePickerCache {
   static final String MAP_KEY_MAX_WIDTH = "maxWidth";
   static final String MAP_KEY_MAX_HEIGHT = "maxHeight";
   static final String MAP_KEY_IMAGE_QUALITY = "imageQuality";
+  static final String MAP_KEY_OUTPUT_FORMAT = "outputFormat";
+  static final String MAP_KEY_MAX_BYTES = "maxBytes";
   private static final String MAP_KEY_TYPE = "type";
   private static final String MAP_KEY_ERROR_CODE = "errorCode";
   private static final String MAP_KEY_ERROR_MESSAGE = "errorMessage";
@@ -31,6 +33,9 @@ class ImagePickerCache {
   private static final String SHARED_PREFERENCE_MAX_HEIGHT_KEY = "flutter_image_picker_max_height";
   private static final String SHARED_PREFERENCE_IMAGE_QUALITY_KEY =
       "flutter_image_picker_image_quality";
+  private static final String SHARED_PREFERENCE_OUTPUT_FORMAT_KEY =
+      "flutter_image_picker_output_format";
+  private static final String SHARED_PREFERENCE_MAX_BYTES_KEY = "flutter_image_picker_max_bytes";
   private static final String SHARED_PREFERENCE_TYPE_KEY = "flutter_image_picker_type";
   private static final String SHARED_PREFERENCE_PENDING_IMAGE_URI_PATH_KEY =
       "flutter_image_picker_pending_image_uri";
@@ -64,6 +69,20 @@ class ImagePickerCache {
             : (int) methodCall.argument(MAP_KEY_IMAGE_QUALITY);
 
     setMaxDimension(maxWidth, maxHeight, imageQuality);
+    setOutputFormat(
+        (Integer) methodCall.argument(MAP_KEY_OUTPUT_FORMAT),
+        (Integer) methodCall.argument(MAP_KEY_MAX_BYTES));
+  }
+
+  private void setOutputFormat(Integer outputFormat, Integer maxBytes) {
+    SharedPreferences.Editor editor = prefs.edit();
+    if (outputFormat != null) {
+      editor.putInt(SHARED_PREFERENCE_OUTPUT_FORMAT_KEY, outputFormat);
+    }
+    if (maxBytes != null) {
+      editor.putInt(SHARED_PREFERENCE_MAX_BYTES_KEY, maxBytes);
+    }
+    editor.apply();
   }
 
   private void setMaxDimension(Double maxWidth, Double maxHeight, int imageQuality) {
@@ -145,6 +164,12 @@ class ImagePickerCache {
         final long maxHeightValue = prefs.getLong(SHARED_PREFERENCE_MAX_HEIGHT_KEY, 0);
         resultMap.put(MAP_KEY_MAX_HEIGHT, Double.longBitsToDouble(maxHeightValue));
       }
+      if (prefs.contains(SHARED_PREFERENCE_OUTPUT_FORMAT_KEY)) {
+        resultMap.put(MAP_KEY_OUTPUT_FORMAT, prefs.getInt(SHARED_PREFERENCE_OUTPUT_FORMAT_KEY, 0));
+      }
+      if (prefs.contains(SHARED_PREFERENCE_MAX_BYTES_KEY)) {
+        resultMap.put(MAP_KEY_MAX_BYTES, prefs.getInt(SHARED_PREFERENCE_MAX_BYTES_KEY, 0));
+      }
       if (prefs.contains(SHARED_PREFERENCE_IMAGE_QUALITY_KEY)) {
         final int imageQuality = prefs.getInt(SHARED_PREFERENCE_IMAGE_QUALITY_KEY, 100);
         resultMap.put(MAP_KEY_MAX_HEIGHT, imageQuality);
@@ -6,12 +6,16 @@ package io.flutter.plugins.imagepicker;
 
 import android.Manifest;
 import android.app.Activity;
+import android.content.ClipData;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.content.pm.ResolveInfo;
 import android.media.MediaScannerConnection;
 import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
 import android.provider.MediaStore;
+import android.util.Log;
 import androidx.annotation.VisibleForTesting;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.FileProvider;
@@ -20,9 +24,14 @@ import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.PluginRegistry;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A delegate class doing the heavy lifting for the plugin.
@@ -62,6 +71,11 @@ import java.util.UUID;
  * Finish with full path for the scaled image as the result.
  *
  * <p>C) User cancels picking an image. Finish with null result.
+ *
+ * <p>Scaling happens on a pool of background threads, the result is delivered back on the main
+ * thread. When several images are picked with {@link #chooseMultiImageFromGallery}, they are scaled
+ * in parallel and every processed image is reported to the {@link OnImageProcessedListener} before
+ * the whole list is returned.
  */
 public class ImagePickerDelegate
     implements PluginRegistry.ActivityResultListener,
@@ -70,6 +84,8 @@ public class ImagePickerDelegate
   @VisibleForTesting static final int REQUEST_CODE_TAKE_IMAGE_WITH_CAMERA = 2343;
   @VisibleForTesting static final int REQUEST_EXTERNAL_IMAGE_STORAGE_PERMISSION = 2344;
   @VisibleForTesting static final int REQUEST_CAMERA_IMAGE_PERMISSION = 2345;
+  @VisibleForTesting static final int REQUEST_CODE_CHOOSE_MULTI_IMAGE_FROM_GALLERY = 2346;
+  @VisibleForTesting static final int REQUEST_EXTERNAL_MULTI_IMAGE_STORAGE_PERMISSION = 2347;
   @VisibleForTesting static final int REQUEST_CODE_CHOOSE_VIDEO_FROM_GALLERY = 2352;
   @VisibleForTesting static final int REQUEST_CODE_TAKE_VIDEO_WITH_CAMERA = 2353;
   @VisibleForTesting static final int REQUEST_EXTERNAL_VIDEO_STORAGE_PERMISSION = 2354;
@@ -80,11 +96,14 @@ public class ImagePickerDelegate
   private final Activity activity;
   private final File externalFilesDirectory;
   private final ImageResizer imageResizer;
+  private final VideoTranscoder videoTranscoder;
   private final ImagePickerCache cache;
   private final PermissionManager permissionManager;
   private final IntentResolver intentResolver;
   private final FileUriResolver fileUriResolver;
   private final FileUtils fileUtils;
+  private final Executor backgroundExecutor;
+  private final Executor mainThreadExecutor;
 
   interface PermissionManager {
     boolean isPermissionGranted(String permissionName);
@@ -108,9 +127,21 @@ public class ImagePickerDelegate
     void onPathReady(String path);
   }
 
+  /** Called on the main thread while a picked video is transcoded. */
+  interface OnVideoProgressListener {
+    void onVideoProgress(int handle, double progress);
+  }
+
+  /** Called on the main thread for every image of a multi-image pick once it was processed. */
+  interface OnImageProcessedListener {
+    void onImageProcessed(int handle, int index, String path, int completed, int total);
+  }
+
   private Uri pendingCameraMediaUri;
   private MethodChannel.Result pendingResult;
   private MethodCall methodCall;
+  private OnImageProcessedListener onImageProcessedListener;
+  private OnVideoProgressListener onVideoProgressListener;
 
   public ImagePickerDelegate(
       final Activity activity,
@@ -121,6 +152,7 @@ public class ImagePickerDelegate
         activity,
         externalFilesDirectory,
         imageResizer,
+        new VideoTranscoder(externalFilesDirectory),
         null,
         null,
         cache,
@@ -167,7 +199,16 @@ public class ImagePickerDelegate
                 });
           }
         },
-        new FileUtils());
+        new FileUtils(),
+        createBackgroundExecutor(),
+        new Executor() {
+          private final Handler handler = new Handler(Looper.getMainLooper());
+
+          @Override
+          public void execute(Runnable runnable) {
+            handler.post(runnable);
+          }
+        });
   }
 
   /**
@@ -179,16 +220,20 @@ public class ImagePickerDelegate
       final Activity activity,
       final File externalFilesDirectory,
       final ImageResizer imageResizer,
+      final VideoTranscoder videoTranscoder,
       final MethodChannel.Result result,
       final MethodCall methodCall,
       final ImagePickerCache cache,
       final PermissionManager permissionManager,
       final IntentResolver intentResolver,
       final FileUriResolver fileUriResolver,
-      final FileUtils fileUtils) {
+      final FileUtils fileUtils,
+      final Executor backgroundExecutor,
+      final Executor mainThreadExecutor) {
     this.activity = activity;
     this.externalFilesDirectory = externalFilesDirectory;
     this.imageResizer = imageResizer;
+    this.videoTranscoder = videoTranscoder;
     this.fileProviderName = activity.getPackageName() + ".flutter.image_provider";
     this.pendingResult = result;
     this.methodCall = methodCall;
@@ -197,6 +242,29 @@ public class ImagePickerDelegate
     this.fileUriResolver = fileUriResolver;
     this.fileUtils = fileUtils;
     this.cache = cache;
+    this.backgroundExecutor = backgroundExecutor;
+    this.mainThreadExecutor = mainThreadExecutor;
+  }
+
+  /**
+   * Returns a pool with one thread per core, whose threads are released again while nothing is
+   * being picked.
+   */
+  private static Executor createBackgroundExecutor() {
+    int threads = Runtime.getRuntime().availableProcessors();
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  void setOnImageProcessedListener(OnImageProcessedListener listener) {
+    this.onImageProcessedListener = listener;
+  }
+
+  void setOnVideoProgressListener(OnVideoProgressListener listener) {
+    this.onVideoProgressListener = listener;
   }
 
   void saveStateBeforeResult() {
@@ -211,26 +279,53 @@ public class ImagePickerDelegate
     }
   }
 
-  void retrieveLostImage(MethodChannel.Result result) {
-    Map<String, Object> resultMap = cache.getCacheMap();
-    String path = (String) resultMap.get(cache.MAP_KEY_PATH);
-    if (path != null) {
-      Double maxWidth = (Double) resultMap.get(cache.MAP_KEY_MAX_WIDTH);
-      Double maxHeight = (Double) resultMap.get(cache.MAP_KEY_MAX_HEIGHT);
-      int imageQuality =
-          resultMap.get(cache.MAP_KEY_IMAGE_QUALITY) == null
-              ? 100
-              : (int) resultMap.get(cache.MAP_KEY_IMAGE_QUALITY);
-
-      String newPath = imageResizer.resizeImageIfNeeded(path, maxWidth, maxHeight, imageQuality);
-      resultMap.put(cache.MAP_KEY_PATH, newPath);
-    }
-    if (resultMap.isEmpty()) {
-      result.success(null);
-    } else {
-      result.success(resultMap);
-    }
+  void retrieveLostImage(final MethodChannel.Result result) {
+    final Map<String, Object> resultMap = cache.getCacheMap();
     cache.clear();
+    final String path = (String) resultMap.get(cache.MAP_KEY_PATH);
+    if (path == null) {
+      result.success(resultMap.isEmpty() ? null : resultMap);
+      return;
+    }
+    final Double maxWidth = (Double) resultMap.get(cache.MAP_KEY_MAX_WIDTH);
+    final Double maxHeight = (Double) resultMap.get(cache.MAP_KEY_MAX_HEIGHT);
+    final int imageQuality =
+        resultMap.get(cache.MAP_KEY_IMAGE_QUALITY) == null
+            ? 100
+            : (int) resultMap.get(cache.MAP_KEY_IMAGE_QUALITY);
+    final ImageResizer.OutputFormat outputFormat =
+        ImageResizer.OutputFormat.fromIndex((Integer) resultMap.get(cache.MAP_KEY_OUTPUT_FORMAT));
+    final Integer maxBytes = (Integer) resultMap.get(cache.MAP_KEY_MAX_BYTES);
+
+    backgroundExecutor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            final String newPath;
+            try {
+              newPath =
+                  imageResizer.resizeImageIfNeeded(
+                      path, maxWidth, maxHeight, imageQuality, outputFormat, maxBytes);
+            } catch (final RuntimeException e) {
+              mainThreadExecutor.execute(
+                  new Runnable() {
+                    @Override
+                    public void run() {
+                      result.error("resize_failed", e.getMessage(), null);
+                    }
+                  });
+              return;
+            }
+            mainThreadExecutor.execute(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    resultMap.put(cache.MAP_KEY_PATH, newPath);
+                    result.success(resultMap);
+                  }
+                });
+          }
+        });
   }
 
   public void chooseVideoFromGallery(MethodCall methodCall, MethodChannel.Result result) {
@@ -312,6 +407,31 @@ public class ImagePickerDelegate
     activity.startActivityForResult(pickImageIntent, REQUEST_CODE_CHOOSE_IMAGE_FROM_GALLERY);
   }
 
+  public void chooseMultiImageFromGallery(MethodCall methodCall, MethodChannel.Result result) {
+    if (!setPendingMethodCallAndResult(methodCall, result)) {
+      finishWithAlreadyActiveError(result);
+      return;
+    }
+
+    if (!permissionManager.isPermissionGranted(Manifest.permission.READ_EXTERNAL_STORAGE)) {
+      permissionManager.askForPermission(
+          Manifest.permission.READ_EXTERNAL_STORAGE,
+          REQUEST_EXTERNAL_MULTI_IMAGE_STORAGE_PERMISSION);
+      return;
+    }
+
+    launchPickMultiImageFromGalleryIntent();
+  }
+
+  private void launchPickMultiImageFromGalleryIntent() {
+    Intent pickImageIntent = new Intent(Intent.ACTION_GET_CONTENT);
+    pickImageIntent.setType("image/*");
+    // Ignored before API 18, where the gallery returns a single image.
+    pickImageIntent.putExtra(Intent.EXTRA_ALLOW_MULTIPLE, true);
+
+    activity.startActivityForResult(pickImageIntent, REQUEST_CODE_CHOOSE_MULTI_IMAGE_FROM_GALLERY);
+  }
+
   public void takeImageWithCamera(MethodCall methodCall, MethodChannel.Result result) {
     if (!setPendingMethodCallAndResult(methodCall, result)) {
       finishWithAlreadyActiveError(result);
@@ -405,6 +525,11 @@ public class ImagePickerDelegate
           launchPickVideoFromGalleryIntent();
         }
         break;
+      case REQUEST_EXTERNAL_MULTI_IMAGE_STORAGE_PERMISSION:
+        if (permissionGranted) {
+          launchPickMultiImageFromGalleryIntent();
+        }
+        break;
       case REQUEST_CAMERA_IMAGE_PERMISSION:
         if (permissionGranted) {
           launchTakeImageWithCameraIntent();
@@ -423,6 +548,7 @@ public class ImagePickerDelegate
       switch (requestCode) {
         case REQUEST_EXTERNAL_IMAGE_STORAGE_PERMISSION:
         case REQUEST_EXTERNAL_VIDEO_STORAGE_PERMISSION:
+        case REQUEST_EXTERNAL_MULTI_IMAGE_STORAGE_PERMISSION:
           finishWithError("photo_access_denied", "The user did not allow photo access.");
           break;
         case REQUEST_CAMERA_IMAGE_PERMISSION:
@@ -444,6 +570,9 @@ public class ImagePickerDelegate
       case REQUEST_CODE_TAKE_IMAGE_WITH_CAMERA:
         handleCaptureImageResult(resultCode);
         break;
+      case REQUEST_CODE_CHOOSE_MULTI_IMAGE_FROM_GALLERY:
+        handleChooseMultiImageResult(resultCode, data);
+        break;
       case REQUEST_CODE_CHOOSE_VIDEO_FROM_GALLERY:
         handleChooseVideoResult(resultCode, data);
         break;
@@ -459,8 +588,37 @@ public class ImagePickerDelegate
 
   private void handleChooseImageResult(int resultCode, Intent data) {
     if (resultCode == Activity.RESULT_OK && data != null) {
-      String path = fileUtils.getPathFromUri(activity, data.getData());
-      handleImageResult(path, false);
+      final Uri uri = data.getData();
+      if (methodCall == null) {
+        finishWithSuccess(fileUtils.getPathFromUri(activity, uri));
+        return;
+      }
+      final Double maxWidth = methodCall.argument("maxWidth");
+      final Double maxHeight = methodCall.argument("maxHeight");
+      final int imageQuality =
+          methodCall.argument("imageQuality") == null
+              ? 100
+              : (int) methodCall.argument("imageQuality");
+      final ImageResizer.OutputFormat outputFormat =
+          ImageResizer.OutputFormat.fromIndex(methodCall.<Integer>argument("outputFormat"));
+      final Integer maxBytes = methodCall.argument("maxBytes");
+
+      backgroundExecutor.execute(
+          new Runnable() {
+            @Override
+            public void run() {
+              String finalImagePath;
+              try {
+                finalImagePath =
+                    getScaledImagePath(
+                        uri, maxWidth, maxHeight, imageQuality, outputFormat, maxBytes);
+              } catch (RuntimeException e) {
+                finishOnMainThreadWithError("resize_failed", e.getMessage());
+                return;
+              }
+              finishOnMainThreadWithSuccess(finalImagePath);
+            }
+          });
       return;
     }
 
@@ -468,10 +626,31 @@ public class ImagePickerDelegate
     finishWithSuccess(null);
   }
 
+  private void handleChooseMultiImageResult(int resultCode, Intent data) {
+    if (resultCode == Activity.RESULT_OK && data != null) {
+      List<Uri> uris = new ArrayList<>();
+      ClipData clipData = data.getClipData();
+      if (clipData != null) {
+        for (int i = 0; i < clipData.getItemCount(); i++) {
+          uris.add(clipData.getItemAt(i).getUri());
+        }
+      } else if (data.getData() != null) {
+        uris.add(data.getData());
+      }
+      if (!uris.isEmpty()) {
+        handleMultiImageResult(uris);
+        return;
+      }
+    }
+
+    // User cancelled choosing pictures.
+    finishWithSuccess(null);
+  }
+
   private void handleChooseVideoResult(int resultCode, Intent data) {
     if (resultCode == Activity.RESULT_OK && data != null) {
       String path = fileUtils.getPathFromUri(activity, data.getData());
-      handleVideoResult(path);
+      handleVideoResult(path, false);
       return;
     }
 
@@ -507,7 +686,7 @@ public class ImagePickerDelegate
           new OnPathReadyListener() {
             @Override
             public void onPathReady(String path) {
-              handleVideoResult(path);
+              handleVideoResult(path, true);
             }
           });
       return;
@@ -517,31 +696,201 @@ public class ImagePickerDelegate
     finishWithSuccess(null);
   }
 
-  private void handleImageResult(String path, boolean shouldDeleteOriginalIfScaled) {
+  private void handleImageResult(final String path, final boolean shouldDeleteOriginalIfScaled) {
     if (methodCall != null) {
-      Double maxWidth = methodCall.argument("maxWidth");
-      Double maxHeight = methodCall.argument("maxHeight");
-      int imageQuality =
+      final Double maxWidth = methodCall.argument("maxWidth");
+      final Double maxHeight = methodCall.argument("maxHeight");
+      final int imageQuality =
           methodCall.argument("imageQuality") == null
               ? 100
               : (int) methodCall.argument("imageQuality");
+      final ImageResizer.OutputFormat outputFormat =
+          ImageResizer.OutputFormat.fromIndex(methodCall.<Integer>argument("outputFormat"));
+      final Integer maxBytes = methodCall.argument("maxBytes");
 
-      String finalImagePath =
-          imageResizer.resizeImageIfNeeded(path, maxWidth, maxHeight, imageQuality);
-
-      finishWithSuccess(finalImagePath);
-
-      //delete original file if scaled
-      if (finalImagePath != null && !finalImagePath.equals(path) && shouldDeleteOriginalIfScaled) {
-        new File(path).delete();
-      }
+      backgroundExecutor.execute(
+          new Runnable() {
+            @Override
+            public void run() {
+              final String finalImagePath;
+              try {
+                finalImagePath =
+                    imageResizer.resizeImageIfNeeded(
+                        path, maxWidth, maxHeight, imageQuality, outputFormat, maxBytes);
+              } catch (RuntimeException e) {
+                finishOnMainThreadWithError("resize_failed", e.getMessage());
+                return;
+              }
+
+              //delete original file if scaled
+              if (finalImagePath != null
+                  && !finalImagePath.equals(path)
+                  && shouldDeleteOriginalIfScaled) {
+                new File(path).delete();
+              }
+
+              finishOnMainThreadWithSuccess(finalImagePath);
+            }
+          });
     } else {
       finishWithSuccess(path);
     }
   }
 
-  private void handleVideoResult(String path) {
-    finishWithSuccess(path);
+  /**
+   * Returns the path of the picked image at {@code uri}, scaled if needed. Must be called on a
+   * background thread.
+   *
+   * <p>Images that aren't local files are scaled straight from the content resolver. They are only
+   * copied to a file when they are returned unchanged.
+   */
+  private String getScaledImagePath(
+      Uri uri,
+      Double maxWidth,
+      Double maxHeight,
+      int imageQuality,
+      ImageResizer.OutputFormat outputFormat,
+      Integer maxBytes) {
+    String path = fileUtils.getPathFromLocalUri(activity, uri);
+    if (path == null) {
+      String scaledPath =
+          imageResizer.resizeImageFromUriIfNeeded(
+              activity.getContentResolver(),
+              uri,
+              maxWidth,
+              maxHeight,
+              imageQuality,
+              outputFormat,
+              maxBytes);
+      if (scaledPath != null) {
+        return scaledPath;
+      }
+      path = fileUtils.getPathFromUri(activity, uri);
+    }
+    if (path == null) {
+      return null;
+    }
+    return imageResizer.resizeImageIfNeeded(
+        path, maxWidth, maxHeight, imageQuality, outputFormat, maxBytes);
+  }
+
+  /**
+   * Resolves and scales every picked image on the background pool.
+   *
+   * <p>The results are collected on the main thread, in the order the images were picked. Images
+   * that couldn't be read are reported with a null path and left out of the result.
+   */
+  private void handleMultiImageResult(final List<Uri> uris) {
+    if (methodCall == null) {
+      // The activity was recreated, the images can't be returned to anyone.
+      return;
+    }
+    Integer handleArgument = methodCall.argument("handle");
+    final int handle = handleArgument == null ? 0 : handleArgument;
+    final Double maxWidth = methodCall.argument("maxWidth");
+    final Double maxHeight = methodCall.argument("maxHeight");
+    final int imageQuality =
+        methodCall.argument("imageQuality") == null
+            ? 100
+            : (int) methodCall.argument("imageQuality");
+    final ImageResizer.OutputFormat outputFormat =
+        ImageResizer.OutputFormat.fromIndex(methodCall.<Integer>argument("outputFormat"));
+    final Integer maxBytes = methodCall.argument("maxBytes");
+    final int total = uris.size();
+    final String[] paths = new String[total];
+    final int[] completed = {0};
+
+    for (int i = 0; i < total; i++) {
+      final int index = i;
+      final Uri uri = uris.get(i);
+      backgroundExecutor.execute(
+          new Runnable() {
+            @Override
+            public void run() {
+              String resolvedPath = null;
+              try {
+                resolvedPath =
+                    getScaledImagePath(
+                        uri, maxWidth, maxHeight, imageQuality, outputFormat, maxBytes);
+              } catch (RuntimeException e) {
+                Log.e("ImagePickerDelegate", "Unable to process picked image " + uri, e);
+              }
+              final String finalImagePath = resolvedPath;
+              mainThreadExecutor.execute(
+                  new Runnable() {
+                    @Override
+                    public void run() {
+                      paths[index] = finalImagePath;
+                      completed[0]++;
+                      if (onImageProcessedListener != null) {
+                        onImageProcessedListener.onImageProcessed(
+                            handle, index, finalImagePath, completed[0], total);
+                      }
+                      if (completed[0] == total) {
+                        List<String> result = new ArrayList<>();
+                        for (String path : paths) {
+                          if (path != null) {
+                            result.add(path);
+                          }
+                        }
+                        finishWithPaths(result);
+                      }
+                    }
+                  });
+            }
+          });
+    }
+  }
+
+  private void handleVideoResult(
+      final String path, final boolean shouldDeleteOriginalIfTranscoded) {
+    final VideoTranscoder.Constraints constraints =
+        methodCall == null
+            ? null
+            : VideoTranscoder.Constraints.fromMap(
+                methodCall.<Map<String, Object>>argument("videoConstraints"));
+    if (path == null || constraints == null) {
+      finishWithSuccess(path);
+      return;
+    }
+    Integer handleArgument = methodCall.argument("handle");
+    final int handle = handleArgument == null ? 0 : handleArgument;
+
+    backgroundExecutor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            String finalVideoPath;
+            try {
+              finalVideoPath =
+                  videoTranscoder.transcodeIfNeeded(
+                      path,
+                      constraints,
+                      new VideoTranscoder.ProgressListener() {
+                        @Override
+                        public void onProgress(final double progress) {
+                          mainThreadExecutor.execute(
+                              new Runnable() {
+                                @Override
+                                public void run() {
+                                  if (onVideoProgressListener != null) {
+                                    onVideoProgressListener.onVideoProgress(handle, progress);
+                                  }
+                                }
+                              });
+                        }
+                      });
+            } catch (IOException | RuntimeException e) {
+              finishOnMainThreadWithError("transcode_failed", e.getMessage());
+              return;
+            }
+
+            if (!finalVideoPath.equals(path) && shouldDeleteOriginalIfTranscoded) {
+              new File(path).delete();
+            }
+            finishOnMainThreadWithSuccess(finalVideoPath);
+          }
+        });
   }
 
   private boolean setPendingMethodCallAndResult(
@@ -568,6 +917,35 @@ public class ImagePickerDelegate
     clearMethodCallAndResult();
   }
 
+  private void finishWithPaths(List<String> paths) {
+    if (pendingResult == null) {
+      // Lost multi-image results are not cached for retrieveLostData.
+      return;
+    }
+    pendingResult.success(paths);
+    clearMethodCallAndResult();
+  }
+
+  private void finishOnMainThreadWithSuccess(final String imagePath) {
+    mainThreadExecutor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            finishWithSuccess(imagePath);
+          }
+        });
+  }
+
+  private void finishOnMainThreadWithError(final String errorCode, final String errorMessage) {
+    mainThreadExecutor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            finishWithError(errorCode, errorMessage);
+          }
+        });
+  }
+
   private void finishWithAlreadyActiveError(MethodChannel.Result result) {
     result.error("already_active", "Image picker is already active", null);
   }
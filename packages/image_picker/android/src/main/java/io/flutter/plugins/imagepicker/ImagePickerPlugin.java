@@ -15,11 +15,14 @@ import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.PluginRegistry;
 import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
 
 public class ImagePickerPlugin implements MethodChannel.MethodCallHandler {
 
   static final String METHOD_CALL_IMAGE = "pickImage";
   static final String METHOD_CALL_VIDEO = "pickVideo";
+  static final String METHOD_CALL_MULTI_IMAGE = "pickMultiImage";
   private static final String METHOD_CALL_RETRIEVE = "retrieve";
 
   private static final String CHANNEL = "plugins.flutter.io/image_picker";
@@ -47,6 +50,30 @@ public class ImagePickerPlugin implements MethodChannel.MethodCallHandler {
     final ImageResizer imageResizer = new ImageResizer(externalFilesDirectory, exifDataCopier);
     final ImagePickerDelegate delegate =
         new ImagePickerDelegate(registrar.activity(), externalFilesDirectory, imageResizer, cache);
+    delegate.setOnImageProcessedListener(
+        new ImagePickerDelegate.OnImageProcessedListener() {
+          @Override
+          public void onImageProcessed(
+              int handle, int index, String path, int completed, int total) {
+            Map<String, Object> arguments = new HashMap<>();
+            arguments.put("handle", handle);
+            arguments.put("index", index);
+            arguments.put("path", path);
+            arguments.put("completed", completed);
+            arguments.put("total", total);
+            channel.invokeMethod("multiImageProgress", arguments);
+          }
+        });
+    delegate.setOnVideoProgressListener(
+        new ImagePickerDelegate.OnVideoProgressListener() {
+          @Override
+          public void onVideoProgress(int handle, double progress) {
+            Map<String, Object> arguments = new HashMap<>();
+            arguments.put("handle", handle);
+            arguments.put("progress", progress);
+            channel.invokeMethod("videoTranscodeProgress", arguments);
+          }
+        });
 
     registrar.addActivityResultListener(delegate);
     registrar.addRequestPermissionsResultListener(delegate);
@@ -176,6 +203,9 @@ public class ImagePickerPlugin implements MethodChannel.MethodCallHandler {
             throw new IllegalArgumentException("Invalid video source: " + imageSource);
         }
         break;
+      case METHOD_CALL_MULTI_IMAGE:
+        delegate.chooseMultiImageFromGallery(call, result);
+        break;
       case METHOD_CALL_RETRIEVE:
         delegate.retrieveLostImage(result);
         break;
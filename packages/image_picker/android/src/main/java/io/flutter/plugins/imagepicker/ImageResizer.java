@@ -4,15 +4,67 @@
 
 package io.flutter.plugins.imagepicker;
 
+import android.content.ContentResolver;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.os.Build;
 import android.util.Log;
-import java.io.ByteArrayOutputStream;
+import android.webkit.MimeTypeMap;
+import androidx.annotation.VisibleForTesting;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.UUID;
 
 class ImageResizer {
+  /** The format a scaled image is written in, in the order of the Dart {@code ImageFormat}. */
+  enum OutputFormat {
+    JPEG(".jpg"),
+    PNG(".png"),
+    WEBP(".webp"),
+    WEBP_LOSSLESS(".webp"),
+    HEIF(".heic");
+
+    final String extension;
+
+    OutputFormat(String extension) {
+      this.extension = extension;
+    }
+
+    static OutputFormat fromIndex(Integer index) {
+      if (index == null || index < 0 || index >= values().length) {
+        return null;
+      }
+      return values()[index];
+    }
+
+    boolean isLossless() {
+      return this == PNG || this == WEBP_LOSSLESS;
+    }
+  }
+
+  /** Writes the scaled image at a quality and returns the size of the written file. */
+  @VisibleForTesting
+  interface QualityEncoder {
+    long encode(int quality) throws IOException;
+  }
+
+  private static final String TAG = "ImageResizer";
+
+  /** Where an original image is read from. It may be opened more than once. */
+  private interface ImageSource {
+    InputStream open() throws IOException;
+
+    void copyExifTo(String filePathDest);
+  }
+
   private final File externalFilesDirectory;
   private final ExifDataCopier exifDataCopier;
 
@@ -28,29 +80,157 @@ class ImageResizer {
    * <p>If no resizing is needed, returns the path for the original image.
    */
   String resizeImageIfNeeded(
-      String imagePath, Double maxWidth, Double maxHeight, int imageQuality) {
-    boolean shouldScale =
-        maxWidth != null || maxHeight != null || (imageQuality > -1 && imageQuality < 101);
-
-    if (!shouldScale) {
+      String imagePath,
+      Double maxWidth,
+      Double maxHeight,
+      int imageQuality,
+      OutputFormat outputFormat,
+      Integer maxBytes) {
+    if (!shouldScale(maxWidth, maxHeight, imageQuality, outputFormat, maxBytes)) {
       return imagePath;
     }
 
+    final String path = imagePath;
+    ImageSource source =
+        new ImageSource() {
+          @Override
+          public InputStream open() throws IOException {
+            return new FileInputStream(path);
+          }
+
+          @Override
+          public void copyExifTo(String filePathDest) {
+            exifDataCopier.copyExif(path, filePathDest);
+          }
+        };
     try {
-      File scaledImage = resizedImage(imagePath, maxWidth, maxHeight, imageQuality);
-      exifDataCopier.copyExif(imagePath, scaledImage.getPath());
+      File scaledImage =
+          resizedImage(
+              source,
+              scaledImageName(path),
+              maxWidth,
+              maxHeight,
+              imageQuality,
+              outputFormat,
+              maxBytes);
+      return scaledImage.getPath();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
 
+  /**
+   * If necessary, resizes the image behind a content {@code uri} and returns the path for the
+   * scaled image.
+   *
+   * <p>The image is decoded straight from the content resolver, so the original never has to be
+   * copied to a file. Returns null if no resizing is needed, in which case the caller needs a path
+   * to the original image instead.
+   */
+  String resizeImageFromUriIfNeeded(
+      final ContentResolver contentResolver,
+      final Uri uri,
+      Double maxWidth,
+      Double maxHeight,
+      int imageQuality,
+      OutputFormat outputFormat,
+      Integer maxBytes) {
+    if (!shouldScale(maxWidth, maxHeight, imageQuality, outputFormat, maxBytes)) {
+      return null;
+    }
+
+    ImageSource source =
+        new ImageSource() {
+          @Override
+          public InputStream open() throws IOException {
+            InputStream inputStream = contentResolver.openInputStream(uri);
+            if (inputStream == null) {
+              throw new FileNotFoundException("Unable to open " + uri);
+            }
+            return new BufferedInputStream(inputStream);
+          }
+
+          @Override
+          public void copyExifTo(String filePathDest) {
+            // Reading Exif data from a stream needs API 24.
+            if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N) {
+              return;
+            }
+            try {
+              InputStream inputStream = open();
+              try {
+                exifDataCopier.copyExif(inputStream, filePathDest);
+              } finally {
+                inputStream.close();
+              }
+            } catch (IOException e) {
+              Log.e("ImageResizer", "Unable to read Exif data of " + uri, e);
+            }
+          }
+        };
+    // The last path segment of a content URI may contain separators, e.g. "image:1234", and isn't
+    // unique across providers, so the scaled image gets a name of its own.
+    String name =
+        uniqueImageName(
+            MimeTypeMap.getSingleton().getExtensionFromMimeType(contentResolver.getType(uri)));
+    try {
+      File scaledImage =
+          resizedImage(source, name, maxWidth, maxHeight, imageQuality, outputFormat, maxBytes);
       return scaledImage.getPath();
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
   }
 
-  private File resizedImage(String path, Double maxWidth, Double maxHeight, int imageQuality)
+  /**
+   * Returns the name of the scaled copy of the image at {@code imagePath}.
+   *
+   * <p>Images picked together are scaled at the same time, and files from different folders may
+   * share a name, so only the extension of the original name is kept.
+   */
+  static String scaledImageName(String imagePath) {
+    String fileName = new File(imagePath).getName();
+    int extensionIndex = fileName.lastIndexOf('.');
+    String extension = extensionIndex == -1 ? "" : fileName.substring(extensionIndex + 1);
+    return uniqueImageName(extension.isEmpty() ? null : extension);
+  }
+
+  private static String uniqueImageName(String extension) {
+    String name = UUID.randomUUID().toString();
+    return extension != null ? name + "." + extension : name;
+  }
+
+  private static boolean shouldScale(
+      Double maxWidth,
+      Double maxHeight,
+      int imageQuality,
+      OutputFormat outputFormat,
+      Integer maxBytes) {
+    return maxWidth != null
+        || maxHeight != null
+        || (imageQuality > -1 && imageQuality < 101)
+        || outputFormat != null
+        || maxBytes != null;
+  }
+
+  private File resizedImage(
+      ImageSource source,
+      String imageName,
+      Double maxWidth,
+      Double maxHeight,
+      int imageQuality,
+      OutputFormat outputFormat,
+      Integer maxBytes)
       throws IOException {
-    Bitmap bmp = BitmapFactory.decodeFile(path);
-    double originalWidth = bmp.getWidth() * 1.0;
-    double originalHeight = bmp.getHeight() * 1.0;
+    // Only read the dimensions first, so that the full resolution image never has to be decoded.
+    BitmapFactory.Options options = new BitmapFactory.Options();
+    options.inJustDecodeBounds = true;
+    decode(source, options);
+    if (options.outWidth <= 0 || options.outHeight <= 0) {
+      throw new IOException("Unable to decode image " + imageName);
+    }
+    double originalWidth = options.outWidth * 1.0;
+    double originalHeight = options.outHeight * 1.0;
 
     if (imageQuality < 0 || imageQuality > 100) {
       imageQuality = 100;
@@ -91,26 +271,202 @@ class ImageResizer {
       }
     }
 
-    Bitmap scaledBmp = Bitmap.createScaledBitmap(bmp, width.intValue(), height.intValue(), false);
-    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-    boolean saveAsPNG = bmp.hasAlpha();
-    if (saveAsPNG) {
+    options = new BitmapFactory.Options();
+    options.inSampleSize =
+        calculateInSampleSize(
+            (int) originalWidth, (int) originalHeight, width.intValue(), height.intValue());
+    Bitmap bmp = decode(source, options);
+    if (bmp == null) {
+      throw new IOException("Unable to decode image " + imageName);
+    }
+
+    final Bitmap scaledBmp =
+        Bitmap.createScaledBitmap(bmp, width.intValue(), height.intValue(), false);
+    final OutputFormat format = resolveOutputFormat(outputFormat, bmp.hasAlpha());
+    if (scaledBmp != bmp) {
+      bmp.recycle();
+    }
+    if (format.isLossless() && (imageQuality < 100 || maxBytes != null)) {
       Log.d(
-          "ImageResizer",
-          "image_picker: compressing is not supported for type PNG. Returning the image with original quality");
+          TAG,
+          "image_picker: compressing is not supported for lossless formats. Returning the image with original quality");
     }
-    scaledBmp.compress(
-        saveAsPNG ? Bitmap.CompressFormat.PNG : Bitmap.CompressFormat.JPEG,
-        imageQuality,
-        outputStream);
 
-    String[] pathParts = path.split("/");
-    String imageName = pathParts[pathParts.length - 1];
+    if (outputFormat != null) {
+      int extensionIndex = imageName.lastIndexOf('.');
+      if (extensionIndex != -1) {
+        imageName = imageName.substring(0, extensionIndex);
+      }
+      imageName += format.extension;
+    } else if (imageName.lastIndexOf('.') == -1) {
+      imageName += format.extension;
+    }
 
-    File imageFile = new File(externalFilesDirectory, "/scaled_" + imageName);
-    FileOutputStream fileOutput = new FileOutputStream(imageFile);
-    fileOutput.write(outputStream.toByteArray());
-    fileOutput.close();
+    final File imageFile = new File(externalFilesDirectory, "/scaled_" + imageName);
+    // The Exif data of a JPEG is written along with the image, other files get it copied after.
+    byte[] exifSegment = null;
+    if (format == OutputFormat.JPEG) {
+      InputStream inputStream = source.open();
+      try {
+        exifSegment = exifDataCopier.readExifSegment(inputStream);
+      } finally {
+        inputStream.close();
+      }
+    }
+    final byte[] finalExifSegment = exifSegment;
+    QualityEncoder encoder =
+        new QualityEncoder() {
+          @Override
+          public long encode(int quality) throws IOException {
+            if (format == OutputFormat.HEIF) {
+              HeifImageWriter.write(scaledBmp, imageFile, quality);
+            } else {
+              write(scaledBmp, format, quality, imageFile, finalExifSegment);
+            }
+            return imageFile.length();
+          }
+        };
+    try {
+      if (maxBytes == null || format.isLossless()) {
+        encoder.encode(imageQuality);
+      } else {
+        encodeWithinBudget(encoder, imageQuality, maxBytes);
+        if (imageFile.length() > maxBytes) {
+          Log.d(
+              TAG, "image_picker: the image doesn't fit in " + maxBytes + " bytes at any quality");
+        }
+      }
+    } finally {
+      scaledBmp.recycle();
+    }
+    if (exifSegment == null) {
+      source.copyExifTo(imageFile.getPath());
+    }
     return imageFile;
   }
+
+  /**
+   * Returns the format to write an image in, falling back to one this device can encode.
+   *
+   * <p>Without an explicit format, images with alpha are written as PNG and all others as JPEG.
+   */
+  private static OutputFormat resolveOutputFormat(OutputFormat requested, boolean hasAlpha) {
+    if (requested == null) {
+      return hasAlpha ? OutputFormat.PNG : OutputFormat.JPEG;
+    }
+    // Lossless WebP is written with quality 100 starting with API 29, which compileSdkVersion 28
+    // has no constant for.
+    if (requested == OutputFormat.WEBP_LOSSLESS && Build.VERSION.SDK_INT < 29) {
+      Log.d(TAG, "image_picker: lossless WebP needs Android 10. Writing PNG instead.");
+      return OutputFormat.PNG;
+    }
+    if (requested == OutputFormat.HEIF && !HeifImageWriter.isAvailable()) {
+      Log.d(TAG, "image_picker: HEIF isn't available. Writing JPEG instead.");
+      return OutputFormat.JPEG;
+    }
+    return requested;
+  }
+
+  /**
+   * Calls {@code encoder} with the highest quality up to {@code maxQuality} whose output fits in
+   * {@code maxBytes}, found with a binary search, and returns that quality.
+   *
+   * <p>The last call to {@code encoder} is always made with the returned quality, so its output is
+   * what is left on disk. If even quality 0 doesn't fit, the image is written at quality 0.
+   */
+  @VisibleForTesting
+  static int encodeWithinBudget(QualityEncoder encoder, int maxQuality, long maxBytes)
+      throws IOException {
+    if (encoder.encode(maxQuality) <= maxBytes) {
+      return maxQuality;
+    }
+    int low = 0;
+    int high = maxQuality - 1;
+    int best = -1;
+    int last = maxQuality;
+    while (low <= high) {
+      int quality = (low + high) >>> 1;
+      last = quality;
+      if (encoder.encode(quality) <= maxBytes) {
+        best = quality;
+        low = quality + 1;
+      } else {
+        high = quality - 1;
+      }
+    }
+    if (best == -1) {
+      best = 0;
+    }
+    if (last != best) {
+      encoder.encode(best);
+    }
+    return best;
+  }
+
+  private void write(
+      Bitmap bitmap, OutputFormat format, int quality, File imageFile, byte[] exifSegment)
+      throws IOException {
+    Bitmap.CompressFormat compressFormat;
+    switch (format) {
+      case PNG:
+        compressFormat = Bitmap.CompressFormat.PNG;
+        break;
+      case WEBP:
+        compressFormat = Bitmap.CompressFormat.WEBP;
+        // Starting with API 29, quality 100 writes lossless WebP.
+        if (Build.VERSION.SDK_INT >= 29) {
+          quality = Math.min(quality, 99);
+        }
+        break;
+      case WEBP_LOSSLESS:
+        compressFormat = Bitmap.CompressFormat.WEBP;
+        quality = 100;
+        break;
+      default:
+        compressFormat = Bitmap.CompressFormat.JPEG;
+        break;
+    }
+    OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(imageFile));
+    if (exifSegment != null) {
+      outputStream = exifDataCopier.insertExifSegment(outputStream, exifSegment);
+    }
+    try {
+      if (!bitmap.compress(compressFormat, quality, outputStream)) {
+        throw new IOException("Unable to encode image " + imageFile.getName());
+      }
+    } finally {
+      outputStream.close();
+    }
+  }
+
+  private static Bitmap decode(ImageSource source, BitmapFactory.Options options)
+      throws IOException {
+    InputStream inputStream = source.open();
+    try {
+      return BitmapFactory.decodeStream(inputStream, null, options);
+    } finally {
+      inputStream.close();
+    }
+  }
+
+  /**
+   * Returns the largest power of two that can be used as {@link BitmapFactory.Options#inSampleSize}
+   * while keeping the decoded image at least as large as the target size.
+   *
+   * <p>The decoded bitmap is then at most four times the size of the scaled one, instead of being
+   * proportional to the resolution of the original image.
+   */
+  @VisibleForTesting
+  static int calculateInSampleSize(
+      int originalWidth, int originalHeight, int targetWidth, int targetHeight) {
+    int inSampleSize = 1;
+    if (targetWidth <= 0 || targetHeight <= 0) {
+      return inSampleSize;
+    }
+    while (originalWidth / (inSampleSize * 2) >= targetWidth
+        && originalHeight / (inSampleSize * 2) >= targetHeight) {
+      inSampleSize *= 2;
+    }
+    return inSampleSize;
+  }
 }
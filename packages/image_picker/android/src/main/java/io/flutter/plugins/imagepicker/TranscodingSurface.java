@@ -0,0 +1,286 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.imagepicker;
+
+import android.annotation.TargetApi;
+import android.graphics.SurfaceTexture;
+import android.opengl.EGL14;
+import android.opengl.EGLConfig;
+import android.opengl.EGLContext;
+import android.opengl.EGLDisplay;
+import android.opengl.EGLExt;
+import android.opengl.EGLSurface;
+import android.opengl.GLES11Ext;
+import android.opengl.GLES20;
+import android.os.Build;
+import android.view.Surface;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Connects the output of a video decoder to the input of a video encoder of a different size.
+ *
+ * <p>The decoder renders into a {@link SurfaceTexture}, and every frame is drawn from there onto
+ * the input surface of the encoder with OpenGL, which scales it on the GPU. Frames never have to be
+ * copied into Java buffers.
+ *
+ * <p>Must be created, used and released on the same thread.
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+class TranscodingSurface implements SurfaceTexture.OnFrameAvailableListener {
+  private static final int EGL_RECORDABLE_ANDROID = 0x3142;
+  private static final long FRAME_TIMEOUT_MILLIS = 2500;
+
+  private static final String VERTEX_SHADER =
+      "uniform mat4 uSTMatrix;\n"
+          + "attribute vec4 aPosition;\n"
+          + "attribute vec4 aTextureCoord;\n"
+          + "varying vec2 vTextureCoord;\n"
+          + "void main() {\n"
+          + "  gl_Position = aPosition;\n"
+          + "  vTextureCoord = (uSTMatrix * aTextureCoord).xy;\n"
+          + "}\n";
+
+  private static final String FRAGMENT_SHADER =
+      "#extension GL_OES_EGL_image_external : require\n"
+          + "precision mediump float;\n"
+          + "varying vec2 vTextureCoord;\n"
+          + "uniform samplerExternalOES sTexture;\n"
+          + "void main() {\n"
+          + "  gl_FragColor = texture2D(sTexture, vTextureCoord);\n"
+          + "}\n";
+
+  // X, Y, U, V of a triangle strip covering the whole viewport.
+  private static final float[] VERTICES = {
+    -1f, -1f, 0f, 0f, 1f, -1f, 1f, 0f, -1f, 1f, 0f, 1f, 1f, 1f, 1f, 1f,
+  };
+  private static final int FLOAT_SIZE_BYTES = 4;
+  private static final int VERTEX_STRIDE_BYTES = 4 * FLOAT_SIZE_BYTES;
+
+  private final int width;
+  private final int height;
+  private final Surface encoderSurface;
+  private final float[] textureMatrix = new float[16];
+  private final FloatBuffer vertices;
+  private final Object frameLock = new Object();
+
+  private EGLDisplay eglDisplay = EGL14.EGL_NO_DISPLAY;
+  private EGLContext eglContext = EGL14.EGL_NO_CONTEXT;
+  private EGLSurface eglSurface = EGL14.EGL_NO_SURFACE;
+  private int program;
+  private int textureId;
+  private SurfaceTexture surfaceTexture;
+  private Surface decoderSurface;
+  private boolean frameAvailable = false;
+
+  TranscodingSurface(Surface encoderSurface, int width, int height) throws IOException {
+    this.encoderSurface = encoderSurface;
+    this.width = width;
+    this.height = height;
+    vertices =
+        ByteBuffer.allocateDirect(VERTICES.length * FLOAT_SIZE_BYTES)
+            .order(ByteOrder.nativeOrder())
+            .asFloatBuffer();
+    vertices.put(VERTICES).position(0);
+
+    setUpEgl();
+    setUpProgram();
+
+    int[] textures = new int[1];
+    GLES20.glGenTextures(1, textures, 0);
+    textureId = textures[0];
+    GLES20.glBindTexture(GLES11Ext.GL_TEXTURE_EXTERNAL_OES, textureId);
+    GLES20.glTexParameteri(
+        GLES11Ext.GL_TEXTURE_EXTERNAL_OES, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR);
+    GLES20.glTexParameteri(
+        GLES11Ext.GL_TEXTURE_EXTERNAL_OES, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
+    GLES20.glTexParameteri(
+        GLES11Ext.GL_TEXTURE_EXTERNAL_OES, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
+    GLES20.glTexParameteri(
+        GLES11Ext.GL_TEXTURE_EXTERNAL_OES, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
+    checkGlError("glTexParameter");
+
+    // Frame callbacks arrive on the main looper, since the calling thread has none.
+    surfaceTexture = new SurfaceTexture(textureId);
+    surfaceTexture.setOnFrameAvailableListener(this);
+    decoderSurface = new Surface(surfaceTexture);
+  }
+
+  /** The surface the decoder has to render into. */
+  Surface getDecoderSurface() {
+    return decoderSurface;
+  }
+
+  /**
+   * Waits for the frame the decoder just released, and draws it onto the encoder input with the
+   * given presentation time.
+   */
+  void drawFrame(long presentationTimeNanos) throws IOException {
+    synchronized (frameLock) {
+      long deadline = System.currentTimeMillis() + FRAME_TIMEOUT_MILLIS;
+      while (!frameAvailable) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+          throw new IOException("Timed out waiting for a decoded frame.");
+        }
+        try {
+          frameLock.wait(remaining);
+        } catch (InterruptedException e) {
+          throw new IOException("Interrupted while waiting for a decoded frame.");
+        }
+      }
+      frameAvailable = false;
+    }
+    surfaceTexture.updateTexImage();
+    surfaceTexture.getTransformMatrix(textureMatrix);
+
+    GLES20.glViewport(0, 0, width, height);
+    GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT);
+    GLES20.glUseProgram(program);
+    GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
+    GLES20.glBindTexture(GLES11Ext.GL_TEXTURE_EXTERNAL_OES, textureId);
+
+    int positionHandle = GLES20.glGetAttribLocation(program, "aPosition");
+    vertices.position(0);
+    GLES20.glVertexAttribPointer(
+        positionHandle, 2, GLES20.GL_FLOAT, false, VERTEX_STRIDE_BYTES, vertices);
+    GLES20.glEnableVertexAttribArray(positionHandle);
+
+    int textureCoordHandle = GLES20.glGetAttribLocation(program, "aTextureCoord");
+    vertices.position(2);
+    GLES20.glVertexAttribPointer(
+        textureCoordHandle, 2, GLES20.GL_FLOAT, false, VERTEX_STRIDE_BYTES, vertices);
+    GLES20.glEnableVertexAttribArray(textureCoordHandle);
+
+    GLES20.glUniformMatrix4fv(
+        GLES20.glGetUniformLocation(program, "uSTMatrix"), 1, false, textureMatrix, 0);
+    GLES20.glDrawArrays(GLES20.GL_TRIANGLE_STRIP, 0, 4);
+    checkGlError("glDrawArrays");
+
+    EGLExt.eglPresentationTimeANDROID(eglDisplay, eglSurface, presentationTimeNanos);
+    EGL14.eglSwapBuffers(eglDisplay, eglSurface);
+  }
+
+  @Override
+  public void onFrameAvailable(SurfaceTexture surfaceTexture) {
+    synchronized (frameLock) {
+      frameAvailable = true;
+      frameLock.notifyAll();
+    }
+  }
+
+  void release() {
+    if (eglDisplay != EGL14.EGL_NO_DISPLAY) {
+      EGL14.eglMakeCurrent(
+          eglDisplay, EGL14.EGL_NO_SURFACE, EGL14.EGL_NO_SURFACE, EGL14.EGL_NO_CONTEXT);
+      EGL14.eglDestroySurface(eglDisplay, eglSurface);
+      EGL14.eglDestroyContext(eglDisplay, eglContext);
+      EGL14.eglReleaseThread();
+      EGL14.eglTerminate(eglDisplay);
+    }
+    eglDisplay = EGL14.EGL_NO_DISPLAY;
+    eglContext = EGL14.EGL_NO_CONTEXT;
+    eglSurface = EGL14.EGL_NO_SURFACE;
+    if (decoderSurface != null) {
+      decoderSurface.release();
+      decoderSurface = null;
+    }
+    if (surfaceTexture != null) {
+      surfaceTexture.release();
+      surfaceTexture = null;
+    }
+    encoderSurface.release();
+  }
+
+  private void setUpEgl() throws IOException {
+    eglDisplay = EGL14.eglGetDisplay(EGL14.EGL_DEFAULT_DISPLAY);
+    int[] version = new int[2];
+    if (eglDisplay == EGL14.EGL_NO_DISPLAY
+        || !EGL14.eglInitialize(eglDisplay, version, 0, version, 1)) {
+      throw new IOException("Unable to initialize EGL.");
+    }
+
+    int[] configAttributes = {
+      EGL14.EGL_RED_SIZE,
+      8,
+      EGL14.EGL_GREEN_SIZE,
+      8,
+      EGL14.EGL_BLUE_SIZE,
+      8,
+      EGL14.EGL_RENDERABLE_TYPE,
+      EGL14.EGL_OPENGL_ES2_BIT,
+      EGL_RECORDABLE_ANDROID,
+      1,
+      EGL14.EGL_NONE
+    };
+    EGLConfig[] configs = new EGLConfig[1];
+    int[] configCount = new int[1];
+    if (!EGL14.eglChooseConfig(
+            eglDisplay, configAttributes, 0, configs, 0, configs.length, configCount, 0)
+        || configCount[0] == 0) {
+      throw new IOException("Unable to find a recordable EGL config.");
+    }
+
+    int[] contextAttributes = {EGL14.EGL_CONTEXT_CLIENT_VERSION, 2, EGL14.EGL_NONE};
+    eglContext =
+        EGL14.eglCreateContext(eglDisplay, configs[0], EGL14.EGL_NO_CONTEXT, contextAttributes, 0);
+    checkEglError("eglCreateContext");
+
+    int[] surfaceAttributes = {EGL14.EGL_NONE};
+    eglSurface =
+        EGL14.eglCreateWindowSurface(eglDisplay, configs[0], encoderSurface, surfaceAttributes, 0);
+    checkEglError("eglCreateWindowSurface");
+
+    if (!EGL14.eglMakeCurrent(eglDisplay, eglSurface, eglSurface, eglContext)) {
+      throw new IOException("Unable to make the EGL context current.");
+    }
+  }
+
+  private void setUpProgram() throws IOException {
+    int vertexShader = loadShader(GLES20.GL_VERTEX_SHADER, VERTEX_SHADER);
+    int fragmentShader = loadShader(GLES20.GL_FRAGMENT_SHADER, FRAGMENT_SHADER);
+    program = GLES20.glCreateProgram();
+    GLES20.glAttachShader(program, vertexShader);
+    GLES20.glAttachShader(program, fragmentShader);
+    GLES20.glLinkProgram(program);
+    int[] linkStatus = new int[1];
+    GLES20.glGetProgramiv(program, GLES20.GL_LINK_STATUS, linkStatus, 0);
+    if (linkStatus[0] != GLES20.GL_TRUE) {
+      String log = GLES20.glGetProgramInfoLog(program);
+      GLES20.glDeleteProgram(program);
+      throw new IOException("Unable to link the transcoding program: " + log);
+    }
+  }
+
+  private static int loadShader(int type, String source) throws IOException {
+    int shader = GLES20.glCreateShader(type);
+    GLES20.glShaderSource(shader, source);
+    GLES20.glCompileShader(shader);
+    int[] compiled = new int[1];
+    GLES20.glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, compiled, 0);
+    if (compiled[0] == 0) {
+      String log = GLES20.glGetShaderInfoLog(shader);
+      GLES20.glDeleteShader(shader);
+      throw new IOException("Unable to compile shader: " + log);
+    }
+    return shader;
+  }
+
+  private static void checkEglError(String operation) throws IOException {
+    int error = EGL14.eglGetError();
+    if (error != EGL14.EGL_SUCCESS) {
+      throw new IOException(operation + " failed with EGL error 0x" + Integer.toHexString(error));
+    }
+  }
+
+  private static void checkGlError(String operation) throws IOException {
+    int error = GLES20.glGetError();
+    if (error != GLES20.GL_NO_ERROR) {
+      throw new IOException(operation + " failed with GL error 0x" + Integer.toHexString(error));
+    }
+  }
+}
@@ -0,0 +1,478 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.imagepicker;
+
+import android.annotation.TargetApi;
+import android.media.MediaCodec;
+import android.media.MediaCodecInfo;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import android.os.Build;
+import androidx.annotation.VisibleForTesting;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Shrinks picked videos to fit the constraints passed to {@code pickVideo}.
+ *
+ * <p>Videos that are too large or have too high a bitrate are decoded and re-encoded as H.264 with
+ * the hardware codecs, scaling every frame on the GPU through a {@link TranscodingSurface}. Videos
+ * that only run too long are cut without re-encoding. AAC audio is copied as is and interleaved
+ * with the video by presentation time. Videos with other audio can't be processed and fail.
+ *
+ * <p>Needs API 18. On older versions, the original video is returned unchanged.
+ */
+class VideoTranscoder {
+  private static final String OUTPUT_MIME_TYPE = "video/avc";
+  private static final String AAC_MIME_TYPE = "audio/mp4a-latm";
+  private static final String KEY_ROTATION = "rotation-degrees";
+  private static final int DEFAULT_FRAME_RATE = 30;
+  private static final int I_FRAME_INTERVAL_SECONDS = 1;
+  private static final long TIMEOUT_US = 10000;
+  private static final int SAMPLE_BUFFER_SIZE = 1024 * 1024;
+
+  /** Called with the fraction of the video that was processed so far. */
+  interface ProgressListener {
+    void onProgress(double progress);
+  }
+
+  /** The limits a picked video has to stay within. Null fields aren't limited. */
+  static class Constraints {
+    final Integer maxWidth;
+    final Integer maxHeight;
+    final Integer maxBitrate;
+    final Long maxDurationMicros;
+
+    Constraints(Integer maxWidth, Integer maxHeight, Integer maxBitrate, Long maxDurationMicros) {
+      this.maxWidth = maxWidth;
+      this.maxHeight = maxHeight;
+      this.maxBitrate = maxBitrate;
+      this.maxDurationMicros = maxDurationMicros;
+    }
+
+    /** Reads the constraints sent from Dart, or returns null if there are none. */
+    static Constraints fromMap(Map<String, Object> map) {
+      if (map == null) {
+        return null;
+      }
+      Number maxDurationMillis = (Number) map.get("maxDurationMillis");
+      Constraints constraints =
+          new Constraints(
+              (Integer) map.get("maxWidth"),
+              (Integer) map.get("maxHeight"),
+              (Integer) map.get("maxBitrate"),
+              maxDurationMillis == null ? null : maxDurationMillis.longValue() * 1000);
+      return constraints.isEmpty() ? null : constraints;
+    }
+
+    boolean isEmpty() {
+      return maxWidth == null
+          && maxHeight == null
+          && maxBitrate == null
+          && maxDurationMicros == null;
+    }
+  }
+
+  private final File outputDirectory;
+
+  VideoTranscoder(File outputDirectory) {
+    this.outputDirectory = outputDirectory;
+  }
+
+  /**
+   * Returns the path of a copy of the video at {@code path} that satisfies {@code constraints}, or
+   * {@code path} itself if it already does. Blocks until the video was processed.
+   */
+  String transcodeIfNeeded(String path, Constraints constraints, ProgressListener listener)
+      throws IOException {
+    if (constraints == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2) {
+      return path;
+    }
+    return transcode(path, constraints, listener);
+  }
+
+  @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+  private String transcode(String path, Constraints constraints, ProgressListener listener)
+      throws IOException {
+    MediaExtractor extractor = new MediaExtractor();
+    try {
+      extractor.setDataSource(path);
+      int videoTrack = findTrack(extractor, "video/");
+      if (videoTrack == -1) {
+        return path;
+      }
+      MediaFormat videoFormat = extractor.getTrackFormat(videoTrack);
+      int audioTrack = findTrack(extractor, AAC_MIME_TYPE);
+
+      int width = videoFormat.getInteger(MediaFormat.KEY_WIDTH);
+      int height = videoFormat.getInteger(MediaFormat.KEY_HEIGHT);
+      int rotation = getInteger(videoFormat, KEY_ROTATION, 0);
+      long durationUs = getLong(videoFormat, MediaFormat.KEY_DURATION, 0);
+      int bitrate = getInteger(videoFormat, MediaFormat.KEY_BIT_RATE, 0);
+      if (bitrate <= 0 && durationUs > 0) {
+        bitrate = (int) (new File(path).length() * 8 * 1000000 / durationUs);
+      }
+
+      // The limits apply to the video as it is displayed, which may be rotated.
+      boolean rotated = rotation == 90 || rotation == 270;
+      int[] targetSize =
+          calculateTargetSize(
+              rotated ? height : width,
+              rotated ? width : height,
+              constraints.maxWidth,
+              constraints.maxHeight);
+      int targetWidth = rotated ? targetSize[1] : targetSize[0];
+      int targetHeight = rotated ? targetSize[0] : targetSize[1];
+      int targetBitrate = bitrate;
+      if (targetWidth != width || targetHeight != height) {
+        // Keep the bits per pixel of the original.
+        targetBitrate =
+            (int) ((long) bitrate * targetWidth * targetHeight / ((long) width * height));
+      }
+      if (constraints.maxBitrate != null
+          && (targetBitrate <= 0 || targetBitrate > constraints.maxBitrate)) {
+        targetBitrate = constraints.maxBitrate;
+      }
+      long endUs =
+          constraints.maxDurationMicros != null && durationUs > constraints.maxDurationMicros
+              ? constraints.maxDurationMicros
+              : Long.MAX_VALUE;
+
+      boolean reencode =
+          targetWidth != width || targetHeight != height || (targetBitrate < bitrate);
+      if (!reencode && endUs == Long.MAX_VALUE) {
+        return path;
+      }
+      if (audioTrack == -1 && findTrack(extractor, "audio/") != -1) {
+        throw new IOException("Only videos with AAC audio can be transcoded.");
+      }
+
+      File output = outputFileFor();
+      MediaMuxer muxer =
+          new MediaMuxer(output.getPath(), MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4);
+      // The audio is read with an extractor of its own, so that it can be written as the video
+      // catches up with it.
+      MediaExtractor audioExtractor = null;
+      boolean success = false;
+      try {
+        muxer.setOrientationHint(rotation);
+        long totalUs = Math.min(durationUs, endUs);
+        ProgressReporter progress = new ProgressReporter(listener, totalUs);
+        TrackCopier audio = null;
+        if (audioTrack != -1) {
+          audioExtractor = new MediaExtractor();
+          audioExtractor.setDataSource(path);
+          int muxerAudioTrack = muxer.addTrack(audioExtractor.getTrackFormat(audioTrack));
+          audio = new TrackCopier(audioExtractor, audioTrack, muxer, muxerAudioTrack, endUs, null);
+        }
+        if (reencode) {
+          int frameRate = getInteger(videoFormat, MediaFormat.KEY_FRAME_RATE, DEFAULT_FRAME_RATE);
+          reencodeVideo(
+              extractor,
+              videoTrack,
+              muxer,
+              targetWidth,
+              targetHeight,
+              targetBitrate,
+              frameRate,
+              endUs,
+              progress,
+              audio);
+        } else {
+          int muxerVideoTrack = muxer.addTrack(videoFormat);
+          muxer.start();
+          TrackCopier video =
+              new TrackCopier(extractor, videoTrack, muxer, muxerVideoTrack, endUs, progress);
+          long timeUs;
+          while ((timeUs = video.writeNext()) != -1) {
+            if (audio != null) {
+              audio.writeUntil(timeUs);
+            }
+          }
+        }
+        if (audio != null) {
+          audio.writeUntil(Long.MAX_VALUE);
+        }
+        muxer.stop();
+        success = true;
+      } finally {
+        muxer.release();
+        if (audioExtractor != null) {
+          audioExtractor.release();
+        }
+        if (!success) {
+          output.delete();
+        }
+      }
+      return output.getPath();
+    } finally {
+      extractor.release();
+    }
+  }
+
+  /**
+   * Decodes the video track into a {@link TranscodingSurface} and encodes what it draws.
+   *
+   * <p>Adds the encoded track to {@code muxer} and starts it once the encoder reports its format,
+   * so every other track has to be added before. The samples of {@code audio} are written as the
+   * encoded video reaches their presentation time.
+   */
+  @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+  private void reencodeVideo(
+      MediaExtractor extractor,
+      int track,
+      MediaMuxer muxer,
+      int width,
+      int height,
+      int bitrate,
+      int frameRate,
+      long endUs,
+      ProgressReporter progress,
+      TrackCopier audio)
+      throws IOException {
+    MediaFormat inputFormat = extractor.getTrackFormat(track);
+    // Most encoders only take even sizes.
+    width &= ~1;
+    height &= ~1;
+    MediaFormat outputFormat = MediaFormat.createVideoFormat(OUTPUT_MIME_TYPE, width, height);
+    outputFormat.setInteger(
+        MediaFormat.KEY_COLOR_FORMAT, MediaCodecInfo.CodecCapabilities.COLOR_FormatSurface);
+    outputFormat.setInteger(MediaFormat.KEY_BIT_RATE, bitrate);
+    outputFormat.setInteger(MediaFormat.KEY_FRAME_RATE, frameRate);
+    outputFormat.setInteger(MediaFormat.KEY_I_FRAME_INTERVAL, I_FRAME_INTERVAL_SECONDS);
+
+    MediaCodec encoder = null;
+    MediaCodec decoder = null;
+    TranscodingSurface surface = null;
+    try {
+      encoder = MediaCodec.createEncoderByType(OUTPUT_MIME_TYPE);
+      encoder.configure(outputFormat, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+      surface = new TranscodingSurface(encoder.createInputSurface(), width, height);
+      encoder.start();
+
+      decoder = MediaCodec.createDecoderByType(inputFormat.getString(MediaFormat.KEY_MIME));
+      decoder.configure(inputFormat, surface.getDecoderSurface(), null, 0);
+      decoder.start();
+
+      extractor.selectTrack(track);
+      extractor.seekTo(0, MediaExtractor.SEEK_TO_CLOSEST_SYNC);
+      ByteBuffer[] decoderInputBuffers = decoder.getInputBuffers();
+      ByteBuffer[] encoderOutputBuffers = encoder.getOutputBuffers();
+      MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+      boolean inputDone = false;
+      boolean decoderDone = false;
+      boolean encoderDone = false;
+      int muxerTrack = -1;
+
+      while (!encoderDone) {
+        if (!inputDone) {
+          int inputIndex = decoder.dequeueInputBuffer(TIMEOUT_US);
+          if (inputIndex >= 0) {
+            int size = extractor.readSampleData(decoderInputBuffers[inputIndex], 0);
+            long sampleTimeUs = extractor.getSampleTime();
+            if (size < 0 || sampleTimeUs > endUs) {
+              decoder.queueInputBuffer(inputIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+              inputDone = true;
+            } else {
+              decoder.queueInputBuffer(inputIndex, 0, size, sampleTimeUs, 0);
+              extractor.advance();
+            }
+          }
+        }
+
+        if (!decoderDone) {
+          int outputIndex = decoder.dequeueOutputBuffer(info, TIMEOUT_US);
+          if (outputIndex >= 0) {
+            boolean render = info.size > 0 && info.presentationTimeUs <= endUs;
+            decoder.releaseOutputBuffer(outputIndex, render);
+            if (render) {
+              surface.drawFrame(info.presentationTimeUs * 1000);
+              progress.report(info.presentationTimeUs);
+            }
+            if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+              encoder.signalEndOfInputStream();
+              decoderDone = true;
+            }
+          }
+        }
+
+        int encoderIndex = encoder.dequeueOutputBuffer(info, decoderDone ? TIMEOUT_US : 0);
+        if (encoderIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+          muxerTrack = muxer.addTrack(encoder.getOutputFormat());
+          muxer.start();
+        } else if (encoderIndex == MediaCodec.INFO_OUTPUT_BUFFERS_CHANGED) {
+          encoderOutputBuffers = encoder.getOutputBuffers();
+        } else if (encoderIndex >= 0) {
+          ByteBuffer data = encoderOutputBuffers[encoderIndex];
+          boolean config = (info.flags & MediaCodec.BUFFER_FLAG_CODEC_CONFIG) != 0;
+          if (info.size > 0 && !config) {
+            if (muxerTrack == -1) {
+              throw new IOException("The encoder produced data before its format.");
+            }
+            data.position(info.offset);
+            data.limit(info.offset + info.size);
+            muxer.writeSampleData(muxerTrack, data, info);
+            if (audio != null) {
+              audio.writeUntil(info.presentationTimeUs);
+            }
+          }
+          encoder.releaseOutputBuffer(encoderIndex, false);
+          encoderDone = (info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0;
+        }
+      }
+      extractor.unselectTrack(track);
+    } finally {
+      if (decoder != null) {
+        decoder.release();
+      }
+      if (encoder != null) {
+        encoder.release();
+      }
+      if (surface != null) {
+        surface.release();
+      }
+    }
+  }
+
+  /** Returns the largest size with the aspect ratio of the original that fits within the limits. */
+  @VisibleForTesting
+  static int[] calculateTargetSize(int width, int height, Integer maxWidth, Integer maxHeight) {
+    double scale = 1.0;
+    if (maxWidth != null && width > maxWidth) {
+      scale = Math.min(scale, (double) maxWidth / width);
+    }
+    if (maxHeight != null && height > maxHeight) {
+      scale = Math.min(scale, (double) maxHeight / height);
+    }
+    if (scale == 1.0) {
+      return new int[] {width, height};
+    }
+    return new int[] {
+      Math.max(2, (int) Math.round(width * scale)), Math.max(2, (int) Math.round(height * scale))
+    };
+  }
+
+  /**
+   * Returns a new output file, as videos with the same name may be picked one after the other while
+   * the path of the earlier one is still in use.
+   */
+  private File outputFileFor() {
+    return new File(outputDirectory, UUID.randomUUID().toString() + ".mp4");
+  }
+
+  private static int findTrack(MediaExtractor extractor, String mimePrefix) {
+    for (int i = 0; i < extractor.getTrackCount(); i++) {
+      String mime = extractor.getTrackFormat(i).getString(MediaFormat.KEY_MIME);
+      if (mime != null && mime.startsWith(mimePrefix)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int getInteger(MediaFormat format, String key, int defaultValue) {
+    if (!format.containsKey(key)) {
+      return defaultValue;
+    }
+    try {
+      return format.getInteger(key);
+    } catch (ClassCastException e) {
+      // Some extractors store values like the frame rate as a float.
+      return Math.round(format.getFloat(key));
+    }
+  }
+
+  private static long getLong(MediaFormat format, String key, long defaultValue) {
+    return format.containsKey(key) ? format.getLong(key) : defaultValue;
+  }
+
+  /** Copies the samples of a track up to {@code endUs}, without decoding them. */
+  @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+  private static class TrackCopier {
+    private final MediaExtractor extractor;
+    private final MediaMuxer muxer;
+    private final int muxerTrack;
+    private final long endUs;
+    private final ProgressReporter progress;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(SAMPLE_BUFFER_SIZE);
+    private final MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+    private boolean done;
+
+    TrackCopier(
+        MediaExtractor extractor,
+        int track,
+        MediaMuxer muxer,
+        int muxerTrack,
+        long endUs,
+        ProgressReporter progress) {
+      this.extractor = extractor;
+      this.muxer = muxer;
+      this.muxerTrack = muxerTrack;
+      this.endUs = endUs;
+      this.progress = progress;
+      extractor.selectTrack(track);
+      extractor.seekTo(0, MediaExtractor.SEEK_TO_CLOSEST_SYNC);
+    }
+
+    /** Writes the next sample and returns its presentation time, or -1 if there is none left. */
+    long writeNext() {
+      if (done) {
+        return -1;
+      }
+      int size = extractor.readSampleData(buffer, 0);
+      long sampleTimeUs = extractor.getSampleTime();
+      if (size < 0 || sampleTimeUs > endUs) {
+        done = true;
+        return -1;
+      }
+      int flags = 0;
+      if ((extractor.getSampleFlags() & MediaExtractor.SAMPLE_FLAG_SYNC) != 0) {
+        flags |= MediaCodec.BUFFER_FLAG_SYNC_FRAME;
+      }
+      info.set(0, size, sampleTimeUs, flags);
+      muxer.writeSampleData(muxerTrack, buffer, info);
+      if (progress != null) {
+        progress.report(sampleTimeUs);
+      }
+      extractor.advance();
+      return sampleTimeUs;
+    }
+
+    /** Writes the samples that are presented no later than {@code timeUs}. */
+    void writeUntil(long timeUs) {
+      // The sample time is -1 at the end of the track, where writeNext marks the copier as done.
+      while (!done && extractor.getSampleTime() <= timeUs) {
+        writeNext();
+      }
+    }
+  }
+
+  /** Forwards progress to the listener whenever it grew by at least one percent. */
+  private static class ProgressReporter {
+    private final ProgressListener listener;
+    private final long totalUs;
+    private int lastPercent = -1;
+
+    ProgressReporter(ProgressListener listener, long totalUs) {
+      this.listener = listener;
+      this.totalUs = totalUs;
+    }
+
+    void report(long positionUs) {
+      if (listener == null || totalUs <= 0) {
+        return;
+      }
+      int percent = (int) Math.min(100, positionUs * 100 / totalUs);
+      if (percent > lastPercent) {
+        lastPercent = percent;
+        listener.onProgress(percent / 100.0);
+      }
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package io.flutter.plugins.imagepicker;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+public class ExifDataCopierTest {
+  // Make, Orientation and FNumber, which are copied, and ImageWidth, PixelXDimension, a maker note
+  // and a thumbnail IFD, which are not.
+  private static final byte[] SOURCE_EXIF_SEGMENT =
+      exifSegment(
+          ByteBuffer.allocate(144)
+              .put(new byte[] {'M', 'M', 0, 42})
+              .putInt(8)
+              // IFD0
+              .putShort((short) 4)
+              .put(entry(0x0100, 3, 1, 4000 << 16))
+              .put(entry(0x010F, 2, 5, 62))
+              .put(entry(0x0112, 3, 1, 6 << 16))
+              .put(entry(0x8769, 4, 1, 68))
+              .putInt(126)
+              .put(new byte[] {'A', 'c', 'm', 'e', 0, 0})
+              // Exif IFD
+              .putShort((short) 3)
+              .put(entry(0x829D, 5, 1, 110))
+              .put(entry(0x927C, 7, 8, 118))
+              .put(entry(0xA002, 4, 1, 4000))
+              .putInt(0)
+              .putInt(28)
+              .putInt(10)
+              .put(new byte[] {'S', 'E', 'C', 'R', 'E', 'T', '!', '!'})
+              // IFD1
+              .putShort((short) 1)
+              .put(entry(0x0202, 4, 1, 4))
+              .putInt(0)
+              .array());
+  private static final byte[] EXIF_SEGMENT =
+      exifSegment(
+          ByteBuffer.allocate(82)
+              .put(new byte[] {'M', 'M', 0, 42})
+              .putInt(8)
+              // IFD0
+              .putShort((short) 3)
+              .put(entry(0x010F, 2, 5, 50))
+              .put(entry(0x0112, 3, 1, 6 << 16))
+              .put(entry(0x8769, 4, 1, 56))
+              .putInt(0)
+              .put(new byte[] {'A', 'c', 'm', 'e', 0, 0})
+              // Exif IFD
+              .putShort((short) 1)
+              .put(entry(0x829D, 5, 1, 74))
+              .putInt(0)
+              .putInt(28)
+              .putInt(10)
+              .array());
+  private static final byte[] JFIF_SEGMENT = {(byte) 0xFF, (byte) 0xE0, 0, 4, 'J', 'F'};
+  private static final byte[] SOI = {(byte) 0xFF, (byte) 0xD8};
+  private static final byte[] SOS = {(byte) 0xFF, (byte) 0xDA, 0, 2};
+
+  private final ExifDataCopier exifDataCopier = new ExifDataCopier();
+
+  @Test
+  public void readExifSegment_ReturnsSegmentWithCopiedTagsOnly() throws IOException {
+    File file = writeTempFile(SOI, JFIF_SEGMENT, SOURCE_EXIF_SEGMENT, SOS);
+
+    assertThat(exifDataCopier.readExifSegment(file.getPath()), equalTo(EXIF_SEGMENT));
+  }
+
+  @Test
+  public void readExifSegment_WhenNoCopiedTags_ReturnsNull() throws IOException {
+    byte[] exifSegment =
+        exifSegment(
+            ByteBuffer.allocate(26)
+                .put(new byte[] {'M', 'M', 0, 42})
+                .putInt(8)
+                .putShort((short) 1)
+                .put(entry(0x0100, 3, 1, 4000 << 16))
+                .putInt(0)
+                .array());
+    File file = writeTempFile(SOI, exifSegment, SOS);
+
+    assertThat(exifDataCopier.readExifSegment(file.getPath()), nullValue());
+  }
+
+  @Test
+  public void readExifSegment_WhenMalformed_ReturnsNull() throws IOException {
+    byte[] exifSegment =
+        exifSegment(
+            ByteBuffer.allocate(12)
+                .put(new byte[] {'M', 'M', 0, 42})
+                .putInt(1000)
+                .putInt(0)
+                .array());
+    File file = writeTempFile(SOI, exifSegment, SOS);
+
+    assertThat(exifDataCopier.readExifSegment(file.getPath()), nullValue());
+  }
+
+  @Test
+  public void readExifSegment_WhenNoExifSegment_ReturnsNull() throws IOException {
+    File file = writeTempFile(SOI, JFIF_SEGMENT, SOS);
+
+    assertThat(exifDataCopier.readExifSegment(file.getPath()), nullValue());
+  }
+
+  @Test
+  public void readExifSegment_WhenNotJpeg_ReturnsNull() throws IOException {
+    File file = writeTempFile(new byte[] {(byte) 0x89, 'P', 'N', 'G'});
+
+    assertThat(exifDataCopier.readExifSegment(file.getPath()), nullValue());
+  }
+
+  @Test
+  public void insertExifSegment_WritesSegmentAfterJfifSegment() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    OutputStream out = exifDataCopier.insertExifSegment(bytes, EXIF_SEGMENT);
+
+    out.write(concat(SOI, JFIF_SEGMENT, SOS));
+    out.close();
+
+    assertThat(bytes.toByteArray(), equalTo(concat(SOI, JFIF_SEGMENT, EXIF_SEGMENT, SOS)));
+  }
+
+  @Test
+  public void insertExifSegment_WhenNoJfifSegment_WritesSegmentAfterStartOfImage()
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    OutputStream out = exifDataCopier.insertExifSegment(bytes, EXIF_SEGMENT);
+
+    out.write(concat(SOI, SOS));
+    out.close();
+
+    assertThat(bytes.toByteArray(), equalTo(concat(SOI, EXIF_SEGMENT, SOS)));
+  }
+
+  @Test
+  public void insertExifSegment_WhenWrittenByteByByte_WritesSegmentOnce() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    OutputStream out = exifDataCopier.insertExifSegment(bytes, EXIF_SEGMENT);
+
+    for (byte b : concat(SOI, JFIF_SEGMENT, SOS)) {
+      out.write(b);
+    }
+    out.close();
+
+    assertThat(bytes.toByteArray(), equalTo(concat(SOI, JFIF_SEGMENT, EXIF_SEGMENT, SOS)));
+  }
+
+  private static byte[] entry(int tag, int type, int count, int value) {
+    return ByteBuffer.allocate(12)
+        .putShort((short) tag)
+        .putShort((short) type)
+        .putInt(count)
+        .putInt(value)
+        .array();
+  }
+
+  private static byte[] exifSegment(byte[] tiff) {
+    int length = 2 + 6 + tiff.length;
+    return ByteBuffer.allocate(2 + length)
+        .put((byte) 0xFF)
+        .put((byte) 0xE1)
+        .putShort((short) length)
+        .put(new byte[] {'E', 'x', 'i', 'f', 0, 0})
+        .put(tiff)
+        .array();
+  }
+
+  private static File writeTempFile(byte[]... parts) throws IOException {
+    File file = File.createTempFile("exif", ".jpg");
+    file.deleteOnExit();
+    FileOutputStream out = new FileOutputStream(file);
+    try {
+      out.write(concat(parts));
+    } finally {
+      out.close();
+    }
+    return file;
+  }
+
+  private static byte[] concat(byte[]... parts) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (byte[] part : parts) {
+      out.write(part, 0, part.length);
+    }
+    return out.toByteArray();
+  }
+}
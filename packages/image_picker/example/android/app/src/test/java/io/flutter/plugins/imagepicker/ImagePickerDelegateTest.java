@@ -3,14 +3,17 @@ package io.flutter.plugins.imagepicker;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import android.Manifest;
 import android.app.Activity;
+import android.content.ClipData;
 import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
@@ -18,10 +21,19 @@ import android.net.Uri;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 public class ImagePickerDelegateTest {
   private static final double WIDTH = 10.0;
@@ -30,6 +42,7 @@ public class ImagePickerDelegateTest {
 
   @Mock Activity mockActivity;
   @Mock ImageResizer mockImageResizer;
+  @Mock VideoTranscoder mockVideoTranscoder;
   @Mock MethodCall mockMethodCall;
   @Mock MethodChannel.Result mockResult;
   @Mock ImagePickerDelegate.PermissionManager mockPermissionManager;
@@ -40,6 +53,15 @@ public class ImagePickerDelegateTest {
 
   ImagePickerDelegate.FileUriResolver mockFileUriResolver;
 
+  // Runs the work synchronously so results can be verified right after onActivityResult.
+  private final Executor directExecutor =
+      new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+          runnable.run();
+        }
+      };
+
   private static class MockFileUriResolver implements ImagePickerDelegate.FileUriResolver {
     @Override
     public Uri resolveFileProviderUriForFile(String fileProviderName, File imageFile) {
@@ -62,13 +84,16 @@ public class ImagePickerDelegateTest {
     when(mockFileUtils.getPathFromUri(any(Context.class), any(Uri.class)))
         .thenReturn("pathFromUri");
 
-    when(mockImageResizer.resizeImageIfNeeded("pathFromUri", null, null, IMAGE_QUALITY))
+    when(mockImageResizer.resizeImageIfNeeded("pathFromUri", null, null, IMAGE_QUALITY, null, null))
         .thenReturn("originalPath");
-    when(mockImageResizer.resizeImageIfNeeded("pathFromUri", WIDTH, HEIGHT, IMAGE_QUALITY))
+    when(mockImageResizer.resizeImageIfNeeded(
+            "pathFromUri", WIDTH, HEIGHT, IMAGE_QUALITY, null, null))
         .thenReturn("scaledPath");
-    when(mockImageResizer.resizeImageIfNeeded("pathFromUri", WIDTH, null, IMAGE_QUALITY))
+    when(mockImageResizer.resizeImageIfNeeded(
+            "pathFromUri", WIDTH, null, IMAGE_QUALITY, null, null))
         .thenReturn("scaledPath");
-    when(mockImageResizer.resizeImageIfNeeded("pathFromUri", null, HEIGHT, IMAGE_QUALITY))
+    when(mockImageResizer.resizeImageIfNeeded(
+            "pathFromUri", null, HEIGHT, IMAGE_QUALITY, null, null))
         .thenReturn("scaledPath");
 
     mockFileUriResolver = new MockFileUriResolver();
@@ -310,6 +335,61 @@ public class ImagePickerDelegateTest {
     verifyNoMoreInteractions(mockResult);
   }
 
+  @Test
+  public void
+      onActivityResult_WhenRemoteImagePickedFromGallery_AndResizeNeeded_ScalesWithoutCopying() {
+    when(mockMethodCall.argument("maxWidth")).thenReturn(WIDTH);
+    Uri uri = mockIntent.getData();
+    when(mockImageResizer.resizeImageFromUriIfNeeded(
+            any(),
+            eq(uri),
+            eq(WIDTH),
+            eq((Double) null),
+            eq(IMAGE_QUALITY),
+            eq((ImageResizer.OutputFormat) null),
+            eq((Integer) null)))
+        .thenReturn("scaledFromUriPath");
+
+    ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
+    delegate.onActivityResult(
+        ImagePickerDelegate.REQUEST_CODE_CHOOSE_IMAGE_FROM_GALLERY, Activity.RESULT_OK, mockIntent);
+
+    verify(mockFileUtils, never()).getPathFromUri(any(Context.class), any(Uri.class));
+    verify(mockResult).success("scaledFromUriPath");
+    verifyNoMoreInteractions(mockResult);
+  }
+
+  @Test
+  public void onActivityResult_WhenImagePickedFromGallery_PassesOutputFormatAndMaxBytes() {
+    when(mockMethodCall.argument("outputFormat")).thenReturn(2);
+    when(mockMethodCall.argument("maxBytes")).thenReturn(100000);
+    when(mockImageResizer.resizeImageIfNeeded(
+            "pathFromUri", null, null, IMAGE_QUALITY, ImageResizer.OutputFormat.WEBP, 100000))
+        .thenReturn("webpPath");
+
+    ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
+    delegate.onActivityResult(
+        ImagePickerDelegate.REQUEST_CODE_CHOOSE_IMAGE_FROM_GALLERY, Activity.RESULT_OK, mockIntent);
+
+    verify(mockResult).success("webpPath");
+    verifyNoMoreInteractions(mockResult);
+  }
+
+  @Test
+  public void onActivityResult_WhenImagePickedFromGallery_AndResizeFails_FinishesWithError() {
+    when(mockMethodCall.argument("maxWidth")).thenReturn(WIDTH);
+    when(mockImageResizer.resizeImageIfNeeded(
+            "pathFromUri", WIDTH, null, IMAGE_QUALITY, null, null))
+        .thenThrow(new RuntimeException("Unable to decode image"));
+
+    ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
+    delegate.onActivityResult(
+        ImagePickerDelegate.REQUEST_CODE_CHOOSE_IMAGE_FROM_GALLERY, Activity.RESULT_OK, mockIntent);
+
+    verify(mockResult).error("resize_failed", "Unable to decode image", null);
+    verifyNoMoreInteractions(mockResult);
+  }
+
   @Test
   public void
       onActivityResult_WhenVideoPickedFromGallery_AndResizeParametersSupplied_FinishesWithFilePath() {
@@ -323,6 +403,111 @@ public class ImagePickerDelegateTest {
     verifyNoMoreInteractions(mockResult);
   }
 
+  @Test
+  public void
+      chooseMultiImageFromGallery_WhenHasExternalStoragePermission_LaunchesChooseFromGalleryIntent() {
+    when(mockPermissionManager.isPermissionGranted(Manifest.permission.READ_EXTERNAL_STORAGE))
+        .thenReturn(true);
+
+    ImagePickerDelegate delegate = createDelegate();
+    delegate.chooseMultiImageFromGallery(mockMethodCall, mockResult);
+
+    verify(mockActivity)
+        .startActivityForResult(
+            any(Intent.class),
+            eq(ImagePickerDelegate.REQUEST_CODE_CHOOSE_MULTI_IMAGE_FROM_GALLERY));
+  }
+
+  @Test
+  public void onActivityResult_WhenPickMultiImageCanceled_FinishesWithNull() {
+    ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
+
+    delegate.onActivityResult(
+        ImagePickerDelegate.REQUEST_CODE_CHOOSE_MULTI_IMAGE_FROM_GALLERY,
+        Activity.RESULT_CANCELED,
+        null);
+
+    verify(mockResult).success(null);
+    verifyNoMoreInteractions(mockResult);
+  }
+
+  @Test
+  public void
+      onActivityResult_WhenMultipleImagesPicked_ReportsEveryImage_AndFinishesWithScaledPaths() {
+    when(mockMethodCall.argument("maxWidth")).thenReturn(WIDTH);
+    when(mockMethodCall.argument("handle")).thenReturn(7);
+    ClipData mockClipData = mock(ClipData.class);
+    ClipData.Item mockItem = mock(ClipData.Item.class);
+    when(mockItem.getUri()).thenReturn(mock(Uri.class));
+    when(mockClipData.getItemCount()).thenReturn(2);
+    when(mockClipData.getItemAt(anyInt())).thenReturn(mockItem);
+    when(mockIntent.getClipData()).thenReturn(mockClipData);
+    ImagePickerDelegate.OnImageProcessedListener mockListener =
+        mock(ImagePickerDelegate.OnImageProcessedListener.class);
+
+    ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
+    delegate.setOnImageProcessedListener(mockListener);
+    delegate.onActivityResult(
+        ImagePickerDelegate.REQUEST_CODE_CHOOSE_MULTI_IMAGE_FROM_GALLERY,
+        Activity.RESULT_OK,
+        mockIntent);
+
+    verify(mockListener).onImageProcessed(7, 0, "scaledPath", 1, 2);
+    verify(mockListener).onImageProcessed(7, 1, "scaledPath", 2, 2);
+    verify(mockResult).success(Arrays.asList("scaledPath", "scaledPath"));
+    verifyNoMoreInteractions(mockResult);
+  }
+
+  @Test
+  public void
+      onActivityResult_WhenVideoPickedFromGallery_AndVideoConstraintsSupplied_FinishesWithTranscodedPath()
+          throws Exception {
+    Map<String, Object> constraints = new HashMap<>();
+    constraints.put("maxWidth", 640);
+    when(mockMethodCall.argument("videoConstraints")).thenReturn(constraints);
+    when(mockMethodCall.argument("handle")).thenReturn(3);
+    when(mockVideoTranscoder.transcodeIfNeeded(
+            eq("pathFromUri"), any(VideoTranscoder.Constraints.class), any()))
+        .thenAnswer(
+            new Answer<String>() {
+              @Override
+              public String answer(InvocationOnMock invocation) {
+                VideoTranscoder.ProgressListener listener = invocation.getArgument(2);
+                listener.onProgress(0.5);
+                return "transcodedPath";
+              }
+            });
+    ImagePickerDelegate.OnVideoProgressListener mockListener =
+        mock(ImagePickerDelegate.OnVideoProgressListener.class);
+
+    ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
+    delegate.setOnVideoProgressListener(mockListener);
+    delegate.onActivityResult(
+        ImagePickerDelegate.REQUEST_CODE_CHOOSE_VIDEO_FROM_GALLERY, Activity.RESULT_OK, mockIntent);
+
+    verify(mockListener).onVideoProgress(3, 0.5);
+    verify(mockResult).success("transcodedPath");
+    verifyNoMoreInteractions(mockResult);
+  }
+
+  @Test
+  public void onActivityResult_WhenVideoPickedFromGallery_AndTranscodingFails_FinishesWithError()
+      throws Exception {
+    Map<String, Object> constraints = new HashMap<>();
+    constraints.put("maxBitrate", 1000000);
+    when(mockMethodCall.argument("videoConstraints")).thenReturn(constraints);
+    when(mockVideoTranscoder.transcodeIfNeeded(
+            eq("pathFromUri"), any(VideoTranscoder.Constraints.class), any()))
+        .thenThrow(new IOException("No encoder"));
+
+    ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
+    delegate.onActivityResult(
+        ImagePickerDelegate.REQUEST_CODE_CHOOSE_VIDEO_FROM_GALLERY, Activity.RESULT_OK, mockIntent);
+
+    verify(mockResult).error("transcode_failed", "No encoder", null);
+    verifyNoMoreInteractions(mockResult);
+  }
+
   @Test
   public void onActivityResult_WhenTakeImageWithCameraCanceled_FinishesWithNull() {
     ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
@@ -371,18 +556,60 @@ public class ImagePickerDelegateTest {
     verifyNoMoreInteractions(mockResult);
   }
 
+  @Test
+  public void retrieveLostImage_RepliesOnMainThreadExecutor() {
+    Map<String, Object> lostData = new HashMap<>();
+    lostData.put(ImagePickerCache.MAP_KEY_PATH, "lostPath");
+    lostData.put(ImagePickerCache.MAP_KEY_MAX_WIDTH, WIDTH);
+    when(cache.getCacheMap()).thenReturn(lostData);
+    when(mockImageResizer.resizeImageIfNeeded("lostPath", WIDTH, null, 100, null, null))
+        .thenReturn("scaledPath");
+    final List<Runnable> mainThreadTasks = new ArrayList<>();
+    ImagePickerDelegate delegate =
+        new ImagePickerDelegate(
+            mockActivity,
+            null,
+            mockImageResizer,
+            mockVideoTranscoder,
+            null,
+            null,
+            cache,
+            mockPermissionManager,
+            mockIntentResolver,
+            mockFileUriResolver,
+            mockFileUtils,
+            directExecutor,
+            new Executor() {
+              @Override
+              public void execute(Runnable runnable) {
+                mainThreadTasks.add(runnable);
+              }
+            });
+
+    delegate.retrieveLostImage(mockResult);
+
+    verifyNoMoreInteractions(mockResult);
+    assertThat(mainThreadTasks.size(), equalTo(1));
+    mainThreadTasks.get(0).run();
+    verify(mockResult).success(lostData);
+    assertThat(lostData.get(ImagePickerCache.MAP_KEY_PATH), equalTo((Object) "scaledPath"));
+  }
+
   private ImagePickerDelegate createDelegate() {
     return new ImagePickerDelegate(
         mockActivity,
         null,
         mockImageResizer,
+        mockVideoTranscoder,
         null,
         null,
         cache,
         mockPermissionManager,
         mockIntentResolver,
         mockFileUriResolver,
-        mockFileUtils);
+        mockFileUtils,
+        directExecutor,
+        directExecutor);
   }
 
   private ImagePickerDelegate createDelegateWithPendingResultAndMethodCall() {
@@ -390,13 +617,16 @@ public class ImagePickerDelegateTest {
         mockActivity,
         null,
         mockImageResizer,
+        mockVideoTranscoder,
         mockResult,
         mockMethodCall,
         cache,
         mockPermissionManager,
         mockIntentResolver,
         mockFileUriResolver,
-        mockFileUtils);
+        mockFileUtils,
+        directExecutor,
+        directExecutor);
   }
 
   private void verifyFinishedWithAlreadyActiveError() {
@@ -0,0 +1,75 @@
+package io.flutter.plugins.imagepicker;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class ImageResizerTest {
+  @Test
+  public void calculateInSampleSize_WhenTargetIsLarger_ReturnsOne() {
+    assertThat(ImageResizer.calculateInSampleSize(100, 100, 200, 200), equalTo(1));
+  }
+
+  @Test
+  public void calculateInSampleSize_KeepsDecodedImageAtLeastAsLargeAsTarget() {
+    assertThat(ImageResizer.calculateInSampleSize(8000, 6000, 1000, 750), equalTo(8));
+    assertThat(ImageResizer.calculateInSampleSize(8000, 6000, 1001, 751), equalTo(4));
+  }
+
+  @Test
+  public void calculateInSampleSize_IsLimitedByTheSmallerRatio() {
+    assertThat(ImageResizer.calculateInSampleSize(8000, 6000, 100, 3000), equalTo(2));
+  }
+
+  @Test
+  public void scaledImageName_WhenSourcesShareAName_ReturnsDifferentNames() {
+    String camera = ImageResizer.scaledImageName("/storage/DCIM/Camera/IMG_0001.jpg");
+    String download = ImageResizer.scaledImageName("/storage/Download/IMG_0001.jpg");
+
+    assertThat(camera.equals(download), equalTo(false));
+    assertThat(camera.endsWith(".jpg"), equalTo(true));
+    assertThat(download.endsWith(".jpg"), equalTo(true));
+  }
+
+  @Test
+  public void scaledImageName_WithoutExtension_ReturnsNameWithoutExtension() {
+    assertThat(
+        ImageResizer.scaledImageName("/storage/Download/image").contains("."), equalTo(false));
+  }
+
+  @Test
+  public void encodeWithinBudget_WhenMaxQualityFits_EncodesOnce() throws Exception {
+    FakeEncoder encoder = new FakeEncoder();
+    assertThat(ImageResizer.encodeWithinBudget(encoder, 80, 10000), equalTo(80));
+    assertThat(encoder.qualities, equalTo(Arrays.asList(80)));
+  }
+
+  @Test
+  public void encodeWithinBudget_FindsHighestQualityThatFits() throws Exception {
+    FakeEncoder encoder = new FakeEncoder();
+    assertThat(ImageResizer.encodeWithinBudget(encoder, 100, 4300), equalTo(42));
+    assertThat(encoder.qualities.get(encoder.qualities.size() - 1), equalTo(42));
+  }
+
+  @Test
+  public void encodeWithinBudget_WhenNothingFits_EncodesWithLowestQuality() throws Exception {
+    FakeEncoder encoder = new FakeEncoder();
+    assertThat(ImageResizer.encodeWithinBudget(encoder, 100, 50), equalTo(0));
+    assertThat(encoder.qualities.get(encoder.qualities.size() - 1), equalTo(0));
+  }
+
+  /** Pretends that every quality step adds 100 bytes. */
+  private static class FakeEncoder implements ImageResizer.QualityEncoder {
+    final List<Integer> qualities = new ArrayList<>();
+
+    @Override
+    public long encode(int quality) {
+      qualities.add(quality);
+      return 100 + quality * 100;
+    }
+  }
+}
@@ -20,10 +20,92 @@ enum ImageSource {
   gallery,
 }
 
+/// Specifies the format a scaled image is written in.
+///
+/// Formats that the device can't encode fall back to the closest one it can:
+/// [webpLossless] is written as PNG before Android 10, and [heif] is written as
+/// JPEG on devices without a HEIF encoder, which includes all devices before
+/// Android 9, and in apps that don't depend on `androidx.heifwriter`. The
+/// extension of the returned file matches the written format.
+enum ImageFormat {
+  /// Lossy JPEG. The alpha channel is dropped.
+  jpeg,
+
+  /// Lossless PNG. `imageQuality` and `maxBytes` are ignored.
+  png,
+
+  /// Lossy WebP.
+  webp,
+
+  /// Lossless WebP. `imageQuality` and `maxBytes` are ignored.
+  webpLossless,
+
+  /// Lossy HEIF.
+  heif,
+}
+
+/// Signature for the callback that is invoked by [ImagePicker.pickMultiImage]
+/// for every picked image once it was processed.
+///
+/// `index` is the position of the image in the selection and `file` is null
+/// if the image couldn't be read. `completed` images out of `total` have been
+/// processed so far.
+typedef void MultiImageProgressHandler(
+    int index, File file, int completed, int total);
+
+/// Signature for the callback that is invoked by [ImagePicker.pickVideo]
+/// while a picked video is transcoded, with `progress` between 0 and 1.
+typedef void VideoProgressHandler(double progress);
+
+/// Limits that a video picked with [ImagePicker.pickVideo] has to fit in.
+///
+/// A video that exceeds `maxWidth`, `maxHeight` or `maxBitrate` is re-encoded
+/// to H.264, keeping its aspect ratio. A video that is longer than
+/// `maxDuration` is cut to that duration. Limits that are null are not
+/// enforced.
+///
+/// Only videos whose audio is AAC can be transcoded, others fail with a
+/// `transcode_failed` error.
+class VideoConstraints {
+  const VideoConstraints(
+      {this.maxWidth, this.maxHeight, this.maxBitrate, this.maxDuration})
+      : assert(maxWidth == null || maxWidth > 0),
+        assert(maxHeight == null || maxHeight > 0),
+        assert(maxBitrate == null || maxBitrate > 0);
+
+  /// The maximum width of the video in pixels.
+  final int maxWidth;
+
+  /// The maximum height of the video in pixels.
+  final int maxHeight;
+
+  /// The maximum bitrate of the video track in bits per second.
+  final int maxBitrate;
+
+  /// The maximum duration of the video.
+  final Duration maxDuration;
+
+  Map<String, dynamic> _toMap() {
+    return <String, dynamic>{
+      'maxWidth': maxWidth,
+      'maxHeight': maxHeight,
+      'maxBitrate': maxBitrate,
+      'maxDurationMillis': maxDuration?.inMilliseconds,
+    };
+  }
+}
+
 class ImagePicker {
   static const MethodChannel _channel =
       MethodChannel('plugins.flutter.io/image_picker');
 
+  static final Map<int, MultiImageProgressHandler> _multiImageHandlers =
+      <int, MultiImageProgressHandler>{};
+  static final Map<int, VideoProgressHandler> _videoProgressHandlers =
+      <int, VideoProgressHandler>{};
+  static int _nextHandle = 0;
+  static bool _initialized = false;
+
   /// Returns a [File] object pointing to the image that was picked.
   ///
   /// The `source` argument controls where the image comes from. This can
@@ -38,13 +120,22 @@ class ImagePicker {
   /// image types such as JPEG. If compression is not supported for the image that is picked,
   /// an warning message will be logged.
   ///
+  /// If `outputFormat` is specified, the image is written in that format.
+  /// Otherwise images with transparency are written as PNG and all others as
+  /// JPEG. If `maxBytes` is specified, the highest quality up to `imageQuality`
+  /// whose file fits in `maxBytes` is searched for. If the image doesn't fit at
+  /// any quality, it is returned at the lowest quality. `outputFormat` and
+  /// `maxBytes` are currently only supported on Android.
+  ///
   /// In Android, the MainActivity can be destroyed for various reasons. If that happens, the result will be lost
   /// in this call. You can then call [retrieveLostData] when your app relaunches to retrieve the lost data.
   static Future<File> pickImage(
       {@required ImageSource source,
       double maxWidth,
       double maxHeight,
-      int imageQuality}) async {
+      int imageQuality,
+      ImageFormat outputFormat,
+      int maxBytes}) async {
     assert(source != null);
     assert(imageQuality == null || (imageQuality >= 0 && imageQuality <= 100));
 
@@ -56,37 +147,148 @@ class ImagePicker {
       throw ArgumentError.value(maxHeight, 'maxHeight cannot be negative');
     }
 
+    if (maxBytes != null && maxBytes <= 0) {
+      throw ArgumentError.value(maxBytes, 'maxBytes must be positive');
+    }
+
     final String path = await _channel.invokeMethod<String>(
       'pickImage',
       <String, dynamic>{
         'source': source.index,
         'maxWidth': maxWidth,
         'maxHeight': maxHeight,
-        'imageQuality': imageQuality
+        'imageQuality': imageQuality,
+        'outputFormat': outputFormat?.index,
+        'maxBytes': maxBytes
       },
     );
 
     return path == null ? null : File(path);
   }
 
+  /// Returns a list of [File] objects pointing to the images that were picked
+  /// from the gallery, in the order they were selected.
+  ///
+  /// `maxWidth`, `maxHeight`, `imageQuality`, `outputFormat` and `maxBytes`
+  /// are applied to every image like in [pickImage]. The images are processed in parallel, and
+  /// `onImage` is invoked for each of them as soon as it is ready. Images that
+  /// couldn't be read are left out of the returned list.
+  ///
+  /// Returns null if the user canceled the selection. On platforms that can't
+  /// select several images at once, the list contains a single image.
+  ///
+  /// Currently only supported on Android. Unlike [pickImage], the result can't
+  /// be recovered with [retrieveLostData].
+  static Future<List<File>> pickMultiImage(
+      {double maxWidth,
+      double maxHeight,
+      int imageQuality,
+      ImageFormat outputFormat,
+      int maxBytes,
+      MultiImageProgressHandler onImage}) async {
+    assert(imageQuality == null || (imageQuality >= 0 && imageQuality <= 100));
+
+    if (maxWidth != null && maxWidth < 0) {
+      throw ArgumentError.value(maxWidth, 'maxWidth cannot be negative');
+    }
+
+    if (maxHeight != null && maxHeight < 0) {
+      throw ArgumentError.value(maxHeight, 'maxHeight cannot be negative');
+    }
+
+    if (maxBytes != null && maxBytes <= 0) {
+      throw ArgumentError.value(maxBytes, 'maxBytes must be positive');
+    }
+
+    _ensureInitialized();
+    final int handle = _nextHandle++;
+    if (onImage != null) {
+      _multiImageHandlers[handle] = onImage;
+    }
+    try {
+      final List<String> paths = await _channel.invokeListMethod<String>(
+        'pickMultiImage',
+        <String, dynamic>{
+          'handle': handle,
+          'maxWidth': maxWidth,
+          'maxHeight': maxHeight,
+          'imageQuality': imageQuality,
+          'outputFormat': outputFormat?.index,
+          'maxBytes': maxBytes
+        },
+      );
+      return paths
+          ?.map<File>((String path) => File(path))
+          ?.toList(growable: false);
+    } finally {
+      _multiImageHandlers.remove(handle);
+    }
+  }
+
+  static void _ensureInitialized() {
+    if (!_initialized) {
+      _channel.setMethodCallHandler(_handleMethodCall);
+      _initialized = true;
+    }
+  }
+
+  static Future<void> _handleMethodCall(MethodCall call) async {
+    switch (call.method) {
+      case 'multiImageProgress':
+        final MultiImageProgressHandler handler =
+            _multiImageHandlers[call.arguments['handle']];
+        if (handler != null) {
+          final String path = call.arguments['path'];
+          handler(call.arguments['index'], path == null ? null : File(path),
+              call.arguments['completed'], call.arguments['total']);
+        }
+        break;
+      case 'videoTranscodeProgress':
+        final VideoProgressHandler handler =
+            _videoProgressHandlers[call.arguments['handle']];
+        if (handler != null) {
+          handler(call.arguments['progress']);
+        }
+        break;
+    }
+  }
+
   /// Returns a [File] object pointing to the video that was picked.
   ///
   /// The [source] argument controls where the video comes from. This can
   /// be either [ImageSource.camera] or [ImageSource.gallery].
   ///
+  /// If `constraints` are specified, the video is transcoded on the device
+  /// until it fits them, and `onProgress` is invoked as the transcoding
+  /// advances. Transcoding is currently only supported on Android 4.3 and
+  /// above, other platforms return the original video.
+  ///
   /// In Android, the MainActivity can be destroyed for various fo reasons. If that happens, the result will be lost
   /// in this call. You can then call [retrieveLostData] when your app relaunches to retrieve the lost data.
   static Future<File> pickVideo({
     @required ImageSource source,
+    VideoConstraints constraints,
+    VideoProgressHandler onProgress,
   }) async {
     assert(source != null);
-    final String path = await _channel.invokeMethod<String>(
-      'pickVideo',
-      <String, dynamic>{
-        'source': source.index,
-      },
-    );
-    return path == null ? null : File(path);
+    _ensureInitialized();
+    final int handle = _nextHandle++;
+    if (onProgress != null) {
+      _videoProgressHandlers[handle] = onProgress;
+    }
+    try {
+      final String path = await _channel.invokeMethod<String>(
+        'pickVideo',
+        <String, dynamic>{
+          'source': source.index,
+          'handle': handle,
+          'videoConstraints': constraints?._toMap(),
+        },
+      );
+      return path == null ? null : File(path);
+    } finally {
+      _videoProgressHandlers.remove(handle);
+    }
   }
 
   /// Retrieve the lost image file when [pickImage] or [pickVideo] failed because the  MainActivity is destroyed. (Android only)
@@ -2,6 +2,9 @@
 // Use of this source code is governed by a BSD-style license that can be
 // found in the LICENSE file.
 
+import 'dart:io';
+import 'dart:typed_data';
+
 import 'package:flutter/services.dart';
 import 'package:flutter_test/flutter_test.dart';
 import 'package:image_picker/image_picker.dart';
@@ -34,13 +37,17 @@ void main() {
               'source': 0,
               'maxWidth': null,
               'maxHeight': null,
-              'imageQuality': null
+              'imageQuality': null,
+              'outputFormat': null,
+              'maxBytes': null
             }),
             isMethodCall('pickImage', arguments: <String, dynamic>{
               'source': 1,
               'maxWidth': null,
               'maxHeight': null,
-              'imageQuality': null
+              'imageQuality': null,
+              'outputFormat': null,
+              'maxBytes': null
             }),
           ],
         );
@@ -78,43 +85,78 @@ void main() {
               'source': 0,
               'maxWidth': null,
               'maxHeight': null,
-              'imageQuality': null
+              'imageQuality': null,
+              'outputFormat': null,
+              'maxBytes': null
             }),
             isMethodCall('pickImage', arguments: <String, dynamic>{
               'source': 0,
               'maxWidth': 10.0,
               'maxHeight': null,
-              'imageQuality': null
+              'imageQuality': null,
+              'outputFormat': null,
+              'maxBytes': null
             }),
             isMethodCall('pickImage', arguments: <String, dynamic>{
               'source': 0,
               'maxWidth': null,
               'maxHeight': 10.0,
-              'imageQuality': null
+              'imageQuality': null,
+              'outputFormat': null,
+              'maxBytes': null
             }),
             isMethodCall('pickImage', arguments: <String, dynamic>{
               'source': 0,
               'maxWidth': 10.0,
               'maxHeight': 20.0,
-              'imageQuality': null
+              'imageQuality': null,
+              'outputFormat': null,
+              'maxBytes': null
             }),
             isMethodCall('pickImage', arguments: <String, dynamic>{
               'source': 0,
               'maxWidth': 10.0,
               'maxHeight': null,
-              'imageQuality': 70
+              'imageQuality': 70,
+              'outputFormat': null,
+              'maxBytes': null
             }),
             isMethodCall('pickImage', arguments: <String, dynamic>{
               'source': 0,
               'maxWidth': null,
               'maxHeight': 10.0,
-              'imageQuality': 70
+              'imageQuality': 70,
+              'outputFormat': null,
+              'maxBytes': null
             }),
             isMethodCall('pickImage', arguments: <String, dynamic>{
               'source': 0,
               'maxWidth': 10.0,
               'maxHeight': 20.0,
-              'imageQuality': 70
+              'imageQuality': 70,
+              'outputFormat': null,
+              'maxBytes': null
+            }),
+          ],
+        );
+      });
+
+      test('passes the output format and byte budget', () async {
+        await ImagePicker.pickImage(
+            source: ImageSource.gallery,
+            outputFormat: ImageFormat.webp,
+            maxBytes: 200000);
+
+        expect(
+          log,
+          <Matcher>[
+            isMethodCall('pickImage', arguments: <String, dynamic>{
+              'source': 1,
+              'maxWidth': null,
+              'maxHeight': null,
+              'imageQuality': null,
+              'outputFormat': 2,
+              'maxBytes': 200000
             }),
           ],
         );
@@ -141,6 +183,121 @@ void main() {
       });
     });
 
+    group('#pickMultiImage', () {
+      test('passes the arguments and returns the picked files', () async {
+        channel.setMockMethodCallHandler((MethodCall methodCall) async {
+          log.add(methodCall);
+          return <String>['/example/a.jpg', '/example/b.jpg'];
+        });
+
+        final List<File> files = await ImagePicker.pickMultiImage(
+            maxWidth: 10.0,
+            maxHeight: 20.0,
+            imageQuality: 70,
+            outputFormat: ImageFormat.heif);
+
+        expect(log.single.method, 'pickMultiImage');
+        expect(log.single.arguments['handle'], isNotNull);
+        expect(log.single.arguments['maxWidth'], 10.0);
+        expect(log.single.arguments['maxHeight'], 20.0);
+        expect(log.single.arguments['imageQuality'], 70);
+        expect(log.single.arguments['outputFormat'], 4);
+        expect(log.single.arguments['maxBytes'], isNull);
+        expect(files.map((File file) => file.path),
+            <String>['/example/a.jpg', '/example/b.jpg']);
+      });
+
+      test('reports every processed image', () async {
+        channel.setMockMethodCallHandler((MethodCall methodCall) async {
+          for (int index = 0; index < 2; index++) {
+            // TODO(hterkelsen): Remove this when defaultBinaryMessages is in stable.
+            // https://github.com/flutter/flutter/issues/33446
+            // ignore: deprecated_member_use
+            await BinaryMessages.handlePlatformMessage(
+              channel.name,
+              channel.codec.encodeMethodCall(
+                  MethodCall('multiImageProgress', <String, dynamic>{
+                'handle': methodCall.arguments['handle'],
+                'index': index,
+                'path': index == 0 ? '/example/a.jpg' : null,
+                'completed': index + 1,
+                'total': 2,
+              })),
+              (ByteData data) {},
+            );
+          }
+          return <String>['/example/a.jpg'];
+        });
+
+        final List<String> progress = <String>[];
+        await ImagePicker.pickMultiImage(
+            onImage: (int index, File file, int completed, int total) {
+          progress.add('$index ${file?.path} $completed/$total');
+        });
+
+        expect(progress, <String>['0 /example/a.jpg 1/2', '1 null 2/2']);
+      });
+
+      test('handles a null response gracefully', () async {
+        channel.setMockMethodCallHandler((MethodCall methodCall) => null);
+
+        expect(await ImagePicker.pickMultiImage(), isNull);
+      });
+    });
+
+    group('#pickVideo', () {
+      test('passes the source and the constraints', () async {
+        await ImagePicker.pickVideo(source: ImageSource.camera);
+        await ImagePicker.pickVideo(
+            source: ImageSource.gallery,
+            constraints: const VideoConstraints(
+                maxWidth: 640,
+                maxBitrate: 1000000,
+                maxDuration: Duration(seconds: 30)));
+
+        expect(log.length, 2);
+        expect(log[0].method, 'pickVideo');
+        expect(log[0].arguments['source'], 0);
+        expect(log[0].arguments['videoConstraints'], isNull);
+        expect(log[1].arguments['source'], 1);
+        expect(log[1].arguments['videoConstraints'], <String, dynamic>{
+          'maxWidth': 640,
+          'maxHeight': null,
+          'maxBitrate': 1000000,
+          'maxDurationMillis': 30000,
+        });
+      });
+
+      test('reports the transcoding progress', () async {
+        channel.setMockMethodCallHandler((MethodCall methodCall) async {
+          for (double progress in <double>[0.5, 1.0]) {
+            // TODO(hterkelsen): Remove this when defaultBinaryMessages is in stable.
+            // https://github.com/flutter/flutter/issues/33446
+            // ignore: deprecated_member_use
+            await BinaryMessages.handlePlatformMessage(
+              channel.name,
+              channel.codec.encodeMethodCall(
+                  MethodCall('videoTranscodeProgress', <String, dynamic>{
+                'handle': methodCall.arguments['handle'],
+                'progress': progress,
+              })),
+              (ByteData data) {},
+            );
+          }
+          return '/example/transcoded.mp4';
+        });
+
+        final List<double> progress = <double>[];
+        final File file = await ImagePicker.pickVideo(
+            source: ImageSource.gallery,
+            constraints: const VideoConstraints(maxHeight: 480),
+            onProgress: progress.add);
+
+        expect(progress, <double>[0.5, 1.0]);
+        expect(file.path, '/example/transcoded.mp4');
+      });
+    });
+
     group('#retrieveLostData', () {
       test('retrieveLostData get success response', () async {
         channel.setMockMethodCallHandler((MethodCall methodCall) async {